@@ -35,7 +35,9 @@ CREATE TABLE instructors (
   instructor_id   BIGINT       NOT NULL,
   department      VARCHAR(32)  NOT NULL,
   instructor_name VARCHAR(128) NOT NULL,
+  updated_at      TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),  -- catalog delta refresh
   PRIMARY KEY (instructor_id),
+  KEY idx_instructors_updated (updated_at),
   CONSTRAINT fk_instructor_auth
     FOREIGN KEY (instructor_id)
     REFERENCES auth_db.users_auth(user_id)
@@ -50,8 +52,10 @@ CREATE TABLE courses (
   code      VARCHAR(16)  NOT NULL,
   title     VARCHAR(256) NOT NULL,
   credits   INT          NOT NULL,
+  updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),  -- catalog delta refresh
   PRIMARY KEY (course_id),
-  KEY idx_courses_code (code)
+  KEY idx_courses_code (code),
+  KEY idx_courses_updated (updated_at)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
 
 -- ─────────────────────────────────────────
@@ -66,7 +70,10 @@ CREATE TABLE sections (
   capacity      INT         NOT NULL,
   semester      VARCHAR(32) NOT NULL,
   year          INT         NOT NULL,
+  seats_taken   INT         NOT NULL DEFAULT 0,  -- seat ledger, see SeatReservationEngine
+  updated_at    TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),  -- catalog delta refresh
   PRIMARY KEY (section_id),
+  KEY idx_sections_updated  (updated_at),
   KEY fk_section_course     (course_id),
   KEY fk_section_instructor (instructor_id),
   CONSTRAINT fk_section_course
@@ -102,10 +109,12 @@ CREATE TABLE enrollments (
   section_id    INT         NOT NULL,
   status        ENUM('REGISTERED','DROPPED') NOT NULL DEFAULT 'REGISTERED',
   final_grade   VARCHAR(8)  NULL,
+  updated_at    TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),  -- incremental backup
   PRIMARY KEY (enrollment_id),
   UNIQUE KEY uq_student_section (student_id, section_id),
   KEY idx_enr_student (student_id),
   KEY idx_enr_section (section_id),
+  KEY idx_enr_updated (updated_at),
   CONSTRAINT fk_enr_student
     FOREIGN KEY (student_id) REFERENCES students(student_id)
     ON UPDATE CASCADE ON DELETE CASCADE,
@@ -124,9 +133,12 @@ CREATE TABLE grades (
   enrollment_id INT NOT NULL,
   component_id  INT NOT NULL,
   score         DOUBLE NULL,
+  updated_at    TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),  -- incremental backup
   PRIMARY KEY (grade_id),
+  UNIQUE KEY uq_grades_enrollment_component (enrollment_id, component_id),  -- bulk grade save upserts on this
   KEY idx_grades_enrollment (enrollment_id),
   KEY idx_grades_component  (component_id),
+  KEY idx_grades_updated    (updated_at),
   CONSTRAINT fk_grades_enrollment
     FOREIGN KEY (enrollment_id) REFERENCES enrollments(enrollment_id)
     ON UPDATE CASCADE ON DELETE CASCADE,
@@ -135,6 +147,19 @@ CREATE TABLE grades (
     ON UPDATE CASCADE ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
 
+-- ─────────────────────────────────────────
+-- COURSE STATS  (catalog summary, maintained by the app)
+-- ─────────────────────────────────────────
+CREATE TABLE course_stats (
+  course_id      VARCHAR(32)   NOT NULL,
+  total_capacity INT           NOT NULL DEFAULT 0,
+  registered     INT           NOT NULL DEFAULT 0,
+  instructors    VARCHAR(1024) NULL,
+  updated_at     TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  PRIMARY KEY (course_id),
+  KEY idx_course_stats_updated (updated_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
 -- ─────────────────────────────────────────
 -- SETTINGS  (CSV: setting_key,setting_value)
 -- ─────────────────────────────────────────
@@ -218,4 +243,25 @@ LINES TERMINATED BY '\n'
 IGNORE 1 LINES
 (setting_key, setting_value);
 
+-- ─────────────────────────────────────────
+-- SEAT LEDGER BACKFILL
+-- ─────────────────────────────────────────
+UPDATE sections s
+   SET s.seats_taken = (SELECT COUNT(*) FROM enrollments e
+                         WHERE e.section_id = s.section_id
+                           AND e.status = 'REGISTERED');
+
+-- ─────────────────────────────────────────
+-- COURSE STATS BACKFILL
+-- ─────────────────────────────────────────
+INSERT INTO course_stats (course_id, total_capacity, registered, instructors)
+SELECT c.course_id,
+       COALESCE(SUM(s.capacity), 0),
+       COALESCE(SUM(s.seats_taken), 0),
+       GROUP_CONCAT(DISTINCT i.instructor_name ORDER BY i.instructor_name SEPARATOR ', ')
+  FROM courses c
+  LEFT JOIN sections s    ON s.course_id = c.course_id
+  LEFT JOIN instructors i ON i.instructor_id = s.instructor_id
+ GROUP BY c.course_id;
+
 SET FOREIGN_KEY_CHECKS = 1;
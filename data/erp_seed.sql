@@ -236,6 +236,72 @@ LOCK TABLES `students` WRITE;
 INSERT INTO `students` VALUES ('AB24500',2024500,'A B','CSE',1),('evani24210',2024210,'EVANI MENON','CSB',2024),('faizan24211',2024211,'FAIZAN C.','CSSS',2024),('fardeen24212',2024212,'FARDEEN M.','CSB',2024),('gagan24213',2024213,'GAGAN K.','ECE',2024),('gagandeep24214',2024214,'GAGANDEEP S.','CSAM',2024),('garv24215',2024215,'GARV a.','ECE',2024),('garv24216',2024216,'GARV J.','CSE',2024),('garvit24217',2024217,'GARVIT r.','CSD',2024),('gauranshi24218',2024218,'GAURANSHI G.','CSSS',2024),('gaurav24220',2024220,'GAURAV B.','CSE',2024),('gaurav24221',2024221,'GAURAV J.','CSE',2024),('gaurav24222',2024222,'GAURAV Y.','CSAM',2024),('gerick24223',2024223,'GERICK R.','CSAI',2024),('goyam24224',2024224,'GOYAM J.','CSE',2024),('hansika24225',2024225,'HANSIKA S.','CSE',2024),('hanzala24226',2024226,'HANZALA A.','CSB',2024),('hardik24227',2024227,'HARDIK','CSAM',2024),('hardik24228',2024228,'HARDIK G.','CSE',2024),('hariom24229',2024229,'HARIOM K.','CSE',2024),('harsh24232',2024232,'HARSH','CSE',2024),('harsh24233',2024233,'HARSH','CSAM',2024),('harsh24234',2024234,'HARSH','CSAM',2024),('harsh24235',2024235,'HARSH','CSB',2024),('harsh24236',2024236,'HARSH B.','CSAI',2024),('harsh24237',2024237,'HARSH K.','CSE',2024),('harsh24238',2024238,'HARSH K.','ECE',2024),('harsh24239',2024239,'HARSH K.','CSAM',2024),('harsh24240',2024240,'HARSH N.','CSE',2024),('harsh24241',2024241,'HARSH P.','CSAI',2024),('harsh24242',2024242,'Harsh S.','EVE',2024),('harshit24243',2024243,'HARSHIT B.','CSD',2024),('harshit24244',2024244,'HARSHIT D.','CSD',2024),('harshit24246',2024246,'HARSHIT K.','CSB',2024),('harshit24247',2024247,'HARSHIT K.','EVE',2024),('harshit24248',2024248,'HARSHIT K.','CSB',2024),('harshit24250',2024250,'HARSHIT S.','CSB',2024),('harshita24251',2024251,'HARSHITA','CSE',2024),('harshmeet24252',2024252,'HARSHMEET S.','ECE',2024),('harshul24253',2024253,'HARSHUL K.','CSD',2024),('harshul24254',2024254,'HARSHUL T.','EVE',2024),('harshvardhan24255',2024255,'HARSHVARDHAN M.','EVE',2024),('hemanshu24256',2024256,'HEMANSHU Y.','EVE',2024),('hemanth24257',2024257,'HEMANTH S.','CSE',2024),('hemendra24258',2024258,'HEMENDRA  P.','CSSS',2024),('herumb24259',2024259,'HERUMB S.','CSAM',2024),('himanshu24261',2024261,'HIMANSHU','CSE',2024),('hiten24263',2024263,'HITEN B.','CSE',2024),('hritang24264',2024264,'HRITANG  S.','CSD',2024),('iaikansh24265',2024265,'IAIKANSH B.','CSSS',2024),('ishaan24266',2024266,'ISHAAN A.','CSE',2024),('ishaan24267',2024267,'ISHAAN D.','CSAI',2024),('ishank24268',2024268,'ISHANK C.','CSAM',2024),('ishant24269',2024269,'ISHANT G.','CSAI',2024),('ishika24270',2024270,'ISHIKA D.','CSE',2024),('isobel24271',2024271,'ISOBEL K.','CSE',2024),('jagjot24272',2024272,'JAGJOT  S.','CSSS',2024),('jagrit24273',2024273,'JAGRIT K.','CSSS',2024),('jahanvi24274',2024274,'JAHANVI K.','ECE',2024),('jai24275',2024275,'JAI A.','CSAM',2024),('jai24276',2024276,'JAI B.','EVE',2024),('janisha24277',2024277,'JANISHA M.','CSAM',2024),('jas24278',2024278,'JAS K.','CSD',2024),('jatin24279',2024279,'JATIN P.','CSAM',2024),('jayant24280',2024280,'JAYANT','CSSS',2024),('jayant24281',2024281,'JAYANT G.','CSSS',2024),('jayant24282',2024282,'JAYANT R.','CSAM',2024),('jazl24283',2024283,'JAZL A.','CSE',2024),('jitender24284',2024284,'JITENDER B.','EVE',2024),('jitesh24285',2024285,'JITESH','EVE',2024),('jivansh24286',2024286,'Jivansh K.','CSD',2024),('joban24287',2024287,'JOBAN S.','CSSS',2024),('jyotiraditya24288',2024288,'JYOTIRADITYA','CSD',2024),('jyotirmaya24289',2024289,'JYOTIRMAYA S.','CSE',2024),('kabeer24290',2024290,'KABEER','ECE',2024),('kanak24291',2024291,'KANAK  G.','CSSS',2024),('kanishk24292',2024292,'KANISHK G.','CSAI',2024),('karan24293',2024293,'KARAN S.','CSD',2024),('karanveer24294',2024294,'KARANVEER S.','CSE',2024),('kartik24295',2024295,'KARTIK K.','EVE',2024),('kartik24296',2024296,'KARTIK T.','CSSS',2024),('kartik24297',2024297,'KARTIK Y.','CSD',2024),('kartikeya24298',2024298,'Kartikeya S.','CSB',2024),('keshav24299',2024299,'KESHAV K.','CSB',2024),('keshav24300',2024300,'KESHAV S.','CSAI',2024),('khushal24301',2024301,'KHUSHAL Y.','CSAM',2024),('kirat24303',2024303,'KIRAT G.','CSAM',2024),('krish24304',2024304,'KRISH','CSSS',2024),('krish24305',2024305,'KRISH B.','CSD',2024),('krish24306',2024306,'KRISH P.','ECE',2024),('krishang24307',2024307,'KRISHANG S.','EVE',2024),('krishiv24308',2024308,'KRISHIV V.','CSE',2024),('krishna24309',2024309,'KRISHNA G.','CSAM',2024),('krishna24310',2024310,'KRISHNA K.','EVE',2024),('krishna24311',2024311,'KRISHNA S.','CSE',2024),('krishna24312',2024312,'KRISHNA S.','CSE',2024),('kunal24313',2024313,'KUNAL B.','CSE',2024),('kushagra24314',2024314,'KUSHAGRA A.','CSE',2024),('kushav24316',2024316,'KUSHAV N.','CSAM',2024),('lakshay24317',2024317,'LAKSHAY','ECE',2024),('lakshay24318',2024318,'LAKSHAY G.','CSD',2024),('leelansh24319',2024319,'LEELANSH K.','ECE',2024),('lucky24320',2024320,'LUCKY S.','ECE',2024),('luvya24321',2024321,'LUVYA N.','CSD',2024),('madhav24322',2024322,'MADHAV G.','CSB',2024),('madhav24323',2024323,'MADHAV R.','CSE',2024),('madhu24324',2024324,'MADHU B.','CSD',2024),('madhvesh24325',2024325,'MADHVESH K.','CSSS',2024),('mahi24326',2024326,'MAHI Y.','ECE',2024),('maloth24327',2024327,'MALOTH A.','ECE',2024),('manan24328',2024328,'MANAN K.','CSE',2024),('manan24329',2024329,'MANAN S.','ECE',2024),('manas24330',2024330,'MANAS S.','CSAI',2024),('manish24331',2024331,'MANISH A.','ECE',2024),('mankena24332',2024332,'MANKENA S.','ECE',2024),('mannat24333',2024333,'MANNAT R.','CSSS',2024),('manojna24334',2024334,'MANOJNA R.','CSE',2024),('mantavya24335',2024335,'MANTAVYA A.','CSSS',2024),('manthan24336',2024336,'MANTHAN K.','CSE',2024),('manyata24337',2024337,'MANYATA M.','CSD',2024),('mayank24338',2024338,'MAYANK A.','CSB',2024),('mayank24339',2024339,'MAYANK P.','CSAI',2024),('mayank24340',2024340,'MAYANK R.','CSE',2024),('mayank24341',2024341,'MAYANK R.','CSAM',2024),('mayank24342',2024342,'MAYANK S.','CSD',2024),('mayank24343',2024343,'MAYANK Y.','CSE',2024),('md24344',2024344,'MD A.','CSD',2024),('meera24345',2024345,'Meera I.','CSD',2024),('mehardeep24346',2024346,'MEHARDEEP S.','CSE',2024),('mihir24347',2024347,'MIHIR J.','CSE',2024),('mithil24348',2024348,'MITHIL K.','CSAM',2024),('mohak24349',2024349,'MOHAK G.','ECE',2024),('mohammdd24350',2024350,'ZAID A.','EVE',2024),('mohd24351',2024351,'MOHD A.','ECE',2024),('mohd24352',2024352,'MOHD F.','CSD',2024),('mohd24353',2024353,'MOHD Z.','CSAM',2024),('mohit24354',2024354,'MOHIT G.','ECE',2024),('mohit24355',2024355,'Mohit P.','CSE',2024),('mridul24356',2024356,'MRIDUL V.','CSSS',2024),('mritunjay24357',2024357,'MRITUNJAY K.','CSB',2024),('mrityunjai24358',2024358,'MRITYUNJAI P.','CSSS',2024),('mukul24359',2024359,'MUKUL','CSE',2024),('mukul24360',2024360,'MUKUL','CSAI',2024),('nakul24361',2024361,'NAKUL Z.','CSAM',2024),('nalin24362',2024362,'NALIN G.','CSAM',2024),('naman24363',2024363,'NAMAN  C.','CSSS',2024),('naman24364',2024364,'NAMAN B.','CSE',2024),('naman24365',2024365,'NAMAN D.','EVE',2024),('naman24366',2024366,'NAMAN G.','CSAI',2024),('naman24367',2024367,'NAMAN G.','EVE',2024),('naman24368',2024368,'NAMAN G.','CSE',2024),('namish24369',2024369,'NAMISH B.','CSAI',2024),('nandika24371',2024371,'NANDIKA  ROUTRAY','CSD',2024),('stu1',1,'Student 1','CSB',2024),('stu2',2,'Student 2','CSD',2024);
 /*!40000 ALTER TABLE `students` ENABLE KEYS */;
 UNLOCK TABLES;
+
+--
+-- Seat ledger: per-section counter used by SeatReservationEngine
+--
+
+ALTER TABLE `sections` ADD COLUMN `seats_taken` int NOT NULL DEFAULT 0;
+UPDATE `sections` s
+   SET s.`seats_taken` = (SELECT COUNT(*) FROM `enrollments` e
+                           WHERE e.`section_id` = s.`section_id`
+                             AND e.`status` = 'REGISTERED');
+
+--
+-- Course stats: per-course catalog summary maintained by erp.ui.student.CourseStats
+--
+
+DROP TABLE IF EXISTS `course_stats`;
+CREATE TABLE `course_stats` (
+  `course_id` varchar(64) NOT NULL,
+  `total_capacity` int NOT NULL DEFAULT 0,
+  `registered` int NOT NULL DEFAULT 0,
+  `instructors` varchar(1024) DEFAULT NULL,
+  `updated_at` timestamp(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  PRIMARY KEY (`course_id`),
+  KEY `idx_course_stats_updated` (`updated_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+INSERT INTO `course_stats` (`course_id`, `total_capacity`, `registered`, `instructors`)
+SELECT c.`course_id`,
+       COALESCE(SUM(s.`capacity`), 0),
+       COALESCE(SUM(s.`seats_taken`), 0),
+       GROUP_CONCAT(DISTINCT i.`instructor_name` ORDER BY i.`instructor_name` SEPARATOR ', ')
+  FROM `courses` c
+  LEFT JOIN `sections` s    ON s.`course_id` = c.`course_id`
+  LEFT JOIN `instructors` i ON i.`instructor_id` = s.`instructor_id`
+ GROUP BY c.`course_id`;
+
+--
+-- Change stamps for the catalog snapshot's delta refresh (erp.ui.student.CatalogSnapshot)
+--
+
+ALTER TABLE `courses`
+  ADD COLUMN `updated_at` timestamp(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  ADD KEY `idx_courses_updated` (`updated_at`);
+ALTER TABLE `sections`
+  ADD COLUMN `updated_at` timestamp(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  ADD KEY `idx_sections_updated` (`updated_at`);
+ALTER TABLE `instructors`
+  ADD COLUMN `updated_at` timestamp(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  ADD KEY `idx_instructors_updated` (`updated_at`);
+
+--
+-- Change stamps for incremental backups (erp.db.BackupEngine)
+--
+
+ALTER TABLE `enrollments`
+  ADD COLUMN `updated_at` timestamp(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  ADD KEY `idx_enr_updated` (`updated_at`);
+ALTER TABLE `grades`
+  ADD COLUMN `updated_at` timestamp(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  ADD KEY `idx_grades_updated` (`updated_at`);
+
+--
+-- One grade per (enrollment, component) for the bulk grade save (erp.ui.instructor.GradeSaveEngine)
+--
+
+ALTER TABLE `grades`
+  ADD UNIQUE KEY `uq_grades_enrollment_component` (`enrollment_id`,`component_id`);
 /*!40103 SET TIME_ZONE=@OLD_TIME_ZONE */;
 
 /*!40101 SET SQL_MODE=@OLD_SQL_MODE */;
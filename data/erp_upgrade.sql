@@ -0,0 +1,93 @@
+-- =========================================
+-- IIITD Academic ERP - in-place upgrade for an existing erp_db
+-- Run once against a database created from an older erp_seed.sql:
+--   mysql -u root -p erp_db < data/erp_upgrade.sql
+-- Fresh installs from erp_seed.sql / erp_db.sql already include these.
+-- =========================================
+
+USE erp_db;
+
+-- ─────────────────────────────────────────
+-- SEAT LEDGER (sections.seats_taken)
+-- ─────────────────────────────────────────
+ALTER TABLE sections ADD COLUMN seats_taken INT NOT NULL DEFAULT 0;
+
+UPDATE sections s
+   SET s.seats_taken = (SELECT COUNT(*) FROM enrollments e
+                         WHERE e.section_id = s.section_id
+                           AND e.status = 'REGISTERED');
+
+-- ─────────────────────────────────────────
+-- MAINTENANCE KEY (fold legacy 'Maintenance' into 'maintenance_mode')
+-- ─────────────────────────────────────────
+INSERT IGNORE INTO settings (setting_key, setting_value)
+SELECT 'maintenance_mode',
+       IF(UPPER(TRIM(setting_value)) IN ('1', 'TRUE', 'ON'), 'ON', 'OFF')
+  FROM (SELECT setting_value FROM settings WHERE setting_key = 'Maintenance') legacy;
+
+DELETE FROM settings WHERE setting_key = 'Maintenance';
+
+-- ─────────────────────────────────────────
+-- COURSE STATS (catalog summary: capacity, registered, instructors)
+-- ─────────────────────────────────────────
+CREATE TABLE IF NOT EXISTS course_stats (
+  course_id      VARCHAR(64)   NOT NULL,
+  total_capacity INT           NOT NULL DEFAULT 0,
+  registered     INT           NOT NULL DEFAULT 0,
+  instructors    VARCHAR(1024) NULL,
+  updated_at     TIMESTAMP     NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (course_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+REPLACE INTO course_stats (course_id, total_capacity, registered, instructors)
+SELECT c.course_id,
+       COALESCE(SUM(s.capacity), 0),
+       COALESCE(SUM(s.seats_taken), 0),
+       GROUP_CONCAT(DISTINCT i.instructor_name ORDER BY i.instructor_name SEPARATOR ', ')
+  FROM courses c
+  LEFT JOIN sections s    ON s.course_id = c.course_id
+  LEFT JOIN instructors i ON i.instructor_id = s.instructor_id
+ GROUP BY c.course_id;
+
+-- ─────────────────────────────────────────
+-- CATALOG CHANGE STAMPS (delta refresh of the in-memory catalog snapshot)
+-- ─────────────────────────────────────────
+ALTER TABLE courses
+  ADD COLUMN updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  ADD KEY idx_courses_updated (updated_at);
+
+ALTER TABLE sections
+  ADD COLUMN updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  ADD KEY idx_sections_updated (updated_at);
+
+ALTER TABLE instructors
+  ADD COLUMN updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  ADD KEY idx_instructors_updated (updated_at);
+
+ALTER TABLE course_stats
+  MODIFY COLUMN updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  ADD KEY idx_course_stats_updated (updated_at);
+
+-- ─────────────────────────────────────────
+-- BACKUP CHANGE STAMPS (incremental backups: rows changed since the last one)
+-- ─────────────────────────────────────────
+ALTER TABLE enrollments
+  ADD COLUMN updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  ADD KEY idx_enr_updated (updated_at);
+
+ALTER TABLE grades
+  ADD COLUMN updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  ADD KEY idx_grades_updated (updated_at);
+
+-- ─────────────────────────────────────────
+-- GRADE KEY (one row per enrollment/component; bulk gradebook save upserts on it)
+-- ─────────────────────────────────────────
+-- keep the newest row of any duplicate pair before adding the key
+DELETE g1 FROM grades g1
+JOIN grades g2
+  ON g1.enrollment_id = g2.enrollment_id
+ AND g1.component_id  = g2.component_id
+ AND g1.grade_id      < g2.grade_id;
+
+ALTER TABLE grades
+  ADD UNIQUE KEY uq_grades_enrollment_component (enrollment_id, component_id);
@@ -1,65 +1,85 @@
 package erp.auth;
 
+import erp.auth.hash.PasswordRehasher;
+import erp.auth.hash.PasswordVerifier;
 import erp.auth.store.AuthDAO;
-import erp.db.DatabaseConnection;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * AuthService - thin service layer around AuthDAO.
- * - Uses AuthDAO.authenticate(...) to verify plaintext passwords (bcrypt).
+ * - One read per login (AuthDAO.findForLogin) brings back hash, role, lock
+ *   state, failed attempts and last_login; one write records the outcome.
+ * - Repeated failures and locked accounts are answered from
+ *   LoginAttemptTracker without touching the DB.
+ * - bcrypt runs on PasswordVerifier's bounded pool; when it is saturated the
+ *   login is turned away without counting as a failed attempt.
+ * - Hashes at a cost other than PasswordUtil.targetWorkFactor() are
+ *   re-hashed in the background after a successful login.
  * - Returns a Session containing userId, username and role.
  * - Does not leak whether username exists; returns generic AuthException on failure.
  */
 
 public class AuthService {
     private static final Logger LOGGER = Logger.getLogger(AuthService.class.getName());
-    
+
+    private static final int LOCK_MINUTES = (int) (LoginAttemptTracker.LOCK_MILLIS / 60_000L);
+
+    private final LoginAttemptTracker attempts = LoginAttemptTracker.get();
+
     public Session login(String username, String password) throws AuthException {
         if (username == null || username.isBlank()) throw new AuthException("Incorrect username or password.");
         if (password == null) throw new AuthException("Incorrect username or password.");
-        int wa = getWrongAttempts(username);
-        int attempts_left = 5-wa;
-        try {
-            // Authenticate first (returns boolean). This avoids exposing hash handling.
-            boolean ok = AuthDAO.authenticate(username.trim(), password);
+        String user = username.trim();
 
-            if (!ok) {
-                // generic error for wrong creds
-                throw new AuthException("Incorrect username or password. " + attempts_left + " attempts left.");
-            }
+        if (attempts.isLocked(user)) {
+            throw new AccountLockedException("Account is locked. Try again later.");
+        }
 
-            // Fetch the row to get userId and role for session (row must exist because authenticate succeeded)
-            var row = AuthDAO.findByUsername(username.trim());
-            if (row == null) {
-                // Extremely unlikely (race), but treat as auth failure
-                LOGGER.log(Level.WARNING, "Authenticated user not found afterwards: {0}", username);
-                throw new AuthException("Incorrect username or password. " + attempts_left + " attempts left.");
-            }
+        AuthDAO.LoginRow row;
+        try {
+            row = AuthDAO.findForLogin(user);
+        } catch (SQLException ex) {
+            LOGGER.log(Level.SEVERE, "Database error during login for user=" + user, ex);
+            throw new AuthException(badCredentials(attempts.failures(user)));
+        }
 
-            // Best-effort: update last_login; log failures but do not block login
-            try {
-                AuthDAO.updateLastLogin(row.userId());
-            } catch (SQLException ex) {
-                LOGGER.log(Level.WARNING, "Failed to update last_login for userId=" + row.userId(), ex);
+        if (row != null) {
+            // first login goes straight to the change-password screen
+            if (row.isFirstLogin()) {
+                throw new FirstLoginException(row.username());
+            }
+            attempts.sync(user, row.failedAttempts(), row.lockRemainingMillis());
+            if (row.isLocked()) {
+                throw new AccountLockedException("Account is locked. Try again later.");
             }
+        }
 
-            // Build and return session
-            return new Session(row.userId(), row.username(), row.role());
+        boolean ok;
+        try {
+            ok = row != null && checkPassword(password, row);
+        } catch (PasswordVerifier.SaturatedException ex) {
+            // not the user's fault: don't count it as a failed attempt
+            LOGGER.log(Level.WARNING, "Login for user={0} shed: {1}", new Object[] { user, ex.getMessage() });
+            throw new AuthException("Too many sign-in requests right now. Please try again in a moment.");
+        }
+        if (!ok) {
+            throw onFailure(user, row);
+        }
 
+        attempts.reset(user);
+        // stored hash made at an old cost: migrate it in the background
+        PasswordRehasher.maybeRehash(row.userId(), password, row.hash());
+        // Best-effort: one write for last_login + attempt reset; log failures but do not block login
+        try {
+            AuthDAO.recordLoginSuccess(row.userId());
         } catch (SQLException ex) {
-            LOGGER.log(Level.SEVERE, "Database error during login for user=" + username, ex);
-            throw new AuthException("Incorrect username or password. " + attempts_left + " attempts left.");
-        } 
-        catch (Exception ex) {
-            LOGGER.log(Level.SEVERE, "Unexpected error during login for user=" + username, ex);
-            throw new AuthException("Incorrect username or password. " + attempts_left + " attempts left.");
+            LOGGER.log(Level.WARNING, "Failed to record login for userId=" + row.userId(), ex);
         }
+
+        return new Session(row.userId(), row.username(), row.role());
     }
 
     public static record Session(long userId, String username, String role) {}
@@ -68,18 +88,58 @@ public class AuthService {
         public AuthException(String m) { super(m); }
     }
 
-    private int getWrongAttempts(String usr) {
-        String sql = "SELECT failed_attempts FROM users_auth WHERE username = ?";
-        try (Connection conn = DatabaseConnection.auth().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, usr);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("failed_attempts");
+    /** Account is (or has just become) locked after too many failures. */
+    public static class AccountLockedException extends AuthException {
+        public AccountLockedException(String m) { super(m); }
+    }
+
+    /** User has never logged in; the password must be changed first. */
+    public static class FirstLoginException extends AuthException {
+        private final String username;
+
+        public FirstLoginException(String username) {
+            super("Please set a new password.");
+            this.username = username;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+    }
+
+    // ---------- helpers ----------
+
+    private AuthException onFailure(String user, AuthDAO.LoginRow row) {
+        int now = attempts.recordFailure(user);
+
+        // unknown usernames are only counted in memory
+        if (row != null) {
+            try {
+                AuthDAO.recordLoginFailure(row.userId(), LoginAttemptTracker.MAX_ATTEMPTS, LOCK_MINUTES);
+            } catch (SQLException ex) {
+                LOGGER.log(Level.WARNING, "Failed to record failed login for userId=" + row.userId(), ex);
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
-        return 0;
+
+        if (now > LoginAttemptTracker.MAX_ATTEMPTS) {
+            return new AccountLockedException("Account locked for 1 minute due to too many failed attempts.");
+        }
+        return new AuthException(badCredentials(now - 1));
+    }
+
+    private static String badCredentials(int failures) {
+        int left = Math.max(0, LoginAttemptTracker.MAX_ATTEMPTS - failures);
+        return "Incorrect username or password. " + left + " attempts left.";
+    }
+
+    // bcrypt runs on the bounded verify pool, never on the caller's thread
+    private static boolean checkPassword(String plain, AuthDAO.LoginRow row)
+            throws PasswordVerifier.SaturatedException {
+        String storedHash = row.hash();
+        if (storedHash == null || storedHash.isBlank()) {
+            LOGGER.log(Level.WARNING, "User {0} has no password hash stored", row.username());
+            return false;
+        }
+        return PasswordVerifier.get().verify(plain, storedHash);
     }
 }
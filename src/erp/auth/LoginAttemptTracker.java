@@ -0,0 +1,142 @@
+package erp.auth;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-process failed-login counter.
+ *
+ * Mirrors users_auth.failed_attempts / locked_until so that repeated bad
+ * passwords and attempts against a locked account are answered from memory
+ * instead of another round-trip to auth_db. The DB stays the source of
+ * truth: every login that does reach the DB re-syncs the entry from the row.
+ *
+ * State is split over a fixed number of stripes, each a small map guarded
+ * by its own monitor, so concurrent logins for different users rarely
+ * contend on the same lock.
+ */
+public final class LoginAttemptTracker {
+
+    public static final int MAX_ATTEMPTS = 5;
+    public static final long LOCK_MILLIS = 60_000L;
+
+    private static final int STRIPES = 32;
+    private static final int MAX_ENTRIES_PER_STRIPE = 512;
+
+    private static final LoginAttemptTracker INSTANCE = new LoginAttemptTracker();
+
+    private static final class Entry {
+        int failures;
+        long lockedUntil; // System.currentTimeMillis() based, 0 = not locked
+    }
+
+    private final List<Map<String, Entry>> stripes = new ArrayList<>(STRIPES);
+
+    private LoginAttemptTracker() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes.add(new HashMap<>());
+        }
+    }
+
+    public static LoginAttemptTracker get() {
+        return INSTANCE;
+    }
+
+    /** True if the account is known to be locked right now. */
+    public boolean isLocked(String username) {
+        Map<String, Entry> stripe = stripeFor(username);
+        synchronized (stripe) {
+            Entry e = stripe.get(key(username));
+            return e != null && e.lockedUntil > System.currentTimeMillis();
+        }
+    }
+
+    /** Failures recorded so far (0 if the user is unknown here). */
+    public int failures(String username) {
+        Map<String, Entry> stripe = stripeFor(username);
+        synchronized (stripe) {
+            Entry e = stripe.get(key(username));
+            return e == null ? 0 : e.failures;
+        }
+    }
+
+    /**
+     * Adopt the state read from users_auth. {@code lockRemainingMillis} is
+     * locked_until minus the DB clock (0 or negative when not locked).
+     */
+    public void sync(String username, int failures, long lockRemainingMillis) {
+        Map<String, Entry> stripe = stripeFor(username);
+        synchronized (stripe) {
+            Entry e = entry(stripe, key(username));
+            e.failures = failures;
+            e.lockedUntil = lockRemainingMillis > 0 ? System.currentTimeMillis() + lockRemainingMillis : 0;
+        }
+    }
+
+    /**
+     * Count one failure. Returns the new failure count; when it passes
+     * {@link #MAX_ATTEMPTS} the account is locked for {@link #LOCK_MILLIS}.
+     */
+    public int recordFailure(String username) {
+        Map<String, Entry> stripe = stripeFor(username);
+        synchronized (stripe) {
+            Entry e = entry(stripe, key(username));
+            e.failures++;
+            if (e.failures > MAX_ATTEMPTS) {
+                e.lockedUntil = System.currentTimeMillis() + LOCK_MILLIS;
+            }
+            return e.failures;
+        }
+    }
+
+    /** Forget the user after a successful login. */
+    public void reset(String username) {
+        Map<String, Entry> stripe = stripeFor(username);
+        synchronized (stripe) {
+            stripe.remove(key(username));
+        }
+    }
+
+    // ---------- helpers ----------
+
+    private Map<String, Entry> stripeFor(String username) {
+        int h = key(username).hashCode();
+        h ^= (h >>> 16);
+        return stripes.get(h & (STRIPES - 1));
+    }
+
+    private static String key(String username) {
+        return username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // caller holds the stripe monitor
+    private static Entry entry(Map<String, Entry> stripe, String key) {
+        Entry e = stripe.get(key);
+        if (e == null) {
+            if (stripe.size() >= MAX_ENTRIES_PER_STRIPE) {
+                evictIdle(stripe);
+            }
+            e = new Entry();
+            stripe.put(key, e);
+        }
+        return e;
+    }
+
+    // keep memory bounded under a storm of random usernames: drop unlocked entries first
+    private static void evictIdle(Map<String, Entry> stripe) {
+        long now = System.currentTimeMillis();
+        Iterator<Entry> it = stripe.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().lockedUntil <= now) {
+                it.remove();
+            }
+        }
+        if (stripe.size() >= MAX_ENTRIES_PER_STRIPE) {
+            stripe.clear();
+        }
+    }
+}
@@ -4,10 +4,26 @@ import org.mindrot.jbcrypt.BCrypt;
 
 public final class PasswordUtil {
 
-    private static final int WORK_FACTOR = 12;
+    /** Cost used when nothing is configured. */
+    public static final int DEFAULT_WORK_FACTOR = 12;
+
+    // jBCrypt accepts 4..30
+    private static final int MIN_WORK_FACTOR = 4;
+    private static final int MAX_WORK_FACTOR = 30;
+
+    private static final int WORK_FACTOR = configuredWorkFactor();
 
     private PasswordUtil() {}
 
+    /**
+     * Target bcrypt cost for new hashes: -Derp.bcrypt.cost, else the
+     * ERP_BCRYPT_COST environment variable, else {@link #DEFAULT_WORK_FACTOR}.
+     * Use erp.tools.BcryptCalibrate to pick a value for the login latency budget.
+     */
+    public static int targetWorkFactor() {
+        return WORK_FACTOR;
+    }
+
     public static String hashPassword(String plain) {
         if (plain == null) {
             throw new IllegalArgumentException("Password cannot be null");
@@ -19,4 +35,46 @@ public final class PasswordUtil {
         if (plain == null || hash == null) return false;
         return BCrypt.checkpw(plain, hash);
     }
+
+    /** Cost encoded in a "$2a$12$..." hash, or -1 if it is not a bcrypt hash. */
+    public static int workFactorOf(String hash) {
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(1) != '2') {
+            return -1;
+        }
+        int costStart = hash.charAt(2) == '$' ? 3 : 4; // "$2$" or "$2a$"/"$2b$"/"$2y$"
+        if (hash.length() < costStart + 3 || hash.charAt(costStart + 2) != '$') {
+            return -1;
+        }
+        char hi = hash.charAt(costStart);
+        char lo = hash.charAt(costStart + 1);
+        if (!Character.isDigit(hi) || !Character.isDigit(lo)) {
+            return -1;
+        }
+        return (hi - '0') * 10 + (lo - '0');
+    }
+
+    /** True if a verified hash was made with a different cost than the current target. */
+    public static boolean needsRehash(String hash) {
+        int cost = workFactorOf(hash);
+        return cost > 0 && cost != WORK_FACTOR;
+    }
+
+    private static int configuredWorkFactor() {
+        String raw = System.getProperty("erp.bcrypt.cost");
+        if (raw == null || raw.isBlank()) {
+            raw = System.getenv("ERP_BCRYPT_COST");
+        }
+        if (raw == null || raw.isBlank()) {
+            return DEFAULT_WORK_FACTOR;
+        }
+        try {
+            int cost = Integer.parseInt(raw.trim());
+            if (cost >= MIN_WORK_FACTOR && cost <= MAX_WORK_FACTOR) {
+                return cost;
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        System.err.println("Warning: ignoring invalid bcrypt cost '" + raw + "', using " + DEFAULT_WORK_FACTOR);
+        return DEFAULT_WORK_FACTOR;
+    }
 }
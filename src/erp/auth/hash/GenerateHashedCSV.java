@@ -1,14 +1,52 @@
 package erp.auth.hash;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.*;
+import java.util.stream.Stream;
 
+/**
+ * Hash the plaintext password column of users_auth.csv.
+ *
+ * Usage: GenerateHashedCSV [input.csv] [output.csv] [--parallel] [--chunk 256] [--threads N]
+ *
+ * --parallel streams the input instead of loading it whole, hashes chunks
+ * on a ForkJoinPool and appends each finished chunk to the output. If the
+ * output already exists the rows it holds are skipped, so an interrupted
+ * run resumes where it stopped. A line left half-written by the crash is
+ * cut off first, so that row is hashed again rather than skipped.
+ */
 public class GenerateHashedCSV {
     public static void main(String[] args) throws Exception {
 
-        System.out.println("Reading input CSV...");
+        List<String> paths = new ArrayList<>();
+        boolean parallel = false;
+        int chunk = 256;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--parallel" -> parallel = true;
+                case "--chunk" -> chunk = Math.max(1, Integer.parseInt(args[++i]));
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                default -> paths.add(args[i]);
+            }
+        }
 
-        String input = "C:\\Users\\mroutray\\Documents\\IIITD\\CSE201-AP\\Project\\IIITD-Academic-ERP\\data\\users_auth.csv";
-        String output = "C:\\Users\\mroutray\\Documents\\IIITD\\CSE201-AP\\Project\\IIITD-Academic-ERP\\data\\users_auth_hashed.csv";
+        String input = paths.size() > 0 ? paths.get(0)
+                : "C:\\Users\\mroutray\\Documents\\IIITD\\CSE201-AP\\Project\\IIITD-Academic-ERP\\data\\users_auth.csv";
+        String output = paths.size() > 1 ? paths.get(1)
+                : "C:\\Users\\mroutray\\Documents\\IIITD\\CSE201-AP\\Project\\IIITD-Academic-ERP\\data\\users_auth_hashed.csv";
+
+        if (parallel) {
+            runParallel(Paths.get(input), Paths.get(output), chunk, threads);
+            return;
+        }
+
+        System.out.println("Reading input CSV...");
 
         List<String> lines = Files.readAllLines(Paths.get(input));
         System.out.println("Total rows read: " + lines.size());
@@ -54,4 +92,115 @@ public class GenerateHashedCSV {
         System.out.println("DONE! Hashed file created:");
         System.out.println(output);
     }
+
+    // ---------- parallel mode ----------
+
+    private static void runParallel(Path input, Path output, int chunk, int threads) throws IOException {
+        long totalRows;
+        try (Stream<String> s = Files.lines(input, StandardCharsets.UTF_8)) {
+            totalRows = Math.max(0, s.count() - 1);
+        }
+
+        // rows already in the output were finished by an earlier run
+        long lines = 0;
+        if (Files.exists(output)) {
+            long cut = truncateToLastLine(output);
+            if (cut > 0) {
+                System.out.println("Dropped a partial last line (" + cut + " bytes) from " + output);
+            }
+            try (Stream<String> s = Files.lines(output, StandardCharsets.UTF_8)) {
+                lines = s.count();
+            }
+        }
+        long done = Math.max(0, lines - 1);
+        if (lines > 0) {
+            System.out.println("Resuming: " + done + " rows already in " + output);
+        }
+
+        try (BufferedReader in = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+             BufferedWriter out = Files.newBufferedWriter(output, StandardCharsets.UTF_8,
+                     StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+             ParallelHasher hasher = new ParallelHasher(threads)) {
+
+            String header = in.readLine();
+            if (header == null) {
+                System.out.println("Input is empty.");
+                return;
+            }
+            if (lines == 0) {
+                out.write(header);
+                out.newLine();
+            }
+            for (long i = 0; i < done && in.readLine() != null; i++) {
+                // skip
+            }
+
+            System.out.printf("Hashing %d rows (chunk=%d, threads=%d)...%n",
+                    totalRows - done, chunk, hasher.parallelism());
+            ParallelHasher.Progress progress = new ParallelHasher.Progress(totalRows - done);
+
+            List<String[]> rows = new ArrayList<>(chunk);
+            String line;
+            while (true) {
+                rows.clear();
+                while (rows.size() < chunk && (line = in.readLine()) != null) {
+                    String[] parts = line.split(",", -1);
+                    if (parts.length < 6) {
+                        System.out.println("Bad row detected: " + line);
+                        throw new RuntimeException("Bad row: " + line);
+                    }
+                    rows.add(parts);
+                }
+                if (rows.isEmpty()) {
+                    break;
+                }
+
+                String[] passwords = new String[rows.size()];
+                for (int i = 0; i < passwords.length; i++) {
+                    passwords[i] = rows.get(i)[3];
+                }
+                hasher.hashInPlace(passwords);
+
+                for (int i = 0; i < passwords.length; i++) {
+                    String[] p = rows.get(i);
+                    out.write(String.join(",", p[0], p[1], p[2], passwords[i], p[4], p[5]));
+                    out.newLine();
+                }
+                out.flush(); // a finished chunk survives a crash
+                progress.advance(rows.size());
+            }
+        }
+
+        System.out.println("DONE! Hashed file created:");
+        System.out.println(output);
+    }
+
+    /**
+     * Cut {@code file} back to just after its last newline (or to empty if
+     * it has none). Returns the number of bytes removed.
+     */
+    private static long truncateToLastLine(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = ch.size();
+            ByteBuffer buf = ByteBuffer.allocate(8192);
+            long end = size;
+            while (end > 0) {
+                long start = Math.max(0, end - buf.capacity());
+                buf.clear().limit((int) (end - start));
+                while (buf.hasRemaining() && ch.read(buf, start + buf.position()) >= 0) {
+                    // fill the block
+                }
+                for (int i = buf.position() - 1; i >= 0; i--) {
+                    if (buf.get(i) == '\n') {
+                        long keep = start + i + 1;
+                        ch.truncate(keep);
+                        return size - keep;
+                    }
+                }
+                end = start;
+            }
+            ch.truncate(0);
+            return size;
+        }
+    }
 }
@@ -0,0 +1,95 @@
+package erp.auth.hash;
+
+import erp.auth.PasswordUtil;
+
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork/join bcrypt hashing for the bulk rehash tools.
+ *
+ * A chunk of plaintext passwords is split recursively down to single
+ * entries and hashed in place on a ForkJoinPool sized to the machine's
+ * cores. Each bcrypt call is hundreds of milliseconds of pure CPU, so the
+ * split overhead is noise and the pool stays saturated until the chunk
+ * is done.
+ */
+public final class ParallelHasher implements AutoCloseable {
+
+    private final ForkJoinPool pool;
+
+    public ParallelHasher(int threads) {
+        this.pool = new ForkJoinPool(Math.max(1, threads));
+    }
+
+    public ParallelHasher() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public int parallelism() {
+        return pool.getParallelism();
+    }
+
+    /** Replace every non-null entry of {@code values} with its bcrypt hash. */
+    public void hashInPlace(String[] values) {
+        if (values.length > 0) {
+            pool.invoke(new HashTask(values, 0, values.length));
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private static final class HashTask extends RecursiveAction {
+        private final String[] values;
+        private final int from;
+        private final int to;
+
+        HashTask(String[] values, int from, int to) {
+            this.values = values;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                if (values[from] != null) {
+                    values[from] = PasswordUtil.hashPassword(values[from]);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new HashTask(values, from, mid), new HashTask(values, mid, to));
+        }
+    }
+
+    /** Console progress line with throughput and ETA. */
+    public static final class Progress {
+        private final long total;
+        private final long started = System.nanoTime();
+        private long done;
+
+        public Progress(long total) {
+            this.total = total;
+        }
+
+        public void advance(long n) {
+            done += n;
+            double secs = (System.nanoTime() - started) / 1e9;
+            double rate = secs > 0 ? done / secs : 0;
+            long remaining = Math.max(0, total - done);
+            long eta = rate > 0 ? Math.round(remaining / rate) : 0;
+            System.out.printf(Locale.ROOT, "  %d / %d (%.1f%%)  %.1f hashes/s  ETA %d:%02d%n",
+                    done, total, total == 0 ? 100.0 : 100.0 * done / total,
+                    rate, eta / 60, eta % 60);
+        }
+
+        public long done() {
+            return done;
+        }
+    }
+}
@@ -1,11 +1,12 @@
 package erp.auth.hash;
 
+import erp.auth.PasswordUtil;
 import org.mindrot.jbcrypt.BCrypt;
 
 public final class PasswordHasher {
-    // Hash at account creation / change-password time
+    // Hash at account creation / change-password time (configured target cost)
     public static String hash(String plain) {
-        return BCrypt.hashpw(plain, BCrypt.gensalt(12));
+        return PasswordUtil.hashPassword(plain);
     }
 
     // Verify at login
@@ -0,0 +1,61 @@
+package erp.auth.hash;
+
+import erp.auth.PasswordUtil;
+import erp.auth.store.AuthDAO;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Moves stored hashes to the configured bcrypt cost one login at a time.
+ *
+ * After a password has been verified, {@link #maybeRehash} checks the
+ * cost baked into the stored hash; if it differs from
+ * {@link PasswordUtil#targetWorkFactor()} the password is re-hashed on a
+ * single background thread and written back, guarded on the old hash so a
+ * concurrent password change wins. The queue is small and drops work when
+ * full - the user is simply migrated on a later login.
+ */
+public final class PasswordRehasher {
+    private static final Logger LOGGER = Logger.getLogger(PasswordRehasher.class.getName());
+
+    private static final ThreadPoolExecutor POOL = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(64),
+            r -> {
+                Thread t = new Thread(r, "bcrypt-rehash");
+                t.setDaemon(true);
+                t.setPriority(Thread.MIN_PRIORITY);
+                return t;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+
+    private PasswordRehasher() {}
+
+    /** Call only after {@code plain} has been verified against {@code storedHash}. */
+    public static void maybeRehash(long userId, String plain, String storedHash) {
+        if (!PasswordUtil.needsRehash(storedHash)) {
+            return;
+        }
+        try {
+            POOL.execute(() -> rehash(userId, plain, storedHash));
+        } catch (RejectedExecutionException ex) {
+            LOGGER.log(Level.FINE, "Rehash queue full, skipping userId={0}", userId);
+        }
+    }
+
+    private static void rehash(long userId, String plain, String storedHash) {
+        try {
+            String fresh = PasswordUtil.hashPassword(plain);
+            if (AuthDAO.replacePasswordHash(userId, storedHash, fresh)) {
+                LOGGER.log(Level.INFO, "Rehashed userId={0} from cost {1} to {2}", new Object[] {
+                        userId, PasswordUtil.workFactorOf(storedHash), PasswordUtil.targetWorkFactor() });
+            }
+        } catch (Exception ex) {
+            LOGGER.log(Level.WARNING, "Failed to rehash password for userId=" + userId, ex);
+        }
+    }
+}
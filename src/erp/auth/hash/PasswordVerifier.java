@@ -0,0 +1,145 @@
+package erp.auth.hash;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs BCrypt.checkpw on a dedicated pool so a burst of logins cannot eat
+ * every core the UI, the data loaders and the registration queue need.
+ *
+ * - Fixed pool, one worker per core ({@code erp.bcrypt.workers}).
+ * - Bounded queue ({@code erp.bcrypt.queue}, default 8 per worker); when it
+ *   is full the call is rejected at once with {@link SaturatedException}
+ *   instead of piling up more CPU work.
+ * - Callers wait at most {@code erp.bcrypt.timeoutMs} (default 10 s).
+ * - {@link #stats()} exposes queue depth, rejections and wait / verify latency.
+ */
+public final class PasswordVerifier {
+    private static final Logger LOGGER = Logger.getLogger(PasswordVerifier.class.getName());
+
+    private static final PasswordVerifier INSTANCE = new PasswordVerifier();
+
+    private final ThreadPoolExecutor pool;
+    private final int queueCapacity;
+    private final long timeoutMs;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder verifyNanos = new LongAdder();
+    private final AtomicLong maxVerifyNanos = new AtomicLong();
+
+    /** Thrown when the pool is full (or the wait timed out); the password was not checked. */
+    public static class SaturatedException extends Exception {
+        public SaturatedException(String m) { super(m); }
+    }
+
+    public static record Stats(int workers, int active, int queueDepth, int queueCapacity,
+            long completed, long rejected, long timedOut,
+            double meanWaitMs, double meanVerifyMs, double maxVerifyMs) {
+
+        @Override
+        public String toString() {
+            return String.format(java.util.Locale.ROOT,
+                    "bcrypt pool: workers=%d active=%d queue=%d/%d completed=%d rejected=%d timedOut=%d " +
+                            "wait=%.1fms verify=%.1fms (max %.1fms)",
+                    workers, active, queueDepth, queueCapacity, completed, rejected, timedOut,
+                    meanWaitMs, meanVerifyMs, maxVerifyMs);
+        }
+    }
+
+    private PasswordVerifier() {
+        int workers = Math.max(1, Integer.getInteger("erp.bcrypt.workers",
+                Runtime.getRuntime().availableProcessors()));
+        queueCapacity = Math.max(1, Integer.getInteger("erp.bcrypt.queue", workers * 8));
+        timeoutMs = Math.max(1, Long.getLong("erp.bcrypt.timeoutMs", 10_000L));
+
+        AtomicInteger n = new AtomicInteger();
+        pool = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "bcrypt-verify-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public static PasswordVerifier get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Check {@code plain} against a stored bcrypt hash on the verify pool.
+     * Malformed hashes count as a mismatch.
+     */
+    public boolean verify(String plain, String hash) throws SaturatedException {
+        if (plain == null || hash == null || hash.isBlank()) {
+            return false;
+        }
+
+        long queued = System.nanoTime();
+        Future<Boolean> f;
+        try {
+            f = pool.submit(() -> {
+                long start = System.nanoTime();
+                waitNanos.add(start - queued);
+                try {
+                    return BCrypt.checkpw(plain, hash);
+                } finally {
+                    long took = System.nanoTime() - start;
+                    verifyNanos.add(took);
+                    maxVerifyNanos.accumulateAndGet(took, Math::max);
+                    completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            throw new SaturatedException("Password verification queue is full");
+        }
+
+        try {
+            return f.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            f.cancel(false);
+            timedOut.increment();
+            throw new SaturatedException("Password verification timed out");
+        } catch (InterruptedException ex) {
+            f.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new SaturatedException("Interrupted while verifying password");
+        } catch (ExecutionException ex) {
+            // BCrypt throws IllegalArgumentException for malformed stored hashes
+            LOGGER.log(Level.WARNING, "Password verification failed", ex.getCause());
+            return false;
+        }
+    }
+
+    public Stats stats() {
+        long done = completed.sum();
+        return new Stats(
+                pool.getMaximumPoolSize(),
+                pool.getActiveCount(),
+                pool.getQueue().size(),
+                queueCapacity,
+                done,
+                rejected.sum(),
+                timedOut.sum(),
+                done == 0 ? 0 : waitNanos.sum() / (double) done / 1_000_000.0,
+                done == 0 ? 0 : verifyNanos.sum() / (double) done / 1_000_000.0,
+                maxVerifyNanos.get() / 1_000_000.0);
+    }
+}
@@ -1,7 +1,8 @@
 package erp.auth.store;
 
+import erp.auth.PasswordUtil;
+import erp.auth.hash.PasswordVerifier;
 import erp.db.DatabaseConnection;
-import org.mindrot.jbcrypt.BCrypt;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -20,6 +21,23 @@ public final class AuthDAO {
     public static record AuthRow(long userId, String username, String role, String hash) {
     }
 
+    /**
+     * Everything the login path needs from users_auth in one row.
+     * lockRemainingMillis is locked_until minus the DB clock (<= 0 when not locked).
+     */
+    public static record LoginRow(long userId, String username, String role, String hash,
+            int failedAttempts, long lockRemainingMillis, String lastLogin) {
+
+        public boolean isLocked() {
+            return lockRemainingMillis > 0;
+        }
+
+        // first login if value is null OR 0000-00-00
+        public boolean isFirstLogin() {
+            return lastLogin == null || lastLogin.startsWith("0000-00-00");
+        }
+    }
+
     private AuthDAO() {}
 
 
@@ -52,6 +70,100 @@ public final class AuthDAO {
     }
 
 
+    /**
+     * Single round-trip read for login: hash, role, attempt counter, lock
+     * state (evaluated against the DB clock) and last_login.
+     */
+    public static LoginRow findForLogin(String username) throws SQLException {
+        if (username == null || username.isBlank()) {
+            throw new IllegalArgumentException("username must not be null or blank");
+        }
+        final String sql = "SELECT user_id, username, role, password_hash, failed_attempts, last_login, " +
+                "       IF(locked_until > NOW(), TIMESTAMPDIFF(MICROSECOND, NOW(), locked_until) DIV 1000, 0) " +
+                "           AS lock_remaining_ms " +
+                "FROM users_auth WHERE username = ?";
+
+        try (Connection c = DatabaseConnection.auth().getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setQueryTimeout(QUERY_TIMEOUT_SECONDS);
+            ps.setString(1, username.trim());
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                return new LoginRow(
+                        rs.getLong("user_id"),
+                        rs.getString("username"),
+                        rs.getString("role"),
+                        rs.getString("password_hash"),
+                        rs.getInt("failed_attempts"),
+                        rs.getLong("lock_remaining_ms"),
+                        rs.getString("last_login"));
+            }
+        } catch (SQLException ex) {
+            LOGGER.log(Level.SEVERE, "DB error while loading login row", ex);
+            throw ex;
+        }
+    }
+
+    /** Post-login write: stamp last_login and clear the attempt counter / lock together. */
+    public static void recordLoginSuccess(long userId) throws SQLException {
+        final String sql = "UPDATE users_auth SET last_login = NOW(), failed_attempts = 0, locked_until = NULL " +
+                "WHERE user_id = ?";
+        try (Connection c = DatabaseConnection.auth().getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setQueryTimeout(QUERY_TIMEOUT_SECONDS);
+            ps.setLong(1, userId);
+            ps.executeUpdate();
+        } catch (SQLException ex) {
+            LOGGER.log(Level.WARNING, "Failed to record login for userId=" + userId, ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Count a failed attempt and, once it passes {@code maxAttempts}, lock the
+     * account for {@code lockMinutes} - one statement. MySQL applies SET
+     * assignments left to right, so the IF sees the incremented counter.
+     */
+    public static void recordLoginFailure(long userId, int maxAttempts, int lockMinutes) throws SQLException {
+        final String sql = "UPDATE users_auth SET failed_attempts = failed_attempts + 1, " +
+                "       locked_until = IF(failed_attempts > ?, NOW() + INTERVAL ? MINUTE, locked_until) " +
+                "WHERE user_id = ?";
+        try (Connection c = DatabaseConnection.auth().getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setQueryTimeout(QUERY_TIMEOUT_SECONDS);
+            ps.setInt(1, maxAttempts);
+            ps.setInt(2, lockMinutes);
+            ps.setLong(3, userId);
+            ps.executeUpdate();
+        } catch (SQLException ex) {
+            LOGGER.log(Level.WARNING, "Failed to record failed login for userId=" + userId, ex);
+            throw ex;
+        }
+    }
+
+
+    /**
+     * Swap a password hash only if it still equals {@code oldHash}; used by the
+     * cost migration so it never overwrites a password changed in the meantime.
+     */
+    public static boolean replacePasswordHash(long userId, String oldHash, String newHash) throws SQLException {
+        final String sql = "UPDATE users_auth SET password_hash = ? WHERE user_id = ? AND password_hash = ?";
+        try (Connection c = DatabaseConnection.auth().getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setQueryTimeout(QUERY_TIMEOUT_SECONDS);
+            ps.setString(1, newHash);
+            ps.setLong(2, userId);
+            ps.setString(3, oldHash);
+            return ps.executeUpdate() == 1;
+        } catch (SQLException ex) {
+            LOGGER.log(Level.WARNING, "Failed to replace password hash for userId=" + userId, ex);
+            throw ex;
+        }
+    }
+
+
     public static void updateLastLogin(long userId) throws SQLException {
         final String sql = "UPDATE users_auth SET last_login = NOW() WHERE user_id = ?";
         try (Connection c = DatabaseConnection.auth().getConnection();
@@ -66,7 +178,13 @@ public final class AuthDAO {
     }
 
 
-    public static boolean authenticate(String username, String passwordPlain) throws SQLException {
+    /**
+     * True if the password matches. A saturated verify pool is rethrown, not
+     * reported as a mismatch, so callers can answer "try again" the way
+     * AuthService does instead of "wrong password".
+     */
+    public static boolean authenticate(String username, String passwordPlain)
+            throws SQLException, PasswordVerifier.SaturatedException {
         if (username == null || username.isBlank()) {
             throw new IllegalArgumentException("username must not be null or blank");
         }
@@ -84,14 +202,8 @@ public final class AuthDAO {
             return false;
         }
 
-        try {
-            // BCrypt.checkpw is safe — it returns false for non-matching or malformed hashes
-            return BCrypt.checkpw(passwordPlain, storedHash);
-        } catch (IllegalArgumentException ex) {
-            // Malformed stored hash; treat as authentication failure but log for investigation
-            LOGGER.log(Level.WARNING, "Malformed bcrypt hash for user " + username, ex);
-            return false;
-        }
+        // runs on the shared verify pool; malformed hashes come back as false
+        return PasswordVerifier.get().verify(passwordPlain, storedHash);
     }
 
 
@@ -101,7 +213,7 @@ public final class AuthDAO {
         if (role == null || role.isBlank()) role = "student";
 
         final String insertSql = "INSERT INTO users_auth (username, password_hash, role) VALUES (?, ?, ?)";
-        String hashed = BCrypt.hashpw(passwordPlain, BCrypt.gensalt(12));
+        String hashed = PasswordUtil.hashPassword(passwordPlain);
 
         try (Connection c = DatabaseConnection.auth().getConnection();
              PreparedStatement ps = c.prepareStatement(insertSql)) {
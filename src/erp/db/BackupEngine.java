@@ -0,0 +1,660 @@
+package erp.db;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Full and incremental backups of auth_db and erp_db into one zip archive.
+ *
+ * Consistency: each database is read from a single point in time. A
+ * coordinator connection takes {@code LOCK TABLES ... READ} on every base
+ * table, the worker connections each open
+ * {@code START TRANSACTION WITH CONSISTENT SNAPSHOT, READ ONLY}, and the
+ * lock is released; writers are held off only for those few statements,
+ * and every worker then sees the same committed state (so enrollments and
+ * grades agree). If the account may not lock tables, the database is dumped
+ * serially on one snapshot instead, which is equally consistent.
+ *
+ * Incremental: given the previous archive of a chain, tables with an
+ * {@code updated_at} version column and a primary key (enrollments, grades,
+ * courses, sections, ...) are dumped as only the rows stamped since the
+ * parent's snapshot (minus {@code -Derp.backup.overlapSec}, default 60, for
+ * transactions that straddled it) plus the table's full primary-key list.
+ * The key list is how deletes, including FK cascades, reach the restore
+ * without triggers or a change log. Other tables are small and go in full.
+ * {@link BackupRestore} replays a full archive and its deltas in order.
+ *
+ * Layout: {@code manifest.properties}, then per database
+ * {@code <db>/schema.sql} (SHOW CREATE TABLE), one {@code <db>/<table>.csv.gz}
+ * per table and, for delta tables, {@code <db>/<table>.keys.csv.gz}. Tables
+ * are compressed by the worker that dumps them, so gzip runs in parallel;
+ * the archive stores those streams as-is. The manifest lists row counts,
+ * SHA-256 of each uncompressed CSV, the snapshot time and a schema
+ * fingerprint per database, and the id of the parent archive.
+ *
+ * CSV: header row, RFC 4180 quoting, {@code \N} for SQL NULL (a literal
+ * "\N" value is quoted), values as the server's string form.
+ */
+public final class BackupEngine {
+
+    public static final String MANIFEST = "manifest.properties";
+    public static final String FORMAT = "erp-backup";
+    public static final int FORMAT_VERSION = 1;
+    public static final String NULL = "\\N";
+    public static final String VERSION_COLUMN = "updated_at";
+
+    /** Worker connections per database; override with -Derp.backup.threads. */
+    public static final int THREADS = Math.max(1, Integer.getInteger("erp.backup.threads", 4));
+
+    /** Seconds re-read before the parent's snapshot in an incremental backup. */
+    public static final int OVERLAP_SEC = Math.max(0, Integer.getInteger("erp.backup.overlapSec", 60));
+
+    private static final int BUFFER = 64 * 1024;
+    private static final int PROGRESS_EVERY = 10_000;
+
+    /** What one backup wrote; {@code rows} counts only changed rows for delta tables. */
+    public record Result(Path archive, String kind, Map<TableExport.Table, Long> rows, long bytes, long millis) {
+        public long totalRows() {
+            long n = 0;
+            for (long r : rows.values()) {
+                n += r;
+            }
+            return n;
+        }
+    }
+
+    /** One gzip-compressed CSV written by a worker. */
+    private record Written(Path file, List<String> columns, long rows, String sha256, long crc, long size) {
+    }
+
+    /** One dumped table; {@code keys} is set for delta tables only. */
+    private record Dump(TableExport.Table table, String since, Written data, Written keys, List<String> keyColumns) {
+    }
+
+    /** One database's snapshot, as recorded in the manifest. */
+    private record DbDump(String db, String schema, String snapshotAt, String mode,
+                          String fingerprint, String ddl, List<Dump> tables) {
+    }
+
+    /** Primary key and change-stamp column of a table. */
+    private record TableMeta(List<String> primaryKey, boolean versioned) {
+    }
+
+    private BackupEngine() {}
+
+    /** Full backup of both databases into {@code archive}, up to {@code threads} connections each. */
+    public static Result backup(Path archive, int threads, TableExport.Listener listener)
+            throws SQLException, IOException {
+        return run(archive, null, threads, listener);
+    }
+
+    /**
+     * Incremental backup against {@code previous} (the last full or
+     * incremental archive of the chain). Fails if the schema changed since;
+     * take a full backup then.
+     */
+    public static Result backupIncremental(Path previous, Path archive, int threads, TableExport.Listener listener)
+            throws SQLException, IOException {
+        Properties parent = readManifest(previous);
+        return run(archive, parent, threads, listener);
+    }
+
+    /** The manifest of an archive, validated for format. */
+    public static Properties readManifest(Path archive) throws IOException {
+        try (ZipFile zip = new ZipFile(archive.toFile())) {
+            ZipEntry e = zip.getEntry(MANIFEST);
+            if (e == null) {
+                throw new IOException(archive + " has no " + MANIFEST);
+            }
+            Properties p = new Properties();
+            try (InputStream in = zip.getInputStream(e)) {
+                p.load(in);
+            }
+            if (!FORMAT.equals(p.getProperty("format"))
+                    || !String.valueOf(FORMAT_VERSION).equals(p.getProperty("format.version"))) {
+                throw new IOException(archive + " is not an " + FORMAT + " v" + FORMAT_VERSION + " archive");
+            }
+            return p;
+        }
+    }
+
+    // ---------- snapshot + dump ----------
+
+    private static Result run(Path archive, Properties parent, int threads, TableExport.Listener listener)
+            throws SQLException, IOException {
+        long t0 = System.nanoTime();
+        Path dir = archive.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path work = Files.createTempDirectory(dir, ".erp-backup-");
+
+        try {
+            List<DbDump> dbs = new ArrayList<>();
+            dbs.add(dumpDatabase("auth_db", DatabaseConnection.auth(), parent, work, threads, listener));
+            dbs.add(dumpDatabase("erp_db", DatabaseConnection.erp(), parent, work, threads, listener));
+
+            Path part = archive.resolveSibling(archive.getFileName() + ".part");
+            try {
+                writeArchive(part, parent, dbs);
+                Files.move(part, archive, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(part);
+            }
+
+            Map<TableExport.Table, Long> rows = new LinkedHashMap<>();
+            for (DbDump d : dbs) {
+                for (Dump t : d.tables()) {
+                    rows.put(t.table(), t.data().rows());
+                }
+            }
+            return new Result(archive, parent == null ? "full" : "incremental", rows,
+                    Files.size(archive), (System.nanoTime() - t0) / 1_000_000);
+        } finally {
+            deleteTree(work);
+        }
+    }
+
+    private static DbDump dumpDatabase(String db, DataSource ds, Properties parent, Path work, int threads,
+                                       TableExport.Listener listener) throws SQLException, IOException {
+        if (ds == null) {
+            throw new SQLException(db + " pool is not configured");
+        }
+
+        List<Connection> workers = new ArrayList<>();
+        try (Connection coord = ds.getConnection()) {
+            String schema = scalar(coord, "SELECT DATABASE()");
+            List<String> names = listTables(coord);
+            List<TableExport.Table> tables = new ArrayList<>();
+            for (String n : names) {
+                tables.add(new TableExport.Table(db, n));
+            }
+            String fingerprint = schemaFingerprint(coord);
+            String ddl = showCreate(coord, names);
+            Map<String, TableMeta> meta = tableMeta(coord);
+
+            // incremental: watermark of the parent, and the same schema it was taken from
+            String since = null;
+            if (parent != null) {
+                String p = "db." + db + ".";
+                if (!fingerprint.equals(parent.getProperty(p + "schema_fingerprint"))) {
+                    throw new IOException("The " + db + " schema changed since the previous backup; "
+                            + "take a full backup instead.");
+                }
+                since = parent.getProperty(p + "snapshot_at");
+                if (since == null) {
+                    throw new IOException("Previous backup has no snapshot time for " + db);
+                }
+            }
+            if (listener != null) {
+                listener.planned(tables);
+            }
+
+            int n = Math.max(1, Math.min(threads, names.size()));
+            String snapshotAt;
+            boolean locked = false;
+            if (n > 1) {
+                try (Statement st = coord.createStatement()) {
+                    st.execute(lockTablesSql(names));
+                    locked = true;
+                } catch (SQLException ex) {
+                    System.err.println("[backup] LOCK TABLES not permitted on " + db
+                            + ", dumping on one snapshot: " + ex.getMessage());
+                    n = 1;
+                }
+            }
+            try {
+                for (int i = 0; i < n; i++) {
+                    Connection c = ds.getConnection();
+                    workers.add(c);
+                    beginSnapshot(c);
+                }
+                // with writers locked out (or a single reader) this is the snapshot instant
+                snapshotAt = scalar(workers.get(0), "SELECT DATE_FORMAT(NOW(3), '%Y-%m-%d %H:%i:%s.%f')");
+            } finally {
+                if (locked) {
+                    try (Statement st = coord.createStatement()) {
+                        st.execute("UNLOCK TABLES");
+                    }
+                }
+            }
+            String mode = (n > 1) ? "parallel-locked" : "single-snapshot";
+
+            List<Dump> dumps = dumpTables(tables, meta, since, workers, work, listener);
+            return new DbDump(db, schema, snapshotAt, mode, fingerprint, ddl, dumps);
+        } finally {
+            for (Connection c : workers) {
+                try {
+                    c.rollback();
+                    c.setAutoCommit(true);
+                } catch (SQLException ignore) {
+                    // connection is going back to the pool anyway
+                }
+                try {
+                    c.close();
+                } catch (SQLException ignore) {
+                }
+            }
+        }
+    }
+
+    private static List<Dump> dumpTables(List<TableExport.Table> tables, Map<String, TableMeta> meta, String since,
+                                         List<Connection> workers, Path work, TableExport.Listener listener)
+            throws SQLException, IOException {
+        ConcurrentLinkedQueue<TableExport.Table> queue = new ConcurrentLinkedQueue<>(tables);
+        Map<TableExport.Table, Dump> done = new ConcurrentHashMap<>();
+
+        AtomicInteger seq = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(workers.size(), r -> {
+            Thread t = new Thread(r, "erp-backup-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Connection c : workers) {
+                futures.add(pool.submit(() -> {
+                    TableExport.Table t;
+                    while ((t = queue.poll()) != null) {
+                        done.put(t, dumpTable(c, t, meta.get(t.name()), since, work, listener));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) {
+                try {
+                    f.get();
+                } catch (ExecutionException ex) {
+                    queue.clear();
+                    Throwable cause = ex.getCause();
+                    if (cause instanceof SQLException sql) {
+                        throw sql;
+                    }
+                    if (cause instanceof IOException io) {
+                        throw io;
+                    }
+                    throw new IOException(String.valueOf(cause.getMessage()), cause);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Backup interrupted", ex);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        List<Dump> ordered = new ArrayList<>(tables.size());
+        for (TableExport.Table t : tables) {
+            ordered.add(done.get(t));
+        }
+        return ordered;
+    }
+
+    private static Dump dumpTable(Connection c, TableExport.Table table, TableMeta meta, String since,
+                                  Path work, TableExport.Listener listener) throws SQLException, IOException {
+        String name = quote(table.name());
+        String base = table.db() + "." + table.name();
+
+        boolean delta = since != null && meta != null && meta.versioned() && !meta.primaryKey().isEmpty();
+        if (!delta) {
+            Written data = writeQuery(c, table, "SELECT * FROM " + name, null,
+                    work.resolve(base + ".csv.gz"), listener);
+            return new Dump(table, null, data, null, null);
+        }
+
+        Written data = writeQuery(c, table,
+                "SELECT * FROM " + name + " WHERE " + quote(VERSION_COLUMN)
+                        + " >= CAST(? AS DATETIME(6)) - INTERVAL " + OVERLAP_SEC + " SECOND",
+                since, work.resolve(base + ".csv.gz"), listener);
+
+        StringBuilder keyCols = new StringBuilder();
+        for (String k : meta.primaryKey()) {
+            if (keyCols.length() > 0)
+                keyCols.append(", ");
+            keyCols.append(quote(k));
+        }
+        Written keys = writeQuery(c, table, "SELECT " + keyCols + " FROM " + name, null,
+                work.resolve(base + ".keys.csv.gz"), null);
+        return new Dump(table, since, data, keys, meta.primaryKey());
+    }
+
+    /** Stream one query (optional single string parameter) into a gzip-compressed CSV. */
+    private static Written writeQuery(Connection c, TableExport.Table table, String sql, String param,
+                                      Path file, TableExport.Listener listener) throws SQLException, IOException {
+        MessageDigest sha = sha256();
+        CRC32 crc = new CRC32();
+        long rows = 0;
+        List<String> columns = new ArrayList<>();
+
+        try (PreparedStatement ps = c.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(Integer.MIN_VALUE); // stream inside the snapshot transaction
+            if (param != null) {
+                ps.setString(1, param);
+            }
+
+            try (ResultSet rs = ps.executeQuery();
+                 Writer w = new BufferedWriter(new OutputStreamWriter(
+                         new DigestOutputStream(
+                                 new GZIPOutputStream(
+                                         new CheckedOutputStream(
+                                                 new BufferedOutputStream(Files.newOutputStream(file), BUFFER), crc),
+                                         BUFFER),
+                                 sha),
+                         StandardCharsets.UTF_8), BUFFER)) {
+
+                ResultSetMetaData md = rs.getMetaData();
+                int cols = md.getColumnCount();
+                for (int i = 1; i <= cols; i++) {
+                    columns.add(md.getColumnName(i));
+                    if (i > 1)
+                        w.write(',');
+                    TableExport.writeCsv(w, md.getColumnName(i));
+                }
+                w.write('\n');
+
+                while (rs.next()) {
+                    for (int i = 1; i <= cols; i++) {
+                        if (i > 1)
+                            w.write(',');
+                        writeValue(w, rs.getString(i));
+                    }
+                    w.write('\n');
+
+                    if (++rows % PROGRESS_EVERY == 0 && listener != null) {
+                        listener.progress(table, rows, false);
+                    }
+                }
+            }
+        }
+
+        if (listener != null) {
+            listener.progress(table, rows, true);
+        }
+        return new Written(file, columns, rows, HexFormat.of().formatHex(sha.digest()),
+                crc.getValue(), Files.size(file));
+    }
+
+    /** CSV cell with {@code \N} for NULL; a literal "\N" string is quoted to stay distinct. */
+    static void writeValue(Writer w, String v) throws IOException {
+        if (v == null) {
+            w.write(NULL);
+        } else if (v.equals(NULL)) {
+            w.write("\"\\N\"");
+        } else {
+            TableExport.writeCsv(w, v);
+        }
+    }
+
+    // ---------- archive ----------
+
+    private static void writeArchive(Path out, Properties parent, List<DbDump> dbs) throws IOException {
+        try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(out), BUFFER))) {
+            zip.putNextEntry(new ZipEntry(MANIFEST));
+            zip.write(manifest(parent, dbs).getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+
+            for (DbDump d : dbs) {
+                zip.putNextEntry(new ZipEntry(d.db() + "/schema.sql"));
+                zip.write(d.ddl().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+
+                for (Dump t : d.tables()) {
+                    putStored(zip, entryName(t.table()), t.data());
+                    if (t.keys() != null) {
+                        putStored(zip, keysEntryName(t.table()), t.keys());
+                    }
+                }
+            }
+        }
+    }
+
+    /** Already gzip-compressed by the worker: store, don't deflate twice. */
+    private static void putStored(ZipOutputStream zip, String name, Written w) throws IOException {
+        ZipEntry e = new ZipEntry(name);
+        e.setMethod(ZipEntry.STORED);
+        e.setSize(w.size());
+        e.setCompressedSize(w.size());
+        e.setCrc(w.crc());
+        zip.putNextEntry(e);
+        try (InputStream in = Files.newInputStream(w.file())) {
+            in.transferTo(zip); // does not close the zip
+        }
+        zip.closeEntry();
+    }
+
+    /** Archive entry of a table's gzip-compressed CSV. */
+    public static String entryName(TableExport.Table t) {
+        return t.db() + "/" + t.name() + ".csv.gz";
+    }
+
+    /** Archive entry of a delta table's primary-key list. */
+    public static String keysEntryName(TableExport.Table t) {
+        return t.db() + "/" + t.name() + ".keys.csv.gz";
+    }
+
+    private static String manifest(Properties parent, List<DbDump> dbs) {
+        StringBuilder sb = new StringBuilder();
+        line(sb, "format", FORMAT);
+        line(sb, "format.version", String.valueOf(FORMAT_VERSION));
+        line(sb, "id", UUID.randomUUID().toString());
+        line(sb, "kind", parent == null ? "full" : "incremental");
+        if (parent != null) {
+            line(sb, "parent", parent.getProperty("id"));
+        }
+        line(sb, "created", LocalDateTime.now().toString());
+        List<String> names = new ArrayList<>();
+        for (DbDump d : dbs) {
+            names.add(d.db());
+        }
+        line(sb, "databases", String.join(",", names));
+
+        for (DbDump d : dbs) {
+            String p = "db." + d.db() + ".";
+            line(sb, p + "schema", d.schema());
+            line(sb, p + "snapshot_at", d.snapshotAt());
+            line(sb, p + "consistency", d.mode());
+            line(sb, p + "schema_fingerprint", d.fingerprint());
+            List<String> tables = new ArrayList<>();
+            for (Dump t : d.tables()) {
+                tables.add(t.table().name());
+            }
+            line(sb, p + "tables", String.join(",", tables));
+
+            for (Dump t : d.tables()) {
+                String q = "table." + d.db() + "." + t.table().name() + ".";
+                line(sb, q + "mode", t.keys() == null ? "full" : "delta");
+                line(sb, q + "file", entryName(t.table()));
+                line(sb, q + "rows", String.valueOf(t.data().rows()));
+                line(sb, q + "sha256", t.data().sha256());
+                line(sb, q + "columns", String.join(",", t.data().columns()));
+                if (t.keys() != null) {
+                    line(sb, q + "since", t.since());
+                    line(sb, q + "overlap_sec", String.valueOf(OVERLAP_SEC));
+                    line(sb, q + "keys.file", keysEntryName(t.table()));
+                    line(sb, q + "keys.columns", String.join(",", t.keyColumns()));
+                    line(sb, q + "keys.rows", String.valueOf(t.keys().rows()));
+                    line(sb, q + "keys.sha256", t.keys().sha256());
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void line(StringBuilder sb, String key, String value) {
+        // identifiers, numbers and timestamps only, so no Properties escaping is needed
+        sb.append(key).append('=').append(value == null ? "" : value).append('\n');
+    }
+
+    // ---------- helpers ----------
+
+    private static void beginSnapshot(Connection c) throws SQLException {
+        c.setAutoCommit(false);
+        c.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+        try (Statement st = c.createStatement()) {
+            st.execute("START TRANSACTION WITH CONSISTENT SNAPSHOT, READ ONLY");
+        }
+    }
+
+    private static List<String> listTables(Connection c) throws SQLException {
+        // biggest first, so the long dumps start early
+        String sql = "SELECT table_name FROM information_schema.tables " +
+                "WHERE table_schema = DATABASE() AND table_type = 'BASE TABLE' " +
+                "ORDER BY data_length DESC, table_name";
+        List<String> out = new ArrayList<>();
+        try (PreparedStatement ps = c.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                out.add(rs.getString(1));
+            }
+        }
+        return out;
+    }
+
+    /** Primary-key columns (in key order) and presence of the version column, per table. */
+    private static Map<String, TableMeta> tableMeta(Connection c) throws SQLException {
+        Map<String, List<String>> pk = new HashMap<>();
+        try (PreparedStatement ps = c.prepareStatement(
+                "SELECT table_name, column_name FROM information_schema.key_column_usage " +
+                "WHERE table_schema = DATABASE() AND constraint_name = 'PRIMARY' " +
+                "ORDER BY table_name, ordinal_position");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                pk.computeIfAbsent(rs.getString(1), k -> new ArrayList<>()).add(rs.getString(2));
+            }
+        }
+
+        Set<String> versioned = new HashSet<>();
+        try (PreparedStatement ps = c.prepareStatement(
+                "SELECT table_name FROM information_schema.columns " +
+                "WHERE table_schema = DATABASE() AND column_name = ?")) {
+            ps.setString(1, VERSION_COLUMN);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    versioned.add(rs.getString(1));
+                }
+            }
+        }
+
+        Map<String, TableMeta> out = new HashMap<>();
+        Set<String> all = new HashSet<>(pk.keySet());
+        all.addAll(versioned);
+        for (String t : all) {
+            out.put(t, new TableMeta(pk.getOrDefault(t, List.of()), versioned.contains(t)));
+        }
+        return out;
+    }
+
+    private static String lockTablesSql(List<String> tables) {
+        StringBuilder sb = new StringBuilder("LOCK TABLES ");
+        for (int i = 0; i < tables.size(); i++) {
+            if (i > 0)
+                sb.append(", ");
+            sb.append(quote(tables.get(i))).append(" READ");
+        }
+        return sb.toString();
+    }
+
+    /** SHA-256 over every column definition of the current schema. */
+    private static String schemaFingerprint(Connection c) throws SQLException {
+        String sql = "SELECT table_name, column_name, column_type, is_nullable, column_key " +
+                "FROM information_schema.columns WHERE table_schema = DATABASE() " +
+                "ORDER BY table_name, ordinal_position";
+        MessageDigest md = sha256();
+        try (PreparedStatement ps = c.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                for (int i = 1; i <= 5; i++) {
+                    md.update(String.valueOf(rs.getString(i)).getBytes(StandardCharsets.UTF_8));
+                    md.update((byte) (i < 5 ? '|' : '\n'));
+                }
+            }
+        }
+        return HexFormat.of().formatHex(md.digest());
+    }
+
+    private static String showCreate(Connection c, List<String> tables) throws SQLException {
+        StringBuilder sb = new StringBuilder();
+        for (String t : tables) {
+            try (Statement st = c.createStatement();
+                 ResultSet rs = st.executeQuery("SHOW CREATE TABLE " + quote(t))) {
+                if (rs.next()) {
+                    sb.append(rs.getString(2)).append(";\n\n");
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String scalar(Connection c, String sql) throws SQLException {
+        try (Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+
+    static String quote(String identifier) {
+        return "`" + identifier.replace("`", "``") + "`";
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static void deleteTree(Path dir) {
+        try (Stream<Path> s = Files.walk(dir)) {
+            s.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try {
+                    Files.deleteIfExists(p);
+                } catch (IOException ignore) {
+                }
+            });
+        } catch (IOException ignore) {
+        }
+    }
+}
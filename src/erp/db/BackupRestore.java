@@ -0,0 +1,272 @@
+package erp.db;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.apache.commons.csv.QuoteMode;
+
+import javax.sql.DataSource;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Replays a {@link BackupEngine} chain: one full archive followed by the
+ * incremental archives taken after it, in order.
+ *
+ * Tables must already exist (create them from {@code data/*.sql} or the
+ * archive's {@code <db>/schema.sql}). Each table is restored in its own
+ * transaction with foreign-key checks off, so load order does not matter
+ * and nothing cascades:
+ *   full   DELETE every row, insert the archived rows;
+ *   delta  upsert the changed rows, then delete every row whose primary
+ *          key is not in the archived key list (rows deleted since the
+ *          parent, cascades included).
+ * Row counts and SHA-256 are checked against the manifest before each
+ * table commits; a mismatch rolls that table back and stops the restore.
+ */
+public final class BackupRestore {
+
+    private static final int BATCH = 1_000;
+
+    /** Backup CSV: header row, \N for NULL, a quoted "\N" stays a string. */
+    private static final CSVFormat CSV = CSVFormat.DEFAULT.builder()
+            .setHeader()
+            .setSkipHeaderRecord(true)
+            .setNullString(BackupEngine.NULL)
+            .setQuoteMode(QuoteMode.ALL_NON_NULL)
+            .build();
+
+    private BackupRestore() {}
+
+    /** Check that {@code chain} is a full archive followed by its descendants; returns the manifests. */
+    public static List<Properties> verifyChain(List<Path> chain) throws IOException {
+        if (chain.isEmpty()) {
+            throw new IOException("Nothing to restore");
+        }
+        List<Properties> manifests = new ArrayList<>();
+        for (int i = 0; i < chain.size(); i++) {
+            Properties m = BackupEngine.readManifest(chain.get(i));
+            String kind = m.getProperty("kind");
+            if (i == 0 && !"full".equals(kind)) {
+                throw new IOException(chain.get(i) + " is " + kind + "; a restore starts from a full backup");
+            }
+            if (i > 0) {
+                if (!"incremental".equals(kind)) {
+                    throw new IOException(chain.get(i) + " is " + kind + "; only incremental backups can follow");
+                }
+                String expected = manifests.get(i - 1).getProperty("id");
+                if (expected == null || !expected.equals(m.getProperty("parent"))) {
+                    throw new IOException(chain.get(i) + " was not taken after " + chain.get(i - 1));
+                }
+            }
+            manifests.add(m);
+        }
+        return manifests;
+    }
+
+    /** Restore the chain into the configured auth_db / erp_db; progress lines go to {@code log}. */
+    public static void restore(List<Path> chain, Consumer<String> log) throws SQLException, IOException {
+        List<Properties> manifests = verifyChain(chain);
+
+        for (int i = 0; i < chain.size(); i++) {
+            Properties m = manifests.get(i);
+            log.accept("Applying " + chain.get(i).getFileName() + " (" + m.getProperty("kind")
+                    + ", " + m.getProperty("created") + ")");
+
+            try (ZipFile zip = new ZipFile(chain.get(i).toFile())) {
+                for (String db : split(m.getProperty("databases"))) {
+                    DataSource ds = "auth_db".equals(db) ? DatabaseConnection.auth() : DatabaseConnection.erp();
+                    if (ds == null) {
+                        throw new SQLException(db + " pool is not configured");
+                    }
+                    try (Connection conn = ds.getConnection()) {
+                        restoreDatabase(conn, zip, m, db, log);
+                    }
+                }
+            }
+        }
+    }
+
+    // ---------- per table ----------
+
+    private static void restoreDatabase(Connection conn, ZipFile zip, Properties m, String db,
+                                        Consumer<String> log) throws SQLException, IOException {
+        boolean autoCommit = conn.getAutoCommit();
+        try (Statement st = conn.createStatement()) {
+            st.execute("SET FOREIGN_KEY_CHECKS = 0");
+        }
+        conn.setAutoCommit(false);
+        try {
+            for (String table : split(m.getProperty("db." + db + ".tables"))) {
+                String p = "table." + db + "." + table + ".";
+                boolean delta = "delta".equals(m.getProperty(p + "mode"));
+                try {
+                    if (!delta) {
+                        try (Statement st = conn.createStatement()) {
+                            st.executeUpdate("DELETE FROM " + BackupEngine.quote(table));
+                        }
+                    }
+                    long rows = load(conn, zip, m, p, table, false);
+                    long removed = 0;
+                    if (delta) {
+                        removed = deleteMissingKeys(conn, zip, m, p, table);
+                    }
+                    conn.commit();
+                    log.accept(String.format("  %s.%-22s %s %,d rows%s", db, table,
+                            delta ? "upserted" : "loaded  ", rows,
+                            delta ? String.format(", removed %,d", removed) : ""));
+                } catch (SQLException | IOException | RuntimeException ex) {
+                    conn.rollback();
+                    throw ex;
+                }
+            }
+        } finally {
+            try (Statement st = conn.createStatement()) {
+                st.execute("SET FOREIGN_KEY_CHECKS = 1");
+            }
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /** Upsert the rows (or keys) of one archive entry; returns the count after checking it and its SHA-256. */
+    private static long load(Connection conn, ZipFile zip, Properties m, String p, String table, boolean keys)
+            throws SQLException, IOException {
+        String prefix = keys ? p + "keys." : p;
+        String entry = m.getProperty(prefix + "file");
+        ZipEntry e = (entry == null) ? null : zip.getEntry(entry);
+        if (e == null) {
+            throw new IOException("Archive entry missing: " + entry);
+        }
+
+        MessageDigest sha = BackupEngine.sha256();
+        long rows = 0;
+        try (InputStream raw = zip.getInputStream(e);
+             DigestInputStream in = new DigestInputStream(
+                     new GZIPInputStream(new BufferedInputStream(raw), 64 * 1024), sha);
+             Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+             CSVParser parser = CSV.parse(reader)) {
+
+            List<String> cols = parser.getHeaderNames();
+            String sql = keys ? insertSql("restore_keys", cols, false) : insertSql(table, cols, true);
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                for (CSVRecord r : parser) {
+                    for (int i = 0; i < cols.size(); i++) {
+                        ps.setString(i + 1, r.get(i)); // null for \N
+                    }
+                    ps.addBatch();
+                    if (++rows % BATCH == 0) {
+                        ps.executeBatch();
+                    }
+                }
+                if (rows % BATCH != 0) {
+                    ps.executeBatch();
+                }
+            }
+            // drain anything the parser did not read, so the digest covers the whole entry
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+
+        String expectedRows = m.getProperty(prefix + "rows");
+        String expectedSha = m.getProperty(prefix + "sha256");
+        String actualSha = HexFormat.of().formatHex(sha.digest());
+        if (expectedRows != null && Long.parseLong(expectedRows) != rows) {
+            throw new IOException(entry + ": " + rows + " rows, manifest says " + expectedRows);
+        }
+        if (expectedSha != null && !expectedSha.equals(actualSha)) {
+            throw new IOException(entry + ": checksum mismatch");
+        }
+        return rows;
+    }
+
+    /** Delete rows of {@code table} whose key is not in the archived key list; returns rows removed. */
+    private static long deleteMissingKeys(Connection conn, ZipFile zip, Properties m, String p, String table)
+            throws SQLException, IOException {
+        List<String> keyCols = split(m.getProperty(p + "keys.columns"));
+        if (keyCols.isEmpty()) {
+            throw new IOException("No key columns recorded for " + table);
+        }
+
+        String q = BackupEngine.quote(table);
+        StringBuilder cols = new StringBuilder();
+        StringBuilder join = new StringBuilder();
+        for (String k : keyCols) {
+            String c = BackupEngine.quote(k);
+            if (cols.length() > 0) {
+                cols.append(", ");
+                join.append(" AND ");
+            }
+            cols.append(c);
+            join.append("t.").append(c).append(" = k.").append(c);
+        }
+
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP TEMPORARY TABLE IF EXISTS restore_keys");
+            // one statement: ALTER on a temporary table would commit the open transaction
+            st.execute("CREATE TEMPORARY TABLE restore_keys (PRIMARY KEY (" + cols + ")) SELECT "
+                    + cols + " FROM " + q + " LIMIT 0");
+        }
+        try {
+            load(conn, zip, m, p, table, true);
+            try (Statement st = conn.createStatement()) {
+                return st.executeUpdate("DELETE t FROM " + q + " t LEFT JOIN restore_keys k ON " + join
+                        + " WHERE k." + BackupEngine.quote(keyCols.get(0)) + " IS NULL");
+            }
+        } finally {
+            try (Statement st = conn.createStatement()) {
+                st.execute("DROP TEMPORARY TABLE IF EXISTS restore_keys");
+            }
+        }
+    }
+
+    // ---------- helpers ----------
+
+    private static String insertSql(String table, List<String> cols, boolean upsert) {
+        StringBuilder sb = new StringBuilder("INSERT INTO ").append(BackupEngine.quote(table)).append(" (");
+        StringBuilder marks = new StringBuilder();
+        StringBuilder update = new StringBuilder();
+        for (int i = 0; i < cols.size(); i++) {
+            String c = BackupEngine.quote(cols.get(i));
+            if (i > 0) {
+                sb.append(", ");
+                marks.append(", ");
+                update.append(", ");
+            }
+            sb.append(c);
+            marks.append('?');
+            update.append(c).append(" = VALUES(").append(c).append(')');
+        }
+        sb.append(") VALUES (").append(marks).append(')');
+        if (upsert) {
+            sb.append(" ON DUPLICATE KEY UPDATE ").append(update);
+        }
+        return sb.toString();
+    }
+
+    private static List<String> split(String csv) {
+        if (csv == null || csv.isBlank()) {
+            return List.of();
+        }
+        return Arrays.asList(csv.split(","));
+    }
+}
@@ -2,6 +2,7 @@ package erp.db;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
 
 import javax.sql.DataSource;
 import java.io.InputStream;
@@ -13,6 +14,7 @@ public final class DatabaseConnection {
     private static volatile HikariDataSource authDs;
     private static volatile HikariDataSource erpDs;
     private static final AtomicBoolean initialized = new AtomicBoolean(false);
+    private static volatile MetricsTrackerFactory metricsTrackerFactory;
 
     // Default values (override with properties or env)
     private static final int DEFAULT_MAX_POOL = 10;
@@ -23,6 +25,14 @@ public final class DatabaseConnection {
 
     private DatabaseConnection() {}
 
+    /**
+     * Optional Hikari metrics hook (pool wait / usage timings), e.g. for load tools.
+     * Only takes effect for pools started after this call, so set it before {@link #init()}.
+     */
+    public static void setMetricsTrackerFactory(MetricsTrackerFactory factory) {
+        metricsTrackerFactory = factory;
+    }
+
     /**
      * Initialize Hikari pools using db.properties (on classpath) or environment variables as fallback.
      * Safe to call multiple times; initialization is idempotent.
@@ -87,6 +97,7 @@ public final class DatabaseConnection {
                 authCfg.setLeakDetectionThreshold(getLong(props, "auth.leakDetectionMs", DEFAULT_LEAK_DETECTION_THRESHOLD));
                 // Optional: set pool name for easier metrics
                 authCfg.setPoolName("erp-auth-pool");
+                if (metricsTrackerFactory != null) authCfg.setMetricsTrackerFactory(metricsTrackerFactory);
                 authDs = new HikariDataSource(authCfg);
             }
 
@@ -103,6 +114,7 @@ public final class DatabaseConnection {
                 erpCfg.setMaxLifetime(getLong(props, "erp.maxLifetime", DEFAULT_MAX_LIFETIME));
                 erpCfg.setLeakDetectionThreshold(getLong(props, "erp.leakDetectionMs", DEFAULT_LEAK_DETECTION_THRESHOLD));
                 erpCfg.setPoolName("erp-main-pool");
+                if (metricsTrackerFactory != null) erpCfg.setMetricsTrackerFactory(metricsTrackerFactory);
                 erpDs = new HikariDataSource(erpCfg);
             }
 
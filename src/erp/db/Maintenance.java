@@ -1,38 +1,22 @@
 package erp.db;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 
+/**
+ * Older entry point kept for existing callers. It used to read its own
+ * 'Maintenance' key; it now shares 'maintenance_mode' with
+ * {@link MaintenanceService} through {@link SettingsService}.
+ */
 public class Maintenance {
 
     public static boolean isOn(){
-        String sql = "SELECT setting_value from settings where setting_key = 'Maintenance'";
-        boolean maintenance = false;
-
-        try (Connection conn = DatabaseConnection.erp().getConnection();
-            PreparedStatement stmt = conn.prepareStatement(sql)) {
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    maintenance = rs.getBoolean("setting_value");
-                }
-            }
-
-        } 
-        catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return maintenance;
+        return SettingsService.isMaintenanceOn();
     }
 
     
     public static void turnOn() {
-        String sql = "UPDATE settings SET setting_value = true WHERE setting_key = 'Maintenance'";
-
-        try (Connection conn = DatabaseConnection.erp().getConnection();
-            PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.executeUpdate();
+        try {
+            SettingsService.setMaintenance(true);
         } 
         catch (SQLException e) {
             e.printStackTrace();
@@ -40,11 +24,8 @@ public class Maintenance {
     }
 
     public static void turnOff() {
-        String sql = "UPDATE settings SET setting_value = false WHERE setting_key = 'Maintenance'";
-
-        try (Connection conn = DatabaseConnection.erp().getConnection();
-            PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.executeUpdate();
+        try {
+            SettingsService.setMaintenance(false);
         } 
         catch (SQLException e) {
             e.printStackTrace();
@@ -0,0 +1,195 @@
+package erp.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cached, typed access to erp_db.settings.
+ *
+ * The whole table (a handful of rows) is read in one query into an
+ * immutable snapshot that is reused until it is older than
+ * {@code erp.settings.ttlMs} (default 30 s). Writes made through this
+ * class replace the local snapshot immediately; changes made by another
+ * client show up on the next refresh.
+ *
+ * If a refresh fails the previous snapshot is kept (or an empty one on
+ * first load) and the read is retried after the next TTL.
+ *
+ * Every settings write in the code base goes through {@link #put} or
+ * {@link #setMaintenance} (the maintenance toggle, and the benchmark
+ * tools moving COURSE_DROP_DEADLINE for a run); code that changes the
+ * table any other way should call {@link #invalidate} afterwards.
+ */
+public final class SettingsService {
+
+    public static final String MAINTENANCE_MODE = "maintenance_mode";
+    public static final String COURSE_DROP_DEADLINE = "COURSE_DROP_DEADLINE";
+
+    // older key written by erp.db.Maintenance; read as a fallback, removed on write
+    static final String LEGACY_MAINTENANCE = "Maintenance";
+
+    private static final long TTL_NANOS = Math.max(0L, Long.getLong("erp.settings.ttlMs", 30_000L)) * 1_000_000L;
+
+    private record Snapshot(Map<String, String> values, long loadedAt) {
+        boolean isFresh() {
+            return System.nanoTime() - loadedAt < TTL_NANOS;
+        }
+    }
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO settings (setting_key, setting_value)
+            VALUES (?, ?)
+            ON DUPLICATE KEY UPDATE setting_value = VALUES(setting_value)
+            """;
+
+    private static volatile Snapshot snapshot;
+
+    private SettingsService() {}
+
+    // ---------- typed reads ----------
+
+    public static String getString(String key, String defaultValue) {
+        String v = current().get(key);
+        return (v == null) ? defaultValue : v;
+    }
+
+    /** ON / TRUE / 1 (any case) are true. */
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String v = current().get(key);
+        return (v == null) ? defaultValue : parseBoolean(v);
+    }
+
+    /** ISO yyyy-MM-dd value, or null if missing / unparseable. */
+    public static LocalDate getDate(String key) {
+        String v = current().get(key);
+        if (v == null || v.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(v.trim(), DateTimeFormatter.ISO_LOCAL_DATE);
+        } catch (DateTimeParseException ex) {
+            ex.printStackTrace();
+            return null;
+        }
+    }
+
+    public static boolean isMaintenanceOn() {
+        Map<String, String> values = current();
+        String v = values.get(MAINTENANCE_MODE);
+        if (v == null) {
+            v = values.get(LEGACY_MAINTENANCE);
+        }
+        // fail-open (no table / row → treat as not in maintenance)
+        return v != null && parseBoolean(v);
+    }
+
+    public static LocalDate getDropDeadline() {
+        return getDate(COURSE_DROP_DEADLINE);
+    }
+
+    // ---------- writes ----------
+
+    /** Upsert one setting and apply it to this node's snapshot right away. */
+    public static void put(String key, String value) throws SQLException {
+        try (Connection conn = DatabaseConnection.erp().getConnection();
+             PreparedStatement ps = conn.prepareStatement(UPSERT_SQL)) {
+            ps.setString(1, key);
+            ps.setString(2, value);
+            ps.executeUpdate();
+        }
+        applyLocally(key, value);
+    }
+
+    /** Writes the canonical key and drops the legacy one so there is a single source. */
+    public static void setMaintenance(boolean on) throws SQLException {
+        String value = on ? "ON" : "OFF";
+
+        try (Connection conn = DatabaseConnection.erp().getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(UPSERT_SQL);
+                 PreparedStatement del = conn.prepareStatement("DELETE FROM settings WHERE setting_key = ?")) {
+                ps.setString(1, MAINTENANCE_MODE);
+                ps.setString(2, value);
+                ps.executeUpdate();
+
+                del.setString(1, LEGACY_MAINTENANCE);
+                del.executeUpdate();
+                conn.commit();
+            } catch (SQLException ex) {
+                conn.rollback();
+                throw ex;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        applyLocally(MAINTENANCE_MODE, value);
+    }
+
+    /** Force the next read to go to the database. */
+    public static void invalidate() {
+        snapshot = null;
+    }
+
+    // ---------- helpers ----------
+
+    private static Map<String, String> current() {
+        Snapshot s = snapshot;
+        if (s != null && s.isFresh()) {
+            return s.values();
+        }
+        return refresh();
+    }
+
+    private static synchronized Map<String, String> refresh() {
+        Snapshot s = snapshot;
+        if (s != null && s.isFresh()) {
+            return s.values(); // another thread refreshed while we waited
+        }
+
+        Map<String, String> values = new HashMap<>();
+        String sql = "SELECT setting_key, setting_value FROM settings";
+        try (Connection conn = DatabaseConnection.erp().getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                values.put(rs.getString(1), rs.getString(2));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            // keep serving what we had; try again after another TTL
+            values = (s == null) ? Collections.emptyMap() : s.values();
+        }
+
+        Snapshot fresh = new Snapshot(Collections.unmodifiableMap(values), System.nanoTime());
+        snapshot = fresh;
+        return fresh.values();
+    }
+
+    private static synchronized void applyLocally(String key, String value) {
+        Snapshot s = snapshot;
+        if (s == null) {
+            return; // next read loads everything anyway
+        }
+        Map<String, String> copy = new HashMap<>(s.values());
+        copy.put(key, value);
+        if (MAINTENANCE_MODE.equals(key)) {
+            copy.remove(LEGACY_MAINTENANCE);
+        }
+        snapshot = new Snapshot(Collections.unmodifiableMap(copy), s.loadedAt());
+    }
+
+    private static boolean parseBoolean(String v) {
+        v = v.trim();
+        return v.equalsIgnoreCase("ON")
+                || v.equalsIgnoreCase("TRUE")
+                || v.equals("1");
+    }
+}
@@ -0,0 +1,216 @@
+package erp.db;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streaming CSV export of whole tables.
+ *
+ * Each table is read through a forward-only, read-only statement with
+ * {@code fetchSize = Integer.MIN_VALUE}, which makes Connector/J stream rows
+ * off the socket one at a time instead of buffering the full result in heap,
+ * and written through a 64 KB buffered writer to {@code <table>.csv.part},
+ * renamed into place once the table is complete. Several tables run at once,
+ * each on its own pooled connection (a streaming result holds its connection
+ * until it is drained).
+ */
+public final class TableExport {
+
+    /** Concurrent tables; override with -Derp.export.threads. */
+    public static final int THREADS = Math.max(1, Integer.getInteger("erp.export.threads", 4));
+
+    private static final int WRITE_BUFFER = 64 * 1024;
+    private static final int PROGRESS_EVERY = 10_000;
+
+    /** A table in one of the two schemas. */
+    public record Table(String db, String name) {
+        public static Table parse(String qualified) {
+            int dot = qualified.indexOf('.');
+            if (dot <= 0 || dot == qualified.length() - 1) {
+                throw new IllegalArgumentException("Expected db.table: " + qualified);
+            }
+            return new Table(qualified.substring(0, dot), qualified.substring(dot + 1));
+        }
+
+        public DataSource source() {
+            return "auth_db".equalsIgnoreCase(db) ? DatabaseConnection.auth() : DatabaseConnection.erp();
+        }
+
+        public String qualified() {
+            return db + "." + name;
+        }
+    }
+
+    /** Progress callback; called from export threads. */
+    public interface Listener {
+        /** The full table list, once it is known and before any rows are written. */
+        default void planned(List<Table> tables) {
+        }
+
+        /** Rows written so far for {@code table}; {@code done} on the final call. */
+        void progress(Table table, long rows, boolean done);
+    }
+
+    private TableExport() {}
+
+    /**
+     * Export every table into {@code dir} as {@code <name>.csv}, up to
+     * {@link #THREADS} at a time. Returns rows written per table, in the
+     * given order. The first failure is rethrown after the others finish.
+     */
+    public static Map<Table, Long> exportAll(List<Table> tables, Path dir, Listener listener)
+            throws SQLException, IOException {
+        Files.createDirectories(dir);
+        if (listener != null) {
+            listener.planned(tables);
+        }
+
+        AtomicInteger n = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(THREADS, Math.max(1, tables.size())), r -> {
+            Thread t = new Thread(r, "erp-export-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        try {
+            List<Future<Long>> futures = new ArrayList<>(tables.size());
+            for (Table t : tables) {
+                futures.add(pool.submit(() -> {
+                    try (Connection conn = t.source().getConnection()) {
+                        return exportCsv(conn, t, dir.resolve(t.name() + ".csv"), listener);
+                    }
+                }));
+            }
+
+            Map<Table, Long> rows = new LinkedHashMap<>();
+            Exception first = null;
+            for (int i = 0; i < tables.size(); i++) {
+                try {
+                    rows.put(tables.get(i), futures.get(i).get());
+                } catch (ExecutionException ex) {
+                    if (first == null && ex.getCause() instanceof Exception cause) {
+                        first = cause;
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Export interrupted", ex);
+                }
+            }
+            if (first instanceof SQLException sql) {
+                throw sql;
+            }
+            if (first instanceof IOException io) {
+                throw io;
+            }
+            if (first != null) {
+                throw new IOException(first.getMessage(), first);
+            }
+            return rows;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** Stream one table to {@code out}; returns the number of data rows written. */
+    public static long exportCsv(Connection conn, Table table, Path out, Listener listener)
+            throws SQLException, IOException {
+        String sql = "SELECT * FROM `" + table.name().replace("`", "``") + "`";
+        Path part = out.resolveSibling(out.getFileName() + ".part");
+
+        long rows = 0;
+        try (PreparedStatement ps = conn.prepareStatement(sql,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(Integer.MIN_VALUE); // Connector/J: stream row by row
+
+            try (ResultSet rs = ps.executeQuery();
+                 Writer w = new BufferedWriter(new OutputStreamWriter(
+                         Files.newOutputStream(part), StandardCharsets.UTF_8), WRITE_BUFFER)) {
+
+                ResultSetMetaData md = rs.getMetaData();
+                int cols = md.getColumnCount();
+
+                // header
+                for (int i = 1; i <= cols; i++) {
+                    if (i > 1)
+                        w.write(',');
+                    writeCsv(w, md.getColumnName(i));
+                }
+                w.write('\n');
+
+                // rows
+                while (rs.next()) {
+                    for (int i = 1; i <= cols; i++) {
+                        if (i > 1)
+                            w.write(',');
+                        Object val = rs.getObject(i);
+                        if (val != null) {
+                            writeCsv(w, val.toString());
+                        }
+                    }
+                    w.write('\n');
+
+                    if (++rows % PROGRESS_EVERY == 0 && listener != null) {
+                        listener.progress(table, rows, false);
+                    }
+                }
+            }
+            Files.move(part, out, StandardCopyOption.REPLACE_EXISTING);
+        } catch (SQLException | IOException | RuntimeException ex) {
+            Files.deleteIfExists(part);
+            throw ex;
+        }
+
+        if (listener != null) {
+            listener.progress(table, rows, true);
+        }
+        return rows;
+    }
+
+    // ---------- helpers ----------
+
+    /** RFC 4180 quoting, written straight to the stream (no per-cell copies). */
+    static void writeCsv(Writer w, String v) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < v.length(); i++) {
+            char c = v.charAt(i);
+            if (c == '"' || c == ',' || c == '\n' || c == '\r') {
+                quote = true;
+                break;
+            }
+        }
+        if (!quote) {
+            w.write(v);
+            return;
+        }
+        w.write('"');
+        for (int i = 0; i < v.length(); i++) {
+            char c = v.charAt(i);
+            if (c == '"') {
+                w.write('"');
+            }
+            w.write(c);
+        }
+        w.write('"');
+    }
+}
@@ -0,0 +1,66 @@
+package erp.tools;
+
+import erp.auth.PasswordUtil;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Finds the highest bcrypt cost whose verify fits a latency budget on this
+ * machine, to feed -Derp.bcrypt.cost / ERP_BCRYPT_COST.
+ *
+ * Each step up in cost doubles the work, so costs are measured from low to
+ * high (median of a few verifies each) and the run stops at the first one
+ * over budget.
+ *
+ * Usage:
+ *   java -cp "out:lib/*" erp.tools.BcryptCalibrate [--budget-ms 250] [--samples 5]
+ */
+public class BcryptCalibrate {
+
+    private static final int MIN_COST = 4;
+    private static final int MAX_COST = 20;
+
+    public static void main(String[] args) {
+        Map<String, String> opts = ToolArgs.parse(args);
+        int budgetMs = ToolArgs.intOpt(opts, "budget-ms", 250);
+        int samples = Math.max(1, ToolArgs.intOpt(opts, "samples", 5));
+        String plain = "calibrate-" + System.nanoTime();
+
+        System.out.printf("Budget: %d ms per verify, %d samples per cost, %d cores%n",
+                budgetMs, samples, Runtime.getRuntime().availableProcessors());
+        System.out.println("cost   median ms");
+
+        int best = -1;
+        for (int cost = MIN_COST; cost <= MAX_COST; cost++) {
+            String hash = BCrypt.hashpw(plain, BCrypt.gensalt(cost));
+            BCrypt.checkpw(plain, hash); // warm-up
+
+            double[] ms = new double[samples];
+            for (int i = 0; i < samples; i++) {
+                long t = System.nanoTime();
+                BCrypt.checkpw(plain, hash);
+                ms[i] = (System.nanoTime() - t) / 1_000_000.0;
+            }
+            Arrays.sort(ms);
+            double median = ms[samples / 2];
+            System.out.printf(Locale.ROOT, "%4d   %9.1f%n", cost, median);
+
+            if (median > budgetMs) {
+                break;
+            }
+            best = cost;
+        }
+
+        System.out.println();
+        if (best < 0) {
+            System.out.println("Even cost " + MIN_COST + " exceeds the budget; raise --budget-ms.");
+            return;
+        }
+        System.out.println("Recommended cost: " + best + "  (current target: " + PasswordUtil.targetWorkFactor() + ")");
+        System.out.println("Set it with -Derp.bcrypt.cost=" + best + " or ERP_BCRYPT_COST=" + best
+                + "; existing hashes migrate on next login.");
+    }
+}
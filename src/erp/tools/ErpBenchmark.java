@@ -0,0 +1,273 @@
+package erp.tools;
+
+import erp.db.DatabaseConnection;
+import erp.ui.instructor.GradeSaveEngine;
+import erp.ui.instructor.GradebookLoader;
+import erp.ui.instructor.GradebookMatrix;
+import erp.ui.student.CatalogSnapshot;
+import erp.ui.student.CourseStats;
+import erp.ui.student.EnrollmentService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Benchmark harness for the hot database paths:
+ *   register+drop   EnrollmentService.registerForCourse / dropCourse
+ *   catalog-load    one-statement catalog read from course_stats (no cache)
+ *   catalog-snapshot CourseCatalog.fetchCourses via the shared CatalogSnapshot
+ *   gradebook-load  GradebookLoader.load as used by MySections.fetchGradebookData
+ *   grade-save      set-based GradeSaveEngine.save used by MySections.saveGrades
+ *
+ * Seeds a {@link SyntheticDataset} into the configured erp_db, runs each
+ * workload for a warmup phase (discarded) and a measured phase, prints
+ * throughput / latency percentiles and appends them to a CSV so runs can
+ * be compared. Synthetic rows are removed afterwards unless --keep.
+ * Writes to the live tables, so it only runs with --yes.
+ *
+ * register+drop cycles through (student, course) pairs that are open at
+ * the start, with COURSE_DROP_DEADLINE moved a year ahead for the run
+ * (restored afterwards), so every iteration takes the real write path.
+ *
+ * Usage:
+ *   java -cp "out:lib/*" erp.tools.ErpBenchmark [--label name]
+ *        [--students 2000] [--courses 100] [--sections 2] [--components 4]
+ *        [--capacity 60] [--per-student 5] [--threads 4]
+ *        [--warmup 200] [--iterations 1000] [--out bench-results.csv] [--keep] --yes
+ */
+public class ErpBenchmark {
+
+    private static final DateTimeFormatter TS_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @FunctionalInterface
+    interface Op {
+        void run() throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = ToolArgs.parse(args);
+        if (!SyntheticDataset.confirmed(opts, "ErpBenchmark")) {
+            System.exit(2);
+        }
+        String label = opts.getOrDefault("label", "run");
+        int threads = ToolArgs.intOpt(opts, "threads", 4);
+        int warmup = ToolArgs.intOpt(opts, "warmup", 200);
+        int iterations = ToolArgs.intOpt(opts, "iterations", 1000);
+        Path out = Path.of(opts.getOrDefault("out", "bench-results.csv"));
+
+        SyntheticDataset.Spec spec = new SyntheticDataset.Spec(
+                ToolArgs.intOpt(opts, "students", 2000),
+                ToolArgs.intOpt(opts, "courses", 100),
+                ToolArgs.intOpt(opts, "sections", 2),
+                ToolArgs.intOpt(opts, "components", 4),
+                ToolArgs.intOpt(opts, "capacity", 60),
+                ToolArgs.intOpt(opts, "per-student", 5),
+                42L);
+
+        DatabaseConnection.init();
+        SyntheticDataset data = new SyntheticDataset(spec);
+        List<LatencyStats.Summary> results = new ArrayList<>();
+        String oldDeadline = null;
+        boolean deadlineMoved = false;
+        try {
+            List<SyntheticDataset.Pair> pairs;
+            try (Connection conn = DatabaseConnection.erp().getConnection()) {
+                data.seed(conn);
+                pairs = data.openPairs(conn, threads);
+            }
+            if (pairs.isEmpty()) {
+                throw new IllegalStateException("No open (student, course) pairs; raise --capacity");
+            }
+            oldDeadline = SyntheticDataset.openAddDrop();
+            deadlineMoved = true;
+
+            AtomicInteger next = new AtomicInteger();
+            results.add(measure("register+drop", threads, warmup, iterations, () -> {
+                SyntheticDataset.Pair p = pairs.get(Math.floorMod(next.getAndIncrement(), pairs.size()));
+                // failures come back as messages; throw so they count as errors
+                String reg = EnrollmentService.registerForCourse(p.studentId(), p.courseId());
+                if (!EnrollmentService.MSG_REGISTERED.equals(reg)) {
+                    throw new IllegalStateException("register: " + reg);
+                }
+                String drop = EnrollmentService.dropCourse(p.studentId(), p.courseId());
+                if (!EnrollmentService.MSG_DROPPED.equals(drop)) {
+                    throw new IllegalStateException("drop: " + drop);
+                }
+            }));
+            results.add(measure("catalog-load", threads, warmup, iterations,
+                    () -> catalogLoad(pick(data.studentIds()))));
+            results.add(measure("catalog-snapshot", threads, warmup, iterations,
+                    () -> catalogSnapshotLoad(pick(data.studentIds()))));
+            results.add(measure("gradebook-load", threads, warmup, iterations,
+                    () -> gradebookLoad(pick(data.sectionIds()))));
+            results.add(measure("grade-save", threads, warmup, iterations,
+                    () -> gradeSave(pick(data.sectionIds()))));
+        } finally {
+            try {
+                if (deadlineMoved) {
+                    SyntheticDataset.restoreDeadline(oldDeadline);
+                }
+                if (!opts.containsKey("keep")) {
+                    try (Connection conn = DatabaseConnection.erp().getConnection()) {
+                        SyntheticDataset.cleanup(conn);
+                    }
+                }
+            } finally {
+                DatabaseConnection.close();
+            }
+        }
+
+        System.out.println();
+        System.out.println(LatencyStats.Summary.header());
+        for (LatencyStats.Summary s : results) {
+            System.out.println(s.row());
+        }
+        appendCsv(out, label, spec, threads, results);
+        System.out.println("\nResults appended to " + out.toAbsolutePath());
+    }
+
+    // ---------- harness ----------
+
+    static LatencyStats.Summary measure(String name, int threads, int warmup, int iterations, Op op)
+            throws InterruptedException {
+        System.out.printf("%-16s warmup %d ...%n", name, warmup);
+        runPhase(new LatencyStats(name), threads, warmup, op);
+
+        System.out.printf("%-16s measuring %d ...%n", name, iterations);
+        LatencyStats stats = new LatencyStats(name);
+        long t0 = System.nanoTime();
+        runPhase(stats, threads, iterations, op);
+        double wall = (System.nanoTime() - t0) / 1e9;
+        return stats.summarize(wall);
+    }
+
+    private static void runPhase(LatencyStats stats, int threads, int count, Op op) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        AtomicInteger remaining = new AtomicInteger(count);
+        for (int t = 0; t < Math.max(1, threads); t++) {
+            pool.execute(() -> {
+                while (remaining.getAndDecrement() > 0) {
+                    long start = System.nanoTime();
+                    try {
+                        op.run();
+                        stats.record(System.nanoTime() - start);
+                    } catch (Exception ex) {
+                        stats.recordError();
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.HOURS);
+    }
+
+    private static <T> T pick(List<T> list) {
+        return list.get(ThreadLocalRandom.current().nextInt(list.size()));
+    }
+
+    // ---------- workloads ----------
+
+    /** Whole catalog in one statement against course_stats, bypassing the snapshot. */
+    static int catalogLoad(String studentId) throws SQLException {
+        int rows = 0;
+        try (Connection conn = DatabaseConnection.erp().getConnection();
+                PreparedStatement ps = conn.prepareStatement(CourseStats.CATALOG_SQL)) {
+            ps.setString(1, studentId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+
+    /** Same calls as CourseCatalog.fetchCourses: shared snapshot plus the student's course ids. */
+    static int catalogSnapshotLoad(String studentId) throws SQLException {
+        int rows = 0;
+        Set<String> mine = CatalogSnapshot.registeredCourseIds(studentId);
+        for (CatalogSnapshot.Course c : CatalogSnapshot.get().courses()) {
+            if (mine.contains(c.courseId())) {
+                rows++;
+            }
+            rows++;
+        }
+        return rows;
+    }
+
+    /** Same statements as MySections.fetchGradebookData. */
+    static int gradebookLoad(int sectionId) throws SQLException {
+        try (Connection conn = DatabaseConnection.erp().getConnection()) {
+            GradebookLoader.Gradebook book = GradebookLoader.load(conn, sectionId);
+            return book.components().size() + book.students().size();
+        }
+    }
+
+    /**
+     * Re-saves every cell of a section the way MySections.saveGrades does,
+     * finals included (weighted percentage, null while a score is missing).
+     */
+    static int gradeSave(int sectionId) throws SQLException {
+        List<GradeSaveEngine.Cell> cells = new ArrayList<>();
+        List<GradeSaveEngine.FinalGrade> finals = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.erp().getConnection()) {
+            GradebookMatrix m = GradebookLoader.load(conn, sectionId).grades();
+            for (int row = 0; row < m.rows(); row++) {
+                for (int col = 0; col < m.cols(); col++) {
+                    if (m.has(row, col)) {
+                        cells.add(new GradeSaveEngine.Cell(m.enrollmentId(row), m.componentId(col),
+                                m.score(row, col)));
+                    }
+                }
+                double pct = m.percentage(row);
+                finals.add(new GradeSaveEngine.FinalGrade(m.enrollmentId(row), Double.isNaN(pct) ? null
+                        : pct >= 85 ? "A" : pct >= 75 ? "B" : pct >= 65 ? "C" : pct >= 55 ? "D" : "F"));
+            }
+
+            // all cells and final grades in one transaction on this connection
+            GradeSaveEngine.save(conn, cells, finals);
+        }
+        return cells.size();
+    }
+
+    // ---------- output / args ----------
+
+    private static void appendCsv(Path out, String label, SyntheticDataset.Spec spec, int threads,
+            List<LatencyStats.Summary> results) throws IOException {
+        boolean newFile = !Files.exists(out);
+        try (BufferedWriter w = Files.newBufferedWriter(out, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (newFile) {
+                w.write("timestamp,label,students,courses,sections,components,threads,"
+                        + LatencyStats.Summary.csvHeader());
+                w.newLine();
+            }
+            String prefix = LocalDateTime.now().format(TS_FMT) + "," + label + ","
+                    + spec.students() + "," + spec.courses() + "," + spec.sectionsPerCourse() + ","
+                    + spec.components() + "," + threads + ",";
+            for (LatencyStats.Summary s : results) {
+                w.write(prefix + s.csvRow());
+                w.newLine();
+            }
+        }
+    }
+}
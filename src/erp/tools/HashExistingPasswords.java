@@ -2,12 +2,48 @@ package erp.tools;
 
 import erp.db.DatabaseConnection;
 import erp.auth.PasswordUtil;
-
+import erp.auth.hash.ParallelHasher;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.sql.*;
-
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replace plaintext users_auth.password_hash values with bcrypt hashes.
+ *
+ * Default mode is the original single-threaded pass in one transaction.
+ *
+ * --parallel walks users_auth in user_id order, chunk by chunk (keyset
+ * pagination, so nothing is held open between chunks), hashes each chunk
+ * on a ForkJoinPool sized to the cores, writes it back as one batch and
+ * commits. The last committed user_id is kept in a checkpoint file, so a
+ * run that dies part-way resumes where it stopped.
+ *
+ * Usage:
+ *   java -cp "out:lib/*" erp.tools.HashExistingPasswords
+ *        [--parallel] [--chunk 256] [--threads N] [--checkpoint rehash.checkpoint] [--restart]
+ */
 public class HashExistingPasswords {
 
+    private static final String PLAINTEXT_FILTER =
+            "password_hash IS NOT NULL AND password_hash <> '' " +
+            "AND password_hash NOT LIKE '$2a$%' AND password_hash NOT LIKE '$2b$%' " +
+            "AND password_hash NOT LIKE '$2y$%'";
+
     public static void main(String[] args) {
+        Map<String, String> opts = ToolArgs.parse(args);
+        if (opts.containsKey("parallel")) {
+            runParallel(opts);
+            return;
+        }
+
         System.out.println("Connecting to auth DB and hashing existing passwords...");
 
         DatabaseConnection.init();
@@ -94,4 +130,105 @@ public class HashExistingPasswords {
 
         System.out.println("Done.");
     }
+
+    // ---------- parallel mode ----------
+
+    private static void runParallel(Map<String, String> opts) {
+        int chunk = Math.max(1, ToolArgs.intOpt(opts, "chunk", 256));
+        int threads = ToolArgs.intOpt(opts, "threads", Runtime.getRuntime().availableProcessors());
+        Path checkpoint = Paths.get(opts.getOrDefault("checkpoint", "rehash.checkpoint"));
+
+        DatabaseConnection.init();
+
+        try (Connection conn = DatabaseConnection.auth().getConnection();
+             ParallelHasher hasher = new ParallelHasher(threads)) {
+
+            long lastId = opts.containsKey("restart") ? Long.MIN_VALUE : readCheckpoint(checkpoint);
+            if (lastId != Long.MIN_VALUE) {
+                System.out.println("Resuming after user_id=" + lastId + " (from " + checkpoint + ")");
+            }
+
+            long remaining;
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT COUNT(*) FROM users_auth WHERE user_id > ? AND " + PLAINTEXT_FILTER)) {
+                ps.setLong(1, lastId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    remaining = rs.getLong(1);
+                }
+            }
+            System.out.printf("Plaintext rows to hash: %d  (chunk=%d, threads=%d)%n",
+                    remaining, chunk, hasher.parallelism());
+
+            conn.setAutoCommit(false);
+            ParallelHasher.Progress progress = new ParallelHasher.Progress(remaining);
+
+            String selectSql = "SELECT user_id, password_hash FROM users_auth " +
+                    "WHERE user_id > ? AND " + PLAINTEXT_FILTER + " ORDER BY user_id LIMIT ?";
+            String updateSql = "UPDATE users_auth SET password_hash = ? WHERE user_id = ? AND password_hash = ?";
+
+            try (PreparedStatement sel = conn.prepareStatement(selectSql);
+                 PreparedStatement upd = conn.prepareStatement(updateSql)) {
+
+                while (true) {
+                    List<Long> ids = new ArrayList<>(chunk);
+                    List<String> plain = new ArrayList<>(chunk);
+                    sel.setLong(1, lastId);
+                    sel.setInt(2, chunk);
+                    try (ResultSet rs = sel.executeQuery()) {
+                        while (rs.next()) {
+                            ids.add(rs.getLong("user_id"));
+                            plain.add(rs.getString("password_hash"));
+                        }
+                    }
+                    conn.commit(); // end the read snapshot before the slow part
+                    if (ids.isEmpty()) {
+                        break;
+                    }
+
+                    String[] hashed = plain.toArray(new String[0]);
+                    hasher.hashInPlace(hashed);
+
+                    for (int i = 0; i < hashed.length; i++) {
+                        upd.setString(1, hashed[i]);
+                        upd.setLong(2, ids.get(i));
+                        upd.setString(3, plain.get(i)); // skip rows changed meanwhile
+                        upd.addBatch();
+                    }
+                    upd.executeBatch();
+                    conn.commit();
+
+                    lastId = ids.get(ids.size() - 1);
+                    writeCheckpoint(checkpoint, lastId);
+                    progress.advance(ids.size());
+                }
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            }
+
+            Files.deleteIfExists(checkpoint);
+            System.out.println("Updated to hashed passwords: " + progress.done());
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.out.println("Re-run with --parallel to resume from " + checkpoint);
+            System.exit(1);
+        }
+
+        System.out.println("Done.");
+    }
+
+    private static long readCheckpoint(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return Long.MIN_VALUE;
+        }
+        String s = Files.readString(file, StandardCharsets.UTF_8).trim();
+        return s.isEmpty() ? Long.MIN_VALUE : Long.parseLong(s);
+    }
+
+    private static void writeCheckpoint(Path file, long lastId) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(tmp, Long.toString(lastId), StandardCharsets.UTF_8);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
 }
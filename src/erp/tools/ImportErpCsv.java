@@ -1,295 +1,349 @@
 package erp.tools;
 
 import erp.db.DatabaseConnection;
+import erp.ui.student.SeatReservationEngine;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.*;
-import java.util.Arrays;
-
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulk import of the ERP CSVs in {@code data/} (or the given folder).
+ *
+ * Pipeline per table: commons-csv streams the file (RFC 4180, so quoted
+ * commas and newlines are fine, columns matched by header name), rows are
+ * packed into multi-row {@code INSERT ... VALUES (...),(...)} statements of
+ * {@code --chunk} rows (what rewriteBatchedStatements would send), and the
+ * table's connection commits every {@code --commit-every} rows, so memory
+ * stays flat whatever the file size.
+ *
+ * Tables run in parallel on {@code --threads} connections as soon as the
+ * tables they reference are in:
+ *   students, instructors, courses, settings
+ *   sections            after courses, instructors
+ *   section_components  after sections
+ *   enrollments         after students, sections
+ *   grades              after enrollments, section_components
+ * A failed table stops its dependants; the others still finish. Seat
+ * counters and course_stats are rebuilt at the end. Each table reports
+ * rows and rows/sec. instructors reference auth_db.users_auth, so import
+ * users first (ImportUsersHashedCsv).
+ *
+ * Usage:
+ *   java -cp "out:lib/*" erp.tools.ImportErpCsv [data-dir]
+ *        [--threads 4] [--chunk 500] [--commit-every 10000]
+ */
 public class ImportErpCsv {
 
-    public static void main(String[] args) throws Exception {
-        String baseDir = (args.length > 0) ? args[0] : "data";
-
-        DatabaseConnection.init();
-
-        try (Connection conn = DatabaseConnection.erp().getConnection()) {
-            conn.setAutoCommit(false);
-            System.out.println("Connected to erp_db, starting import from: " + baseDir);
+    private static final CSVFormat CSV = CSVFormat.DEFAULT.builder()
+            .setHeader()
+            .setSkipHeaderRecord(true)
+            .setIgnoreEmptyLines(true)
+            .setTrim(true)
+            .build();
 
-            importStudents(conn, Path.of(baseDir, "students.csv"));
-            importInstructors(conn, Path.of(baseDir, "instructors.csv"));
-            importCourses(conn, Path.of(baseDir, "courses.csv"));
-            importSections(conn, Path.of(baseDir, "sections.csv"));
-            importEnrollments(conn, Path.of(baseDir, "enrollments.csv"));
-            importGrades(conn, Path.of(baseDir, "grades.csv"));
-            importSettings(conn, Path.of(baseDir, "settings.csv"));
+    private enum Kind { STRING, INT, LONG, DOUBLE }
 
-            conn.commit();
-            System.out.println("✅ All ERP CSVs imported successfully.");
-        }
+    /** Target column: CSV header of the same name, its type, and the value used when blank/NULL. */
+    private record Col(String name, Kind kind, boolean nullable, String def) {
     }
 
-    // ---------- helpers ----------
+    /** One table to load and the tables its foreign keys point at. */
+    private record Table(String name, String file, List<String> dependsOn, List<Col> cols) {
+    }
 
-    private static String[] splitCsv(String line, int expected) {
-        String[] parts = Arrays.stream(line.split(",", -1))
-                .map(String::trim)
-                .toArray(String[]::new);
-        if (parts.length != expected) {
-            parts = Arrays.copyOf(parts, expected);
+    private record Loaded(long rows, long nanos) {
+        double rowsPerSec() {
+            return nanos == 0 ? 0 : rows * 1e9 / nanos;
         }
-        return parts;
     }
 
-    private static String nullIfBlank(String s) {
-        return (s == null || s.isBlank()) ? null : s;
-    }
+    private static final List<Table> TABLES = List.of(
+            new Table("students", "students.csv", List.of(), List.of(
+                    req("student_id", Kind.STRING),
+                    req("roll_no", Kind.STRING),
+                    opt("full_name", Kind.STRING, null),
+                    req("program", Kind.STRING),
+                    req("year", Kind.INT))),
+            // instructor_id must match users_auth.user_id
+            new Table("instructors", "instructors.csv", List.of(), List.of(
+                    req("instructor_id", Kind.LONG),
+                    req("department", Kind.STRING),
+                    req("instructor_name", Kind.STRING))),
+            new Table("courses", "courses.csv", List.of(), List.of(
+                    req("course_id", Kind.STRING),
+                    req("code", Kind.STRING),
+                    req("title", Kind.STRING),
+                    opt("credits", Kind.INT, null))),
+            new Table("settings", "settings.csv", List.of(), List.of(
+                    req("setting_key", Kind.STRING),
+                    opt("setting_value", Kind.STRING, null))),
+            new Table("sections", "sections.csv", List.of("courses", "instructors"), List.of(
+                    opt("section_id", Kind.INT, null),
+                    req("course_id", Kind.STRING),
+                    req("instructor_id", Kind.LONG),
+                    req("day_time", Kind.STRING),
+                    opt("room", Kind.STRING, null),
+                    req("capacity", Kind.INT),
+                    req("semester", Kind.STRING),
+                    req("year", Kind.INT))),
+            new Table("section_components", "section_components.csv", List.of("sections"), List.of(
+                    opt("id", Kind.INT, null),
+                    req("section_id", Kind.INT),
+                    req("component_name", Kind.STRING),
+                    req("weight", Kind.INT))),
+            new Table("enrollments", "enrollments.csv", List.of("students", "sections"), List.of(
+                    opt("enrollment_id", Kind.INT, null),
+                    req("student_id", Kind.STRING),
+                    req("section_id", Kind.INT),
+                    opt("status", Kind.STRING, "REGISTERED"),
+                    opt("final_grade", Kind.STRING, null))),
+            new Table("grades", "grades.csv", List.of("enrollments", "section_components"), List.of(
+                    opt("grade_id", Kind.INT, null),
+                    req("enrollment_id", Kind.INT),
+                    req("component_id", Kind.INT),
+                    opt("score", Kind.DOUBLE, null))));
 
-    // ---------- per-table importers ----------
+    public static void main(String[] args) throws Exception {
+        String baseDir = (args.length > 0 && !args[0].startsWith("--")) ? args[0] : "data";
+        Map<String, String> opts = ToolArgs.parse(args);
+        int threads = Math.max(1, ToolArgs.intOpt(opts, "threads", 4));
+        int chunk = Math.max(1, ToolArgs.intOpt(opts, "chunk", 500));
+        int commitEvery = Math.max(chunk, ToolArgs.intOpt(opts, "commit-every", 10_000));
 
-    private static void importStudents(Connection conn, Path csv) throws Exception {
-        if (!Files.exists(csv)) {
-            System.out.println("⚠️ students.csv not found, skipping.");
-            return;
+        DatabaseConnection.init();
+        System.out.printf("Importing ERP CSVs from %s (%d threads, %d rows/statement, commit every %d)%n",
+                baseDir, threads, chunk, commitEvery);
+
+        AtomicInteger seq = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "erp-import-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        long t0 = System.nanoTime();
+        Map<String, String> errors = new ConcurrentHashMap<>();
+        Map<String, CompletableFuture<Loaded>> futures = new LinkedHashMap<>();
+        for (Table t : TABLES) { // listed parents-first
+            CompletableFuture<?>[] deps = t.dependsOn().stream()
+                    .map(futures::get)
+                    .toArray(CompletableFuture[]::new);
+            futures.put(t.name(), CompletableFuture.allOf(deps).thenApplyAsync(ignored -> {
+                try {
+                    return importTable(t, Path.of(baseDir, t.file()), chunk, commitEvery);
+                } catch (Exception ex) {
+                    errors.put(t.name(), String.valueOf(ex.getMessage()));
+                    throw new CompletionException(ex);
+                }
+            }, pool));
         }
-        System.out.println("Importing students from " + csv);
-
-        String sql = "INSERT INTO students (student_id, roll_no, full_name, program, year) VALUES (?,?,?,?,?)";
-        try (BufferedReader br = new BufferedReader(new FileReader(csv.toFile()));
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            String header = br.readLine(); // skip header
-            if (header == null) return;
-
-            String line;
-            int count = 0;
-            while ((line = br.readLine()) != null) {
-                if (line.isBlank()) continue;
-                String[] f = splitCsv(line, 5);
-                ps.setString(1, f[0]);
-                ps.setString(2, f[1]);
-                ps.setString(3, nullIfBlank(f[2]));
-                ps.setString(4, f[3]);
-                ps.setInt(5, Integer.parseInt(f[4]));
-                ps.addBatch();
-                count++;
+
+        boolean failed = false;
+        for (Map.Entry<String, CompletableFuture<Loaded>> e : futures.entrySet()) {
+            try {
+                e.getValue().join();
+            } catch (CompletionException ex) {
+                failed = true;
+                String why = errors.getOrDefault(e.getKey(), "skipped (a table it depends on failed)");
+                System.err.println("❌ " + e.getKey() + ": " + why);
             }
-            ps.executeBatch();
-            System.out.println("  → students: " + count + " rows");
         }
-    }
+        pool.shutdown();
 
-    private static void importInstructors(Connection conn, Path csv) throws Exception {
-        if (!Files.exists(csv)) {
-            System.out.println("⚠️ instructors.csv not found, skipping.");
-            return;
+        try (Connection conn = DatabaseConnection.erp().getConnection()) {
+            conn.setAutoCommit(false);
+            int recounted = SeatReservationEngine.recountAll(conn);
+            conn.commit();
+            System.out.println("  → seat counters and course stats rebuilt for " + recounted + " sections");
         }
-        System.out.println("Importing instructors from " + csv);
-
-        String sql = "INSERT INTO instructors (instructor_id, department, instructor_name) VALUES (?,?,?)";
-        try (BufferedReader br = new BufferedReader(new FileReader(csv.toFile()));
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            String header = br.readLine(); // skip
-            if (header == null) return;
-
-            String line;
-            int count = 0;
-            while ((line = br.readLine()) != null) {
-                if (line.isBlank()) continue;
-                String[] f = splitCsv(line, 3);
-                ps.setLong(1, Long.parseLong(f[0])); // instructor_id must match users_auth.user_id
-                ps.setString(2, f[1]);
-                ps.setString(3, f[2]);
-                ps.addBatch();
-                count++;
+
+        long total = 0;
+        for (CompletableFuture<Loaded> f : futures.values()) {
+            if (!f.isCompletedExceptionally()) {
+                total += f.join().rows();
             }
-            ps.executeBatch();
-            System.out.println("  → instructors: " + count + " rows");
+        }
+        double secs = (System.nanoTime() - t0) / 1e9;
+        System.out.printf("%s %,d rows in %.1f s (%,.0f rows/s overall)%n",
+                failed ? "⚠️ Import finished with errors:" : "✅ All ERP CSVs imported:", total, secs, total / secs);
+        if (failed) {
+            System.exit(1);
         }
     }
 
-    private static void importCourses(Connection conn, Path csv) throws Exception {
+    // ---------- per-table pipeline ----------
+
+    private static Loaded importTable(Table t, Path csv, int chunk, int commitEvery) throws Exception {
         if (!Files.exists(csv)) {
-            System.out.println("⚠️ courses.csv not found, skipping.");
-            return;
+            System.out.println("⚠️ " + t.file() + " not found, skipping.");
+            return new Loaded(0, 0);
         }
-        System.out.println("Importing courses from " + csv);
-
-        String sql = "INSERT INTO courses (course_id, code, title, credits) VALUES (?,?,?,?)";
-        try (BufferedReader br = new BufferedReader(new FileReader(csv.toFile()));
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            String header = br.readLine(); // skip
-            if (header == null) return;
-
-            String line;
-            int count = 0;
-            while ((line = br.readLine()) != null) {
-                if (line.isBlank()) continue;
-                String[] f = splitCsv(line, 4);
-                ps.setString(1, f[0]);
-                ps.setString(2, f[1]);
-                ps.setString(3, f[2]);
-                // credits as INT
-                if (f[3] == null || f[3].isBlank()) {
-                    ps.setNull(4, Types.INTEGER);
-                } else {
-                    ps.setInt(4, Integer.parseInt(f[3]));
+
+        long start = System.nanoTime();
+        long count = 0;
+        int nCols = t.cols().size();
+        chunk = Math.min(chunk, 65_535 / nCols); // placeholder limit of one statement
+
+        try (Connection conn = DatabaseConnection.erp().getConnection();
+             Reader in = Files.newBufferedReader(csv, StandardCharsets.UTF_8);
+             CSVParser parser = CSV.parse(in)) {
+
+            int[] index = headerIndex(t, parser.getHeaderMap());
+            conn.setAutoCommit(false);
+
+            Object[][] buf = new Object[chunk][];
+            int buffered = 0;
+            long sinceCommit = 0;
+            try (PreparedStatement full = conn.prepareStatement(insertSql(t, chunk))) {
+                for (CSVRecord r : parser) {
+                    Object[] row = new Object[nCols];
+                    for (int c = 0; c < nCols; c++) {
+                        row[c] = convert(t, t.cols().get(c), index[c] < 0 ? null : r.get(index[c]), r);
+                    }
+                    buf[buffered++] = row;
+
+                    if (buffered == chunk) {
+                        bind(full, t, buf, buffered);
+                        full.executeUpdate();
+                        count += buffered;
+                        sinceCommit += buffered;
+                        buffered = 0;
+                        if (sinceCommit >= commitEvery) {
+                            conn.commit();
+                            sinceCommit = 0;
+                        }
+                    }
                 }
-                ps.addBatch();
-                count++;
             }
-            ps.executeBatch();
-            System.out.println("  → courses: " + count + " rows");
+            if (buffered > 0) {
+                try (PreparedStatement tail = conn.prepareStatement(insertSql(t, buffered))) {
+                    bind(tail, t, buf, buffered);
+                    tail.executeUpdate();
+                }
+                count += buffered;
+            }
+            conn.commit();
         }
+
+        Loaded l = new Loaded(count, System.nanoTime() - start);
+        System.out.printf("  → %-19s %,10d rows in %6.2f s (%,.0f rows/s)%n",
+                t.name() + ":", l.rows(), l.nanos() / 1e9, l.rowsPerSec());
+        return l;
     }
 
-    private static void importSections(Connection conn, Path csv) throws Exception {
-        if (!Files.exists(csv)) {
-            System.out.println("⚠️ sections.csv not found, skipping.");
-            return;
+    // ---------- helpers ----------
+
+    private static Col req(String name, Kind kind) {
+        return new Col(name, kind, false, null);
+    }
+
+    private static Col opt(String name, Kind kind, String def) {
+        return new Col(name, kind, true, def);
+    }
+
+    /** CSV position of each target column (-1 when an optional column is absent). */
+    private static int[] headerIndex(Table t, Map<String, Integer> header) {
+        Map<String, Integer> byName = new HashMap<>();
+        for (Map.Entry<String, Integer> e : header.entrySet()) {
+            byName.put(e.getKey().trim().toLowerCase(), e.getValue());
         }
-        System.out.println("Importing sections from " + csv);
-
-        String sql = "INSERT INTO sections " +
-                "(section_id, course_id, instructor_id, day_time, room, capacity, semester, year) " +
-                "VALUES (?,?,?,?,?,?,?,?)";
-        try (BufferedReader br = new BufferedReader(new FileReader(csv.toFile()));
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            String header = br.readLine(); // skip
-            if (header == null) return;
-
-            String line;
-            int count = 0;
-            while ((line = br.readLine()) != null) {
-                if (line.isBlank()) continue;
-                String[] f = splitCsv(line, 8);
-                String sid = nullIfBlank(f[0]);
-                if (sid == null) ps.setNull(1, Types.INTEGER);
-                else ps.setInt(1, Integer.parseInt(sid));
-
-                ps.setString(2, f[1]); // course_id
-                ps.setLong(3, Long.parseLong(f[2])); // instructor_id
-                ps.setString(4, f[3]); // day_time
-                ps.setString(5, nullIfBlank(f[4])); // room
-                ps.setInt(6, Integer.parseInt(f[5])); // capacity
-                ps.setString(7, f[6]); // semester
-                ps.setInt(8, Integer.parseInt(f[7])); // year
-
-                ps.addBatch();
-                count++;
+        int[] idx = new int[t.cols().size()];
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < idx.length; i++) {
+            Col c = t.cols().get(i);
+            Integer pos = byName.get(c.name());
+            if (pos == null && !c.nullable()) {
+                missing.add(c.name());
             }
-            ps.executeBatch();
-            System.out.println("  → sections: " + count + " rows");
+            idx[i] = (pos == null) ? -1 : pos;
         }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException(t.file() + " has no column(s) " + missing);
+        }
+        return idx;
     }
 
-    private static void importEnrollments(Connection conn, Path csv) throws Exception {
-        if (!Files.exists(csv)) {
-            System.out.println("⚠️ enrollments.csv not found, skipping.");
-            return;
-        }
-        System.out.println("Importing enrollments from " + csv);
-
-        String sql = "INSERT INTO enrollments " +
-                "(enrollment_id, student_id, section_id, status) VALUES (?,?,?,?)";
-        try (BufferedReader br = new BufferedReader(new FileReader(csv.toFile()));
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            String header = br.readLine(); // skip
-            if (header == null) return;
-
-            String line;
-            int count = 0;
-            while ((line = br.readLine()) != null) {
-                if (line.isBlank()) continue;
-                String[] f = splitCsv(line, 4);
-                String eid = nullIfBlank(f[0]);
-                if (eid == null) ps.setNull(1, Types.INTEGER);
-                else ps.setInt(1, Integer.parseInt(eid));
-
-                ps.setString(2, f[1]); // student_id
-                ps.setInt(3, Integer.parseInt(f[2])); // section_id
-
-                String status = nullIfBlank(f[3]);
-                if (status == null) status = "REGISTERED";
-                ps.setString(4, status);
-
-                ps.addBatch();
-                count++;
+    private static Object convert(Table t, Col c, String raw, CSVRecord r) {
+        String v = (raw == null || raw.isEmpty() || raw.equalsIgnoreCase("NULL")) ? c.def() : raw;
+        if (v == null) {
+            if (!c.nullable()) {
+                throw new IllegalArgumentException(t.file() + " line " + r.getRecordNumber()
+                        + ": " + c.name() + " is required");
             }
-            ps.executeBatch();
-            System.out.println("  → enrollments: " + count + " rows");
+            return null;
+        }
+        try {
+            return switch (c.kind()) {
+                case STRING -> v;
+                case INT -> Integer.parseInt(v);
+                case LONG -> Long.parseLong(v);
+                case DOUBLE -> Double.parseDouble(v);
+            };
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(t.file() + " line " + r.getRecordNumber()
+                    + ": bad " + c.name() + " '" + v + "'");
         }
     }
 
-    private static void importGrades(Connection conn, Path csv) throws Exception {
-        if (!Files.exists(csv)) {
-            System.out.println("⚠️ grades.csv not found, skipping.");
-            return;
-        }
-        System.out.println("Importing grades from " + csv);
-
-        String sql = "INSERT INTO grades (enrollment_id, component, score, final_grade) VALUES (?,?,?,?)";
-        try (BufferedReader br = new BufferedReader(new FileReader(csv.toFile()));
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            String header = br.readLine(); // skip
-            if (header == null) return;
-
-            String line;
-            int count = 0;
-            while ((line = br.readLine()) != null) {
-                if (line.isBlank()) continue;
-                String[] f = splitCsv(line, 4);
-                ps.setInt(1, Integer.parseInt(f[0]));
-                ps.setString(2, f[1]);
-
-                String score = nullIfBlank(f[2]);
-                if (score == null) ps.setNull(3, Types.DECIMAL);
-                else ps.setBigDecimal(3, new java.math.BigDecimal(score));
-
-                ps.setString(4, nullIfBlank(f[3]));
-                ps.addBatch();
-                count++;
+    private static void bind(PreparedStatement ps, Table t, Object[][] rows, int n) throws SQLException {
+        int p = 1;
+        for (int i = 0; i < n; i++) {
+            Object[] row = rows[i];
+            for (int c = 0; c < row.length; c++) {
+                Object v = row[c];
+                if (v == null) {
+                    ps.setNull(p++, sqlType(t.cols().get(c).kind()));
+                } else {
+                    ps.setObject(p++, v);
+                }
             }
-            ps.executeBatch();
-            System.out.println("  → grades: " + count + " rows");
         }
     }
 
-    private static void importSettings(Connection conn, Path csv) throws Exception {
-        if (!Files.exists(csv)) {
-            System.out.println("⚠️ settings.csv not found, skipping.");
-            return;
-        }
-        System.out.println("Importing settings from " + csv);
-
-        String sql = "INSERT INTO settings (`key`,`value`) VALUES (?,?)";
-        try (BufferedReader br = new BufferedReader(new FileReader(csv.toFile()));
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            String header = br.readLine(); // skip
-            if (header == null) return;
-
-            String line;
-            int count = 0;
-            while ((line = br.readLine()) != null) {
-                if (line.isBlank()) continue;
-                String[] f = splitCsv(line, 2);
-                ps.setString(1, f[0]);
-                ps.setString(2, nullIfBlank(f[1]));
-                ps.addBatch();
-                count++;
+    private static int sqlType(Kind k) {
+        return switch (k) {
+            case STRING -> Types.VARCHAR;
+            case INT -> Types.INTEGER;
+            case LONG -> Types.BIGINT;
+            case DOUBLE -> Types.DOUBLE;
+        };
+    }
+
+    private static String insertSql(Table t, int rows) {
+        StringBuilder sb = new StringBuilder("INSERT INTO ").append(t.name()).append(" (");
+        StringBuilder group = new StringBuilder("(");
+        for (int i = 0; i < t.cols().size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+                group.append(',');
             }
-            ps.executeBatch();
-            System.out.println("  → settings: " + count + " rows");
+            sb.append(t.cols().get(i).name());
+            group.append('?');
+        }
+        group.append(')');
+        sb.append(") VALUES ");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0)
+                sb.append(',');
+            sb.append(group);
         }
+        return sb.toString();
     }
 }
@@ -0,0 +1,89 @@
+package erp.tools;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Thread-safe latency sample collector with percentile summary.
+ * Shared by the benchmark and load-generation tools.
+ */
+public class LatencyStats {
+
+    private final String name;
+    private long[] samples = new long[1024];
+    private int size;
+    private long errors;
+
+    public LatencyStats(String name) {
+        this.name = name;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public synchronized void record(long nanos) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+    }
+
+    public synchronized void recordError() {
+        errors++;
+    }
+
+    public synchronized Summary summarize(double wallSeconds) {
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+
+        double sum = 0;
+        for (long v : sorted) {
+            sum += v;
+        }
+        double meanMs = size == 0 ? 0 : (sum / size) / 1_000_000.0;
+
+        return new Summary(
+                name,
+                size,
+                errors,
+                wallSeconds > 0 ? size / wallSeconds : 0,
+                meanMs,
+                percentileMs(sorted, 50),
+                percentileMs(sorted, 95),
+                percentileMs(sorted, 99),
+                size == 0 ? 0 : sorted[size - 1] / 1_000_000.0);
+    }
+
+    private static double percentileMs(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int idx = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        idx = Math.max(0, Math.min(idx, sorted.length - 1));
+        return sorted[idx] / 1_000_000.0;
+    }
+
+    public record Summary(String name, long ops, long errors, double opsPerSec,
+            double meanMs, double p50Ms, double p95Ms, double p99Ms, double maxMs) {
+
+        public static String header() {
+            return String.format(Locale.ROOT, "%-22s %8s %6s %10s %9s %9s %9s %9s %9s",
+                    "workload", "ops", "errors", "ops/s", "mean ms", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        }
+
+        public String row() {
+            return String.format(Locale.ROOT, "%-22s %8d %6d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f",
+                    name, ops, errors, opsPerSec, meanMs, p50Ms, p95Ms, p99Ms, maxMs);
+        }
+
+        public static String csvHeader() {
+            return "workload,ops,errors,ops_per_sec,mean_ms,p50_ms,p95_ms,p99_ms,max_ms";
+        }
+
+        public String csvRow() {
+            return String.format(Locale.ROOT, "%s,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f",
+                    name, ops, errors, opsPerSec, meanMs, p50Ms, p95Ms, p99Ms, maxMs);
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package erp.tools;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import erp.auth.AuthService;
+import erp.auth.hash.PasswordVerifier;
+import erp.db.DatabaseConnection;
+import erp.ui.student.EnrollmentService;
+import erp.ui.student.RegistrationQueue;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registration-day load generator.
+ *
+ * Seeds synthetic students (plus matching users_auth rows) and a set of
+ * small-capacity courses, then releases all simulated students at once.
+ * Each one logs in through AuthService.login, loads the catalog and tries
+ * to register for a few random courses (optionally dropping one again),
+ * through EnrollmentService directly or through the RegistrationQueue.
+ *
+ * Reports per-step throughput and latency percentiles, Hikari connection
+ * wait per pool, register and drop outcomes and a correctness check that
+ * no section holds more REGISTERED students than its capacity. Latency is
+ * recorded only for attempts that actually registered / dropped; replies
+ * classified as errors count as errors, and rejections (full, duplicate,
+ * deadline) only appear in the outcome counts.
+ *
+ * Like ErpBenchmark it writes to the live tables (and users_auth), so it
+ * only runs with --yes; COURSE_DROP_DEADLINE is moved ahead for the run
+ * and restored, and everything it seeded is removed even if the run fails.
+ *
+ * Java 17 has no virtual threads, so students run on a fixed pool of
+ * platform threads (--concurrency); with more students than threads the
+ * surplus queue up, which still keeps the DB pool saturated.
+ *
+ * Usage:
+ *   java -cp "out:lib/*" erp.tools.RegistrationLoadTest
+ *        [--students 1000] [--concurrency 200] [--courses 20] [--sections 2]
+ *        [--capacity 30] [--attempts 3] [--drop-ratio 0.1]
+ *        [--mode direct|queue] [--skip-login] [--keep] --yes
+ */
+public class RegistrationLoadTest {
+
+    private static final String PASSWORD = "bench-pass";
+    private static final long AUTH_USER_BASE = 900_000_000L;
+
+    // pool name -> connection acquire samples
+    private static final Map<String, LatencyStats> POOL_WAIT = new ConcurrentHashMap<>();
+    private static final LongAdder POOL_TIMEOUTS = new LongAdder();
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = ToolArgs.parse(args);
+        if (!SyntheticDataset.confirmed(opts, "RegistrationLoadTest")) {
+            System.exit(2);
+        }
+        int students = ToolArgs.intOpt(opts, "students", 1000);
+        int concurrency = ToolArgs.intOpt(opts, "concurrency", 200);
+        int attempts = ToolArgs.intOpt(opts, "attempts", 3);
+        double dropRatio = Double.parseDouble(opts.getOrDefault("drop-ratio", "0.1"));
+        boolean useQueue = "queue".equalsIgnoreCase(opts.getOrDefault("mode", "direct"));
+        boolean skipLogin = opts.containsKey("skip-login");
+
+        SyntheticDataset.Spec spec = new SyntheticDataset.Spec(
+                students,
+                ToolArgs.intOpt(opts, "courses", 20),
+                ToolArgs.intOpt(opts, "sections", 2),
+                0,
+                ToolArgs.intOpt(opts, "capacity", 30),
+                0,
+                7L);
+
+        DatabaseConnection.setMetricsTrackerFactory(new WaitTrackerFactory());
+        DatabaseConnection.init();
+
+        SyntheticDataset data = new SyntheticDataset(spec);
+        boolean ok = false;
+        String oldDeadline = null;
+        boolean deadlineMoved = false;
+        try {
+            try (Connection conn = DatabaseConnection.erp().getConnection()) {
+                data.seed(conn);
+            }
+            if (!skipLogin) {
+                seedAuthUsers(data.studentIds());
+            }
+            // a past add/drop deadline would turn every attempt into a rejection
+            oldDeadline = SyntheticDataset.openAddDrop();
+            deadlineMoved = true;
+            POOL_WAIT.clear(); // ignore the seeding phase
+
+            LatencyStats login = new LatencyStats("login");
+            LatencyStats catalog = new LatencyStats("catalog-load");
+            LatencyStats register = new LatencyStats("register");
+            LatencyStats drop = new LatencyStats("drop");
+            Map<String, AtomicInteger> outcomes = new ConcurrentHashMap<>();
+            Map<String, AtomicInteger> dropOutcomes = new ConcurrentHashMap<>();
+
+            System.out.printf("Releasing %d students on %d threads (%s mode)...%n",
+                    students, concurrency, useQueue ? "queue" : "direct");
+
+            ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, concurrency));
+            CountDownLatch start = new CountDownLatch(1);
+            AuthService auth = new AuthService();
+
+            for (String sid : data.studentIds()) {
+                pool.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    ThreadLocalRandom rnd = ThreadLocalRandom.current();
+
+                    if (!skipLogin) {
+                        long t = System.nanoTime();
+                        try {
+                            auth.login(sid, PASSWORD);
+                            login.record(System.nanoTime() - t);
+                        } catch (Exception ex) {
+                            login.recordError();
+                            return;
+                        }
+                    }
+
+                    long t = System.nanoTime();
+                    try {
+                        ErpBenchmark.catalogLoad(sid);
+                        catalog.record(System.nanoTime() - t);
+                    } catch (Exception ex) {
+                        catalog.recordError();
+                    }
+
+                    List<String> registered = new ArrayList<>();
+                    for (int a = 0; a < attempts; a++) {
+                        String cid = data.courseIds().get(rnd.nextInt(data.courseIds().size()));
+                        t = System.nanoTime();
+                        try {
+                            String msg = useQueue
+                                    ? RegistrationQueue.get().submitRegister(sid, cid).get()
+                                    : EnrollmentService.registerForCourse(sid, cid);
+                            long elapsed = System.nanoTime() - t;
+                            String key = classify(msg);
+                            outcomes.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+                            if ("registered".equals(key)) {
+                                register.record(elapsed);
+                                registered.add(cid);
+                            } else if ("error".equals(key)) {
+                                register.recordError();
+                            }
+                        } catch (Exception ex) {
+                            register.recordError();
+                        }
+                    }
+
+                    if (!registered.isEmpty() && rnd.nextDouble() < dropRatio) {
+                        String cid = registered.get(rnd.nextInt(registered.size()));
+                        t = System.nanoTime();
+                        try {
+                            String msg = useQueue
+                                    ? RegistrationQueue.get().submitDrop(sid, cid).get()
+                                    : EnrollmentService.dropCourse(sid, cid);
+                            long elapsed = System.nanoTime() - t;
+                            String key = classifyDrop(msg);
+                            dropOutcomes.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+                            if ("dropped".equals(key)) {
+                                drop.record(elapsed);
+                            } else if ("error".equals(key)) {
+                                drop.recordError();
+                            }
+                        } catch (Exception ex) {
+                            drop.recordError();
+                        }
+                    }
+                });
+            }
+
+            long t0 = System.nanoTime();
+            start.countDown();
+            pool.shutdown();
+            pool.awaitTermination(2, TimeUnit.HOURS);
+            double wall = (System.nanoTime() - t0) / 1e9;
+
+            System.out.printf("%nCompleted in %.1f s%n%n", wall);
+            System.out.println(LatencyStats.Summary.header());
+            for (LatencyStats s : List.of(login, catalog, register, drop)) {
+                System.out.println(s.summarize(wall).row());
+            }
+
+            System.out.println("\nConnection wait (pool acquire):");
+            for (LatencyStats s : POOL_WAIT.values()) {
+                System.out.println(s.summarize(wall).row());
+            }
+            System.out.println("Connection timeouts: " + POOL_TIMEOUTS.sum());
+            if (!skipLogin) {
+                System.out.println(PasswordVerifier.get().stats());
+            }
+
+            System.out.println("\nRegistration outcomes:");
+            outcomes.forEach((k, v) -> System.out.printf("  %-14s %d%n", k, v.get()));
+            System.out.println("\nDrop outcomes:");
+            dropOutcomes.forEach((k, v) -> System.out.printf("  %-14s %d%n", k, v.get()));
+
+            try (Connection conn = DatabaseConnection.erp().getConnection()) {
+                ok = verifyCapacity(conn);
+            }
+        } finally {
+            // synthetic students and users_auth rows must not outlive a failed run
+            try {
+                if (deadlineMoved) {
+                    SyntheticDataset.restoreDeadline(oldDeadline);
+                }
+                if (!opts.containsKey("keep")) {
+                    try (Connection conn = DatabaseConnection.erp().getConnection()) {
+                        SyntheticDataset.cleanup(conn);
+                    }
+                    if (!skipLogin) {
+                        deleteAuthUsers();
+                    }
+                }
+            } finally {
+                DatabaseConnection.close();
+            }
+        }
+
+        if (!ok) {
+            System.exit(2);
+        }
+    }
+
+    // ---------- checks ----------
+
+    /** No section over capacity, and the seat ledger agrees with enrollments. */
+    private static boolean verifyCapacity(Connection conn) throws SQLException {
+        final String sql = "SELECT s.section_id, s.capacity, s.seats_taken, " +
+                "       COUNT(e.enrollment_id) AS registered " +
+                "FROM erp_db.sections s " +
+                "LEFT JOIN erp_db.enrollments e " +
+                "       ON e.section_id = s.section_id AND e.status = 'REGISTERED' " +
+                "WHERE s.course_id LIKE ? " +
+                "GROUP BY s.section_id, s.capacity, s.seats_taken";
+
+        int oversold = 0;
+        int drift = 0;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, SyntheticDataset.COURSE_PREFIX + "%");
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int cap = rs.getInt("capacity");
+                    int taken = rs.getInt("seats_taken");
+                    int reg = rs.getInt("registered");
+                    if (reg > cap) {
+                        oversold++;
+                        System.out.printf("  OVERSOLD section %d: %d / %d%n", rs.getLong("section_id"), reg, cap);
+                    }
+                    if (taken != reg) {
+                        drift++;
+                        System.out.printf("  LEDGER DRIFT section %d: seats_taken=%d registered=%d%n",
+                                rs.getLong("section_id"), taken, reg);
+                    }
+                }
+            }
+        }
+
+        System.out.println();
+        if (oversold == 0 && drift == 0) {
+            System.out.println("Capacity check: OK (no section over capacity, seat ledger consistent)");
+            return true;
+        }
+        System.out.println("Capacity check: FAILED (" + oversold + " oversold, " + drift + " drifted)");
+        return false;
+    }
+
+    private static String classify(String msg) {
+        if (EnrollmentService.MSG_REGISTERED.equals(msg)) return "registered";
+        String lower = (msg == null) ? "" : msg.toLowerCase();
+        if (lower.contains("already registered")) return "duplicate";
+        if (lower.contains("full")) return "full";
+        if (lower.contains("deadline")) return "deadline";
+        return "error";
+    }
+
+    private static String classifyDrop(String msg) {
+        if (EnrollmentService.MSG_DROPPED.equals(msg)) return "dropped";
+        String lower = (msg == null) ? "" : msg.toLowerCase();
+        if (lower.contains("not currently enrolled")) return "not-enrolled";
+        if (lower.contains("deadline")) return "deadline";
+        return "error";
+    }
+
+    // ---------- auth rows ----------
+
+    private static void seedAuthUsers(List<String> studentIds) throws SQLException {
+        // one hash for everyone; per-user salts add nothing to a load test
+        String hash = BCrypt.hashpw(PASSWORD, BCrypt.gensalt(12));
+        deleteAuthUsers();
+
+        String sql = "INSERT INTO users_auth " +
+                "(user_id, username, role, password_hash, status, last_login, failed_attempts) " +
+                "VALUES (?, ?, 'student', ?, 'active', NOW(), 0)";
+        try (Connection conn = DatabaseConnection.auth().getConnection();
+                PreparedStatement ps = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            try {
+                long id = AUTH_USER_BASE;
+                int n = 0;
+                for (String sid : studentIds) {
+                    ps.setLong(1, ++id);
+                    ps.setString(2, sid);
+                    ps.setString(3, hash);
+                    ps.addBatch();
+                    if (++n % 500 == 0) {
+                        ps.executeBatch();
+                    }
+                }
+                ps.executeBatch();
+                conn.commit();
+            } catch (SQLException ex) {
+                conn.rollback();
+                throw ex;
+            } finally {
+                conn.setAutoCommit(true); // back to the pool as it came
+            }
+        }
+    }
+
+    private static void deleteAuthUsers() throws SQLException {
+        try (Connection conn = DatabaseConnection.auth().getConnection();
+                PreparedStatement ps = conn.prepareStatement(
+                        "DELETE FROM users_auth WHERE user_id > ? AND user_id <= ?")) {
+            ps.setLong(1, AUTH_USER_BASE);
+            ps.setLong(2, AUTH_USER_BASE + 10_000_000L);
+            ps.executeUpdate();
+        }
+    }
+
+    // ---------- pool metrics ----------
+
+    private static final class WaitTrackerFactory implements MetricsTrackerFactory {
+        @Override
+        public IMetricsTracker create(String poolName, PoolStats poolStats) {
+            return new IMetricsTracker() {
+                @Override
+                public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                    POOL_WAIT.computeIfAbsent(poolName, LatencyStats::new).record(elapsedAcquiredNanos);
+                }
+
+                @Override
+                public void recordConnectionTimeout() {
+                    POOL_TIMEOUTS.increment();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,449 @@
+package erp.tools;
+
+import erp.db.DatabaseConnection;
+import erp.db.SettingsService;
+import erp.ui.student.SeatReservationEngine;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Scalable synthetic data for the benchmark / load tools.
+ *
+ * Everything lives in the regular erp_db tables (the services use
+ * schema-qualified SQL), tagged so it can be removed again:
+ *   students     student_id  'bench######'
+ *   courses      course_id   'BENCH####'
+ *   instructors  instructor_id from {@link #INSTRUCTOR_BASE}, department 'BENCH'
+ * Sections, components, enrollments and grades hang off those rows.
+ * Cleanup matches ids case-sensitively and in full (prefix plus digits
+ * only), so rows that merely start with "bench" in some letter case under
+ * the tables' case-insensitive collation are never touched.
+ *
+ * Because this writes into whatever erp_db the tool is configured for,
+ * the tools refuse to run without {@code --yes} (see {@link #confirmed}).
+ */
+public class SyntheticDataset {
+
+    public static final String STUDENT_PREFIX = "bench";
+    public static final String COURSE_PREFIX = "BENCH";
+    public static final long INSTRUCTOR_BASE = 9_000_000L;
+    private static final long ROLL_BASE = 900_000_000L;
+    private static final int BATCH = 500;
+
+    // full-id patterns for cleanup; REGEXP_LIKE 'c' is case-sensitive under any collation
+    private static final String STUDENT_PATTERN = "^" + STUDENT_PREFIX + "[0-9]+$";
+    private static final String COURSE_PATTERN = "^" + COURSE_PREFIX + "[0-9]+$";
+    private static final String INSTRUCTOR_DEPT = "BENCH";
+
+    public record Spec(int students, int courses, int sectionsPerCourse, int components,
+            int capacity, int coursesPerStudent, long randomSeed) {
+    }
+
+    /** A student and a course they can register for. */
+    public record Pair(String studentId, String courseId) {
+    }
+
+    private final Spec spec;
+    private final List<String> studentIds = new ArrayList<>();
+    private final List<String> courseIds = new ArrayList<>();
+    private final List<Integer> sectionIds = new ArrayList<>();
+
+    public SyntheticDataset(Spec spec) {
+        this.spec = spec;
+    }
+
+    public Spec spec() {
+        return spec;
+    }
+
+    public List<String> studentIds() {
+        return studentIds;
+    }
+
+    public List<String> courseIds() {
+        return courseIds;
+    }
+
+    public List<Integer> sectionIds() {
+        return sectionIds;
+    }
+
+    public static String studentId(int i) {
+        return String.format("%s%06d", STUDENT_PREFIX, i);
+    }
+
+    public static String courseId(int i) {
+        return String.format("%s%04d", COURSE_PREFIX, i);
+    }
+
+    // ---------- guard ----------
+
+    /**
+     * The tools write into the configured erp_db (every statement is
+     * schema-qualified, so there is no separate schema to point them at)
+     * and delete their rows again afterwards. Run them only against a
+     * disposable database; without {@code --yes} this explains that and
+     * returns false.
+     */
+    public static boolean confirmed(Map<String, String> opts, String tool) {
+        if (opts.containsKey("yes")) {
+            return true;
+        }
+        System.err.println(tool + " seeds synthetic rows into erp_db on the configured server "
+                + "(foreign key checks off while seeding) and deletes them afterwards.");
+        System.err.println("Point it at a disposable database (erp.jdbcUrl / ERP_JDBC_URL) and re-run with --yes.");
+        return false;
+    }
+
+    // ---------- seeding ----------
+
+    /** Remove any previous synthetic rows, then insert a fresh dataset. */
+    public void seed(Connection conn) throws SQLException {
+        boolean oldAuto = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            // instructors reference auth_db.users_auth in the CSV schema
+            setForeignKeyChecks(conn, false);
+            deleteRows(conn);
+            Random rnd = new Random(spec.randomSeed());
+
+            long t0 = System.nanoTime();
+            insertStudents(conn);
+            insertCoursesAndSections(conn);
+            List<Integer> componentIds = insertComponents(conn);
+            insertEnrollmentsAndGrades(conn, componentIds, rnd);
+            SeatReservationEngine.recountAll(conn);
+            conn.commit();
+
+            System.out.printf("Seeded %d students, %d courses, %d sections in %.1f s%n",
+                    studentIds.size(), courseIds.size(), sectionIds.size(),
+                    (System.nanoTime() - t0) / 1e9);
+        } catch (SQLException ex) {
+            conn.rollback();
+            throw ex;
+        } finally {
+            try {
+                // the pooled connection must not go back with checks off
+                setForeignKeyChecks(conn, true);
+            } finally {
+                conn.setAutoCommit(oldAuto);
+            }
+        }
+    }
+
+    /** Delete every synthetic row (safe to call when nothing was seeded). */
+    public static void cleanup(Connection conn) throws SQLException {
+        boolean oldAuto = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            deleteRows(conn);
+            conn.commit();
+        } catch (SQLException ex) {
+            conn.rollback();
+            throw ex;
+        } finally {
+            conn.setAutoCommit(oldAuto);
+        }
+    }
+
+    // ---------- workload helpers ----------
+
+    /**
+     * Every (student, course) of this dataset where the student is not
+     * registered and the course has more than {@code headroom} free seats,
+     * shuffled. With headroom = worker threads, concurrent register+drop
+     * cycles over distinct pairs cannot find a course full.
+     */
+    public List<Pair> openPairs(Connection conn, int headroom) throws SQLException {
+        List<String> open = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT course_id FROM erp_db.sections " +
+                        "WHERE course_id LIKE ? AND REGEXP_LIKE(course_id, ?, 'c') " +
+                        "GROUP BY course_id " +
+                        "HAVING SUM(COALESCE(capacity, 0)) - SUM(seats_taken) > ?")) {
+            ps.setString(1, COURSE_PREFIX + "%");
+            ps.setString(2, COURSE_PATTERN);
+            ps.setInt(3, headroom);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    open.add(rs.getString(1));
+                }
+            }
+        }
+
+        Set<String> registered = new HashSet<>();
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT e.student_id, s.course_id FROM erp_db.enrollments e " +
+                        "JOIN erp_db.sections s ON s.section_id = e.section_id " +
+                        "WHERE e.status = 'REGISTERED' " +
+                        "  AND s.course_id LIKE ? AND REGEXP_LIKE(s.course_id, ?, 'c')")) {
+            ps.setString(1, COURSE_PREFIX + "%");
+            ps.setString(2, COURSE_PATTERN);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    registered.add(rs.getString(1) + "\n" + rs.getString(2));
+                }
+            }
+        }
+
+        List<Pair> pairs = new ArrayList<>();
+        for (String sid : studentIds) {
+            for (String cid : open) {
+                if (!registered.contains(sid + "\n" + cid)) {
+                    pairs.add(new Pair(sid, cid));
+                }
+            }
+        }
+        Collections.shuffle(pairs, new Random(spec.randomSeed()));
+        return pairs;
+    }
+
+    /**
+     * Move COURSE_DROP_DEADLINE a year ahead so register/drop take their
+     * real path, and return the previous value (null if unset) for
+     * {@link #restoreDeadline}.
+     */
+    public static String openAddDrop() throws SQLException {
+        SettingsService.invalidate();
+        String previous = SettingsService.getString(SettingsService.COURSE_DROP_DEADLINE, null);
+        SettingsService.put(SettingsService.COURSE_DROP_DEADLINE, LocalDate.now().plusYears(1).toString());
+        return previous;
+    }
+
+    public static void restoreDeadline(String previous) throws SQLException {
+        if (previous != null) {
+            SettingsService.put(SettingsService.COURSE_DROP_DEADLINE, previous);
+            return;
+        }
+        try (Connection conn = DatabaseConnection.erp().getConnection();
+                PreparedStatement ps = conn.prepareStatement(
+                        "DELETE FROM erp_db.settings WHERE setting_key = ?")) {
+            ps.setString(1, SettingsService.COURSE_DROP_DEADLINE);
+            ps.executeUpdate();
+        }
+        SettingsService.invalidate();
+    }
+
+    private static void deleteRows(Connection conn) throws SQLException {
+        // LIKE narrows by index, REGEXP_LIKE keeps only our exact ids
+        String[] sqls = {
+                "DELETE g FROM erp_db.grades g " +
+                        "JOIN erp_db.enrollments e ON e.enrollment_id = g.enrollment_id " +
+                        "JOIN erp_db.sections s ON s.section_id = e.section_id " +
+                        "WHERE s.course_id LIKE ? AND REGEXP_LIKE(s.course_id, ?, 'c')",
+                "DELETE e FROM erp_db.enrollments e " +
+                        "JOIN erp_db.sections s ON s.section_id = e.section_id " +
+                        "WHERE s.course_id LIKE ? AND REGEXP_LIKE(s.course_id, ?, 'c')",
+                "DELETE sc FROM erp_db.section_components sc " +
+                        "JOIN erp_db.sections s ON s.section_id = sc.section_id " +
+                        "WHERE s.course_id LIKE ? AND REGEXP_LIKE(s.course_id, ?, 'c')",
+                "DELETE FROM erp_db.sections WHERE course_id LIKE ? AND REGEXP_LIKE(course_id, ?, 'c')",
+                "DELETE FROM erp_db.course_stats WHERE course_id LIKE ? AND REGEXP_LIKE(course_id, ?, 'c')",
+                "DELETE FROM erp_db.courses WHERE course_id LIKE ? AND REGEXP_LIKE(course_id, ?, 'c')"
+        };
+        for (String sql : sqls) {
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setString(1, COURSE_PREFIX + "%");
+                ps.setString(2, COURSE_PATTERN);
+                ps.executeUpdate();
+            }
+        }
+        try (PreparedStatement ps = conn.prepareStatement(
+                "DELETE FROM erp_db.students WHERE student_id LIKE ? AND REGEXP_LIKE(student_id, ?, 'c')")) {
+            ps.setString(1, STUDENT_PREFIX + "%");
+            ps.setString(2, STUDENT_PATTERN);
+            ps.executeUpdate();
+        }
+        try (PreparedStatement ps = conn.prepareStatement(
+                "DELETE FROM erp_db.instructors " +
+                        "WHERE instructor_id >= ? AND instructor_id < ? " +
+                        "  AND department = ? AND instructor_name LIKE 'Bench Instructor %'")) {
+            ps.setLong(1, INSTRUCTOR_BASE);
+            ps.setLong(2, INSTRUCTOR_BASE + 1_000_000L);
+            ps.setString(3, INSTRUCTOR_DEPT);
+            ps.executeUpdate();
+        }
+    }
+
+    private static void setForeignKeyChecks(Connection conn, boolean on) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("SET FOREIGN_KEY_CHECKS = " + (on ? 1 : 0));
+        }
+    }
+
+    private void insertStudents(Connection conn) throws SQLException {
+        String sql = "INSERT INTO erp_db.students (student_id, roll_no, full_name, program, year) " +
+                "VALUES (?, ?, ?, ?, ?)";
+        String[] programs = { "CSE", "ECE", "CSAM", "CSD", "CSB", "CSSS", "CSAI", "EVE" };
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (int i = 1; i <= spec.students(); i++) {
+                String id = studentId(i);
+                studentIds.add(id);
+                ps.setString(1, id);
+                ps.setLong(2, ROLL_BASE + i);
+                ps.setString(3, "Bench Student " + i);
+                ps.setString(4, programs[i % programs.length]);
+                ps.setInt(5, 2024);
+                ps.addBatch();
+                if (i % BATCH == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private void insertCoursesAndSections(Connection conn) throws SQLException {
+        String insCourse = "INSERT INTO erp_db.courses (course_id, code, title, credits) VALUES (?, ?, ?, ?)";
+        String insInstr = "INSERT INTO erp_db.instructors (instructor_id, department, instructor_name) " +
+                "VALUES (?, ?, ?)";
+        String insSection = "INSERT INTO erp_db.sections " +
+                "(course_id, instructor_id, day_time, room, capacity, semester, year) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        String[] slots = { "Mon 09:00-10:30", "Tue 10:45-12:15", "Wed 14:00-15:30",
+                "Thu 16:00-17:30", "Fri 11:00-12:30" };
+
+        try (PreparedStatement pc = conn.prepareStatement(insCourse);
+                PreparedStatement pi = conn.prepareStatement(insInstr);
+                PreparedStatement pSec = conn.prepareStatement(insSection, Statement.RETURN_GENERATED_KEYS)) {
+
+            long instructorId = INSTRUCTOR_BASE;
+            for (int c = 1; c <= spec.courses(); c++) {
+                String cid = courseId(c);
+                courseIds.add(cid);
+                pc.setString(1, cid);
+                pc.setString(2, "BEN" + (c % 1000));
+                pc.setString(3, "Benchmark Course " + c);
+                pc.setInt(4, 4);
+                pc.addBatch();
+
+                for (int k = 0; k < spec.sectionsPerCourse(); k++) {
+                    instructorId++;
+                    pi.setLong(1, instructorId);
+                    pi.setString(2, INSTRUCTOR_DEPT);
+                    pi.setString(3, "Bench Instructor " + (instructorId - INSTRUCTOR_BASE));
+                    pi.addBatch();
+                }
+            }
+            pc.executeBatch();
+            pi.executeBatch();
+
+            instructorId = INSTRUCTOR_BASE;
+            for (String cid : courseIds) {
+                for (int k = 0; k < spec.sectionsPerCourse(); k++) {
+                    instructorId++;
+                    pSec.setString(1, cid);
+                    pSec.setLong(2, instructorId);
+                    pSec.setString(3, slots[k % slots.length]);
+                    pSec.setString(4, "BR" + k);
+                    pSec.setInt(5, spec.capacity());
+                    pSec.setString(6, "Monsoon");
+                    pSec.setInt(7, 2025);
+                    pSec.executeUpdate();
+                    try (ResultSet keys = pSec.getGeneratedKeys()) {
+                        if (keys.next()) {
+                            sectionIds.add(keys.getInt(1));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private List<Integer> insertComponents(Connection conn) throws SQLException {
+        String sql = "INSERT INTO erp_db.section_components (section_id, component_name, weight) " +
+                "VALUES (?, ?, ?)";
+        List<Integer> ids = new ArrayList<>();
+        if (spec.components() <= 0) {
+            return ids;
+        }
+        int weight = 100 / spec.components();
+        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (int sectionId : sectionIds) {
+                for (int k = 1; k <= spec.components(); k++) {
+                    ps.setInt(1, sectionId);
+                    ps.setString(2, "Component " + k);
+                    ps.setInt(3, weight);
+                    ps.addBatch();
+                }
+            }
+            ps.executeBatch();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                while (keys.next()) {
+                    ids.add(keys.getInt(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private void insertEnrollmentsAndGrades(Connection conn, List<Integer> componentIds, Random rnd)
+            throws SQLException {
+        int perCourse = spec.sectionsPerCourse();
+        int comps = spec.components();
+        int weight = comps > 0 ? 100 / comps : 0;
+        int[] load = new int[sectionIds.size()];
+
+        String insEnr = "INSERT INTO erp_db.enrollments (student_id, section_id, status) VALUES (?, ?, 'REGISTERED')";
+        String insGrade = "INSERT INTO erp_db.grades (enrollment_id, component_id, score) VALUES (?, ?, ?)";
+
+        try (PreparedStatement pe = conn.prepareStatement(insEnr, Statement.RETURN_GENERATED_KEYS);
+                PreparedStatement pg = conn.prepareStatement(insGrade)) {
+            int pendingGrades = 0;
+            for (String sid : studentIds) {
+                int want = Math.min(spec.coursesPerStudent(), courseIds.size());
+                List<Integer> sectionIdx = new ArrayList<>();
+                for (int tries = 0; sectionIdx.size() < want && tries < want * 4; tries++) {
+                    int course = rnd.nextInt(courseIds.size());
+                    int idx = course * perCourse + rnd.nextInt(perCourse);
+                    boolean sameCourse = false;
+                    for (int other : sectionIdx) {
+                        if (other / perCourse == course) {
+                            sameCourse = true;
+                            break;
+                        }
+                    }
+                    if (!sameCourse && load[idx] < spec.capacity()) {
+                        sectionIdx.add(idx);
+                    }
+                }
+
+                for (int idx : sectionIdx) {
+                    load[idx]++;
+                    pe.setString(1, sid);
+                    pe.setInt(2, sectionIds.get(idx));
+                    pe.executeUpdate();
+                    long enrollmentId;
+                    try (ResultSet keys = pe.getGeneratedKeys()) {
+                        keys.next();
+                        enrollmentId = keys.getLong(1);
+                    }
+                    for (int k = 0; k < comps; k++) {
+                        pg.setLong(1, enrollmentId);
+                        pg.setInt(2, componentIds.get(idx * comps + k));
+                        pg.setDouble(3, Math.round(rnd.nextDouble() * weight * 10) / 10.0);
+                        pg.addBatch();
+                        pendingGrades++;
+                    }
+                    if (pendingGrades >= BATCH) {
+                        pg.executeBatch();
+                        pendingGrades = 0;
+                    }
+                }
+            }
+            pg.executeBatch();
+        }
+    }
+}
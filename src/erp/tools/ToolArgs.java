@@ -0,0 +1,44 @@
+package erp.tools;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@code --key value} / {@code --flag} parsing shared by the command-line
+ * tools in this package.
+ */
+final class ToolArgs {
+
+    private ToolArgs() {}
+
+    /** {@code --key value} pairs; a {@code --key} without a value maps to "true". */
+    static Map<String, String> parse(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            if (!a.startsWith("--")) {
+                continue;
+            }
+            String key = a.substring(2);
+            if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                opts.put(key, args[++i]);
+            } else {
+                opts.put(key, "true");
+            }
+        }
+        return opts;
+    }
+
+    static int intOpt(Map<String, String> opts, String key, int def) {
+        String v = opts.get(key);
+        if (v == null) {
+            return def;
+        }
+        try {
+            return Integer.parseInt(v.trim());
+        } catch (NumberFormatException ex) {
+            System.err.println("Ignoring bad value for --" + key + ": " + v);
+            return def;
+        }
+    }
+}
@@ -3,7 +3,7 @@ package erp.ui.admin;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 
-import org.mindrot.jbcrypt.BCrypt;
+import erp.auth.PasswordUtil;
 
 import java.awt.*;
 import java.sql.Connection;
@@ -229,7 +229,7 @@ public class AddStudent extends AdminFrameBase {
             }
 
             // Hash password
-            String hash = BCrypt.hashpw(password, BCrypt.gensalt(12));
+            String hash = PasswordUtil.hashPassword(password);
 
             // Insert Auth
             try (PreparedStatement ps = authConn.prepareStatement("INSERT INTO users_auth(username, role, password_hash, status) VALUES (?, 'student', ?, 'active')")) {
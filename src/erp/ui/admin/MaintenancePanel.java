@@ -1,19 +1,27 @@
 package erp.ui.admin;
 
+import erp.db.BackupEngine;
 import erp.db.DatabaseConnection;
 import erp.db.Maintenance;
 import erp.db.MaintenanceService;
+import erp.db.TableExport;
+import erp.ui.common.DataExecutor;
 import erp.ui.common.FontKit;
 import erp.ui.common.RoundedButton;
 import erp.ui.common.RoundedPanel;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class MaintenancePanel extends JPanel {
 
@@ -258,7 +266,7 @@ private void onToggleMaintenance() {
                 BorderFactory.createLineBorder(BORDER),
                 new EmptyBorder(18, 20, 20, 20)));
         card.setLayout(new BorderLayout(0, 14));
-        card.setMaximumSize(new Dimension(900, 260));
+        card.setMaximumSize(new Dimension(900, 360));
 
         // Header block
         JPanel header = new JPanel();
@@ -317,7 +325,39 @@ private void onToggleMaintenance() {
         rows.add(buildButtonRow(exportSelected, exportSelectedText));
         rows.add(Box.createVerticalStrut(10));
 
-        // 3) Import (future)
+        // 3) Consistent full backup
+        RoundedButton backup = new RoundedButton("Full backup archive…");
+        backup.setFont(FontKit.semibold(13f));
+        backup.setBackground(new Color(79, 70, 229));
+        backup.setForeground(Color.WHITE);
+        backup.setBorder(new EmptyBorder(8, 14, 8, 14));
+        backup.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+        backup.addActionListener(e -> onFullBackup());
+
+        JLabel backupText = new JLabel("Every auth_db / erp_db table from one snapshot → single .zip with manifest.");
+        backupText.setFont(FontKit.regular(12f));
+        backupText.setForeground(TEXT_600);
+
+        rows.add(buildButtonRow(backup, backupText));
+        rows.add(Box.createVerticalStrut(10));
+
+        // 4) Incremental backup on top of a previous archive
+        RoundedButton incremental = new RoundedButton("Incremental backup…");
+        incremental.setFont(FontKit.semibold(13f));
+        incremental.setBackground(new Color(124, 58, 237));
+        incremental.setForeground(Color.WHITE);
+        incremental.setBorder(new EmptyBorder(8, 14, 8, 14));
+        incremental.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+        incremental.addActionListener(e -> onIncrementalBackup());
+
+        JLabel incrementalText = new JLabel("Only rows changed since a previous archive (plus deletions) → small .zip.");
+        incrementalText.setFont(FontKit.regular(12f));
+        incrementalText.setForeground(TEXT_600);
+
+        rows.add(buildButtonRow(incremental, incrementalText));
+        rows.add(Box.createVerticalStrut(10));
+
+        // 5) Import (future)
         // RoundedButton importBtn = new RoundedButton("Import from CSV (coming soon)");
         // importBtn.setFont(FontKit.semibold(13f));
         // importBtn.setBackground(new Color(148, 163, 184));
@@ -364,24 +404,11 @@ private void onToggleMaintenance() {
             return;
 
         File dir = chooser.getSelectedFile();
-        try {
-            exportAuthTableToCsv("users_auth", new File(dir, "users_auth.csv"));
-            exportErpTableToCsv("students", new File(dir, "students.csv"));
-            exportErpTableToCsv("instructors", new File(dir, "instructors.csv"));
-
-            JOptionPane.showMessageDialog(
-                    this,
-                    "Export complete.\nFiles written to:\n" + dir.getAbsolutePath(),
-                    "Export",
-                    JOptionPane.INFORMATION_MESSAGE);
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            JOptionPane.showMessageDialog(
-                    this,
-                    "Export failed:\n" + ex.getMessage(),
-                    "Export Error",
-                    JOptionPane.ERROR_MESSAGE);
-        }
+        startExport(dir, List.of(
+                new TableExport.Table("auth_db", "users_auth"),
+                new TableExport.Table("erp_db", "students"),
+                new TableExport.Table("erp_db", "instructors")),
+                "Export complete.\nFiles written to:\n");
     }
 
     private void onExportSelectedTables() {
@@ -420,86 +447,164 @@ private void onToggleMaintenance() {
             return;
         File dir = chooser.getSelectedFile();
 
-        try {
-            for (String full : selected) {
-                String[] parts = full.split("\\.");
-                if (parts.length != 2)
-                    continue;
-                String db = parts[0];
-                String table = parts[1];
-
-                File out = new File(dir, table + ".csv");
-                if ("auth_db".equalsIgnoreCase(db)) {
-                    exportAuthTableToCsv(table, out);
-                } else {
-                    exportErpTableToCsv(table, out);
-                }
-            }
-
-            JOptionPane.showMessageDialog(
-                    this,
-                    "Selected tables exported to:\n" + dir.getAbsolutePath(),
-                    "Export",
-                    JOptionPane.INFORMATION_MESSAGE);
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            JOptionPane.showMessageDialog(
-                    this,
-                    "Export failed:\n" + ex.getMessage(),
-                    "Export Error",
-                    JOptionPane.ERROR_MESSAGE);
+        List<TableExport.Table> tables = new ArrayList<>();
+        for (String full : selected) {
+            tables.add(TableExport.Table.parse(full));
         }
+        startExport(dir, tables, "Selected tables exported to:\n");
     }
 
-    private void exportAuthTableToCsv(String table, File outFile) throws SQLException, IOException {
-        try (Connection conn = DatabaseConnection.auth().getConnection()) {
-            exportTableToCsv(conn, table, outFile);
+    /**
+     * Stream the tables to CSV off the EDT (several at once, see
+     * {@link TableExport}) behind a small non-modal progress window.
+     */
+    private void startExport(File dir, List<TableExport.Table> tables, String doneMessage) {
+        ProgressWindow progress = new ProgressWindow(this, "Exporting…");
+
+        DataExecutor.load(this,
+                () -> TableExport.exportAll(tables, dir.toPath(), progress),
+                rows -> {
+                    progress.dispose();
+                    JOptionPane.showMessageDialog(
+                            this,
+                            doneMessage + dir.getAbsolutePath(),
+                            "Export",
+                            JOptionPane.INFORMATION_MESSAGE);
+                },
+                ex -> {
+                    progress.dispose();
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(
+                            this,
+                            "Export failed:\n" + ex.getMessage(),
+                            "Export Error",
+                            JOptionPane.ERROR_MESSAGE);
+                });
+    }
+
+    private void onFullBackup() {
+        File file = chooseArchive("erp-backup-");
+        if (file != null) {
+            startBackup(file, null);
         }
     }
 
-    private void exportErpTableToCsv(String table, File outFile) throws SQLException, IOException {
-        try (Connection conn = DatabaseConnection.erp().getConnection()) {
-            exportTableToCsv(conn, table, outFile);
+    private void onIncrementalBackup() {
+        JFileChooser prev = new JFileChooser();
+        prev.setDialogTitle("Choose the previous backup archive (full or incremental)");
+        prev.setFileFilter(new FileNameExtensionFilter("Backup archives (*.zip)", "zip"));
+        if (prev.showOpenDialog(this) != JFileChooser.APPROVE_OPTION)
+            return;
+
+        File file = chooseArchive("erp-backup-inc-");
+        if (file != null) {
+            startBackup(file, prev.getSelectedFile());
         }
     }
 
-    private void exportTableToCsv(Connection conn, String table, File outFile)
-            throws SQLException, IOException {
-
-        String sql = "SELECT * FROM " + table;
-        try (PreparedStatement ps = conn.prepareStatement(sql);
-                ResultSet rs = ps.executeQuery();
-                FileWriter fw = new FileWriter(outFile)) {
-
-            ResultSetMetaData md = rs.getMetaData();
-            int cols = md.getColumnCount();
-
-            // header
-            for (int i = 1; i <= cols; i++) {
-                if (i > 1)
-                    fw.write(",");
-                fw.write(escapeCsv(md.getColumnName(i)));
-            }
-            fw.write("\n");
-
-            // rows
-            while (rs.next()) {
-                for (int i = 1; i <= cols; i++) {
-                    if (i > 1)
-                        fw.write(",");
-                    Object val = rs.getObject(i);
-                    fw.write(escapeCsv(val == null ? "" : val.toString()));
+    private File chooseArchive(String prefix) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Save backup archive");
+        chooser.setSelectedFile(new File(prefix
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".zip"));
+
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION)
+            return null;
+        return chooser.getSelectedFile();
+    }
+
+    /** Full backup when {@code previous} is null, else incremental on top of it. */
+    private void startBackup(File file, File previous) {
+        ProgressWindow progress = new ProgressWindow(this, "Backing up…");
+
+        DataExecutor.load(this,
+                () -> (previous == null)
+                        ? BackupEngine.backup(file.toPath(), BackupEngine.THREADS, progress)
+                        : BackupEngine.backupIncremental(previous.toPath(), file.toPath(),
+                                BackupEngine.THREADS, progress),
+                result -> {
+                    progress.dispose();
+                    JOptionPane.showMessageDialog(
+                            this,
+                            String.format("Backup complete (%s): %d tables, %,d rows, %,d KB in %.1f s.%nArchive:%n%s",
+                                    result.kind(), result.rows().size(), result.totalRows(),
+                                    result.bytes() / 1024, result.millis() / 1000.0, file.getAbsolutePath()),
+                            "Backup",
+                            JOptionPane.INFORMATION_MESSAGE);
+                },
+                ex -> {
+                    progress.dispose();
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(
+                            this,
+                            "Backup failed:\n" + ex.getMessage(),
+                            "Backup Error",
+                            JOptionPane.ERROR_MESSAGE);
+                });
+    }
+
+    /** Non-modal "tables done / rows so far" window; fed from export threads. */
+    private static final class ProgressWindow implements TableExport.Listener {
+        private final JDialog dlg;
+        private final JProgressBar bar = new JProgressBar(0, 0);
+        private final JPanel lines = new JPanel(new GridLayout(0, 1, 0, 4));
+        private final Map<TableExport.Table, JLabel> labels = new LinkedHashMap<>();
+        private int done;
+
+        ProgressWindow(Component parent, String title) {
+            dlg = new JDialog(SwingUtilities.getWindowAncestor(parent), title, Dialog.ModalityType.MODELESS);
+            dlg.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+
+            bar.setStringPainted(true);
+            bar.setIndeterminate(true);
+            bar.setString("Starting…");
+            lines.setOpaque(false);
+
+            JPanel content = new JPanel(new BorderLayout(0, 12));
+            content.setBorder(new EmptyBorder(16, 18, 16, 18));
+            content.add(bar, BorderLayout.NORTH);
+            content.add(lines, BorderLayout.CENTER);
+            dlg.setContentPane(content);
+            dlg.setMinimumSize(new Dimension(380, 120));
+            dlg.pack();
+            dlg.setLocationRelativeTo(parent);
+            dlg.setVisible(true);
+        }
+
+        @Override
+        public void planned(List<TableExport.Table> tables) {
+            SwingUtilities.invokeLater(() -> {
+                for (TableExport.Table t : tables) {
+                    JLabel l = new JLabel(t.qualified() + " — waiting");
+                    l.setFont(FontKit.regular(12f));
+                    l.setForeground(TEXT_600);
+                    labels.put(t, l);
+                    lines.add(l);
                 }
-                fw.write("\n");
-            }
+                bar.setIndeterminate(false);
+                bar.setMaximum(labels.size());
+                bar.setString(done + " / " + labels.size() + " tables");
+                dlg.pack();
+            });
+        }
+
+        @Override
+        public void progress(TableExport.Table table, long rows, boolean finished) {
+            SwingUtilities.invokeLater(() -> {
+                JLabel l = labels.get(table);
+                if (l != null) {
+                    l.setText(String.format("%s — %,d rows%s", table.qualified(), rows, finished ? " ✓" : "…"));
+                }
+                if (finished) {
+                    done++;
+                    bar.setValue(done);
+                    bar.setString(done + " / " + labels.size() + " tables");
+                }
+            });
         }
-    }
 
-    private String escapeCsv(String v) {
-        if (v.contains("\"") || v.contains(",") || v.contains("\n") || v.contains("\r")) {
-            v = v.replace("\"", "\"\"");
-            return "\"" + v + "\"";
+        void dispose() {
+            dlg.dispose();
         }
-        return v;
     }
 }
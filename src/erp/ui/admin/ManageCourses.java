@@ -1,8 +1,16 @@
 package erp.ui.admin;
 
 import erp.db.DatabaseConnection;
+import erp.ui.student.CatalogSnapshot;
+import erp.ui.student.CourseStats;
+import erp.ui.student.SeatReservationEngine;
+import erp.ui.common.DataExecutor;
+import erp.ui.common.Debounce;
 import erp.ui.common.FontKit;
+import erp.ui.common.LoadingPlaceholder;
 import erp.ui.common.RoundedPanel;
+import erp.ui.common.SearchIndex;
+import erp.ui.common.VirtualCardList;
 
 import javax.sql.DataSource;
 import javax.swing.*;
@@ -19,6 +27,7 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -87,13 +96,15 @@ public class ManageCourses extends AdminFrameBase {
 
     // Courses
     private List<CourseRecord> courses = new ArrayList<>();
-    private JPanel courseCardsContainer;
-    private CourseCard selectedCourseCard;
+    private DataExecutor.Task pendingCourseLoad;
+    private DataExecutor.Task pendingSectionLoad;
+    private VirtualCardList<CourseRecord> courseList;
     private CourseRecord selectedCourse;
 
-    // Course search
+    // Course search: index is rebuilt per load, reused per keystroke
     private JTextField courseSearchField;
     private String courseSearchQuery = "";
+    private SearchIndex<CourseRecord> courseIndex;
 
     // Course detail editor
     private JTextField courseIdField;
@@ -219,21 +230,19 @@ public class ManageCourses extends AdminFrameBase {
                 "JTextField.placeholderText",
                 "Search by ID, code, or title");
 
-        courseSearchField.getDocument().addDocumentListener(
-                new SimpleDocumentListener(() -> {
-                    courseSearchQuery = courseSearchField.getText();
-                    refreshCourseCards();
-                }));
+        Debounce.onTextChange(courseSearchField, Debounce.SEARCH_DELAY_MS, () -> {
+            courseSearchQuery = courseSearchField.getText();
+            refreshCourseCards();
+        });
 
         header.add(courseSearchField, BorderLayout.SOUTH);
         root.add(header, BorderLayout.NORTH);
 
-        // Cards grid
-        courseCardsContainer = new JPanel();
-        courseCardsContainer.setOpaque(false);
-        courseCardsContainer.setLayout(new GridLayout(0, 2, 12, 12));
+        // Cards grid: only the visible cards exist, recycled while scrolling
+        courseList = new VirtualCardList<>(new CourseCardRenderer(), 2, 12, 12);
+        courseList.setClickListener((cr, e) -> onCourseSelected(cr));
 
-        JScrollPane sc = new JScrollPane(courseCardsContainer);
+        JScrollPane sc = new JScrollPane(courseList);
         sc.setBorder(BorderFactory.createLineBorder(BORDER));
         sc.getVerticalScrollBar().setUnitIncrement(16);
         sc.getViewport().setBackground(BG);
@@ -563,29 +572,58 @@ public class ManageCourses extends AdminFrameBase {
             students = new ArrayList<>();
         }
 
-        courses.clear();
-        selectedCourse = null;
-        selectedCourseCard = null;
+        if (pendingCourseLoad != null) {
+            pendingCourseLoad.cancel();
+        }
+        if (courses.isEmpty() && courseList != null) {
+            courseList.showPlaceholder(new LoadingPlaceholder("Loading courses…"));
+        }
 
-        String sql = "SELECT course_id, code, title, credits FROM courses ORDER BY course_id";
+        pendingCourseLoad = DataExecutor.load(this,
+                () -> indexCourses(fetchCourses()),
+                loaded -> {
+                    pendingCourseLoad = null;
+                    applyLoadedCourses(loaded);
+                },
+                ex -> {
+                    pendingCourseLoad = null;
+                    showError("Failed to load courses", ex);
+                    applyLoadedCourses(indexCourses(new ArrayList<>()));
+                });
+    }
 
-        try (Connection conn = getConn();
-                PreparedStatement ps = conn.prepareStatement(sql);
-                ResultSet rs = ps.executeQuery()) {
-
-            while (rs.next()) {
-                CourseRecord cr = new CourseRecord();
-                cr.originalCourseId = rs.getString("course_id");
-                cr.courseId = cr.originalCourseId;
-                cr.code = rs.getString("code");
-                cr.title = rs.getString("title");
-                cr.credits = rs.getInt("credits");
-                courses.add(cr);
-            }
+    /** Runs off the EDT (see loadCourses). */
+    private List<CourseRecord> fetchCourses() throws SQLException {
+        List<CourseRecord> loaded = new ArrayList<>();
+        for (CatalogSnapshot.Course c : CatalogSnapshot.get().courses()) {
+            CourseRecord cr = new CourseRecord();
+            cr.originalCourseId = c.courseId();
+            cr.courseId = cr.originalCourseId;
+            cr.code = c.code();
+            cr.title = c.title();
+            cr.credits = c.credits();
+            loaded.add(cr);
+        }
+        return loaded;
+    }
 
-        } catch (SQLException ex) {
-            showError("Failed to load courses", ex);
+    /** Also off the EDT: the search index is built once per load. */
+    private static SearchIndex<CourseRecord> indexCourses(List<CourseRecord> loaded) {
+        return new SearchIndex<>(loaded,
+                cr -> cr.courseId,
+                cr -> cr.code,
+                cr -> cr.title);
+    }
+
+    private void applyLoadedCourses(SearchIndex<CourseRecord> loaded) {
+        ensureCollections();
+        courses.clear();
+        courses.addAll(loaded.items());
+        selectedCourse = null;
+        if (courseList != null) {
+            courseList.setSelected(null);
         }
+        courseIndex = loaded;
 
         refreshCourseCards();
 
@@ -622,29 +660,10 @@ public class ManageCourses extends AdminFrameBase {
     }
 
     private void refreshCourseCards() {
-        if (courseCardsContainer == null) {
+        if (courseList == null || courseIndex == null) {
             return;
         }
-        courseCardsContainer.removeAll();
-        selectedCourseCard = null;
-
-        String q = (courseSearchQuery == null) ? "" : courseSearchQuery.trim().toLowerCase();
-
-        for (CourseRecord cr : courses) {
-            if (!q.isEmpty()) {
-                String combined = (cr.courseId + " " +
-                        (cr.code != null ? cr.code : "") + " " +
-                        (cr.title != null ? cr.title : "")).toLowerCase();
-                if (!combined.contains(q)) {
-                    continue;
-                }
-            }
-            CourseCard card = new CourseCard(cr);
-            courseCardsContainer.add(card);
-        }
-
-        courseCardsContainer.revalidate();
-        courseCardsContainer.repaint();
+        courseList.setItems(courseIndex.search(courseSearchQuery));
     }
 
     private void loadSectionsForCourse(CourseRecord course) {
@@ -656,6 +675,11 @@ public class ManageCourses extends AdminFrameBase {
             dirtySectionIds = new HashSet<>();
         }
 
+        if (pendingSectionLoad != null) {
+            pendingSectionLoad.cancel();
+            pendingSectionLoad = null;
+        }
+
         sections.clear();
         selectedSection = null;
         selectedSectionCard = null;
@@ -663,63 +687,62 @@ public class ManageCourses extends AdminFrameBase {
 
         if (sectionsContainer != null) {
             sectionsContainer.removeAll();
+            sectionsContainer.revalidate();
+            sectionsContainer.repaint();
         }
 
+        students.clear();
+        if (studentsModel != null) {
+            studentsModel.fireTableDataChanged();
+        }
+        pendingNewStudents.clear();
+        pendingRemovedEnrollmentIds.clear();
+        updateButtonsEnabled();
+
         if (course == null) {
-            if (sectionsContainer != null) {
-                sectionsContainer.revalidate();
-                sectionsContainer.repaint();
-            }
-            students.clear();
-            if (studentsModel != null) {
-                studentsModel.fireTableDataChanged();
-            }
-            pendingNewStudents.clear();
-            pendingRemovedEnrollmentIds.clear();
-            updateButtonsEnabled();
             return;
         }
 
-        String sql = """
-                SELECT s.section_id,
-                       s.course_id,
-                       s.instructor_id,
-                       s.day_time,
-                       s.room,
-                       s.capacity,
-                       s.semester,
-                       s.year,
-                       i.instructor_name
-                FROM sections s
-                LEFT JOIN instructors i
-                  ON i.instructor_id = s.instructor_id
-                WHERE s.course_id = ?
-                ORDER BY s.year, s.semester, s.section_id
-                """;
-
-        try (Connection conn = getConn();
-                PreparedStatement ps = conn.prepareStatement(sql)) {
+        // the snapshot may have just been invalidated, so this can be a DB refresh
+        pendingSectionLoad = DataExecutor.load(this,
+                () -> fetchSections(course.originalCourseId),
+                loaded -> {
+                    pendingSectionLoad = null;
+                    applyLoadedSections(loaded);
+                },
+                ex -> {
+                    pendingSectionLoad = null;
+                    showError("Failed to load sections", ex);
+                });
+    }
 
-            ps.setString(1, course.originalCourseId);
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    SectionRecord sr = new SectionRecord();
-                    sr.sectionId = rs.getInt("section_id");
-                    sr.courseId = rs.getString("course_id");
-                    sr.instructorId = rs.getString("instructor_id");
-                    sr.instructorName = rs.getString("instructor_name");
-                    sr.dayTime = rs.getString("day_time");
-                    sr.room = rs.getString("room");
-                    sr.capacity = rs.getInt("capacity");
-                    sr.semester = rs.getString("semester");
-                    sr.year = rs.getInt("year");
-                    sections.add(sr);
-                }
-            }
+    /** Runs off the EDT (see loadSectionsForCourse). */
+    private static List<SectionRecord> fetchSections(String courseId) throws SQLException {
+        List<CatalogSnapshot.Section> rows = new ArrayList<>(CatalogSnapshot.get().sections(courseId));
+        rows.sort(Comparator.comparingInt(CatalogSnapshot.Section::year)
+                .thenComparing(CatalogSnapshot.Section::semester,
+                        Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparingInt(CatalogSnapshot.Section::sectionId));
+        List<SectionRecord> loaded = new ArrayList<>(rows.size());
+        for (CatalogSnapshot.Section s : rows) {
+            SectionRecord sr = new SectionRecord();
+            sr.sectionId = s.sectionId();
+            sr.courseId = s.courseId();
+            sr.instructorId = s.instructorId();
+            sr.instructorName = s.instructorName();
+            sr.dayTime = s.dayTime();
+            sr.room = s.room();
+            sr.capacity = s.capacity();
+            sr.semester = s.semester();
+            sr.year = s.year();
+            loaded.add(sr);
+        }
+        return loaded;
+    }
 
-        } catch (SQLException ex) {
-            showError("Failed to load sections", ex);
-        }
+    private void applyLoadedSections(List<SectionRecord> loaded) {
+        sections.clear();
+        sections.addAll(loaded);
 
         if (sectionsContainer != null) {
             int total = sections.size();
@@ -731,14 +754,6 @@ public class ManageCourses extends AdminFrameBase {
             sectionsContainer.revalidate();
             sectionsContainer.repaint();
         }
-
-        students.clear();
-        if (studentsModel != null) {
-            studentsModel.fireTableDataChanged();
-        }
-        pendingNewStudents.clear();
-        pendingRemovedEnrollmentIds.clear();
-
         updateButtonsEnabled();
     }
 
@@ -894,6 +909,8 @@ public class ManageCourses extends AdminFrameBase {
             ps.setString(3, ttl);
             ps.setInt(4, credits);
             ps.executeUpdate();
+            CourseStats.refreshCourse(conn, cid);
+            CatalogSnapshot.invalidate();
 
             loadCourses();
 
@@ -987,8 +1004,10 @@ public class ManageCourses extends AdminFrameBase {
                     ps.setString(1, cr.originalCourseId);
                     ps.executeUpdate();
                 }
+                CourseStats.refreshCourse(conn, cr.originalCourseId);
 
                 conn.commit();
+                CatalogSnapshot.invalidate();
                 loadCourses();
 
             } catch (SQLException ex) {
@@ -1091,6 +1110,8 @@ public class ManageCourses extends AdminFrameBase {
             ps.setInt(7, yr);
 
             ps.executeUpdate();
+            CourseStats.refreshCourse(conn, selectedCourse.originalCourseId);
+            CatalogSnapshot.invalidate();
             loadSectionsForCourse(selectedCourse);
 
         } catch (SQLException ex) {
@@ -1168,8 +1189,12 @@ public class ManageCourses extends AdminFrameBase {
                     ps.setInt(1, sr.sectionId);
                     ps.executeUpdate();
                 }
+                if (selectedCourse != null) {
+                    CourseStats.refreshCourse(conn, selectedCourse.originalCourseId);
+                }
 
                 conn.commit();
+                CatalogSnapshot.invalidate();
                 loadSectionsForCourse(selectedCourse);
 
             } catch (SQLException ex) {
@@ -1300,6 +1325,9 @@ public class ManageCourses extends AdminFrameBase {
 
                 ps.setString(1, sr.enrollmentId);
                 ps.executeUpdate();
+                SeatReservationEngine.recountSection(conn, selectedSection.sectionId);
+                CatalogSnapshot.invalidateStudent(sr.studentId);
+                CatalogSnapshot.invalidate(); // admin edit: show the seat change now
 
             } catch (SQLException ex) {
                 showError("Failed to remove student from section", ex);
@@ -1387,6 +1415,8 @@ public class ManageCourses extends AdminFrameBase {
                         ps.setString(5, selectedCourse.originalCourseId);
                         ps.executeUpdate();
                     }
+                    // drops the old summary row if the id changed
+                    CourseStats.refreshCourse(conn, oldId);
 
                     selectedCourse.originalCourseId = selectedCourse.courseId;
                     courseDirty = false;
@@ -1458,9 +1488,21 @@ public class ManageCourses extends AdminFrameBase {
                             ps.executeBatch();
                         }
                     }
+
+                    SeatReservationEngine.recountSection(conn, selectedSection.sectionId);
+                }
+
+                // capacity / instructor edits change the catalog summary
+                if (selectedCourse != null) {
+                    CourseStats.refreshCourse(conn, selectedCourse.originalCourseId);
                 }
 
                 conn.commit();
+                if (pendingNewStudents != null) {
+                    for (StudentRow r : pendingNewStudents) {
+                        CatalogSnapshot.invalidateStudent(r.studentId);
+                    }
+                }
 
                 if (pendingNewStudents == null) {
                     pendingNewStudents = new ArrayList<>();
@@ -1481,6 +1523,7 @@ public class ManageCourses extends AdminFrameBase {
                         JOptionPane.INFORMATION_MESSAGE);
 
                 // Reload from DB
+                CatalogSnapshot.invalidate();
                 loadCourses();
 
             } catch (SQLException ex) {
@@ -1596,13 +1639,15 @@ public class ManageCourses extends AdminFrameBase {
     // Inner classes: cards and table model
     // ------------------------------------------------------------------------
 
+    /** Recycled by the course list: built once, re-pointed at records by {@link #bind}. */
     private class CourseCard extends RoundedPanel {
-        final CourseRecord record;
-        boolean selected = false;
+        private final JPanel badge = new JPanel();
+        private final JLabel code = new JLabel();
+        private final JLabel title = new JLabel();
+        private final JLabel credits = new JLabel();
 
-        CourseCard(CourseRecord record) {
+        CourseCard() {
             super(18);
-            this.record = record;
             setLayout(new BorderLayout(8, 4));
             setOpaque(false);
             setBorder(new EmptyBorder(12, 14, 12, 14));
@@ -1614,29 +1659,20 @@ public class ManageCourses extends AdminFrameBase {
             setMinimumSize(new Dimension(0, h));
 
             // Colored badge (department-based, like catalog)
-            JPanel badge = new JPanel();
             badge.setPreferredSize(new Dimension(6, 1));
             badge.setMaximumSize(new Dimension(6, Integer.MAX_VALUE));
-            badge.setBackground(pickCourseAccent(record));
             add(badge, BorderLayout.WEST);
 
             JPanel text = new JPanel();
             text.setOpaque(false);
             text.setLayout(new BoxLayout(text, BoxLayout.Y_AXIS));
 
-            String codeLine = record.code != null && !record.code.isBlank()
-                    ? record.code + " • " + record.courseId
-                    : record.courseId;
-
-            JLabel code = new JLabel(codeLine);
             code.setFont(FontKit.semibold(14f));
             code.setForeground(TEXT_900);
 
-            JLabel title = new JLabel(record.title != null ? record.title : "");
             title.setFont(FontKit.regular(13f));
             title.setForeground(TEXT_600);
 
-            JLabel credits = new JLabel(record.credits + " credits");
             credits.setFont(FontKit.regular(12f));
             credits.setForeground(TEXT_400);
 
@@ -1647,49 +1683,36 @@ public class ManageCourses extends AdminFrameBase {
             text.add(credits);
 
             add(text, BorderLayout.CENTER);
-
-            addMouseListener(new MouseAdapter() {
-                @Override
-                public void mouseClicked(MouseEvent e) {
-                    onCourseCardClicked(CourseCard.this);
-                }
-
-                @Override
-                public void mouseEntered(MouseEvent e) {
-                    if (!selected) {
-                        setBackground(CARD_HOVER);
-                        repaint();
-                    }
-                }
-
-                @Override
-                public void mouseExited(MouseEvent e) {
-                    if (!selected) {
-                        setBackground(CARD);
-                        repaint();
-                    }
-                }
-            });
         }
 
-        void setSelected(boolean selected) {
-            this.selected = selected;
+        void bind(CourseRecord record, boolean selected, boolean hovered) {
+            badge.setBackground(pickCourseAccent(record));
+            code.setText(record.code != null && !record.code.isBlank()
+                    ? record.code + " • " + record.courseId
+                    : record.courseId);
+            title.setText(record.title != null ? record.title : "");
+            credits.setText(record.credits + " credits");
+
             if (selected) {
                 setBackground(CARD_HOVER);
                 setBorder(new EmptyBorder(11, 13, 11, 13));
             } else {
-                setBackground(CARD);
+                setBackground(hovered ? CARD_HOVER : CARD);
                 setBorder(new EmptyBorder(12, 14, 12, 14));
             }
-            repaint();
         }
     }
 
-    private void onCourseCardClicked(CourseCard card) {
-        if (card == null)
-            return;
-        setSelectedCard(card);
-        onCourseSelected(card.record);
+    private class CourseCardRenderer implements VirtualCardList.Renderer<CourseRecord> {
+        @Override
+        public JComponent create(int kind) {
+            return new CourseCard();
+        }
+
+        @Override
+        public void bind(JComponent card, CourseRecord item, boolean selected, boolean hovered) {
+            ((CourseCard) card).bind(item, selected, hovered);
+        }
     }
 
     private Color pickCourseAccent(CourseRecord rec) {
@@ -1719,18 +1742,6 @@ public class ManageCourses extends AdminFrameBase {
         }
     }
 
-    private void setSelectedCard(CourseCard card) {
-        if (selectedCourseCard == card)
-            return;
-        if (selectedCourseCard != null) {
-            selectedCourseCard.setSelected(false);
-        }
-        selectedCourseCard = card;
-        if (selectedCourseCard != null) {
-            selectedCourseCard.setSelected(true);
-        }
-    }
-
     private void onCourseSelected(CourseRecord cr) {
         selectedCourse = cr;
         populateCourseEditor(cr);
@@ -1,9 +1,11 @@
 package erp.ui.admin;
 
 import erp.db.DatabaseConnection;
+import erp.ui.common.DataExecutor;
 import erp.ui.common.FontKit;
 import erp.ui.common.RoundedButton;
 import erp.ui.common.RoundedPanel;
+import erp.ui.student.CourseStats;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -385,146 +387,121 @@ public class ManageUsersPanel extends JPanel {
     // DB LOADING
     // ---------------------------------------------------------------------
 
+    // bumped on every reload so pages of an older load are dropped
+    private int loadGeneration;
+    private DataExecutor.Task studentsTask;
+    private DataExecutor.Task instructorsTask;
+
     private void loadFromDatabase() {
+        int gen = ++loadGeneration;
+        if (studentsTask != null) {
+            studentsTask.cancel();
+        }
+        if (instructorsTask != null) {
+            instructorsTask.cancel();
+        }
+
         studentsModel.clear();
         instructorsModel.clear();
-
-        loadStudentsFromDb();
-        loadInstructorsFromDb();
-
         studentsModel.fireTableDataChanged();
         instructorsModel.fireTableDataChanged();
 
-        updateFilters(); // apply filter after reload
+        loadStudentsFromDb(gen, 0L);
+        loadInstructorsFromDb(gen, 0L);
     }
 
-    private void loadStudentsFromDb() {
-        String sql = """
-                SELECT user_id, username, role, status, last_login
-                FROM users_auth
-                WHERE role = 'student'
-                ORDER BY user_id
-                """;
-
-        studentsModel.clear();
-
-        try (Connection authConn = DatabaseConnection.auth().getConnection();
-                PreparedStatement ps = authConn.prepareStatement(sql);
-                ResultSet rs = ps.executeQuery()) {
-
-            while (rs.next()) {
-                StudentsTableModel.Row row = new StudentsTableModel.Row();
-                row.state = RowState.CLEAN;
-                row.userId = rs.getString("user_id");
-                row.username = rs.getString("username");
-                row.role = rs.getString("role");
-                row.status = rs.getString("status");
-
-                Timestamp ts = rs.getTimestamp("last_login");
-                row.lastLogin = (ts != null) ? ts.toString() : "-";
-
-                populateStudentDetails(row);
-
-                studentsModel.addLoadedRow(row);
-            }
+    /** One keyset page of students (auth + ERP profile); chains to the next page. */
+    private void loadStudentsFromDb(int gen, long afterUserId) {
+        studentsTask = DataExecutor.load(this,
+                () -> UserDirectory.studentsAfter(afterUserId, UserDirectory.PAGE_SIZE),
+                page -> {
+                    if (gen != loadGeneration) {
+                        return;
+                    }
+                    int first = studentsModel.getRowCount();
+                    for (UserDirectory.Joined<UserDirectory.StudentProfile> j : page.rows()) {
+                        StudentsTableModel.Row row = new StudentsTableModel.Row();
+                        fillAuth(row, j.auth());
+                        UserDirectory.StudentProfile p = j.profile();
+                        if (p != null) {
+                            row.fullName = p.fullName();
+                            row.rollNo = p.rollNo();
+                            row.program = p.program();
+                            row.year = p.year();
+                        }
+                        studentsModel.addLoadedRow(row);
+                    }
+                    if (!page.rows().isEmpty()) {
+                        studentsModel.fireTableRowsInserted(first, studentsModel.getRowCount() - 1);
+                    }
+                    updateFilters(); // apply filter as rows arrive
 
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this,
-                    "Failed to load students from database.\n" + e.getMessage(),
-                    "DB Error",
-                    JOptionPane.ERROR_MESSAGE);
-        }
+                    if (page.hasMore()) {
+                        loadStudentsFromDb(gen, page.nextAfter());
+                    }
+                },
+                ex -> {
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(this,
+                            "Failed to load students from database.\n" + ex.getMessage(),
+                            "DB Error",
+                            JOptionPane.ERROR_MESSAGE);
+                });
     }
 
-    private void populateStudentDetails(StudentsTableModel.Row row) {
-        String sql = """
-                SELECT full_name, roll_no, program, year
-                FROM students
-                WHERE student_id = ?
-                """;
-
-        try (Connection erpConn = DatabaseConnection.erp().getConnection();
-                PreparedStatement ps = erpConn.prepareStatement(sql)) {
-
-            // student_id = username
-            ps.setString(1, row.username);
+    /** One keyset page of instructors (auth + ERP profile); chains to the next page. */
+    private void loadInstructorsFromDb(int gen, long afterUserId) {
+        instructorsTask = DataExecutor.load(this,
+                () -> UserDirectory.instructorsAfter(afterUserId, UserDirectory.PAGE_SIZE),
+                page -> {
+                    if (gen != loadGeneration) {
+                        return;
+                    }
+                    int first = instructorsModel.getRowCount();
+                    for (UserDirectory.Joined<UserDirectory.InstructorProfile> j : page.rows()) {
+                        InstructorsTableModel.Row row = new InstructorsTableModel.Row();
+                        fillAuth(row, j.auth());
+                        UserDirectory.InstructorProfile p = j.profile();
+                        if (p != null) {
+                            row.fullName = p.name();
+                            row.department = p.department();
+                        }
+                        instructorsModel.addLoadedRow(row);
+                    }
+                    if (!page.rows().isEmpty()) {
+                        instructorsModel.fireTableRowsInserted(first, instructorsModel.getRowCount() - 1);
+                    }
+                    updateFilters();
 
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    row.fullName = rs.getString("full_name");
-                    row.rollNo = rs.getString("roll_no");
-                    row.program = rs.getString("program");
-                    row.year = rs.getString("year");
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("[WARN] No student ERP row for username/student_id="
-                    + row.username + ": " + e.getMessage());
-        }
+                    if (page.hasMore()) {
+                        loadInstructorsFromDb(gen, page.nextAfter());
+                    }
+                },
+                ex -> {
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(this,
+                            "Failed to load instructors from database.\n" + ex.getMessage(),
+                            "DB Error",
+                            JOptionPane.ERROR_MESSAGE);
+                });
     }
 
-    private void loadInstructorsFromDb() {
-        String sql = """
-                SELECT user_id, username, role, status, last_login
-                FROM users_auth
-                WHERE role = 'instructor'
-                ORDER BY user_id
-                """;
-
-        instructorsModel.clear();
-
-        try (Connection authConn = DatabaseConnection.auth().getConnection();
-                PreparedStatement ps = authConn.prepareStatement(sql);
-                ResultSet rs = ps.executeQuery()) {
-
-            while (rs.next()) {
-                InstructorsTableModel.Row row = new InstructorsTableModel.Row();
-                row.state = RowState.CLEAN;
-                row.userId = rs.getString("user_id");
-                row.username = rs.getString("username");
-                row.role = rs.getString("role");
-                row.status = rs.getString("status");
-
-                Timestamp ts = rs.getTimestamp("last_login");
-                row.lastLogin = (ts != null) ? ts.toString() : "-";
-
-                populateInstructorDetails(row);
-
-                instructorsModel.addLoadedRow(row);
-            }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this,
-                    "Failed to load instructors from database.\n" + e.getMessage(),
-                    "DB Error",
-                    JOptionPane.ERROR_MESSAGE);
-        }
+    private static void fillAuth(StudentsTableModel.Row row, UserDirectory.AuthRow a) {
+        row.state = RowState.CLEAN;
+        row.userId = String.valueOf(a.userId());
+        row.username = a.username();
+        row.role = a.role();
+        row.status = a.status();
+        row.lastLogin = (a.lastLogin() != null) ? a.lastLogin().toString() : "-";
     }
 
-    private void populateInstructorDetails(InstructorsTableModel.Row row) {
-        String sql = """
-                SELECT instructor_name, department
-                FROM instructors
-                WHERE instructor_id = ?
-                """;
-
-        try (Connection erpConn = DatabaseConnection.erp().getConnection();
-                PreparedStatement ps = erpConn.prepareStatement(sql)) {
-
-            ps.setString(1, row.userId);
-
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    row.fullName = rs.getString("instructor_name");
-                    row.department = rs.getString("department");
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("[WARN] No instructor ERP row for user_id="
-                    + row.userId + ": " + e.getMessage());
-        }
+    private static void fillAuth(InstructorsTableModel.Row row, UserDirectory.AuthRow a) {
+        row.state = RowState.CLEAN;
+        row.userId = String.valueOf(a.userId());
+        row.username = a.username();
+        row.role = a.role();
+        row.status = a.status();
+        row.lastLogin = (a.lastLogin() != null) ? a.lastLogin().toString() : "-";
     }
 
     // ---------------------------------------------------------------------
@@ -910,6 +887,7 @@ public class ManageUsersPanel extends JPanel {
                 PreparedStatement ps = erpConn.prepareStatement(erpSql)) {
             ps.setString(1, r.userId);
             ps.executeUpdate();
+            CourseStats.refreshCoursesOfInstructor(erpConn, r.userId);
         }
 
         String authSql = "DELETE FROM users_auth WHERE user_id = ?";
@@ -959,6 +937,7 @@ public class ManageUsersPanel extends JPanel {
             ps.setString(3, r.department); // dept from table
             ps.setString(4, r.userId); // instructor_id = user_id (1000001, etc.)
             ps.executeUpdate();
+            CourseStats.refreshCoursesOfInstructor(erpConn, r.userId);
         }
 
         r.state = RowState.CLEAN;
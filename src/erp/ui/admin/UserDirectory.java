@@ -0,0 +1,176 @@
+package erp.ui.admin;
+
+import erp.db.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bulk loader for the admin user tables: auth_db.users_auth joined with
+ * the erp_db profile rows (students / instructors).
+ *
+ * The two schemas sit behind separate pools, so the join happens here:
+ * one keyset page of auth rows ({@code user_id > after ORDER BY user_id
+ * LIMIT n}), then the matching profiles in chunked IN lists on one ERP
+ * connection, hash-joined in memory. A page costs 1 + ceil(n / 500)
+ * round-trips however many users it holds.
+ */
+public final class UserDirectory {
+
+    /** Rows per page; override with -Derp.admin.userPage. */
+    public static final int PAGE_SIZE = Math.max(50, Integer.getInteger("erp.admin.userPage", 1000));
+
+    private static final int IN_CHUNK = 500;
+
+    public record AuthRow(long userId, String username, String role, String status, Timestamp lastLogin) {
+    }
+
+    public record StudentProfile(String studentId, String fullName, String rollNo, String program, String year) {
+    }
+
+    public record InstructorProfile(long instructorId, String name, String department) {
+    }
+
+    /** Auth row plus its ERP profile (null when the ERP row is missing). */
+    public record Joined<P>(AuthRow auth, P profile) {
+    }
+
+    /** One keyset page; {@code nextAfter} is -1 once the table is exhausted. */
+    public record Page<P>(List<Joined<P>> rows, long nextAfter) {
+        public boolean hasMore() {
+            return nextAfter >= 0;
+        }
+    }
+
+    private UserDirectory() {}
+
+    /**
+     * Students with {@code user_id > afterUserId}; profiles match on
+     * student_id = username, ignoring case like the column's collation does.
+     */
+    public static Page<StudentProfile> studentsAfter(long afterUserId, int limit) throws SQLException {
+        List<AuthRow> auth = authPage("student", afterUserId, limit);
+        List<String> keys = new ArrayList<>(auth.size());
+        for (AuthRow a : auth) {
+            keys.add(a.username());
+        }
+
+        Map<String, StudentProfile> profiles = fetchInChunks(keys,
+                "SELECT student_id, full_name, roll_no, program, year FROM students WHERE student_id IN ",
+                rs -> new StudentProfile(
+                        rs.getString("student_id"),
+                        rs.getString("full_name"),
+                        rs.getString("roll_no"),
+                        rs.getString("program"),
+                        rs.getString("year")),
+                sp -> caseKey(sp.studentId()));
+
+        return join(auth, limit, a -> profiles.get(caseKey(a.username())));
+    }
+
+    /** Instructors with {@code user_id > afterUserId}; profiles match on instructor_id = user_id. */
+    public static Page<InstructorProfile> instructorsAfter(long afterUserId, int limit) throws SQLException {
+        List<AuthRow> auth = authPage("instructor", afterUserId, limit);
+        List<Long> keys = new ArrayList<>(auth.size());
+        for (AuthRow a : auth) {
+            keys.add(a.userId());
+        }
+
+        Map<Long, InstructorProfile> profiles = fetchInChunks(keys,
+                "SELECT instructor_id, instructor_name, department FROM instructors WHERE instructor_id IN ",
+                rs -> new InstructorProfile(
+                        rs.getLong("instructor_id"),
+                        rs.getString("instructor_name"),
+                        rs.getString("department")),
+                InstructorProfile::instructorId);
+
+        return join(auth, limit, a -> profiles.get(a.userId()));
+    }
+
+    // ---------- helpers ----------
+
+    /** Join key for usernames / student ids, which MySQL compares case-insensitively. */
+    private static String caseKey(String id) {
+        return (id == null) ? null : id.toLowerCase(Locale.ROOT);
+    }
+
+    private static List<AuthRow> authPage(String role, long afterUserId, int limit) throws SQLException {
+        String sql = """
+                SELECT user_id, username, role, status, last_login
+                FROM users_auth
+                WHERE role = ? AND user_id > ?
+                ORDER BY user_id
+                LIMIT ?
+                """;
+
+        List<AuthRow> rows = new ArrayList<>(limit);
+        try (Connection authConn = DatabaseConnection.auth().getConnection();
+                PreparedStatement ps = authConn.prepareStatement(sql)) {
+            ps.setString(1, role);
+            ps.setLong(2, afterUserId);
+            ps.setInt(3, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new AuthRow(
+                            rs.getLong("user_id"),
+                            rs.getString("username"),
+                            rs.getString("role"),
+                            rs.getString("status"),
+                            rs.getTimestamp("last_login")));
+                }
+            }
+        }
+        return rows;
+    }
+
+    @FunctionalInterface
+    private interface RowReader<P> {
+        P read(ResultSet rs) throws SQLException;
+    }
+
+    private static <K, P> Map<K, P> fetchInChunks(List<K> keys, String sqlPrefix,
+            RowReader<P> reader, Function<P, K> keyOf) throws SQLException {
+        if (keys.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<K, P> byKey = new HashMap<>(keys.size() * 2);
+        try (Connection erpConn = DatabaseConnection.erp().getConnection()) {
+            for (int from = 0; from < keys.size(); from += IN_CHUNK) {
+                List<K> chunk = keys.subList(from, Math.min(keys.size(), from + IN_CHUNK));
+                String sql = sqlPrefix + "(" + "?,".repeat(chunk.size() - 1) + "?)";
+                try (PreparedStatement ps = erpConn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        ps.setObject(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            P p = reader.read(rs);
+                            byKey.put(keyOf.apply(p), p);
+                        }
+                    }
+                }
+            }
+        }
+        return byKey;
+    }
+
+    private static <P> Page<P> join(List<AuthRow> auth, int limit, Function<AuthRow, P> lookup) {
+        List<Joined<P>> rows = new ArrayList<>(auth.size());
+        for (AuthRow a : auth) {
+            rows.add(new Joined<>(a, lookup.apply(a)));
+        }
+        long next = (auth.size() < limit) ? -1 : auth.get(auth.size() - 1).userId();
+        return new Page<>(rows, next);
+    }
+}
@@ -4,7 +4,7 @@ import javax.imageio.ImageIO;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 
-import org.mindrot.jbcrypt.BCrypt;
+import erp.auth.PasswordUtil;
 
 import java.awt.*;
 import java.awt.geom.RoundRectangle2D;
@@ -143,7 +143,7 @@ public class ChangePassword extends JFrame {
     private boolean setNewPassword(String pwd, String usr){
 
         // Hash password
-        String hash = BCrypt.hashpw(pwd, BCrypt.gensalt(12));
+        String hash = PasswordUtil.hashPassword(pwd);
         String changePwdSQL = "UPDATE users_auth SET password_hash = ?, last_login = NOW() WHERE username = ?";
 
         try (Connection conn = DatabaseConnection.auth().getConnection();
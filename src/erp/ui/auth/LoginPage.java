@@ -8,10 +8,6 @@ import java.awt.event.FocusAdapter;
 import java.awt.event.FocusEvent;
 import java.awt.geom.RoundRectangle2D;
 import java.io.InputStream;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 
 import erp.auth.AuthService;
 import erp.ui.common.FontKit;
@@ -21,7 +17,6 @@ import erp.ui.admin.AdminDashboard;
 import java.util.Locale;
 import erp.auth.AuthContext;
 import erp.auth.Role;
-import erp.db.DatabaseConnection;
 import erp.ui.student.StudentDashboard;
 import erp.ui.student.StudentLookupService;
 
@@ -29,7 +24,6 @@ import erp.ui.common.RoundedButton;
 import erp.ui.common.RoundedTextField;
 import erp.ui.common.RoundedPasswordField;
 
-import java.sql.Timestamp;
 
 public class LoginPage extends JFrame {
 
@@ -133,26 +127,9 @@ public class LoginPage extends JFrame {
                 String pwStr = new String(pw);
                 java.util.Arrays.fill(pw, '\0');
 
-                boolean firstLogin = checkFirstLogin(user);
-                if (firstLogin) {
-                    SwingUtilities.invokeLater(() -> {
-                        new ChangePassword(user).setVisible(true);
-                        dispose();
-                    });
-                    return;
-                }
-
                 try {
-                    boolean locked = isLocked(user);
-                    if (locked) {
-                        SwingUtilities.invokeLater(() -> {
-                            showError("Account is locked. Try again later.");
-                        });
-                        return;
-                    }
-
+                    // one users_auth read + one write; lockout is tracked inside AuthService
                     var session = new AuthService().login(user, pwStr);
-                    resetWrongAttempts(user);
 
                     // store session centrally for auth checks elsewhere
                     AuthContext.setSession(session);
@@ -216,23 +193,16 @@ public class LoginPage extends JFrame {
                         }
                     });
 
+                } catch (AuthService.FirstLoginException ex) {
+                    SwingUtilities.invokeLater(() -> {
+                        new ChangePassword(ex.getUsername()).setVisible(true);
+                        dispose();
+                    });
                 } catch (AuthService.AuthException ex) {
                     SwingUtilities.invokeLater(() -> showError(ex.getMessage()));
-                    updateWrongAttempts(user);
-                    int wrong = getWrongAttempts(user);
-                    if (wrong > 5) {
-                        lockAcc(user);
-                    }
-                } 
-                catch (Exception ex) {
+                } catch (Exception ex) {
                     ex.printStackTrace();
-                    int wa = 5 - getWrongAttempts(user);
-                    SwingUtilities.invokeLater(() -> showError("Incorrect username or password. " + wa + " attempts remaining."));
-                    updateWrongAttempts(user);
-                    int wrong = getWrongAttempts(user);
-                    if (wrong >= 5) {
-                        lockAcc(user);
-                    }
+                    SwingUtilities.invokeLater(() -> showError("Incorrect username or password."));
                 } finally {
                     SwingUtilities.invokeLater(() -> {
                         signIn.setEnabled(true);
@@ -243,77 +213,6 @@ public class LoginPage extends JFrame {
         });
     }
 
-    private void updateWrongAttempts(String usr) {
-        String sql = "UPDATE users_auth SET failed_attempts = failed_attempts + 1 WHERE username = ?";
-        try (Connection conn = DatabaseConnection.auth().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, usr);
-            stmt.executeUpdate();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-    }
-
-    private int getWrongAttempts(String usr) {
-        String sql = "SELECT failed_attempts FROM users_auth WHERE username = ?";
-        try (Connection conn = DatabaseConnection.auth().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, usr);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("failed_attempts");
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return 0;
-    }
-
-    private void lockAcc(String usr) {
-        String sql = "UPDATE users_auth SET locked_until = NOW() + INTERVAL 1 MINUTE WHERE username = ?";
-        try (Connection conn = DatabaseConnection.auth().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, usr);
-            stmt.executeUpdate();
-            SwingUtilities.invokeLater(() -> showError("Account locked for 1 minute due to too many failed attempts."));
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-    }
-
-    private boolean isLocked(String user) {
-        String checkLockSQL = "SELECT NOW(), locked_until FROM users_auth WHERE username = ?";
-        try (Connection conn = DatabaseConnection.auth().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(checkLockSQL)) {
-            stmt.setString(1, user);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                Timestamp now = rs.getTimestamp("NOW()");
-                Timestamp lockedUntil = rs.getTimestamp("locked_until");
-                if (lockedUntil != null && lockedUntil.after(now)) {
-                    return true;
-                } else {
-                    return false;
-                }
-            }
-            return false;
-        } catch (SQLException ex) {
-            ex.printStackTrace();
-            return false;
-        }
-    }
-
-    private void resetWrongAttempts(String usr) {
-        String sql = "UPDATE users_auth SET failed_attempts = 0, locked_until = NULL WHERE username = ?";
-        try (Connection conn = DatabaseConnection.auth().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, usr);
-            stmt.executeUpdate();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-    }
-
     private void showError(String msg) {
         if (msg == null || msg.isBlank()) {
             errorLabel.setText(" ");
@@ -417,26 +316,6 @@ public class LoginPage extends JFrame {
         }
     }
 
-    private boolean checkFirstLogin(String username) {
-        boolean first = false;
-        String sql = "SELECT last_login FROM users_auth WHERE username = ?";
-        try (Connection conn = DatabaseConnection.auth().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, username);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                String lastLogin = rs.getString("last_login");
-                // first login if value is null OR 0000-00-00
-                if (lastLogin == null || lastLogin.toString().startsWith("0000-00-00")) {
-                    first = true;
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return first;
-    }
-
     // Quick manual launch
     public static void main(String[] args) {
         try {
@@ -0,0 +1,171 @@
+package erp.ui.common;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Shared executor for JDBC work started from the UI.
+ *
+ * Screens hand it a background {@link Callable} plus EDT callbacks, much
+ * like a SwingWorker:
+ *
+ * <pre>
+ *   DataExecutor.load(this, () -> fetchRows(id), rows -> showRows(rows), ex -> showError(ex));
+ * </pre>
+ *
+ * The task is tied to an owner component. When the owner stops being
+ * displayable (its frame is disposed because the user navigated away)
+ * the task is cancelled and its callbacks are dropped, so a slow query
+ * can never repaint a dead screen. Confirmed writes go through
+ * {@link #write} instead, which has no owner and is never cancelled.
+ *
+ * Work runs on a small fixed pool of daemon platform threads (Java 17:
+ * no virtual threads), sized by {@code erp.dataThreads} (default 6), which
+ * stays below the default Hikari pool so UI loads cannot starve it.
+ */
+public final class DataExecutor {
+
+    private static final ExecutorService POOL;
+
+    static {
+        AtomicInteger n = new AtomicInteger();
+        POOL = Executors.newFixedThreadPool(Math.max(1, Integer.getInteger("erp.dataThreads", 6)), r -> {
+            Thread t = new Thread(r, "erp-data-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private DataExecutor() {}
+
+    /** Handle for a submitted load/save; cancelling drops its callbacks. */
+    public static final class Task {
+        private volatile boolean cancelled;
+        private volatile Future<?> future;
+        private volatile Runnable detach = () -> {};
+
+        public void cancel() {
+            cancelled = true;
+            Future<?> f = future;
+            if (f != null) {
+                f.cancel(true);
+            }
+            // the EDT callback may never run now, so unhook from the owner here
+            detach();
+        }
+
+        /** Remove the owner listener once; always on the EDT. */
+        private void detach() {
+            Runnable d = detach;
+            detach = () -> {};
+            if (SwingUtilities.isEventDispatchThread()) {
+                d.run();
+            } else {
+                SwingUtilities.invokeLater(d);
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * Run {@code work} off the EDT, then deliver the result (or the error)
+     * on the EDT, unless the task was cancelled or the owner went away.
+     */
+    public static <T> Task load(Component owner, Callable<T> work,
+                                Consumer<? super T> onSuccess,
+                                Consumer<? super Exception> onError) {
+        Task task = new Task();
+        bindToOwner(owner, task);
+
+        task.future = POOL.submit(() -> {
+            if (task.isCancelled()) {
+                return;
+            }
+            T result = null;
+            Exception failure = null;
+            try {
+                result = work.call();
+            } catch (Exception ex) {
+                failure = ex;
+            }
+
+            final T r = result;
+            final Exception f = failure;
+            SwingUtilities.invokeLater(() -> {
+                task.detach();
+                if (task.isCancelled()) {
+                    return;
+                }
+                if (f != null) {
+                    if (onError != null) {
+                        onError.accept(f);
+                    } else {
+                        f.printStackTrace();
+                    }
+                } else if (onSuccess != null) {
+                    onSuccess.accept(r);
+                }
+            });
+        });
+        return task;
+    }
+
+    /** Same as {@link #load} for work without a result (saves, deletes). */
+    public static Task run(Component owner, Callable<Void> work,
+                           Runnable onSuccess,
+                           Consumer<? super Exception> onError) {
+        return load(owner, work, v -> {
+            if (onSuccess != null) {
+                onSuccess.run();
+            }
+        }, onError);
+    }
+
+    /**
+     * Same as {@link #run} but not tied to any owner: the task is never
+     * cancelled and its callbacks always run, even after the screen that
+     * started it was disposed. For writes the user has already confirmed
+     * (grade saves), which must not be dropped by navigating away.
+     */
+    public static Task write(Callable<Void> work,
+                             Runnable onSuccess,
+                             Consumer<? super Exception> onError) {
+        return run(null, work, onSuccess, onError);
+    }
+
+    // ---------- helpers ----------
+
+    private static void bindToOwner(Component owner, Task task) {
+        if (owner == null) {
+            return;
+        }
+        HierarchyListener l = new HierarchyListener() {
+            private boolean wasDisplayable = owner.isDisplayable();
+
+            @Override
+            public void hierarchyChanged(HierarchyEvent e) {
+                if ((e.getChangeFlags() & HierarchyEvent.DISPLAYABILITY_CHANGED) == 0) {
+                    return;
+                }
+                boolean now = owner.isDisplayable();
+                if (wasDisplayable && !now) {
+                    task.cancel();
+                }
+                wasDisplayable = now;
+            }
+        };
+        owner.addHierarchyListener(l);
+        task.detach = () -> owner.removeHierarchyListener(l);
+    }
+}
@@ -0,0 +1,43 @@
+package erp.ui.common;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.JTextComponent;
+
+/**
+ * Coalesces bursts of text edits into one callback on the EDT.
+ *
+ * Every document change restarts a single-shot Swing timer, so typing
+ * "cse2" fires the action once, {@code delayMs} after the last key.
+ */
+public final class Debounce {
+
+    /** Default pause for search boxes: short enough to feel instant. */
+    public static final int SEARCH_DELAY_MS = 120;
+
+    private Debounce() {}
+
+    /** Run {@code action} on the EDT once {@code field} has been quiet for {@code delayMs}. */
+    public static Timer onTextChange(JTextComponent field, int delayMs, Runnable action) {
+        Timer timer = new Timer(delayMs, e -> action.run());
+        timer.setRepeats(false);
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                timer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                timer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                timer.restart();
+            }
+        });
+        return timer;
+    }
+}
@@ -0,0 +1,31 @@
+package erp.ui.common;
+
+import javax.swing.*;
+import java.awt.*;
+
+/** Centered "Loading…" / error text shown while a DataExecutor task runs. */
+public class LoadingPlaceholder extends JPanel {
+
+    private static final Color TEXT_600 = new Color(100, 116, 139);
+    private static final Color ERROR = new Color(185, 28, 28);
+
+    private final JLabel label = new JLabel("", SwingConstants.CENTER);
+
+    public LoadingPlaceholder(String message) {
+        super(new GridBagLayout());
+        setOpaque(false);
+        label.setFont(FontKit.regular(14f));
+        label.setForeground(TEXT_600);
+        label.setText(message);
+        add(label);
+    }
+
+    public LoadingPlaceholder() {
+        this("Loading…");
+    }
+
+    public void showError(String message) {
+        label.setForeground(ERROR);
+        label.setText(message);
+    }
+}
@@ -0,0 +1,194 @@
+package erp.ui.common;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable substring search over a fixed list of items (course cards).
+ *
+ * Built once per data load: each item's fields are normalized (lower case,
+ * accents stripped, whitespace collapsed) into one haystack, and every
+ * trigram of it is posted to a sorted id list. A query is split on
+ * whitespace and every term must occur somewhere in the haystack; terms of
+ * three or more characters are narrowed by intersecting their trigram
+ * postings before the final {@code contains} check, shorter ones scan the
+ * prebuilt haystacks. Nothing is lower-cased or concatenated per keystroke.
+ *
+ * Results keep the order of the list the index was built from.
+ */
+public final class SearchIndex<T> {
+
+    private static final int GRAM = 3;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private final List<T> items;
+    private final String[] haystacks;
+    private final Map<Long, int[]> postings;
+
+    @SafeVarargs
+    public SearchIndex(List<T> items, Function<? super T, String>... fields) {
+        this.items = List.copyOf(items);
+        this.haystacks = new String[this.items.size()];
+
+        Map<Long, IntList> grams = new HashMap<>();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < haystacks.length; i++) {
+            T item = this.items.get(i);
+            sb.setLength(0);
+            for (Function<? super T, String> f : fields) {
+                String v = f.apply(item);
+                if (v != null && !v.isBlank()) {
+                    sb.append(v).append(' ');
+                }
+            }
+            String h = normalize(sb.toString());
+            haystacks[i] = h;
+            for (int p = 0; p + GRAM <= h.length(); p++) {
+                grams.computeIfAbsent(gram(h, p), k -> new IntList()).addOnce(i);
+            }
+        }
+
+        Map<Long, int[]> frozen = new HashMap<>(grams.size() * 2);
+        for (Map.Entry<Long, IntList> e : grams.entrySet()) {
+            frozen.put(e.getKey(), e.getValue().toArray());
+        }
+        this.postings = frozen;
+    }
+
+    /** Everything that was indexed, in index order. */
+    public List<T> items() {
+        return items;
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    /** Items matching every whitespace-separated term of {@code query}; all items if it is blank. */
+    public List<T> search(String query) {
+        String q = normalize(query);
+        if (q.isEmpty()) {
+            return items;
+        }
+
+        int[] candidates = null; // null = every item
+        for (String term : q.split(" ")) {
+            candidates = match(term, candidates);
+            if (candidates.length == 0) {
+                return Collections.emptyList();
+            }
+        }
+
+        List<T> out = new ArrayList<>(candidates.length);
+        for (int id : candidates) {
+            out.add(items.get(id));
+        }
+        return out;
+    }
+
+    /** Lower case, accents stripped, whitespace collapsed and trimmed. */
+    public static String normalize(String s) {
+        if (s == null || s.isEmpty()) {
+            return "";
+        }
+        String n = Normalizer.normalize(s, Normalizer.Form.NFD);
+        n = MARKS.matcher(n).replaceAll("");
+        return SPACES.matcher(n.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    // ---------- helpers ----------
+
+    private int[] match(String term, int[] within) {
+        int[] pool = within;
+        if (term.length() >= GRAM) {
+            // intersect the rarest trigrams first, so the lists shrink fast
+            List<int[]> lists = new ArrayList<>();
+            for (int p = 0; p + GRAM <= term.length(); p++) {
+                int[] list = postings.get(gram(term, p));
+                if (list == null) {
+                    return new int[0];
+                }
+                lists.add(list);
+            }
+            lists.sort((a, b) -> Integer.compare(a.length, b.length));
+            for (int[] list : lists) {
+                pool = (pool == null) ? list : intersect(pool, list);
+                if (pool.length == 0) {
+                    return pool;
+                }
+            }
+        }
+
+        if (term.length() == GRAM) {
+            return pool; // the posting list is exact for a single trigram
+        }
+
+        // trigrams only say "all pieces occur somewhere"; confirm the whole term
+        IntList hits = new IntList();
+        if (pool == null) {
+            for (int i = 0; i < haystacks.length; i++) {
+                if (haystacks[i].contains(term)) {
+                    hits.addOnce(i);
+                }
+            }
+        } else {
+            for (int id : pool) {
+                if (haystacks[id].contains(term)) {
+                    hits.addOnce(id);
+                }
+            }
+        }
+        return hits.toArray();
+    }
+
+    /** Three UTF-16 chars packed into one key, so building allocates no substrings. */
+    private static long gram(String s, int p) {
+        return ((long) s.charAt(p) << 32) | ((long) s.charAt(p + 1) << 16) | s.charAt(p + 2);
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /** Growable ascending int list; ids arrive in order, so dedupe is a tail check. */
+    private static final class IntList {
+        private int[] data = new int[4];
+        private int size;
+
+        void addOnce(int v) {
+            if (size > 0 && data[size - 1] == v) {
+                return;
+            }
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = v;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+}
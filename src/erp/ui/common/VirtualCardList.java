@@ -0,0 +1,467 @@
+package erp.ui.common;
+
+import javax.swing.*;
+import javax.swing.event.ChangeListener;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Scrollable list/grid of cards that only creates components for the rows
+ * in view.
+ *
+ * Put it in a {@link JScrollPane} as the view. Items come from
+ * {@link #setItems}; a {@link Renderer} creates card components per "kind"
+ * (e.g. course card vs group header) and binds an item to one. Cards that
+ * scroll out are detached and pooled, and the next row that scrolls in is
+ * bound to a pooled card, so memory and layout cost follow the viewport,
+ * not the list length.
+ *
+ * Row heights are measured once per kind from a bound prototype, so all
+ * cards of a kind share a height (as GridLayout did). Selection and hover
+ * are tracked by the list and passed to {@code bind}; clicks are reported
+ * to the {@link ClickListener}.
+ */
+public class VirtualCardList<T> extends JComponent implements Scrollable {
+
+    public interface Renderer<T> {
+        /** Small int per visual type; each kind has its own pool and height. */
+        default int kindOf(T item) {
+            return 0;
+        }
+
+        /** Full-width rows (headers) start a new line and span all columns. */
+        default boolean isFullWidth(int kind) {
+            return false;
+        }
+
+        default boolean isSelectable(int kind) {
+            return true;
+        }
+
+        JComponent create(int kind);
+
+        /** Point {@code card} at {@code item}; called on reuse and on selection/hover changes. */
+        void bind(JComponent card, T item, boolean selected, boolean hovered);
+    }
+
+    @FunctionalInterface
+    public interface ClickListener<T> {
+        void clicked(T item, MouseEvent e);
+    }
+
+    private static final int OVERSCAN_PX = 200;
+    private static final String KIND_KEY = "VirtualCardList.kind";
+
+    private final Renderer<T> renderer;
+    private final int columns;
+    private final int hgap;
+    private final int vgap;
+
+    private List<T> items = List.of();
+    private int[] kinds = new int[0];
+    private int[] rowOf = new int[0];  // visual row index per item
+    private int[] colOf = new int[0];  // column per item (0 for full-width)
+    private int[] rowY = new int[0];   // top of each visual row (relative to insets)
+    private int[] rowH = new int[0];
+    private int contentHeight;
+
+    private final Map<Integer, Integer> kindHeights = new HashMap<>();
+    private final Map<Integer, ArrayDeque<JComponent>> pools = new HashMap<>();
+    private final Map<Integer, JComponent> attached = new HashMap<>();          // item index -> card
+    private final Map<JComponent, Integer> boundIndex = new IdentityHashMap<>(); // card -> item index
+    private final MouseAdapter cardMouse = new CardMouse();
+
+    private T selected;
+    private int hoverIndex = -1;
+    private ClickListener<T> clickListener;
+    private Component placeholder;
+    private ChangeListener viewportListener;
+
+    public VirtualCardList(Renderer<T> renderer) {
+        this(renderer, 1, 0, 8);
+    }
+
+    public VirtualCardList(Renderer<T> renderer, int columns, int hgap, int vgap) {
+        this.renderer = renderer;
+        this.columns = Math.max(1, columns);
+        this.hgap = hgap;
+        this.vgap = vgap;
+        setLayout(null);
+        setOpaque(false);
+    }
+
+    // ---------- model ----------
+
+    /** Replace the rows; visible cards are rebound in place, nothing is rebuilt. */
+    public void setItems(List<T> newItems) {
+        items = List.copyOf(newItems);
+        placeholder(null);
+        hoverIndex = -1;
+        if (selected != null && !items.contains(selected)) {
+            selected = null;
+        }
+        computeRows();
+        releaseAll();
+        revalidate();
+        repaint();
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /** Show {@code c} (e.g. a LoadingPlaceholder) instead of the cards until the next setItems. */
+    public void showPlaceholder(Component c) {
+        releaseAll();
+        placeholder(c);
+        revalidate();
+        repaint();
+    }
+
+    public T getSelected() {
+        return selected;
+    }
+
+    public void setSelected(T item) {
+        if (Objects.equals(selected, item)) {
+            return;
+        }
+        selected = item;
+        rebindVisible();
+    }
+
+    public void setClickListener(ClickListener<T> l) {
+        this.clickListener = l;
+    }
+
+    /** Re-run bind for cards in view (after an item changed in place). */
+    public void rebindVisible() {
+        for (Map.Entry<Integer, JComponent> e : attached.entrySet()) {
+            bind(e.getValue(), e.getKey());
+        }
+        repaint();
+    }
+
+    // ---------- layout ----------
+
+    @Override
+    public Dimension getPreferredSize() {
+        if (isPreferredSizeSet()) {
+            return super.getPreferredSize();
+        }
+        Insets in = getInsets();
+        int h = (placeholder != null)
+                ? placeholder.getPreferredSize().height
+                : contentHeight;
+        return new Dimension(in.left + in.right, in.top + in.bottom + h);
+    }
+
+    @Override
+    public void doLayout() {
+        layoutVisible();
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        if (getParent() instanceof JViewport vp && viewportListener == null) {
+            viewportListener = e -> layoutVisible();
+            vp.addChangeListener(viewportListener);
+        }
+    }
+
+    @Override
+    public void removeNotify() {
+        if (getParent() instanceof JViewport vp && viewportListener != null) {
+            vp.removeChangeListener(viewportListener);
+            viewportListener = null;
+        }
+        super.removeNotify();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (isOpaque()) {
+            g.setColor(getBackground());
+            g.fillRect(0, 0, getWidth(), getHeight());
+        }
+        super.paintComponent(g);
+    }
+
+    private void computeRows() {
+        int n = items.size();
+        kinds = new int[n];
+        rowOf = new int[n];
+        colOf = new int[n];
+        List<Integer> ys = new ArrayList<>();
+        List<Integer> hs = new ArrayList<>();
+
+        int y = 0;
+        int col = columns; // force a new row for the first item
+        for (int i = 0; i < n; i++) {
+            int kind = renderer.kindOf(items.get(i));
+            kinds[i] = kind;
+            int h = heightOf(kind, items.get(i));
+            boolean full = renderer.isFullWidth(kind);
+
+            if (full || col >= columns) {
+                if (!hs.isEmpty()) {
+                    y += hs.get(hs.size() - 1) + vgap;
+                }
+                ys.add(y);
+                hs.add(h);
+                col = 0;
+            } else {
+                int last = hs.size() - 1;
+                hs.set(last, Math.max(hs.get(last), h));
+            }
+            rowOf[i] = ys.size() - 1;
+            colOf[i] = col;
+            col = full ? columns : col + 1;
+        }
+
+        rowY = ys.stream().mapToInt(Integer::intValue).toArray();
+        rowH = hs.stream().mapToInt(Integer::intValue).toArray();
+        contentHeight = rowY.length == 0 ? 0 : rowY[rowY.length - 1] + rowH[rowH.length - 1];
+    }
+
+    private int heightOf(int kind, T sample) {
+        Integer h = kindHeights.get(kind);
+        if (h == null) {
+            // measure a real card once; it then starts the pool for this kind
+            JComponent proto = newCard(kind);
+            renderer.bind(proto, sample, false, false);
+            h = proto.getPreferredSize().height;
+            kindHeights.put(kind, h);
+            pools.computeIfAbsent(kind, k -> new ArrayDeque<>()).push(proto);
+        }
+        return h;
+    }
+
+    private void layoutVisible() {
+        Insets in = getInsets();
+        if (placeholder != null) {
+            Rectangle vis = getVisibleRect();
+            placeholder.setBounds(in.left, in.top,
+                    Math.max(0, getWidth() - in.left - in.right),
+                    Math.max(placeholder.getPreferredSize().height, vis.height - in.top - in.bottom));
+            return;
+        }
+
+        Rectangle vis = getVisibleRect();
+        int top = vis.y - in.top - OVERSCAN_PX;
+        int bottom = vis.y + vis.height - in.top + OVERSCAN_PX;
+        int firstRow = firstRowEndingAfter(top);
+
+        int innerW = Math.max(0, getWidth() - in.left - in.right);
+        int cellW = Math.max(0, (innerW - hgap * (columns - 1)) / columns);
+
+        // items [start, end) should be on screen
+        int start = firstItemOfRow(firstRow);
+        int end = start;
+        while (end < items.size() && rowY[rowOf[end]] < bottom) {
+            end++;
+        }
+        final int from = start, to = end;
+
+        // recycle cards that left the window
+        attached.entrySet().removeIf(e -> {
+            if (e.getKey() >= from && e.getKey() < to) {
+                return false;
+            }
+            release(e.getValue());
+            return true;
+        });
+
+        for (int i = from; i < to; i++) {
+            JComponent card = attached.get(i);
+            boolean fresh = (card == null);
+            if (fresh) {
+                card = acquire(kinds[i]);
+                attached.put(i, card);
+                bind(card, i);
+                add(card);
+            }
+            int row = rowOf[i];
+            int x = in.left;
+            int w = innerW;
+            if (!renderer.isFullWidth(kinds[i])) {
+                x += colOf[i] * (cellW + hgap);
+                w = cellW;
+            }
+            card.setBounds(x, in.top + rowY[row], w, rowH[row]);
+            card.validate();
+            if (fresh) {
+                card.repaint(); // the viewport may already have blitted this area
+            }
+        }
+    }
+
+    private int firstRowEndingAfter(int y) {
+        int lo = 0, hi = rowY.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (rowY[mid] + rowH[mid] < y) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int firstItemOfRow(int row) {
+        // rows are assigned in item order, so search rowOf
+        int lo = 0, hi = rowOf.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (rowOf[mid] < row) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // ---------- pooling ----------
+
+    private JComponent newCard(int kind) {
+        JComponent c = renderer.create(kind);
+        c.putClientProperty(KIND_KEY, kind);
+        c.addMouseListener(cardMouse);
+        return c;
+    }
+
+    private JComponent acquire(int kind) {
+        ArrayDeque<JComponent> pool = pools.get(kind);
+        JComponent c = (pool == null) ? null : pool.poll();
+        return (c != null) ? c : newCard(kind);
+    }
+
+    private void release(JComponent card) {
+        boundIndex.remove(card);
+        remove(card);
+        pools.computeIfAbsent(kindOfCard(card), k -> new ArrayDeque<>()).push(card);
+    }
+
+    private void releaseAll() {
+        for (JComponent card : attached.values()) {
+            remove(card);
+            pools.computeIfAbsent(kindOfCard(card), k -> new ArrayDeque<>()).push(card);
+        }
+        attached.clear();
+        boundIndex.clear();
+    }
+
+    private static int kindOfCard(JComponent card) {
+        Integer k = (Integer) card.getClientProperty(KIND_KEY);
+        return k == null ? 0 : k;
+    }
+
+    private void bind(JComponent card, int index) {
+        T item = items.get(index);
+        boundIndex.put(card, index);
+        renderer.bind(card, item, Objects.equals(item, selected), index == hoverIndex);
+    }
+
+    private void placeholder(Component c) {
+        if (placeholder != null) {
+            remove(placeholder);
+        }
+        placeholder = c;
+        if (c != null) {
+            add(c);
+        }
+    }
+
+    // ---------- mouse ----------
+
+    private final class CardMouse extends MouseAdapter {
+        @Override
+        public void mouseEntered(MouseEvent e) {
+            setHover(indexOf(e));
+        }
+
+        @Override
+        public void mouseExited(MouseEvent e) {
+            if (indexOf(e) == hoverIndex) {
+                setHover(-1);
+            }
+        }
+
+        @Override
+        public void mouseClicked(MouseEvent e) {
+            int i = indexOf(e);
+            if (i < 0) {
+                return;
+            }
+            T item = items.get(i);
+            if (renderer.isSelectable(kinds[i])) {
+                setSelected(item);
+            }
+            if (clickListener != null) {
+                clickListener.clicked(item, e);
+            }
+        }
+
+        private int indexOf(MouseEvent e) {
+            Integer i = boundIndex.get((JComponent) e.getComponent());
+            return i == null ? -1 : i;
+        }
+    }
+
+    private void setHover(int index) {
+        if (index == hoverIndex) {
+            return;
+        }
+        int old = hoverIndex;
+        hoverIndex = index;
+        rebindIndex(old);
+        rebindIndex(index);
+    }
+
+    private void rebindIndex(int index) {
+        JComponent c = (index >= 0) ? attached.get(index) : null;
+        if (c != null) {
+            bind(c, index);
+            c.repaint();
+        }
+    }
+
+    // ---------- Scrollable ----------
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return 16;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return (orientation == SwingConstants.VERTICAL) ? Math.max(16, visibleRect.height - 16) : 16;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return true;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        // fill the viewport when short, so the background and placeholder cover it
+        return getParent() instanceof JViewport vp && vp.getHeight() > getPreferredSize().height;
+    }
+}
@@ -0,0 +1,231 @@
+package erp.ui.instructor;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * RFC 4180 gradebook CSV through commons-csv, streamed record by record.
+ *
+ * Layout (what {@link #export} writes and {@link #stage} reads):
+ *   Roll No, Full Name, one column per component (by name), Final Grade
+ * Import matches students by roll number and components by header name;
+ * other columns are ignored. Every row is validated as a whole against the
+ * component weights: a row with any bad cell is rejected with a reason and
+ * none of its cells are staged. A blank cell clears that score.
+ *
+ * Both run off the EDT on a {@link GradebookMatrix#copy()} taken on it.
+ */
+public final class GradeCsv {
+
+    private static final CSVFormat CSV = CSVFormat.DEFAULT.builder()
+            .setIgnoreEmptyLines(true)
+            .setTrim(true)
+            .build();
+
+    private static final int WRITE_BUFFER = 64 * 1024;
+
+    /** One staged write: {@code score} is NaN when the cell is to be cleared. */
+    public record Staged(int row, int col, double score) {
+    }
+
+    /** A rejected data record; {@code record} counts the header as 1. */
+    public record Rejected(long record, String rollNo, String reason) {
+    }
+
+    /** Outcome of {@link #stage}; nothing has been written anywhere yet. */
+    public record ImportPlan(List<Staged> cells, int rowsAccepted, List<Rejected> rejected,
+                             List<String> unmatchedColumns) {
+    }
+
+    private GradeCsv() {
+    }
+
+    // ---------- export ----------
+
+    /**
+     * Write the gradebook to {@code out} via {@code <name>.part}, renamed into
+     * place when complete. Returns the number of student rows written.
+     */
+    public static int export(Path out, List<String> rollNos, List<String> names,
+                             List<String> componentNames, GradebookMatrix grades) throws IOException {
+        Path part = out.resolveSibling(out.getFileName() + ".part");
+        try {
+            try (CSVPrinter p = new CSVPrinter(new BufferedWriter(new OutputStreamWriter(
+                    Files.newOutputStream(part), StandardCharsets.UTF_8), WRITE_BUFFER), CSV)) {
+
+                p.print("Roll No");
+                p.print("Full Name");
+                for (String name : componentNames) {
+                    p.print(name);
+                }
+                p.print("Final Grade");
+                p.println();
+
+                for (int row = 0; row < grades.rows(); row++) {
+                    p.print(rollNos.get(row));
+                    p.print(names.get(row));
+                    for (int col = 0; col < grades.cols(); col++) {
+                        p.print(grades.has(row, col) ? GradebookMatrix.format(grades.score(row, col)) : "");
+                    }
+                    double pct = grades.percentage(row);
+                    p.print(Double.isNaN(pct) ? "" : String.format(Locale.US, "%.1f", pct));
+                    p.println();
+                }
+            }
+            Files.move(part, out, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(part);
+            throw ex;
+        }
+        return grades.rows();
+    }
+
+    // ---------- import ----------
+
+    /**
+     * Parse and validate {@code in} against the gradebook: {@code rollNos} and
+     * {@code componentNames} in matrix row / column order, weights from
+     * {@code grades}. Stages the accepted cells; writes nothing.
+     */
+    public static ImportPlan stage(Path in, List<String> rollNos, List<String> componentNames,
+                                   GradebookMatrix grades) throws IOException {
+        Map<String, Integer> rowByRoll = new HashMap<>();
+        for (int i = 0; i < rollNos.size(); i++) {
+            rowByRoll.put(rollNos.get(i), i);
+        }
+        Map<String, Integer> colByName = new HashMap<>();
+        for (int i = 0; i < componentNames.size(); i++) {
+            colByName.put(componentNames.get(i).trim(), i);
+        }
+
+        List<Staged> cells = new ArrayList<>();
+        List<Rejected> rejected = new ArrayList<>();
+        List<String> unmatched = new ArrayList<>();
+        Map<Integer, Long> seenAt = new HashMap<>();
+        int accepted = 0;
+
+        try (Reader reader = Files.newBufferedReader(in, StandardCharsets.UTF_8);
+             CSVParser parser = CSV.parse(reader)) {
+
+            int[] csvToCol = null;
+            List<Staged> rowCells = new ArrayList<>();
+
+            for (CSVRecord r : parser) {
+                if (csvToCol == null) {
+                    csvToCol = mapHeader(r, colByName, unmatched);
+                    continue;
+                }
+
+                long recordNo = r.getRecordNumber();
+                String roll = r.size() > 0 ? r.get(0) : "";
+                if (roll.isEmpty()) {
+                    rejected.add(new Rejected(recordNo, "", "no roll number"));
+                    continue;
+                }
+                Integer row = rowByRoll.get(roll);
+                if (row == null) {
+                    rejected.add(new Rejected(recordNo, roll, "not enrolled in this section"));
+                    continue;
+                }
+                Long first = seenAt.putIfAbsent(row, recordNo);
+                if (first != null) {
+                    rejected.add(new Rejected(recordNo, roll, "duplicate of record " + first));
+                    continue;
+                }
+
+                rowCells.clear();
+                String reason = null;
+                for (int i = 0; i < Math.min(r.size(), csvToCol.length) && reason == null; i++) {
+                    int col = csvToCol[i];
+                    if (col < 0)
+                        continue;
+                    String value = r.get(i);
+                    if (value.isEmpty()) {
+                        rowCells.add(new Staged(row, col, Double.NaN));
+                        continue;
+                    }
+                    reason = validate(value, componentNames.get(col), grades.weight(col));
+                    if (reason == null) {
+                        rowCells.add(new Staged(row, col, Double.parseDouble(value)));
+                    }
+                }
+
+                if (reason != null) {
+                    rejected.add(new Rejected(recordNo, roll, reason));
+                } else {
+                    cells.addAll(rowCells);
+                    accepted++;
+                }
+            }
+
+            if (csvToCol == null) {
+                throw new IOException("Empty CSV file.");
+            }
+        }
+        return new ImportPlan(cells, accepted, rejected, unmatched);
+    }
+
+    // ---------- helpers ----------
+
+    /** CSV column index → matrix column, -1 for roll / name / final / unknown columns. */
+    private static int[] mapHeader(CSVRecord header, Map<String, Integer> colByName, List<String> unmatched)
+            throws IOException {
+        if (header.size() < 2) {
+            throw new IOException("Invalid CSV header.");
+        }
+        int[] map = new int[header.size()];
+        for (int i = 0; i < map.length; i++) {
+            map[i] = -1;
+            String name = header.get(i);
+            if (i == 0 && name.startsWith("\uFEFF")) {
+                name = name.substring(1); // UTF-8 BOM from spreadsheet exports
+            }
+            if (i < 2 || name.equalsIgnoreCase("Final") || name.equalsIgnoreCase("Final Grade")) {
+                continue;
+            }
+            Integer col = colByName.get(name);
+            if (col != null) {
+                map[i] = col;
+            } else if (!name.isEmpty()) {
+                unmatched.add(name);
+            }
+        }
+        return map;
+    }
+
+    /** Why {@code value} is not a valid score for the component, or null if it is. */
+    private static String validate(String value, String component, double weight) {
+        double score;
+        try {
+            score = Double.parseDouble(value);
+        } catch (NumberFormatException ex) {
+            return "\"" + value + "\" is not a number (" + component + ")";
+        }
+        if (!Double.isFinite(score)) {
+            return "\"" + value + "\" is not a number (" + component + ")";
+        }
+        if (score < 0) {
+            return "negative score " + value + " (" + component + ")";
+        }
+        if (score > weight) {
+            return "score " + value + " exceeds weight " + GradebookMatrix.format(weight) + " (" + component + ")";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,142 @@
+package erp.ui.instructor;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Set-based save of a gradebook: every dirty cell and every final grade of
+ * a section in one transaction on one connection.
+ *
+ * Scores go out as multi-row
+ * {@code INSERT ... ON DUPLICATE KEY UPDATE score = VALUES(score)} against
+ * the {@code uq_grades_enrollment_component} key, cleared cells as
+ * {@code DELETE ... WHERE (enrollment_id, component_id) IN (...)}, and
+ * final grades as one {@code UPDATE ... SET final_grade = CASE ...} per
+ * chunk. A 300 x 6 section is a handful of statements instead of
+ * thousands of round-trips.
+ */
+public final class GradeSaveEngine {
+
+    /** Rows per statement; keeps each statement well under the placeholder limit. */
+    static final int CHUNK = 500;
+
+    /** One gradebook cell; {@code score == null} means the cell was cleared. */
+    public record Cell(int enrollmentId, int componentId, Double score) {
+    }
+
+    /** Final letter for one enrollment; {@code letter == null} clears it. */
+    public record FinalGrade(int enrollmentId, String letter) {
+    }
+
+    /** Statement counts of one save. */
+    public record Result(int upserted, int deleted, int finals, int statements) {
+    }
+
+    private GradeSaveEngine() {
+    }
+
+    /** Save on {@code c} in one transaction (committed here, rolled back on failure). */
+    public static Result save(Connection c, List<Cell> cells, List<FinalGrade> finals) throws SQLException {
+        List<Cell> upserts = new ArrayList<>();
+        List<Cell> deletes = new ArrayList<>();
+        for (Cell cell : cells) {
+            (cell.score() == null ? deletes : upserts).add(cell);
+        }
+
+        boolean autoCommit = c.getAutoCommit();
+        c.setAutoCommit(false);
+        try {
+            int statements = 0;
+            for (int from = 0; from < upserts.size(); from += CHUNK) {
+                upsertChunk(c, upserts.subList(from, Math.min(upserts.size(), from + CHUNK)));
+                statements++;
+            }
+            for (int from = 0; from < deletes.size(); from += CHUNK) {
+                deleteChunk(c, deletes.subList(from, Math.min(deletes.size(), from + CHUNK)));
+                statements++;
+            }
+            for (int from = 0; from < finals.size(); from += CHUNK) {
+                finalsChunk(c, finals.subList(from, Math.min(finals.size(), from + CHUNK)));
+                statements++;
+            }
+            c.commit();
+            return new Result(upserts.size(), deletes.size(), finals.size(), statements);
+        } catch (SQLException | RuntimeException ex) {
+            c.rollback();
+            throw ex;
+        } finally {
+            c.setAutoCommit(autoCommit);
+        }
+    }
+
+    // ---------- helpers ----------
+
+    private static void upsertChunk(Connection c, List<Cell> chunk) throws SQLException {
+        StringBuilder sql = new StringBuilder(
+                "INSERT INTO erp_db.grades (enrollment_id, component_id, score) VALUES ");
+        for (int i = 0; i < chunk.size(); i++) {
+            sql.append(i == 0 ? "(?,?,?)" : ",(?,?,?)");
+        }
+        sql.append(" ON DUPLICATE KEY UPDATE score = VALUES(score)");
+
+        try (PreparedStatement ps = c.prepareStatement(sql.toString())) {
+            int p = 1;
+            for (Cell cell : chunk) {
+                ps.setInt(p++, cell.enrollmentId());
+                ps.setInt(p++, cell.componentId());
+                ps.setDouble(p++, cell.score());
+            }
+            ps.executeUpdate();
+        }
+    }
+
+    private static void deleteChunk(Connection c, List<Cell> chunk) throws SQLException {
+        StringBuilder sql = new StringBuilder(
+                "DELETE FROM erp_db.grades WHERE (enrollment_id, component_id) IN (");
+        for (int i = 0; i < chunk.size(); i++) {
+            sql.append(i == 0 ? "(?,?)" : ",(?,?)");
+        }
+        sql.append(')');
+
+        try (PreparedStatement ps = c.prepareStatement(sql.toString())) {
+            int p = 1;
+            for (Cell cell : chunk) {
+                ps.setInt(p++, cell.enrollmentId());
+                ps.setInt(p++, cell.componentId());
+            }
+            ps.executeUpdate();
+        }
+    }
+
+    private static void finalsChunk(Connection c, List<FinalGrade> chunk) throws SQLException {
+        StringBuilder sql = new StringBuilder("UPDATE erp_db.enrollments SET final_grade = CASE enrollment_id");
+        for (int i = 0; i < chunk.size(); i++) {
+            sql.append(" WHEN ? THEN ?");
+        }
+        sql.append(" END WHERE enrollment_id IN (");
+        for (int i = 0; i < chunk.size(); i++) {
+            sql.append(i == 0 ? "?" : ",?");
+        }
+        sql.append(')');
+
+        try (PreparedStatement ps = c.prepareStatement(sql.toString())) {
+            int p = 1;
+            for (FinalGrade f : chunk) {
+                ps.setInt(p++, f.enrollmentId());
+                if (f.letter() == null) {
+                    ps.setNull(p++, Types.VARCHAR);
+                } else {
+                    ps.setString(p++, f.letter());
+                }
+            }
+            for (FinalGrade f : chunk) {
+                ps.setInt(p++, f.enrollmentId());
+            }
+            ps.executeUpdate();
+        }
+    }
+}
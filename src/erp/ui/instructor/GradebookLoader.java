@@ -0,0 +1,132 @@
+package erp.ui.instructor;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Loads one section's gradebook on a single connection in two statements:
+ * the components, then one roster-with-grades query that is read straight
+ * into a {@link GradebookMatrix}.
+ *
+ * The roster joins students on their primary key (enrollments.student_id
+ * references it) and keeps only REGISTERED enrollments, so every step is an
+ * index lookup: idx_seccomp_section, idx_enr_section, students' PK and
+ * uq_grades_enrollment_component. Rows arrive ordered by roll number, one
+ * student's grades together, so nothing is buffered per row beyond three
+ * primitive columns.
+ */
+public final class GradebookLoader {
+
+    private static final String COMPONENTS_SQL =
+            "SELECT id, component_name, weight " +
+            "FROM erp_db.section_components " +
+            "WHERE section_id = ? " +
+            "ORDER BY id";
+
+    private static final String ROSTER_SQL =
+            "SELECT e.enrollment_id, s.student_id, s.roll_no, s.full_name, g.component_id, g.score " +
+            "FROM erp_db.enrollments e " +
+            "JOIN erp_db.students s ON s.student_id = e.student_id " +
+            "LEFT JOIN erp_db.grades g ON g.enrollment_id = e.enrollment_id " +
+            "WHERE e.section_id = ? AND e.status = 'REGISTERED' " +
+            "ORDER BY s.roll_no, e.enrollment_id";
+
+    public record Component(int componentId, String name, int weight) {
+    }
+
+    public record Student(int enrollmentId, String studentId, String rollNo, String name) {
+    }
+
+    /** Students and components in matrix row / column order. */
+    public record Gradebook(List<Student> students, List<Component> components, GradebookMatrix grades) {
+    }
+
+    private GradebookLoader() {
+    }
+
+    public static Gradebook load(Connection conn, int sectionId) throws SQLException {
+        List<Component> components = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(COMPONENTS_SQL)) {
+            ps.setInt(1, sectionId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    components.add(new Component(rs.getInt(1), rs.getString(2), rs.getInt(3)));
+                }
+            }
+        }
+
+        int[] componentIds = new int[components.size()];
+        double[] weights = new double[componentIds.length];
+        for (int i = 0; i < componentIds.length; i++) {
+            componentIds[i] = components.get(i).componentId();
+            weights[i] = components.get(i).weight();
+        }
+
+        List<Student> students = new ArrayList<>();
+        // grade triples (row, col, score) until the row count is known
+        int n = 0;
+        int[] cellRow = new int[64];
+        int[] cellCol = new int[64];
+        double[] cellScore = new double[64];
+
+        try (PreparedStatement ps = conn.prepareStatement(ROSTER_SQL,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setInt(1, sectionId);
+            try (ResultSet rs = ps.executeQuery()) {
+                int lastEnrollment = Integer.MIN_VALUE;
+                while (rs.next()) {
+                    int enrollmentId = rs.getInt(1);
+                    if (enrollmentId != lastEnrollment) {
+                        students.add(new Student(enrollmentId, rs.getString(2), rs.getString(3), rs.getString(4)));
+                        lastEnrollment = enrollmentId;
+                    }
+
+                    int componentId = rs.getInt(5);
+                    if (rs.wasNull())
+                        continue; // no grades yet
+                    double score = rs.getDouble(6);
+                    if (rs.wasNull())
+                        continue;
+                    int col = indexOf(componentIds, componentId);
+                    if (col < 0)
+                        continue; // grade for a component of another section
+
+                    if (n == cellRow.length) {
+                        cellRow = Arrays.copyOf(cellRow, n * 2);
+                        cellCol = Arrays.copyOf(cellCol, n * 2);
+                        cellScore = Arrays.copyOf(cellScore, n * 2);
+                    }
+                    cellRow[n] = students.size() - 1;
+                    cellCol[n] = col;
+                    cellScore[n] = score;
+                    n++;
+                }
+            }
+        }
+
+        int[] enrollmentIds = new int[students.size()];
+        for (int i = 0; i < enrollmentIds.length; i++) {
+            enrollmentIds[i] = students.get(i).enrollmentId();
+        }
+        GradebookMatrix grades = new GradebookMatrix(enrollmentIds, componentIds, weights);
+        for (int i = 0; i < n; i++) {
+            grades.load(cellRow[i], cellCol[i], cellScore[i]);
+        }
+        return new Gradebook(students, components, grades);
+    }
+
+    // ---------- helpers ----------
+
+    private static int indexOf(int[] ids, int id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id)
+                return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,265 @@
+package erp.ui.instructor;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dense grade store for one section: row = enrollment, column = component.
+ *
+ * Scores live in one {@code double[]} (row-major) with two bitmaps beside it,
+ * one for cells that have no score and one for cells edited since the last
+ * save. Per-row totals and missing counts are kept up to date on every
+ * {@link #set} / {@link #clear} (the total re-summed from the row's cells,
+ * O(cols)), so the final percentage of a row is O(1) and rendering or
+ * sorting the gradebook never re-parses a cell.
+ *
+ * Confined to the EDT once handed to the view.
+ */
+public final class GradebookMatrix {
+
+    private final int rows;
+    private final int cols;
+    private final int[] enrollmentIds;
+    private final int[] componentIds;
+    private final double[] weights;
+    private final double weightSum;
+    private final Map<Integer, Integer> rowByEnrollment;
+
+    private final double[] scores;
+    private final long[] missing;
+    private final long[] dirty;
+    private int dirtyCount;
+
+    private final double[] rowTotal;
+    private final int[] rowMissing;
+
+    /** Every cell starts missing and clean. */
+    public GradebookMatrix(int[] enrollmentIds, int[] componentIds, double[] weights) {
+        if (componentIds.length != weights.length) {
+            throw new IllegalArgumentException("componentIds and weights differ in length");
+        }
+        this.rows = enrollmentIds.length;
+        this.cols = componentIds.length;
+        this.enrollmentIds = enrollmentIds.clone();
+        this.componentIds = componentIds.clone();
+        this.weights = weights.clone();
+
+        double sum = 0.0;
+        for (double w : weights) {
+            sum += (w > 0 ? w : 0);
+        }
+        this.weightSum = sum;
+
+        this.rowByEnrollment = new HashMap<>(rows * 2);
+        for (int r = 0; r < rows; r++) {
+            rowByEnrollment.put(enrollmentIds[r], r);
+        }
+
+        int cells = rows * cols;
+        this.scores = new double[cells];
+        this.missing = new long[(cells + 63) >>> 6];
+        this.dirty = new long[missing.length];
+        for (int i = 0; i < cells; i++) {
+            missing[i >>> 6] |= 1L << i;
+        }
+
+        this.rowTotal = new double[rows];
+        this.rowMissing = new int[rows];
+        Arrays.fill(rowMissing, cols);
+    }
+
+    /** Independent copy (scores, bitmaps and totals), e.g. to hand to a worker thread. */
+    public GradebookMatrix copy() {
+        GradebookMatrix c = new GradebookMatrix(enrollmentIds, componentIds, weights);
+        System.arraycopy(scores, 0, c.scores, 0, scores.length);
+        System.arraycopy(missing, 0, c.missing, 0, missing.length);
+        System.arraycopy(dirty, 0, c.dirty, 0, dirty.length);
+        System.arraycopy(rowTotal, 0, c.rowTotal, 0, rows);
+        System.arraycopy(rowMissing, 0, c.rowMissing, 0, rows);
+        c.dirtyCount = dirtyCount;
+        return c;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    public int enrollmentId(int row) {
+        return enrollmentIds[row];
+    }
+
+    public int componentId(int col) {
+        return componentIds[col];
+    }
+
+    public double weight(int col) {
+        return weights[col];
+    }
+
+    /** Row of {@code enrollmentId}, or -1. */
+    public int rowOf(int enrollmentId) {
+        Integer r = rowByEnrollment.get(enrollmentId);
+        return r == null ? -1 : r;
+    }
+
+    /** Column of {@code componentId}, or -1. */
+    public int colOf(int componentId) {
+        for (int c = 0; c < cols; c++) {
+            if (componentIds[c] == componentId)
+                return c;
+        }
+        return -1;
+    }
+
+    // ---------- cells ----------
+
+    public boolean has(int row, int col) {
+        return !bit(missing, index(row, col));
+    }
+
+    /** Score of the cell; only meaningful when {@link #has} is true. */
+    public double score(int row, int col) {
+        return scores[index(row, col)];
+    }
+
+    public boolean isDirty(int row, int col) {
+        return bit(dirty, index(row, col));
+    }
+
+    /** Store a score and mark the cell dirty. */
+    public void set(int row, int col, double score) {
+        put(row, col, score);
+        markDirty(index(row, col));
+    }
+
+    /** Remove the score and mark the cell dirty. */
+    public void clear(int row, int col) {
+        remove(row, col);
+        markDirty(index(row, col));
+    }
+
+    /** Store a score as loaded from the database (stays clean). */
+    public void load(int row, int col, double score) {
+        put(row, col, score);
+    }
+
+    // ---------- dirty tracking ----------
+
+    public int dirtyCount() {
+        return dirtyCount;
+    }
+
+    /** Mark a cell clean again (after it was saved). */
+    public void markClean(int row, int col) {
+        int i = index(row, col);
+        if (bit(dirty, i)) {
+            dirty[i >>> 6] &= ~(1L << i);
+            dirtyCount--;
+        }
+    }
+
+    /** Visitor over dirty cells, row-major. */
+    public interface CellVisitor {
+        void visit(int row, int col);
+    }
+
+    public void forEachDirty(CellVisitor v) {
+        for (int w = 0; w < dirty.length; w++) {
+            long bits = dirty[w];
+            while (bits != 0) {
+                int i = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                v.visit(i / cols, i % cols);
+            }
+        }
+    }
+
+    // ---------- per-row totals ----------
+
+    /** Sum of the scores present in {@code row}. */
+    public double total(int row) {
+        return rowTotal[row];
+    }
+
+    /** Components of {@code row} without a score. */
+    public int missingCount(int row) {
+        return rowMissing[row];
+    }
+
+    /** Final percentage of {@code row}; NaN while any component is missing. */
+    public double percentage(int row) {
+        if (weightSum <= 0 || rowMissing[row] > 0) {
+            return Double.NaN;
+        }
+        return (rowTotal[row] / weightSum) * 100.0;
+    }
+
+    /** Shortest text for a score: "26" rather than "26.0". */
+    public static String format(double score) {
+        if (score == Math.rint(score) && Math.abs(score) < 1e15) {
+            return Long.toString((long) score);
+        }
+        return Double.toString(score);
+    }
+
+    // ---------- helpers ----------
+
+    private void put(int row, int col, double score) {
+        int i = index(row, col);
+        if (bit(missing, i)) {
+            missing[i >>> 6] &= ~(1L << i);
+            rowMissing[row]--;
+        }
+        scores[i] = score;
+        sumRow(row);
+    }
+
+    private void remove(int row, int col) {
+        int i = index(row, col);
+        if (!bit(missing, i)) {
+            missing[i >>> 6] |= 1L << i;
+            rowMissing[row]++;
+            scores[i] = 0.0;
+            sumRow(row);
+        }
+    }
+
+    /**
+     * Re-add the row from its cells in column order, the same sum a fresh
+     * pass gives. Subtracting the old score and adding the new one drifts
+     * (84.99999999999999 instead of 85.0) and can flip the letter grade.
+     */
+    private void sumRow(int row) {
+        double sum = 0.0;
+        int base = row * cols;
+        for (int c = 0; c < cols; c++) {
+            if (!bit(missing, base + c)) {
+                sum += scores[base + c];
+            }
+        }
+        rowTotal[row] = sum;
+    }
+
+    private void markDirty(int i) {
+        if (!bit(dirty, i)) {
+            dirty[i >>> 6] |= 1L << i;
+            dirtyCount++;
+        }
+    }
+
+    private int index(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            throw new IndexOutOfBoundsException("cell " + row + "," + col + " of " + rows + "x" + cols);
+        }
+        return row * cols + col;
+    }
+
+    private static boolean bit(long[] bits, int i) {
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+}
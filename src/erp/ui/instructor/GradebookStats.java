@@ -0,0 +1,155 @@
+package erp.ui.instructor;
+
+import java.util.TreeMap;
+
+/**
+ * Running statistics over a {@link GradebookMatrix}, kept current one cell
+ * at a time so the stats panel can redraw on every edit.
+ *
+ * Per component: count, sum and sum of squares of the scores present.
+ * Over complete rows (every component scored): count, sum, sum of squares,
+ * min / max and the final-grade bracket histogram. An edit is bracketed by
+ * {@link #retract} (remove the cell and its row's final) and {@link #apply}
+ * (add them back from the new state); both are constant work apart from the
+ * min/max multiset, which is O(log n).
+ *
+ * Confined to the EDT, like the matrix it reads.
+ */
+public final class GradebookStats {
+
+    /** Final-grade brackets, highest first; {@link #bracketOf} maps a percentage into them. */
+    public static final String[] BRACKETS = { "≥ 80%", "70–79%", "60–69%", "50–59%", "< 50%" };
+
+    private final GradebookMatrix m;
+
+    private final int[] compCount;
+    private final double[] compSum;
+    private final double[] compSumSq;
+
+    private int finalCount;
+    private double finalSum;
+    private double finalSumSq;
+    private final int[] brackets = new int[BRACKETS.length];
+    private final TreeMap<Double, Integer> finals = new TreeMap<>();
+
+    /** Full pass over {@code m}; after this every change goes through retract/apply. */
+    public GradebookStats(GradebookMatrix m) {
+        this.m = m;
+        this.compCount = new int[m.cols()];
+        this.compSum = new double[m.cols()];
+        this.compSumSq = new double[m.cols()];
+
+        for (int row = 0; row < m.rows(); row++) {
+            for (int col = 0; col < m.cols(); col++) {
+                addCell(row, col, 1);
+            }
+            addFinal(row, 1);
+        }
+    }
+
+    /** Call before changing cell (row, col) of the matrix. */
+    public void retract(int row, int col) {
+        addCell(row, col, -1);
+        addFinal(row, -1);
+    }
+
+    /** Call after changing cell (row, col) of the matrix. */
+    public void apply(int row, int col) {
+        addCell(row, col, 1);
+        addFinal(row, 1);
+    }
+
+    // ---------- per component ----------
+
+    /** Mean of the scores present in {@code col}; 0 when none are. */
+    public double componentMean(int col) {
+        return compCount[col] == 0 ? 0.0 : compSum[col] / compCount[col];
+    }
+
+    public int componentCount(int col) {
+        return compCount[col];
+    }
+
+    /** Population standard deviation of {@code col}; 0 when no score is present. */
+    public double componentStdDev(int col) {
+        if (compCount[col] == 0)
+            return 0.0;
+        double mean = compSum[col] / compCount[col];
+        return Math.sqrt(Math.max(0.0, compSumSq[col] / compCount[col] - mean * mean));
+    }
+
+    // ---------- final percentages ----------
+
+    /** Rows with every component scored. */
+    public int finalCount() {
+        return finalCount;
+    }
+
+    /** NaN when no row is complete. */
+    public double finalMean() {
+        return finalCount == 0 ? Double.NaN : finalSum / finalCount;
+    }
+
+    /** Population standard deviation; NaN when no row is complete. */
+    public double finalStdDev() {
+        if (finalCount == 0)
+            return Double.NaN;
+        double mean = finalSum / finalCount;
+        return Math.sqrt(Math.max(0.0, finalSumSq / finalCount - mean * mean));
+    }
+
+    public double finalMin() {
+        return finals.isEmpty() ? Double.NaN : finals.firstKey();
+    }
+
+    public double finalMax() {
+        return finals.isEmpty() ? Double.NaN : finals.lastKey();
+    }
+
+    /** Students in bracket {@code i} of {@link #BRACKETS}. */
+    public int bracketCount(int i) {
+        return brackets[i];
+    }
+
+    public static int bracketOf(double pct) {
+        if (pct >= 80)
+            return 0;
+        if (pct >= 70)
+            return 1;
+        if (pct >= 60)
+            return 2;
+        if (pct >= 50)
+            return 3;
+        return 4;
+    }
+
+    // ---------- helpers ----------
+
+    private void addCell(int row, int col, int sign) {
+        if (!m.has(row, col))
+            return;
+        double v = m.score(row, col);
+        compCount[col] += sign;
+        compSum[col] += sign * v;
+        compSumSq[col] += sign * v * v;
+        if (compCount[col] == 0) {
+            compSum[col] = 0.0; // no drift left behind once a column empties
+            compSumSq[col] = 0.0;
+        }
+    }
+
+    private void addFinal(int row, int sign) {
+        double pct = m.percentage(row);
+        if (Double.isNaN(pct))
+            return;
+        finalCount += sign;
+        finalSum += sign * pct;
+        finalSumSq += sign * pct * pct;
+        if (finalCount == 0) {
+            finalSum = 0.0;
+            finalSumSq = 0.0;
+        }
+        brackets[bracketOf(pct)] += sign;
+        finals.merge(pct, sign, (a, b) -> (a + b == 0) ? null : a + b);
+    }
+}
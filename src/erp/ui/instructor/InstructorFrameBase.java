@@ -157,7 +157,7 @@ public abstract class InstructorFrameBase extends JFrame {
         // HOME
         NavButton homeBtn = new NavButton("Home", active == Page.HOME);
         homeBtn.addActionListener(e -> {
-            if (active != Page.HOME) {
+            if (active != Page.HOME && canLeave()) {
                 new InstructorDashboard(instructorId, userDisplayName).setVisible(true);
                 dispose();
             }
@@ -168,7 +168,7 @@ public abstract class InstructorFrameBase extends JFrame {
         // MY SECTIONS
         NavButton sectionsBtn = new NavButton("My Sections", active == Page.SECTIONS);
         sectionsBtn.addActionListener(e -> {
-            if (active != Page.SECTIONS) {
+            if (active != Page.SECTIONS && canLeave()) {
                 new MySections().setVisible(true);
                 dispose();
             }
@@ -178,7 +178,7 @@ public abstract class InstructorFrameBase extends JFrame {
 
         NavButton gradeBtn = new NavButton("Manage Components", active == Page.COMPONENTS);
         gradeBtn.addActionListener(e -> {
-            if (active != Page.COMPONENTS) {
+            if (active != Page.COMPONENTS && canLeave()) {
                 new ManageComponents(instructorId, userDisplayName).setVisible(true);
                 dispose();
             }
@@ -194,6 +194,9 @@ public abstract class InstructorFrameBase extends JFrame {
 
         NavButton settingsBtn = new NavButton("Settings", false);
         settingsBtn.addActionListener(e -> {
+            if (!canLeave()) {
+                return;
+            }
             new InstructorSettingsPage(instructorId, userDisplayName).setVisible(true);
             dispose();
         });
@@ -202,6 +205,9 @@ public abstract class InstructorFrameBase extends JFrame {
 
         NavButton logout = new NavButton("Log Out", false);
         logout.addActionListener(e -> {
+            if (!canLeave()) {
+                return;
+            }
             AuthContext.clear();
             new LoginPage().setVisible(true);
             dispose();
@@ -226,6 +232,14 @@ public abstract class InstructorFrameBase extends JFrame {
         return body;
     }
 
+    /**
+     * Checked by the sidebar before it disposes this frame. Screens with
+     * work that must finish first (a grade save) return false.
+     */
+    protected boolean canLeave() {
+        return true;
+    }
+
     // ---- Maintenance helpers ----
 
     protected boolean isReadOnly() {
@@ -1,8 +1,11 @@
 package erp.ui.instructor;
 
 import erp.db.DatabaseConnection;
+import erp.ui.common.DataExecutor;
 import erp.ui.common.FontKit;
+import erp.ui.common.LoadingPlaceholder;
 import erp.ui.common.RoundedPanel;
+import erp.ui.common.VirtualCardList;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -12,27 +15,19 @@ import javax.swing.table.AbstractTableModel;
 import javax.swing.table.TableRowSorter;
 
 import java.awt.*;
-import java.awt.event.MouseAdapter;
-import java.awt.event.MouseEvent;
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.IOException;
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import java.util.HashSet;
-import java.util.LinkedHashMap;
 import java.util.Locale;
-import java.util.Set;
 
 public class MySections extends InstructorFrameBase {
 
@@ -61,6 +56,30 @@ public class MySections extends InstructorFrameBase {
         int weight;
     }
 
+    /**
+     * What the table shows for a score or final percentage: the number for
+     * sorting and its text for painting, both fixed when the cell changes.
+     */
+    private static final class GradeCell implements Comparable<GradeCell> {
+        final double value;
+        final String text;
+
+        GradeCell(double value, String text) {
+            this.value = value;
+            this.text = text;
+        }
+
+        @Override
+        public int compareTo(GradeCell o) {
+            return Double.compare(value, o.value); // NaN ("-") sorts last
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
     // Palette for this screen
     private static final Color TEXT_900 = new Color(24, 30, 37);
     private static final Color TEXT_600 = new Color(100, 116, 139);
@@ -71,6 +90,9 @@ public class MySections extends InstructorFrameBase {
     private static final String VIEW_SECTIONS = "sections-list";
     private static final String VIEW_GRADEBOOK = "gradebook";
 
+    /** Rejected rows listed in the import report before it is cut short. */
+    private static final int REPORT_LIMIT = 200;
+
     private CardLayout cardLayout;
     private JPanel cardPanel;
 
@@ -78,12 +100,21 @@ public class MySections extends InstructorFrameBase {
     private SectionInfo currentSection;
     private final List<StudentRow> gradebookStudents = new ArrayList<>();
     private final List<ComponentInfo> gradebookComponents = new ArrayList<>();
-    private final Map<String, String> gradesByKey = new HashMap<>(); // key = enrollId + ":" + componentId
-    private final Set<String> dirtyKeys = new HashSet<>(); // keys that were edited
+    private GradebookMatrix gradeMatrix = new GradebookMatrix(new int[0], new int[0], new double[0]);
+    private GradebookStats gradeStats = new GradebookStats(gradeMatrix);
+
+    // Stats panel widgets, refreshed from gradeStats after every edit
+    private JLabel statMean;
+    private JLabel statRange;
+    private JLabel statWithGrades;
+    private BarChartPanel componentChart;
+    private BarChartPanel bracketChart;
 
     private GradebookTableModel gradebookModel;
     private JTable gradebookTable;
     private TableRowSorter<GradebookTableModel> sorter;
+    private DataExecutor.Task pendingGradebookLoad;
+    private boolean savingGrades;
 
     public MySections() {
         super(null, null, Page.SECTIONS);
@@ -94,6 +125,18 @@ public class MySections extends InstructorFrameBase {
         }
     }
 
+    @Override
+    protected boolean canLeave() {
+        if (savingGrades) {
+            JOptionPane.showMessageDialog(this,
+                    "Grades are still being saved or imported. Please wait for it to finish.",
+                    "Save Grades",
+                    JOptionPane.INFORMATION_MESSAGE);
+            return false;
+        }
+        return true;
+    }
+
     @Override
     protected JComponent buildMainContent() {
         cardLayout = new CardLayout();
@@ -158,13 +201,10 @@ public class MySections extends InstructorFrameBase {
             wrap.add(empty);
             content.add(wrap, BorderLayout.CENTER);
         } else {
-            JPanel grid = new JPanel();
-            grid.setOpaque(false);
-            grid.setLayout(new GridLayout(0, 2, 16, 16));
-
-            for (SectionInfo s : sections) {
-                grid.add(createSectionCard(s));
-            }
+            // two-column grid; only the cards in view exist, recycled on scroll
+            VirtualCardList<SectionInfo> grid = new VirtualCardList<>(new SectionCardRenderer(), 2, 16, 16);
+            grid.setClickListener((s, e) -> openGradebookView(s));
+            grid.setItems(sections);
 
             JScrollPane sc = new JScrollPane(grid);
             sc.setBorder(null);
@@ -179,89 +219,90 @@ public class MySections extends InstructorFrameBase {
         return root;
     }
 
-    private JComponent createSectionCard(SectionInfo s) {
-        RoundedPanel card = new RoundedPanel(18);
-        card.setBackground(CARD);
-        card.setBorder(new EmptyBorder(16, 18, 16, 18));
-        card.setLayout(new BorderLayout(8, 4));
-        card.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
-
-        JPanel badge = new JPanel();
-        badge.setPreferredSize(new Dimension(6, 1));
-        badge.setMaximumSize(new Dimension(6, Integer.MAX_VALUE));
-        badge.setBackground(TEAL);
-        card.add(badge, BorderLayout.WEST);
-
-        JPanel text = new JPanel();
-        text.setOpaque(false);
-        text.setLayout(new BoxLayout(text, BoxLayout.Y_AXIS));
-
-        JLabel course = new JLabel((s.courseID != null ? s.courseID : "Course"));
-        course.setFont(FontKit.semibold(16f));
-        course.setForeground(TEXT_900);
-        text.add(course);
-
-        String line2 = "Section " + s.sectionID;
-        if (s.dayTime != null && !s.dayTime.isBlank()) {
-            line2 += " • " + s.dayTime;
-        }
-        JLabel secLabel = new JLabel(line2);
-        secLabel.setFont(FontKit.regular(13f));
-        secLabel.setForeground(TEXT_600);
-        text.add(Box.createVerticalStrut(2));
-        text.add(secLabel);
-
-        String meta = "";
-        if (s.room != null && !s.room.isBlank()) {
-            meta += "Room " + s.room;
-        }
-        if (s.semester != null && !s.semester.isBlank()) {
-            if (!meta.isEmpty())
-                meta += " • ";
-            meta += s.semester + " " + (s.year != 0 ? s.year : "");
-        }
+    /** Section card reused across rows; every line is always laid out so all cards share a height. */
+    private static class SectionCard extends RoundedPanel {
+        private final JLabel course = new JLabel();
+        private final JLabel secLabel = new JLabel();
+        private final JLabel metaLabel = new JLabel();
+        private final JLabel cap = new JLabel();
+
+        SectionCard() {
+            super(18);
+            setBackground(CARD);
+            setBorder(new EmptyBorder(16, 18, 16, 18));
+            setLayout(new BorderLayout(8, 4));
+            setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+
+            JPanel badge = new JPanel();
+            badge.setPreferredSize(new Dimension(6, 1));
+            badge.setMaximumSize(new Dimension(6, Integer.MAX_VALUE));
+            badge.setBackground(TEAL);
+            add(badge, BorderLayout.WEST);
+
+            JPanel text = new JPanel();
+            text.setOpaque(false);
+            text.setLayout(new BoxLayout(text, BoxLayout.Y_AXIS));
+
+            course.setFont(FontKit.semibold(16f));
+            course.setForeground(TEXT_900);
+            text.add(course);
+
+            secLabel.setFont(FontKit.regular(13f));
+            secLabel.setForeground(TEXT_600);
+            text.add(Box.createVerticalStrut(2));
+            text.add(secLabel);
 
-        if (!meta.isEmpty()) {
-            JLabel metaLabel = new JLabel(meta);
             metaLabel.setFont(FontKit.regular(12f));
             metaLabel.setForeground(TEXT_600);
             text.add(Box.createVerticalStrut(2));
             text.add(metaLabel);
-        }
 
-        card.add(text, BorderLayout.CENTER);
+            add(text, BorderLayout.CENTER);
 
-        if (s.capacity > 0) {
-            JLabel cap = new JLabel("Capacity: " + s.capacity);
             cap.setFont(FontKit.regular(12f));
             cap.setForeground(TEXT_600);
 
             JPanel bottom = new JPanel(new FlowLayout(FlowLayout.RIGHT, 0, 0));
             bottom.setOpaque(false);
             bottom.add(cap);
-            card.add(bottom, BorderLayout.SOUTH);
+            add(bottom, BorderLayout.SOUTH);
         }
 
-        card.addMouseListener(new MouseAdapter() {
-            @Override
-            public void mouseEntered(MouseEvent e) {
-                card.setBackground(CARD_HOVER);
-                card.repaint();
-            }
+        void bind(SectionInfo s, boolean hovered) {
+            course.setText(s.courseID != null ? s.courseID : "Course");
 
-            @Override
-            public void mouseExited(MouseEvent e) {
-                card.setBackground(CARD);
-                card.repaint();
+            String line2 = "Section " + s.sectionID;
+            if (s.dayTime != null && !s.dayTime.isBlank()) {
+                line2 += " • " + s.dayTime;
             }
+            secLabel.setText(line2);
 
-            @Override
-            public void mouseClicked(MouseEvent e) {
-                openGradebookView(s);
+            String meta = "";
+            if (s.room != null && !s.room.isBlank()) {
+                meta += "Room " + s.room;
             }
-        });
+            if (s.semester != null && !s.semester.isBlank()) {
+                if (!meta.isEmpty())
+                    meta += " • ";
+                meta += s.semester + " " + (s.year != 0 ? s.year : "");
+            }
+            metaLabel.setText(meta.isEmpty() ? " " : meta);
 
-        return card;
+            cap.setText(s.capacity > 0 ? "Capacity: " + s.capacity : " ");
+            setBackground(hovered ? CARD_HOVER : CARD);
+        }
+    }
+
+    private static class SectionCardRenderer implements VirtualCardList.Renderer<SectionInfo> {
+        @Override
+        public JComponent create(int kind) {
+            return new SectionCard();
+        }
+
+        @Override
+        public void bind(JComponent card, SectionInfo item, boolean selected, boolean hovered) {
+            ((SectionCard) card).bind(item, hovered);
+        }
     }
 
     private List<SectionInfo> fetchSectionsForInstructor(String instrId) {
@@ -305,8 +346,53 @@ public class MySections extends InstructorFrameBase {
 
     private void openGradebookView(SectionInfo section) {
         this.currentSection = section;
-        loadGradebookData(section.sectionID);
+        if (pendingGradebookLoad != null) {
+            pendingGradebookLoad.cancel();
+        }
 
+        // Placeholder card while the gradebook loads off the EDT
+        JPanel loading = new JPanel(new BorderLayout());
+        loading.setOpaque(false);
+        loading.setBorder(new EmptyBorder(8, 0, 0, 0));
+        JButton cancelBtn = new JButton("← Back to My Sections");
+        styleSecondaryButton(cancelBtn);
+        cancelBtn.addActionListener(e -> {
+            if (pendingGradebookLoad != null) {
+                pendingGradebookLoad.cancel();
+                pendingGradebookLoad = null;
+            }
+            cardLayout.show(cardPanel, VIEW_SECTIONS);
+        });
+        JPanel loadingTop = new JPanel(new BorderLayout());
+        loadingTop.setOpaque(false);
+        loadingTop.add(cancelBtn, BorderLayout.WEST);
+        loading.add(loadingTop, BorderLayout.NORTH);
+        loading.add(new LoadingPlaceholder("Loading gradebook…"), BorderLayout.CENTER);
+        cardPanel.add(loading, VIEW_GRADEBOOK);
+        cardLayout.show(cardPanel, VIEW_GRADEBOOK);
+
+        final int sectionId = section.sectionID;
+        pendingGradebookLoad = DataExecutor.load(cardPanel,
+                () -> fetchGradebookData(sectionId),
+                data -> {
+                    pendingGradebookLoad = null;
+                    cardPanel.remove(loading);
+                    applyGradebookData(data);
+                    showGradebookView(section);
+                },
+                ex -> {
+                    pendingGradebookLoad = null;
+                    ex.printStackTrace();
+                    cardPanel.remove(loading);
+                    cardLayout.show(cardPanel, VIEW_SECTIONS);
+                    JOptionPane.showMessageDialog(this,
+                            "Failed to load gradebook:\n" + ex.getMessage(),
+                            "Gradebook",
+                            JOptionPane.ERROR_MESSAGE);
+                });
+    }
+
+    private void showGradebookView(SectionInfo section) {
         JPanel root = new JPanel(new BorderLayout());
         root.setOpaque(false);
         root.setBorder(new EmptyBorder(8, 0, 0, 0));
@@ -440,6 +526,9 @@ public class MySections extends InstructorFrameBase {
         if (isReadOnly()) {
             gradebookTable.setDefaultEditor(Object.class, null);
             gradebookTable.setToolTipText("Editing disabled during maintenance mode");
+        } else {
+            // score cells edit as plain text; setValueAt parses and validates
+            gradebookTable.setDefaultEditor(GradeCell.class, new DefaultCellEditor(new JTextField()));
         }
 
         // Filter logic
@@ -525,83 +614,49 @@ public class MySections extends InstructorFrameBase {
     // Gradebook data loading
     // -------------------------------------------------------------------------
 
-    private void loadGradebookData(int sectionId) {
+    /** Everything the gradebook view needs for one section. */
+    private record GradebookData(List<StudentRow> students,
+                                 List<ComponentInfo> components,
+                                 GradebookMatrix grades) {
+    }
+
+    private void applyGradebookData(GradebookData data) {
         gradebookStudents.clear();
         gradebookComponents.clear();
-        gradesByKey.clear();
-        dirtyKeys.clear();
-
-        // 1) components for the section (via section_components)
-        String cmpSql = "SELECT id, section_id, component_name, weight " +
-                "FROM section_components " +
-                "WHERE section_id = ? " +
-                "ORDER BY id";
 
-        try (Connection conn = DatabaseConnection.erp().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(cmpSql)) {
+        gradebookStudents.addAll(data.students());
+        gradebookComponents.addAll(data.components());
+        gradeMatrix = data.grades();
+        gradeStats = new GradebookStats(gradeMatrix);
+    }
 
-            stmt.setInt(1, sectionId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    ComponentInfo c = new ComponentInfo();
-                    c.componentId = rs.getInt("id");
-                    c.name = rs.getString("component_name");
-                    c.weight = rs.getInt("weight");
-                    gradebookComponents.add(c);
-                }
-            }
-        } catch (SQLException ex) {
-            ex.printStackTrace();
+    /** Runs off the EDT (see openGradebookView); one connection, see GradebookLoader. */
+    private static GradebookData fetchGradebookData(int sectionId) throws SQLException {
+        GradebookLoader.Gradebook book;
+        try (Connection conn = DatabaseConnection.erp().getConnection()) {
+            book = GradebookLoader.load(conn, sectionId);
         }
 
-        // 2) students enrolled in this section
-        String stuSql = "SELECT e.enrollment_id, s.student_id, s.roll_no, s.full_name " +
-                "FROM enrollments e " +
-                "JOIN students s " +
-                "  ON (s.student_id = e.student_id OR CAST(s.roll_no AS CHAR) = e.student_id) " +
-                "WHERE e.section_id = ? " +
-                "ORDER BY s.roll_no";
-
-        try (Connection conn = DatabaseConnection.erp().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(stuSql)) {
-
-            stmt.setInt(1, sectionId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    StudentRow row = new StudentRow();
-                    row.enrollId = rs.getString("enrollment_id");
-                    row.studentId = rs.getString("student_id");
-                    row.rollNo = String.valueOf(rs.getInt("roll_no"));
-                    row.name = rs.getString("full_name");
-                    gradebookStudents.add(row);
-                }
-            }
-        } catch (SQLException ex) {
-            ex.printStackTrace();
+        List<StudentRow> gradebookStudents = new ArrayList<>(book.students().size());
+        for (GradebookLoader.Student st : book.students()) {
+            StudentRow row = new StudentRow();
+            row.enrollId = String.valueOf(st.enrollmentId());
+            row.studentId = st.studentId();
+            row.rollNo = st.rollNo();
+            row.name = st.name();
+            gradebookStudents.add(row);
         }
 
-        // 3) grades for section
-        String grdSql = "SELECT g.enrollment_id, g.component_id, g.score " +
-                "FROM grades g " +
-                "JOIN enrollments e ON e.enrollment_id = g.enrollment_id " +
-                "WHERE e.section_id = ?";
-
-        try (Connection conn = DatabaseConnection.erp().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(grdSql)) {
-
-            stmt.setInt(1, sectionId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    String enrollId = rs.getString("enrollment_id");
-                    int compId = rs.getInt("component_id");
-                    String score = rs.getString("score");
-                    String key = enrollId + ":" + compId;
-                    gradesByKey.put(key, score == null ? "" : score);
-                }
-            }
-        } catch (SQLException ex) {
-            ex.printStackTrace();
+        List<ComponentInfo> gradebookComponents = new ArrayList<>(book.components().size());
+        for (GradebookLoader.Component comp : book.components()) {
+            ComponentInfo c = new ComponentInfo();
+            c.componentId = comp.componentId();
+            c.name = comp.name();
+            c.weight = comp.weight();
+            gradebookComponents.add(c);
         }
+
+        return new GradebookData(gradebookStudents, gradebookComponents, book.grades());
     }
 
     // -------------------------------------------------------------------------
@@ -609,6 +664,11 @@ public class MySections extends InstructorFrameBase {
     // -------------------------------------------------------------------------
 
     private class GradebookTableModel extends AbstractTableModel {
+        // boxed cells, built on first paint and dropped when the cell changes
+        private GradebookMatrix cachedFor;
+        private GradeCell[] scoreCells;
+        private GradeCell[] finalCells;
+
         @Override
         public int getRowCount() {
             return gradebookStudents.size();
@@ -643,10 +703,19 @@ public class MySections extends InstructorFrameBase {
             if (MySections.this.isReadOnly()) {
                 return false;
             }
+            // No edits while a save or import is writing: its result is written back over the cells
+            if (savingGrades) {
+                return false;
+            }
             // Only component columns editable otherwise
             return columnIndex >= 2 && columnIndex < 2 + gradebookComponents.size();
         }
 
+        @Override
+        public Class<?> getColumnClass(int columnIndex) {
+            return columnIndex < 2 ? String.class : GradeCell.class;
+        }
+
         @Override
         public Object getValueAt(int rowIndex, int columnIndex) {
             StudentRow s = gradebookStudents.get(rowIndex);
@@ -656,18 +725,31 @@ public class MySections extends InstructorFrameBase {
             if (columnIndex == 1)
                 return s.name;
 
+            ensureCache();
+
             // Final Grade column (last one)
             if (columnIndex == 2 + gradebookComponents.size()) {
-                double pct = computeFinalPercentage(s);
-                if (Double.isNaN(pct))
-                    return "-";
-                return String.format("%.1f", pct);
+                GradeCell cell = finalCells[rowIndex];
+                if (cell == null) {
+                    double pct = gradeMatrix.percentage(rowIndex);
+                    cell = new GradeCell(pct, Double.isNaN(pct) ? "-" : String.format("%.1f", pct));
+                    finalCells[rowIndex] = cell;
+                }
+                return cell;
             }
 
             // Component columns
-            ComponentInfo c = gradebookComponents.get(columnIndex - 2);
-            String key = s.enrollId + ":" + c.componentId;
-            return gradesByKey.getOrDefault(key, "");
+            int col = columnIndex - 2;
+            if (!gradeMatrix.has(rowIndex, col))
+                return null;
+            int i = rowIndex * gradeMatrix.cols() + col;
+            GradeCell cell = scoreCells[i];
+            if (cell == null) {
+                double score = gradeMatrix.score(rowIndex, col);
+                cell = new GradeCell(score, GradebookMatrix.format(score));
+                scoreCells[i] = cell;
+            }
+            return cell;
         }
 
         @Override
@@ -675,14 +757,12 @@ public class MySections extends InstructorFrameBase {
             if (columnIndex < 2 || columnIndex >= 2 + gradebookComponents.size())
                 return;
 
-            StudentRow s = gradebookStudents.get(rowIndex);
             ComponentInfo c = gradebookComponents.get(columnIndex - 2);
 
             String value = (aValue == null) ? "" : aValue.toString().trim();
-            String key = s.enrollId + ":" + c.componentId;
+            double numeric = 0.0;
 
             if (!value.isBlank()) {
-                double numeric;
                 try {
                     numeric = Double.parseDouble(value);
                 } catch (NumberFormatException ex) {
@@ -707,70 +787,32 @@ public class MySections extends InstructorFrameBase {
                 }
             }
 
-            gradesByKey.put(key, value);
-            dirtyKeys.add(key);
+            int col = columnIndex - 2;
+            writeScore(rowIndex, col, value.isBlank() ? Double.NaN : numeric);
+
+            ensureCache();
+            scoreCells[rowIndex * gradeMatrix.cols() + col] = null;
+            finalCells[rowIndex] = null;
 
             fireTableCellUpdated(rowIndex, columnIndex);
             fireTableCellUpdated(rowIndex, 2 + gradebookComponents.size());
+            refreshStats();
         }
 
-    }
-
-    private void upsertGrade(String enrollId, int componentId, String value) {
-        if (enrollId == null || enrollId.isBlank())
-            return;
-
-        if (value == null || value.isBlank()) {
-            // Delete grade if user cleared the cell
-            String delSql = "DELETE FROM grades WHERE enrollment_id = ? AND component_id = ?";
-            try (Connection conn = DatabaseConnection.erp().getConnection();
-                    PreparedStatement stmt = conn.prepareStatement(delSql)) {
-                stmt.setString(1, enrollId);
-                stmt.setInt(2, componentId);
-                stmt.executeUpdate();
-            } catch (SQLException ex) {
-                ex.printStackTrace();
-            }
-            return;
-        }
-
-        Double numeric;
-        try {
-            numeric = Double.parseDouble(value);
-        } catch (NumberFormatException ex) {
-            return;
-        }
-
-        if (numeric < 0)
-            numeric = 0.0;
-
-        ComponentInfo comp = findComponentById(componentId);
-        if (comp != null && numeric > comp.weight) {
-            // clamp to weight for CSV/import path
-            numeric = (double) comp.weight;
+        @Override
+        public void fireTableDataChanged() {
+            cachedFor = null; // bulk change (import, reload): rebuild cells lazily
+            super.fireTableDataChanged();
         }
 
-        String updateSql = "UPDATE grades SET score = ? WHERE enrollment_id = ? AND component_id = ?";
-        String insertSql = "INSERT INTO grades (enrollment_id, component_id, score) VALUES (?, ?, ?)";
-
-        try (Connection conn = DatabaseConnection.erp().getConnection()) {
-            try (PreparedStatement up = conn.prepareStatement(updateSql)) {
-                up.setDouble(1, numeric);
-                up.setString(2, enrollId);
-                up.setInt(3, componentId);
-                int rows = up.executeUpdate();
-                if (rows == 0) {
-                    try (PreparedStatement ins = conn.prepareStatement(insertSql)) {
-                        ins.setString(1, enrollId);
-                        ins.setInt(2, componentId);
-                        ins.setDouble(3, numeric);
-                        ins.executeUpdate();
-                    }
-                }
+        private void ensureCache() {
+            if (cachedFor != gradeMatrix) {
+                cachedFor = gradeMatrix;
+                scoreCells = new GradeCell[gradeMatrix.rows() * gradeMatrix.cols()];
+                finalCells = new GradeCell[gradeMatrix.rows()];
             }
-        } catch (SQLException ex) {
-            ex.printStackTrace();
         }
+
     }
 
     // -------------------------------------------------------------------------
@@ -795,41 +837,29 @@ public class MySections extends InstructorFrameBase {
             file = new File(file.getParentFile(), file.getName() + ".csv");
         }
 
-        try (BufferedWriter w = new BufferedWriter(new FileWriter(file))) {
-            // Header
-            StringBuilder header = new StringBuilder();
-            header.append("Roll No,Full Name");
-            for (ComponentInfo c : gradebookComponents) {
-                header.append(",").append(escapeCsv(c.name));
-            }
-            header.append(",Final Grade");
-            w.write(header.toString());
-            w.newLine();
-
-            // Rows
-            for (StudentRow s : gradebookStudents) {
-                StringBuilder line = new StringBuilder();
-                line.append(escapeCsv(s.rollNo)).append(",")
-                        .append(escapeCsv(s.name));
-
-                for (ComponentInfo c : gradebookComponents) {
-                    String key = s.enrollId + ":" + c.componentId;
-                    String val = gradesByKey.getOrDefault(key, "");
-                    line.append(",").append(escapeCsv(val));
-                }
-
-                double pct = computeFinalPercentage(s);
-                String finalStr = Double.isNaN(pct) ? "" : String.format("%.1f", pct);
-                line.append(",").append(escapeCsv(finalStr));
-
-                w.write(line.toString());
-                w.newLine();
-            }
-        } catch (IOException ex) {
-            ex.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Failed to export CSV: " + ex.getMessage(),
-                    "Export CSV", JOptionPane.ERROR_MESSAGE);
+        // snapshot on the EDT, write off it
+        Path out = file.toPath();
+        List<String> rollNos = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for (StudentRow s : gradebookStudents) {
+            rollNos.add(s.rollNo);
+            names.add(s.name);
         }
+        List<String> componentNames = componentNames();
+        GradebookMatrix snapshot = gradeMatrix.copy();
+
+        DataExecutor.run(this,
+                () -> {
+                    GradeCsv.export(out, rollNos, names, componentNames, snapshot);
+                    return null;
+                },
+                () -> {
+                },
+                ex -> {
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(this, "Failed to export CSV: " + ex.getMessage(),
+                            "Export CSV", JOptionPane.ERROR_MESSAGE);
+                });
     }
 
     private void importGradesFromCsv() {
@@ -842,6 +872,10 @@ public class MySections extends InstructorFrameBase {
             return;
         }
 
+        if (savingGrades) {
+            return;
+        }
+
         if (gradebookStudents.isEmpty()) {
             JOptionPane.showMessageDialog(this, "No students to import for.", "Import CSV",
                     JOptionPane.INFORMATION_MESSAGE);
@@ -854,99 +888,134 @@ public class MySections extends InstructorFrameBase {
         if (result != JFileChooser.APPROVE_OPTION)
             return;
 
-        File file = chooser.getSelectedFile();
-        Map<String, Integer> rollToRow = new HashMap<>();
-        for (int i = 0; i < gradebookStudents.size(); i++) {
-            rollToRow.put(gradebookStudents.get(i).rollNo, i);
+        // 1) stage + validate off the EDT; nothing is written yet
+        Path in = chooser.getSelectedFile().toPath();
+        List<String> rollNos = new ArrayList<>();
+        for (StudentRow s : gradebookStudents) {
+            rollNos.add(s.rollNo);
         }
+        List<String> componentNames = componentNames();
+        GradebookMatrix book = gradeMatrix;
+
+        savingGrades = true;
+        DataExecutor.load(this,
+                () -> GradeCsv.stage(in, rollNos, componentNames, book.copy()),
+                plan -> {
+                    savingGrades = false;
+                    if (book == gradeMatrix) {
+                        confirmImport(plan);
+                    }
+                },
+                ex -> {
+                    savingGrades = false;
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(this, "Failed to import CSV: " + ex.getMessage(),
+                            "Import CSV", JOptionPane.ERROR_MESSAGE);
+                });
+    }
 
-        Map<String, Integer> compNameToId = new HashMap<>();
-        for (ComponentInfo c : gradebookComponents) {
-            compNameToId.put(c.name, c.componentId);
-        }
+    /** 2) show the validation report; on OK commit staged cells (plus unsaved edits) in one transaction. */
+    private void confirmImport(GradeCsv.ImportPlan plan) {
+        stopEditing(); // a half-typed cell goes into the transaction, not over it later
 
-        try (BufferedReader r = new BufferedReader(new FileReader(file))) {
-            String header = r.readLine();
-            if (header == null) {
-                JOptionPane.showMessageDialog(this, "Empty CSV file.", "Import CSV",
-                        JOptionPane.WARNING_MESSAGE);
-                return;
+        StringBuilder report = new StringBuilder();
+        report.append(plan.rowsAccepted()).append(" row(s) accepted, ")
+                .append(plan.rejected().size()).append(" rejected.\n");
+        if (!plan.unmatchedColumns().isEmpty()) {
+            report.append("Ignored columns (no such component): ")
+                    .append(String.join(", ", plan.unmatchedColumns())).append("\n");
+        }
+        int shown = 0;
+        for (GradeCsv.Rejected r : plan.rejected()) {
+            if (shown++ == REPORT_LIMIT) {
+                report.append("… and ").append(plan.rejected().size() - REPORT_LIMIT).append(" more\n");
+                break;
             }
-
-            String[] cols = header.split(",", -1);
-            if (cols.length < 2) {
-                JOptionPane.showMessageDialog(this, "Invalid CSV header.", "Import CSV",
-                        JOptionPane.WARNING_MESSAGE);
-                return;
+            report.append("Record ").append(r.record());
+            if (!r.rollNo().isEmpty()) {
+                report.append(" (").append(r.rollNo()).append(")");
             }
+            report.append(": ").append(r.reason()).append("\n");
+        }
 
-            // Map CSV column index -> componentId (ignore Final/Final Grade)
-            Map<Integer, Integer> colToComponentId = new HashMap<>();
-            for (int i = 2; i < cols.length; i++) {
-                String name = unescapeCsv(cols[i].trim());
-                if (name.equalsIgnoreCase("Final") || name.equalsIgnoreCase("Final Grade")) {
-                    continue;
-                }
-                if (compNameToId.containsKey(name)) {
-                    colToComponentId.put(i, compNameToId.get(name));
-                }
-            }
+        JTextArea text = new JTextArea(report.toString(), Math.min(16, 3 + shown), 60);
+        text.setEditable(false);
+        text.setFont(FontKit.regular(13f));
+        JScrollPane scroll = new JScrollPane(text);
 
-            String line;
-            while ((line = r.readLine()) != null) {
-                if (line.isBlank())
-                    continue;
-                String[] parts = line.split(",", -1);
-                if (parts.length < 2)
-                    continue;
-
-                String roll = unescapeCsv(parts[0].trim());
-                Integer rowIdx = rollToRow.get(roll);
-                if (rowIdx == null)
-                    continue;
-
-                StudentRow s = gradebookStudents.get(rowIdx);
-
-                for (int i = 2; i < parts.length; i++) {
-                    Integer compId = colToComponentId.get(i);
-                    if (compId == null)
-                        continue;
-                    String value = unescapeCsv(parts[i].trim());
-                    String key = s.enrollId + ":" + compId;
-                    gradesByKey.put(key, value);
-                    dirtyKeys.add(key); // mark as changed
-                }
-            }
+        if (plan.cells().isEmpty()) {
+            JOptionPane.showMessageDialog(this, scroll, "Import CSV", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
 
-            // Persist to DB
-            saveGrades();
-            if (gradebookModel != null) {
-                gradebookModel.fireTableDataChanged();
-            }
-        } catch (IOException ex) {
-            ex.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Failed to import CSV: " + ex.getMessage(),
-                    "Import CSV", JOptionPane.ERROR_MESSAGE);
+        int pending = gradeMatrix.dirtyCount();
+        text.append("\nImport " + plan.cells().size() + " grade value(s)"
+                + (pending > 0 ? " and save " + pending + " unsaved edit(s)" : "") + "?");
+        int choice = JOptionPane.showConfirmDialog(this, scroll, "Import CSV",
+                JOptionPane.YES_NO_OPTION,
+                plan.rejected().isEmpty() ? JOptionPane.QUESTION_MESSAGE : JOptionPane.WARNING_MESSAGE);
+        if (choice != JOptionPane.YES_OPTION) {
+            return;
         }
-    }
 
-    private String escapeCsv(String val) {
-        if (val == null)
-            return "";
-        if (val.contains(",") || val.contains("\"")) {
-            return "\"" + val.replace("\"", "\"\"") + "\"";
+        // the transaction writes what the gradebook will look like after the import
+        GradebookMatrix target = gradeMatrix.copy();
+        for (GradeCsv.Staged c : plan.cells()) {
+            if (Double.isNaN(c.score())) {
+                target.clear(c.row(), c.col());
+            } else {
+                target.set(c.row(), c.col(), c.score());
+            }
         }
-        return val;
+        List<int[]> savedAt = new ArrayList<>();
+        List<GradeSaveEngine.Cell> cells = new ArrayList<>();
+        collectDirty(target, savedAt, cells);
+        List<GradeSaveEngine.FinalGrade> finals = finalsOf(target);
+
+        GradebookMatrix book = gradeMatrix;
+        savingGrades = true;
+        // not bound to the frame, like saveGrades; the table stays read-only until it returns
+        DataExecutor.write(
+                () -> {
+                    try (Connection conn = DatabaseConnection.erp().getConnection()) {
+                        GradeSaveEngine.save(conn, cells, finals);
+                    }
+                    return null;
+                },
+                () -> {
+                    savingGrades = false;
+                    if (book != gradeMatrix)
+                        return; // another section was opened meanwhile
+                    for (GradeCsv.Staged c : plan.cells()) {
+                        writeScore(c.row(), c.col(), c.score());
+                    }
+                    markSaved(book, savedAt, cells);
+                    refreshStats();
+                    if (gradebookModel != null) {
+                        gradebookModel.fireTableDataChanged();
+                    }
+                    JOptionPane.showMessageDialog(this,
+                            "Imported " + plan.cells().size() + " grade value(s) from "
+                                    + plan.rowsAccepted() + " row(s).",
+                            "Import CSV",
+                            JOptionPane.INFORMATION_MESSAGE);
+                },
+                ex -> {
+                    savingGrades = false;
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(this,
+                            "Failed to import grades; nothing was saved:\n" + ex.getMessage(),
+                            "Import CSV",
+                            JOptionPane.ERROR_MESSAGE);
+                });
     }
 
-    private String unescapeCsv(String val) {
-        if (val == null)
-            return "";
-        val = val.trim();
-        if (val.startsWith("\"") && val.endsWith("\"") && val.length() >= 2) {
-            val = val.substring(1, val.length() - 1).replace("\"\"", "\"");
+    private List<String> componentNames() {
+        List<String> names = new ArrayList<>(gradebookComponents.size());
+        for (ComponentInfo c : gradebookComponents) {
+            names.add(c.name);
         }
-        return val;
+        return names;
     }
 
     // -------------------------------------------------------------------------
@@ -959,101 +1028,92 @@ public class MySections extends InstructorFrameBase {
         outer.setLayout(new BoxLayout(outer, BoxLayout.Y_AXIS));
         outer.setBorder(new EmptyBorder(8, 0, 16, 0));
 
-        int total = gradebookStudents.size();
-        int withGrades = 0;
-        double sumFinal = 0.0;
-
-        for (StudentRow s : gradebookStudents) {
-            double pct = computeFinalPercentage(s);
-            if (!Double.isNaN(pct)) {
-                withGrades++;
-                sumFinal += pct;
-            }
-        }
-
-        double mean = (withGrades == 0) ? Double.NaN : (sumFinal / withGrades);
-        String meanStr = Double.isNaN(mean) ? "-" : String.format(Locale.US, "%.1f %%", mean);
+        statMean = new JLabel();
+        statRange = new JLabel();
+        statWithGrades = new JLabel();
 
         // Summary row
-        JPanel summaryRow = new JPanel(new GridLayout(1, 3, 16, 0));
+        JPanel summaryRow = new JPanel(new GridLayout(1, 4, 16, 0));
         summaryRow.setOpaque(false);
-        summaryRow.add(metricCard(String.valueOf(total), "Students in section"));
-        summaryRow.add(metricCard(meanStr, "Mean final percentage"));
-        summaryRow.add(metricCard(String.valueOf(withGrades), "Students with grades"));
+        summaryRow.add(metricCard(new JLabel(String.valueOf(gradebookStudents.size())), "Students in section"));
+        summaryRow.add(metricCard(statMean, "Mean final percentage"));
+        summaryRow.add(metricCard(statRange, "Lowest – highest final"));
+        summaryRow.add(metricCard(statWithGrades, "Students with grades"));
 
         outer.add(summaryRow);
         outer.add(Box.createVerticalStrut(18));
 
-        // Component averages
         List<String> compLabels = new ArrayList<>();
-        List<Double> compValues = new ArrayList<>();
         for (ComponentInfo c : gradebookComponents) {
-            double sum = 0.0;
-            int count = 0;
-            for (StudentRow s : gradebookStudents) {
-                String key = s.enrollId + ":" + c.componentId;
-                String val = gradesByKey.get(key);
-                if (val == null || val.isBlank())
-                    continue;
-                try {
-                    double score = Double.parseDouble(val);
-                    sum += score;
-                    count++;
-                } catch (NumberFormatException ignored) {
-                }
-            }
             compLabels.add(c.name);
-            compValues.add(count == 0 ? 0.0 : (sum / count));
-        }
-
-        // Final grade brackets
-        Map<String, Integer> brackets = new LinkedHashMap<>();
-        brackets.put("≥ 80%", 0);
-        brackets.put("70–79%", 0);
-        brackets.put("60–69%", 0);
-        brackets.put("50–59%", 0);
-        brackets.put("< 50%", 0);
-
-        for (StudentRow s : gradebookStudents) {
-            double pct = computeFinalPercentage(s);
-            if (Double.isNaN(pct))
-                continue;
-            if (pct >= 80) {
-                brackets.put("≥ 80%", brackets.get("≥ 80%") + 1);
-            } else if (pct >= 70) {
-                brackets.put("70–79%", brackets.get("70–79%") + 1);
-            } else if (pct >= 60) {
-                brackets.put("60–69%", brackets.get("60–69%") + 1);
-            } else if (pct >= 50) {
-                brackets.put("50–59%", brackets.get("50–59%") + 1);
-            } else {
-                brackets.put("< 50%", brackets.get("< 50%") + 1);
-            }
-        }
-
-        List<String> bracketLabels = new ArrayList<>();
-        List<Double> bracketValues = new ArrayList<>();
-        for (Map.Entry<String, Integer> e : brackets.entrySet()) {
-            bracketLabels.add(e.getKey());
-            bracketValues.add(e.getValue().doubleValue());
         }
+        componentChart = new BarChartPanel(compLabels, "Average score");
+        bracketChart = new BarChartPanel(List.of(GradebookStats.BRACKETS), "Number of students");
 
         JPanel chartsRow = new JPanel();
         chartsRow.setOpaque(false);
         chartsRow.setLayout(new GridLayout(1, 2, 16, 0));
         chartsRow.setMaximumSize(new Dimension(Integer.MAX_VALUE, 250));
         chartsRow.setPreferredSize(new Dimension(Integer.MAX_VALUE, 250));
-        chartsRow.add(buildChartCard("Average score per component",
-                compLabels, compValues, "Average score"));
-        chartsRow.add(buildChartCard("Final grade distribution",
-                bracketLabels, bracketValues, "Number of students"));
+        chartsRow.add(buildChartCard("Average score per component", componentChart));
+        chartsRow.add(buildChartCard("Final grade distribution", bracketChart));
 
         outer.add(chartsRow);
 
+        refreshStats();
         return outer;
     }
 
-    private RoundedPanel metricCard(String value, String label) {
+    /**
+     * Push the running aggregates into the summary cards and charts. Reads
+     * gradeStats only (one value per component / bracket), so it is cheap
+     * enough to run after every cell edit.
+     */
+    private void refreshStats() {
+        if (componentChart == null)
+            return;
+
+        GradebookStats st = gradeStats;
+        double mean = st.finalMean();
+        statMean.setText(Double.isNaN(mean) ? "-"
+                : String.format(Locale.US, "%.1f %% ± %.1f", mean, st.finalStdDev()));
+        statRange.setText(st.finalCount() == 0 ? "-"
+                : String.format(Locale.US, "%.1f – %.1f", st.finalMin(), st.finalMax()));
+        statWithGrades.setText(String.valueOf(st.finalCount()));
+
+        double[] compValues = new double[gradeMatrix.cols()];
+        for (int col = 0; col < compValues.length; col++) {
+            compValues[col] = st.componentMean(col);
+        }
+        componentChart.setValues(compValues);
+
+        double[] bracketValues = new double[GradebookStats.BRACKETS.length];
+        for (int i = 0; i < bracketValues.length; i++) {
+            bracketValues[i] = st.bracketCount(i);
+        }
+        bracketChart.setValues(bracketValues);
+    }
+
+    private void stopEditing() {
+        if (gradebookTable != null && gradebookTable.isEditing()) {
+            if (!gradebookTable.getCellEditor().stopCellEditing()) {
+                gradebookTable.getCellEditor().cancelCellEditing();
+            }
+        }
+    }
+
+    /** Write one cell (NaN clears it), keeping the running stats in step. */
+    private void writeScore(int row, int col, double score) {
+        gradeStats.retract(row, col);
+        if (Double.isNaN(score)) {
+            gradeMatrix.clear(row, col);
+        } else {
+            gradeMatrix.set(row, col, score);
+        }
+        gradeStats.apply(row, col);
+    }
+
+    private RoundedPanel metricCard(JLabel v, String label) {
         RoundedPanel p = new RoundedPanel(18);
         p.setBackground(Color.WHITE);
         p.setLayout(new GridBagLayout());
@@ -1064,7 +1124,6 @@ public class MySections extends InstructorFrameBase {
         g.gridy = 0;
         g.anchor = GridBagConstraints.WEST;
 
-        JLabel v = new JLabel(value);
         v.setFont(FontKit.bold(20f));
         v.setForeground(new Color(24, 30, 37));
         p.add(v, g);
@@ -1078,10 +1137,7 @@ public class MySections extends InstructorFrameBase {
         return p;
     }
 
-    private JComponent buildChartCard(String title,
-            List<String> labels,
-            List<Double> values,
-            String yCaption) {
+    private JComponent buildChartCard(String title, BarChartPanel chart) {
         RoundedPanel card = new RoundedPanel(20);
         card.setBackground(Color.WHITE);
         card.setBorder(new EmptyBorder(18, 18, 18, 18));
@@ -1092,21 +1148,19 @@ public class MySections extends InstructorFrameBase {
         t.setForeground(new Color(24, 30, 37));
         card.add(t, BorderLayout.NORTH);
 
-        BarChartPanel chart = new BarChartPanel(labels, values, yCaption);
         card.add(chart, BorderLayout.CENTER);
 
         return card;
     }
 
-    // Simple reusable bar chart
+    // Simple reusable bar chart; values are replaced in place as grades change
     private static class BarChartPanel extends JPanel {
         private final List<String> labels;
-        private final List<Double> values;
+        private double[] values = new double[0];
         private final String yCaption;
 
-        BarChartPanel(List<String> labels, List<Double> values, String yCaption) {
+        BarChartPanel(List<String> labels, String yCaption) {
             this.labels = labels;
-            this.values = values;
             this.yCaption = yCaption;
             setOpaque(false);
 
@@ -1114,6 +1168,13 @@ public class MySections extends InstructorFrameBase {
             setMinimumSize(new Dimension(200, 150));
         }
 
+        void setValues(double[] values) {
+            if (Arrays.equals(this.values, values))
+                return;
+            this.values = values;
+            repaint();
+        }
+
         @Override
         protected void paintComponent(Graphics g) {
             super.paintComponent(g);
@@ -1131,8 +1192,7 @@ public class MySections extends InstructorFrameBase {
             g2.drawLine(left, top, left, top + chartH);
             g2.drawLine(left, top + chartH, left + chartW, top + chartH);
 
-            if (labels == null || labels.isEmpty()
-                    || values == null || values.isEmpty()) {
+            if (labels == null || labels.isEmpty() || values.length == 0) {
                 String msg = "No data";
                 FontMetrics fm = g2.getFontMetrics();
                 int sw = fm.stringWidth(msg);
@@ -1142,8 +1202,8 @@ public class MySections extends InstructorFrameBase {
             }
 
             double maxVal = 0.0;
-            for (Double v : values) {
-                if (v != null && v > maxVal)
+            for (double v : values) {
+                if (v > maxVal)
                     maxVal = v;
             }
             if (maxVal <= 0)
@@ -1158,9 +1218,7 @@ public class MySections extends InstructorFrameBase {
             FontMetrics fm = g2.getFontMetrics();
 
             for (int i = 0; i < n; i++) {
-                double val = (i < values.size() && values.get(i) != null)
-                        ? values.get(i)
-                        : 0.0;
+                double val = (i < values.length) ? values[i] : 0.0;
                 int barH = (int) Math.round((val / maxVal) * chartH);
                 int x = left + i * barSpace + (barSpace - barW) / 2;
                 int y = top + chartH - barH;
@@ -1223,37 +1281,6 @@ public class MySections extends InstructorFrameBase {
         return dept;
     }
 
-    private double computeFinalPercentage(StudentRow s) {
-        double sumScores = 0.0;
-        double sumWeights = 0.0;
-        boolean missingAny = false;
-
-        for (ComponentInfo c : gradebookComponents) {
-            String key = s.enrollId + ":" + c.componentId;
-            String val = gradesByKey.get(key);
-
-            // always count the weight
-            sumWeights += (c.weight > 0 ? c.weight : 0);
-
-            if (val == null || val.isBlank()) {
-                missingAny = true;
-                continue;
-            }
-
-            try {
-                double score = Double.parseDouble(val);
-                sumScores += score;
-            } catch (NumberFormatException ignored) {
-            }
-        }
-
-        if (sumWeights <= 0 || missingAny) {
-            return Double.NaN; // shown as "-" in table / CSV
-        }
-
-        return (sumScores / sumWeights) * 100.0;
-    }
-
     private void saveGrades() {
         // HARD BLOCK: saving is disabled in maintenance mode
         if (isReadOnly()) {
@@ -1264,7 +1291,12 @@ public class MySections extends InstructorFrameBase {
             return;
         }
 
-        if (dirtyKeys.isEmpty()) {
+        if (savingGrades) {
+            return;
+        }
+
+        GradebookMatrix grades = gradeMatrix;
+        if (grades.dirtyCount() == 0) {
             JOptionPane.showMessageDialog(this,
                     "No changes to save.",
                     "Save Grades",
@@ -1274,7 +1306,7 @@ public class MySections extends InstructorFrameBase {
 
         int choice = JOptionPane.showConfirmDialog(
                 this,
-                "You are about to save " + dirtyKeys.size() + " updated grade value(s).\n" +
+                "You are about to save " + grades.dirtyCount() + " updated grade value(s).\n" +
                         "Are you sure you want to continue?",
                 "Confirm Save",
                 JOptionPane.YES_NO_OPTION,
@@ -1284,121 +1316,73 @@ public class MySections extends InstructorFrameBase {
             return;
         }
 
-        for (String key : dirtyKeys) {
-            String[] parts = key.split(":");
-            if (parts.length != 2)
-                continue;
-            String enrollId = parts[0];
-            int compId;
-            try {
-                compId = Integer.parseInt(parts[1]);
-            } catch (NumberFormatException ex) {
-                continue;
-            }
-            String value = gradesByKey.getOrDefault(key, "");
-            upsertGrade(enrollId, compId, value);
-        }
-
-        updateFinalGradesForCurrentSection();
-        if (gradebookModel != null) {
-            gradebookModel.fireTableDataChanged();
-        }
-
-        try (Connection conn = DatabaseConnection.erp().getConnection()) {
-            for (StudentRow s : gradebookStudents) {
-
-                // Skip if not fully graded
-                if (!hasAllComponents(s)) {
-                    // Clear final grade if incomplete
-                    try (PreparedStatement clear = conn.prepareStatement(
-                            "UPDATE enrollments SET final_grade = NULL WHERE enrollment_id = ?")) {
-                        clear.setString(1, s.enrollId);
-                        clear.executeUpdate();
+        // snapshot on the EDT; the DB work runs off it in one transaction
+        List<int[]> savedAt = new ArrayList<>();
+        List<GradeSaveEngine.Cell> cells = new ArrayList<>();
+        collectDirty(grades, savedAt, cells);
+        List<GradeSaveEngine.FinalGrade> finals = finalsOf(grades);
+
+        savingGrades = true;
+        // not bound to the frame: a confirmed save finishes even if the screen is left
+        DataExecutor.write(
+                () -> {
+                    try (Connection conn = DatabaseConnection.erp().getConnection()) {
+                        GradeSaveEngine.save(conn, cells, finals);
                     }
-                    continue;
-                }
-
-                // Compute final percentage
-                double pct = computeFinalPercentage(s);
-                String letter = toLetterGrade(pct);
-
-                try (PreparedStatement update = conn.prepareStatement(
-                        "UPDATE enrollments SET final_grade = ? WHERE enrollment_id = ?")) {
-                    update.setString(1, letter);
-                    update.setString(2, s.enrollId);
-                    update.executeUpdate();
-                }
-            }
-        } catch (SQLException ex) {
-            ex.printStackTrace();
-        }
-
-        dirtyKeys.clear();
-        JOptionPane.showMessageDialog(this,
-                "Grades saved successfully.",
-                "Save Grades",
-                JOptionPane.INFORMATION_MESSAGE);
+                    return null;
+                },
+                () -> {
+                    savingGrades = false;
+                    markSaved(grades, savedAt, cells);
+                    if (gradebookModel != null) {
+                        gradebookModel.fireTableDataChanged();
+                    }
+                    JOptionPane.showMessageDialog(this,
+                            "Grades saved successfully.",
+                            "Save Grades",
+                            JOptionPane.INFORMATION_MESSAGE);
+                },
+                ex -> {
+                    savingGrades = false;
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(this,
+                            "Failed to save grades:\n" + ex.getMessage(),
+                            "Save Grades",
+                            JOptionPane.ERROR_MESSAGE);
+                });
     }
 
-    /** Map numeric percentage to letter grade. Adjust thresholds as needed. */
-    private String mapPercentageToLetter(double pct) {
-        if (pct >= 85.0)
-            return "A";
-        if (pct >= 75.0)
-            return "B";
-        if (pct >= 65.0)
-            return "C";
-        if (pct >= 55.0)
-            return "D";
-        if (pct >= 45.0)
-            return "E";
-        return "F";
+    /** The dirty cells of {@code m} as writes, with their (row, col) alongside. */
+    private static void collectDirty(GradebookMatrix m, List<int[]> at, List<GradeSaveEngine.Cell> cells) {
+        m.forEachDirty((row, col) -> {
+            Double score = m.has(row, col) ? m.score(row, col) : null;
+            at.add(new int[] { row, col });
+            cells.add(new GradeSaveEngine.Cell(m.enrollmentId(row), m.componentId(col), score));
+        });
     }
 
-    /** Compute letter grade for one student, or null if incomplete. */
-    private String computeFinalLetter(StudentRow s) {
-        double pct = computeFinalPercentage(s);
-        if (Double.isNaN(pct)) {
-            return null; // some component missing → no final grade
+    private List<GradeSaveEngine.FinalGrade> finalsOf(GradebookMatrix m) {
+        List<GradeSaveEngine.FinalGrade> finals = new ArrayList<>(m.rows());
+        for (int row = 0; row < m.rows(); row++) {
+            // incomplete → NaN → null letter, which clears final_grade
+            finals.add(new GradeSaveEngine.FinalGrade(m.enrollmentId(row), toLetterGrade(m.percentage(row))));
         }
-        return mapPercentageToLetter(pct);
+        return finals;
     }
 
-    /** Update enrollments.final_grade for all students in the current section. */
-    private void updateFinalGradesForCurrentSection() {
-        if (currentSection == null)
-            return;
-
-        try (Connection conn = DatabaseConnection.erp().getConnection();
-                PreparedStatement ps = conn.prepareStatement(
-                        "UPDATE enrollments SET final_grade = ? WHERE enrollment_id = ?")) {
-
-            for (StudentRow s : gradebookStudents) {
-                String letter = computeFinalLetter(s);
-
-                if (letter == null) {
-                    ps.setNull(1, java.sql.Types.VARCHAR); // clear final_grade if incomplete
-                } else {
-                    ps.setString(1, letter);
-                }
-
-                ps.setInt(2, Integer.parseInt(s.enrollId));
-                ps.addBatch();
+    /** Mark saved cells clean, except ones edited again while the save ran. */
+    private static void markSaved(GradebookMatrix m, List<int[]> at, List<GradeSaveEngine.Cell> cells) {
+        for (int i = 0; i < cells.size(); i++) {
+            int row = at.get(i)[0];
+            int col = at.get(i)[1];
+            Double saved = cells.get(i).score();
+            boolean same = (saved == null)
+                    ? !m.has(row, col)
+                    : m.has(row, col) && m.score(row, col) == saved;
+            if (same) {
+                m.markClean(row, col);
             }
-
-            ps.executeBatch();
-
-        } catch (SQLException ex) {
-            ex.printStackTrace();
-        }
-    }
-
-    private ComponentInfo findComponentById(int componentId) {
-        for (ComponentInfo c : gradebookComponents) {
-            if (c.componentId == componentId)
-                return c;
         }
-        return null;
     }
 
     private String toLetterGrade(double pct) {
@@ -1416,16 +1400,4 @@ public class MySections extends InstructorFrameBase {
         return "F";
     }
 
-    private boolean hasAllComponents(StudentRow s) {
-        for (ComponentInfo c : gradebookComponents) {
-            String key = s.enrollId + ":" + c.componentId;
-            String val = gradesByKey.get(key);
-
-            if (val == null || val.isBlank()) {
-                return false;
-            }
-        }
-        return true;
-    }
-
 }
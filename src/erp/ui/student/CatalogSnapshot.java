@@ -0,0 +1,356 @@
+package erp.ui.student;
+
+import erp.db.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process-wide, immutable view of the course catalog: courses with their
+ * {@link CourseStats} summary, and sections with instructor name and seat
+ * count.
+ *
+ * Loaded once on first use. After that a background thread refreshes it
+ * every {@code erp.catalog.refreshMs} (default 15 s) by fetching only rows
+ * whose {@code updated_at} moved since the last refresh (courses,
+ * course_stats, sections, instructors). Deletes and key changes do not
+ * leave an updated_at behind, so each refresh also compares a cheap digest
+ * of the course/section ids and falls back to a full reload when it differs.
+ *
+ * Screens call {@link #get()} (off the EDT) and read plain records; while
+ * the snapshot is fresh that costs no database round-trip. Code that has
+ * just written catalog data calls {@link #invalidate()} so the next
+ * {@code get()} pulls the delta first.
+ */
+public final class CatalogSnapshot {
+
+    public record Course(String courseId, String code, String title, int credits,
+            int totalCapacity, int registered, String instructors) {
+    }
+
+    public record Section(int sectionId, String courseId, String instructorId, String instructorName,
+            String dayTime, String room, int capacity, int seatsTaken, String semester, int year) {
+    }
+
+    private static final long REFRESH_MS = Math.max(1_000L, Long.getLong("erp.catalog.refreshMs", 15_000L));
+
+    // updated_at is stamped at statement time, so a row whose transaction
+    // commits after our watermark was read can carry an older stamp
+    private static final long OVERLAP_MS = 30_000L;
+
+    private static final String COURSE_SQL =
+            "SELECT c.course_id, c.code, c.title, c.credits, " +
+            "       COALESCE(cs.total_capacity, 0)  AS total_capacity, " +
+            "       COALESCE(cs.registered, 0)      AS registered, " +
+            "       COALESCE(cs.instructors, 'TBA') AS instructors " +
+            "FROM   erp_db.courses c " +
+            "LEFT JOIN erp_db.course_stats cs ON cs.course_id = c.course_id ";
+
+    private static final String COURSE_DELTA_WHERE =
+            "WHERE c.course_id IN ( " +
+            "    SELECT course_id FROM erp_db.courses WHERE updated_at >= ? " +
+            "    UNION " +
+            "    SELECT course_id FROM erp_db.course_stats WHERE updated_at >= ?)";
+
+    private static final String SECTION_SQL =
+            "SELECT s.section_id, s.course_id, s.instructor_id, i.instructor_name, " +
+            "       s.day_time, s.room, COALESCE(s.capacity, 0) AS capacity, s.seats_taken, " +
+            "       s.semester, s.year " +
+            "FROM   erp_db.sections s " +
+            "LEFT JOIN erp_db.instructors i ON i.instructor_id = s.instructor_id ";
+
+    private static final String SECTION_DELTA_WHERE =
+            "WHERE s.section_id IN ( " +
+            "    SELECT section_id FROM erp_db.sections WHERE updated_at >= ? " +
+            "    UNION " +
+            "    SELECT s2.section_id FROM erp_db.sections s2 " +
+            "    JOIN erp_db.instructors i2 ON i2.instructor_id = s2.instructor_id " +
+            "    WHERE i2.updated_at >= ?)";
+
+    private static final String DIGEST_SQL =
+            "SELECT (SELECT COUNT(*) FROM erp_db.courses), " +
+            "       (SELECT COALESCE(BIT_XOR(CRC32(course_id)), 0) FROM erp_db.courses), " +
+            "       (SELECT COUNT(*) FROM erp_db.sections), " +
+            "       (SELECT COALESCE(BIT_XOR(section_id), 0) FROM erp_db.sections)";
+
+    private static final Comparator<Section> BY_SECTION_ID = Comparator.comparingInt(Section::sectionId);
+
+    private static final Object REFRESH_LOCK = new Object();
+    private static volatile CatalogSnapshot current;
+    private static volatile boolean stale;
+    private static ScheduledExecutorService scheduler; // guarded by REFRESH_LOCK
+
+    // per-student registered course ids, same lifetime as a refresh period
+    private record Registered(Set<String> courseIds, long loadedAt) {
+        boolean isFresh() {
+            return System.currentTimeMillis() - loadedAt < REFRESH_MS;
+        }
+    }
+
+    private static final Map<String, Registered> REGISTERED = new ConcurrentHashMap<>();
+
+    private record IdDigest(long courses, long courseHash, long sections, long sectionHash) {
+    }
+
+    private final Map<String, Course> courses; // sorted by course_id
+    private final Map<String, List<Section>> sectionsByCourse;
+    private final Map<Integer, Section> sectionsById;
+    private final Timestamp watermark;
+    private final IdDigest digest;
+
+    private CatalogSnapshot(Map<String, Course> courses, Map<Integer, Section> sectionsById,
+                            Timestamp watermark, IdDigest digest) {
+        this.courses = Collections.unmodifiableMap(courses);
+        this.sectionsById = Collections.unmodifiableMap(sectionsById);
+        this.watermark = watermark;
+        this.digest = digest;
+
+        Map<String, List<Section>> byCourse = new HashMap<>();
+        for (Section s : sectionsById.values()) {
+            byCourse.computeIfAbsent(s.courseId(), k -> new ArrayList<>()).add(s);
+        }
+        for (Map.Entry<String, List<Section>> e : byCourse.entrySet()) {
+            e.getValue().sort(BY_SECTION_ID);
+            e.setValue(Collections.unmodifiableList(e.getValue()));
+        }
+        this.sectionsByCourse = byCourse;
+    }
+
+    // ---------- reads ----------
+
+    /** All courses, ordered by course_id. */
+    public List<Course> courses() {
+        return List.copyOf(courses.values());
+    }
+
+    public Course course(String courseId) {
+        return courses.get(courseId);
+    }
+
+    /** Sections of a course, ordered by section_id (empty if none). */
+    public List<Section> sections(String courseId) {
+        return sectionsByCourse.getOrDefault(courseId, List.of());
+    }
+
+    public Section section(int sectionId) {
+        return sectionsById.get(sectionId);
+    }
+
+    // ---------- access ----------
+
+    /**
+     * Current snapshot; loads it on first use, or pulls the delta first if
+     * it was invalidated. May hit the database, so call it off the EDT.
+     */
+    public static CatalogSnapshot get() throws SQLException {
+        CatalogSnapshot s = current;
+        if (s != null && !stale) {
+            return s;
+        }
+        return refresh();
+    }
+
+    /** Mark the snapshot out of date after a local write; the next get() refreshes. */
+    public static void invalidate() {
+        stale = true;
+    }
+
+    /** Course ids this student holds a REGISTERED seat in (cached per student). */
+    public static Set<String> registeredCourseIds(String studentId) throws SQLException {
+        if (studentId == null || studentId.isBlank()) {
+            return Set.of();
+        }
+        Registered r = REGISTERED.get(studentId);
+        if (r != null && r.isFresh()) {
+            return r.courseIds();
+        }
+
+        final String sql = "SELECT DISTINCT s.course_id " +
+                "FROM erp_db.enrollments e " +
+                "JOIN erp_db.sections s ON s.section_id = e.section_id " +
+                "WHERE e.student_id = ? " +
+                "  AND e.status = 'REGISTERED'";
+        Set<String> ids = new HashSet<>();
+        try (Connection c = DatabaseConnection.erp().getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, studentId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getString(1));
+                }
+            }
+        }
+        Set<String> frozen = Collections.unmodifiableSet(ids);
+        REGISTERED.put(studentId, new Registered(frozen, System.currentTimeMillis()));
+        return frozen;
+    }
+
+    /**
+     * Called after a student's registrations changed (register / drop
+     * committed). Only that student's cached set is dropped; seat counts
+     * arrive with the scheduled delta refresh, so a registration rush does
+     * not turn every get() into a refresh under REFRESH_LOCK.
+     */
+    public static void invalidateStudent(String studentId) {
+        if (studentId != null) {
+            REGISTERED.remove(studentId);
+        }
+    }
+
+    /** Pull changes now (full load the first time). */
+    public static CatalogSnapshot refresh() throws SQLException {
+        synchronized (REFRESH_LOCK) {
+            stale = false; // a concurrent invalidate() during the read marks it again
+            CatalogSnapshot prev = current;
+            CatalogSnapshot next;
+            try (Connection c = DatabaseConnection.erp().getConnection()) {
+                next = (prev == null) ? loadFull(c) : loadDelta(c, prev);
+            } catch (SQLException ex) {
+                stale = true;
+                throw ex;
+            }
+            current = next;
+            startScheduler();
+            return next;
+        }
+    }
+
+    // ---------- loading ----------
+
+    private static CatalogSnapshot loadFull(Connection c) throws SQLException {
+        Timestamp now = dbNow(c);
+        IdDigest digest = readDigest(c);
+
+        Map<String, Course> courses = new TreeMap<>();
+        try (PreparedStatement ps = c.prepareStatement(COURSE_SQL)) {
+            readCourses(ps, courses);
+        }
+        Map<Integer, Section> sections = new HashMap<>();
+        try (PreparedStatement ps = c.prepareStatement(SECTION_SQL)) {
+            readSections(ps, sections);
+        }
+        return new CatalogSnapshot(courses, sections, now, digest);
+    }
+
+    private static CatalogSnapshot loadDelta(Connection c, CatalogSnapshot prev) throws SQLException {
+        Timestamp now = dbNow(c);
+        IdDigest digest = readDigest(c);
+        if (!digest.equals(prev.digest)) {
+            // something was deleted or re-keyed; deltas can't see that
+            return loadFull(c);
+        }
+
+        Timestamp since = new Timestamp(prev.watermark.getTime() - OVERLAP_MS);
+
+        Map<String, Course> changedCourses = new HashMap<>();
+        try (PreparedStatement ps = c.prepareStatement(COURSE_SQL + COURSE_DELTA_WHERE)) {
+            ps.setTimestamp(1, since);
+            ps.setTimestamp(2, since);
+            readCourses(ps, changedCourses);
+        }
+        Map<Integer, Section> changedSections = new HashMap<>();
+        try (PreparedStatement ps = c.prepareStatement(SECTION_SQL + SECTION_DELTA_WHERE)) {
+            ps.setTimestamp(1, since);
+            ps.setTimestamp(2, since);
+            readSections(ps, changedSections);
+        }
+
+        changedCourses.entrySet().removeIf(e -> e.getValue().equals(prev.courses.get(e.getKey())));
+        changedSections.entrySet().removeIf(e -> e.getValue().equals(prev.sectionsById.get(e.getKey())));
+        if (changedCourses.isEmpty() && changedSections.isEmpty()) {
+            return prev; // keep the old watermark; the overlap window still covers it
+        }
+
+        Map<String, Course> courses = new TreeMap<>(prev.courses);
+        courses.putAll(changedCourses);
+        Map<Integer, Section> sections = new HashMap<>(prev.sectionsById);
+        sections.putAll(changedSections);
+        return new CatalogSnapshot(courses, sections, now, digest);
+    }
+
+    private static void readCourses(PreparedStatement ps, Map<String, Course> into) throws SQLException {
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                Course course = new Course(
+                        rs.getString("course_id"),
+                        rs.getString("code"),
+                        rs.getString("title"),
+                        rs.getInt("credits"),
+                        rs.getInt("total_capacity"),
+                        rs.getInt("registered"),
+                        rs.getString("instructors"));
+                into.put(course.courseId(), course);
+            }
+        }
+    }
+
+    private static void readSections(PreparedStatement ps, Map<Integer, Section> into) throws SQLException {
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                Section s = new Section(
+                        rs.getInt("section_id"),
+                        rs.getString("course_id"),
+                        rs.getString("instructor_id"),
+                        rs.getString("instructor_name"),
+                        rs.getString("day_time"),
+                        rs.getString("room"),
+                        rs.getInt("capacity"),
+                        rs.getInt("seats_taken"),
+                        rs.getString("semester"),
+                        rs.getInt("year"));
+                into.put(s.sectionId(), s);
+            }
+        }
+    }
+
+    private static Timestamp dbNow(Connection c) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("SELECT NOW(3)");
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getTimestamp(1);
+        }
+    }
+
+    private static IdDigest readDigest(Connection c) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(DIGEST_SQL);
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return new IdDigest(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4));
+        }
+    }
+
+    // caller holds REFRESH_LOCK
+    private static void startScheduler() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "catalog-refresh");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (Exception ex) {
+                ex.printStackTrace();
+            }
+        }, REFRESH_MS, REFRESH_MS, TimeUnit.MILLISECONDS);
+    }
+}
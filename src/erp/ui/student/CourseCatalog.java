@@ -6,18 +6,20 @@ import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.event.FocusAdapter;
 import java.awt.event.FocusEvent;
-import java.awt.event.MouseAdapter;
-import java.awt.event.MouseEvent;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
-import erp.db.DatabaseConnection;
+import erp.ui.common.DataExecutor;
+import erp.ui.common.Debounce;
 import erp.ui.common.FontKit;
+import erp.ui.common.LoadingPlaceholder;
 import erp.ui.common.RoundedPanel;
+import erp.ui.common.SearchIndex;
+import erp.ui.common.VirtualCardList;
 
 public class CourseCatalog extends StudentFrameBase {
 
@@ -49,10 +51,19 @@ public class CourseCatalog extends StudentFrameBase {
         }
     }
 
+    /** One line of the card list: a group header or a course. */
+    private record Row(String header, CourseRecord course) {
+        static final int COURSE = 0;
+        static final int HEADER = 1;
+    }
+
     private JTextField searchField;
-    private JPanel     cardsContainer;
+    private VirtualCardList<Row> cardList;
     private List<CourseRecord> courses;
-    private CourseCard selectedCard;
+    private DataExecutor.Task pendingLoad;
+
+    // rebuilt once per load; filtering only queries it
+    private SearchIndex<CourseRecord> searchIndex;
 
     // Backward compatible constructor (no studentId -> mostly for testing)
     public CourseCatalog(String userDisplayName) {
@@ -120,38 +131,44 @@ public class CourseCatalog extends StudentFrameBase {
 
         main.add(topBar, BorderLayout.NORTH);
 
-        // ── Cards container + scroll ─────────────────────────────────────────
-        cardsContainer = new JPanel();
-        cardsContainer.setLayout(new BoxLayout(cardsContainer, BoxLayout.Y_AXIS));
-        cardsContainer.setBackground(BG_LIGHT);
-        cardsContainer.setBorder(new EmptyBorder(8, 8, 8, 8));
+        // ── Cards list + scroll (only visible cards exist, recycled) ─────────
+        cardList = new VirtualCardList<>(new CardRenderer(), 1, 0, 8);
+        cardList.setOpaque(true);
+        cardList.setBackground(BG_LIGHT);
+        cardList.setBorder(new EmptyBorder(8, 8, 8, 8));
+        cardList.setClickListener((row, e) -> {
+            // Double-click → try add/drop
+            if (row.course() != null && e.getClickCount() >= 2) {
+                handleCardAction(row.course());
+            }
+        });
 
-        JScrollPane scroll = new JScrollPane(cardsContainer);
+        JScrollPane scroll = new JScrollPane(cardList);
         scroll.setBorder(BorderFactory.createLineBorder(BORDER_COLOR, 1));
         scroll.getViewport().setBackground(BG_LIGHT);
         scroll.getVerticalScrollBar().setUnitIncrement(16); // smoother scroll
 
         main.add(scroll, BorderLayout.CENTER);
 
-        // search behaviour
-        searchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
-            public void insertUpdate(javax.swing.event.DocumentEvent e) { rebuildCards(); }
-            public void removeUpdate(javax.swing.event.DocumentEvent e) { rebuildCards(); }
-            public void changedUpdate(javax.swing.event.DocumentEvent e) { rebuildCards(); }
-        });
+        // search behaviour: one filter pass after the user pauses typing
+        Debounce.onTextChange(searchField, Debounce.SEARCH_DELAY_MS, this::rebuildCards);
 
         loadCourses();
         return main;
     }
 
-    // ── Card component ───────────────────────────────────────────────────────
+    // ── Card component (recycled: built once, re-bound per course) ──────────
     private class CourseCard extends RoundedPanel {
-        final CourseRecord record;
-        boolean selected = false;
-
-        CourseCard(CourseRecord record) {
+        private final JPanel stripe = new JPanel();
+        private final JLabel titleLbl = new JLabel();
+        private final JLabel instLbl = new JLabel();
+        private final JLabel idLbl = new JLabel();
+        private final JLabel capLbl = new JLabel();
+        private final Component regGap = Box.createVerticalStrut(6);
+        private final JLabel regLbl = new JLabel("Registered");
+
+        CourseCard() {
             super(16);
-            this.record = record;
             setLayout(new BorderLayout());
             setOpaque(false);
             setBorder(new EmptyBorder(10, 10, 10, 10));
@@ -162,9 +179,7 @@ public class CourseCatalog extends StudentFrameBase {
             setMinimumSize(new Dimension(0, h));
 
             // Left coloured stripe
-            JPanel stripe = new JPanel();
             stripe.setPreferredSize(new Dimension(6, 1));
-            stripe.setBackground(getDeptColor(record.courseId));
             stripe.setOpaque(true);
             add(stripe, BorderLayout.WEST);
 
@@ -174,18 +189,12 @@ public class CourseCatalog extends StudentFrameBase {
             center.setLayout(new BoxLayout(center, BoxLayout.Y_AXIS));
             center.setBorder(new EmptyBorder(0, 12, 0, 0));
 
-            JLabel titleLbl = new JLabel(record.title);
             titleLbl.setFont(FontKit.semibold(15f));
             titleLbl.setForeground(new Color(15, 23, 42));
 
-            String instName = (record.instructors == null || record.instructors.isBlank())
-                    ? "TBA"
-                    : record.instructors;
-            JLabel instLbl = new JLabel(instName);
             instLbl.setFont(FontKit.regular(13f));
             instLbl.setForeground(new Color(100, 116, 139));
 
-            JLabel idLbl = new JLabel("ID: " + record.courseId + " • Code: " + record.code);
             idLbl.setFont(FontKit.regular(12f));
             idLbl.setForeground(new Color(148, 163, 184));
 
@@ -204,81 +213,83 @@ public class CourseCatalog extends StudentFrameBase {
             right.setOpaque(false);
             right.setBorder(new EmptyBorder(4, 0, 4, 6));
 
-            JLabel capLbl = new JLabel(record.enrolled + "/" + record.capacity);
             capLbl.setFont(FontKit.semibold(13f));
             capLbl.setForeground(new Color(75, 85, 99));
             capLbl.setAlignmentX(Component.RIGHT_ALIGNMENT);
             right.add(capLbl);
 
-            if (record.registered) {
-                right.add(Box.createVerticalStrut(6));
-                JLabel regLbl = new JLabel("Registered");
-                regLbl.setFont(FontKit.semibold(11f));
-                regLbl.setForeground(new Color(22, 163, 74));
-                regLbl.setOpaque(true);
-                regLbl.setBackground(new Color(220, 252, 231));
-                regLbl.setBorder(new EmptyBorder(2, 8, 2, 8));
-                regLbl.setAlignmentX(Component.RIGHT_ALIGNMENT);
-                right.add(regLbl);
-            }
+            right.add(regGap);
+            regLbl.setFont(FontKit.semibold(11f));
+            regLbl.setForeground(new Color(22, 163, 74));
+            regLbl.setOpaque(true);
+            regLbl.setBackground(new Color(220, 252, 231));
+            regLbl.setBorder(new EmptyBorder(2, 8, 2, 8));
+            regLbl.setAlignmentX(Component.RIGHT_ALIGNMENT);
+            right.add(regLbl);
 
             right.add(Box.createVerticalGlue());
             add(right, BorderLayout.EAST);
+        }
 
-            // Mouse behaviour
-            addMouseListener(new MouseAdapter() {
-                @Override
-                public void mouseClicked(MouseEvent e) {
-                    setSelectedCard(CourseCard.this);
+        void bind(CourseRecord record, boolean selected, boolean hovered) {
+            stripe.setBackground(getDeptColor(record.courseId));
+            titleLbl.setText(record.title);
+            instLbl.setText((record.instructors == null || record.instructors.isBlank())
+                    ? "TBA"
+                    : record.instructors);
+            idLbl.setText("ID: " + record.courseId + " • Code: " + record.code);
+            capLbl.setText(record.enrolled + "/" + record.capacity);
+            regGap.setVisible(record.registered);
+            regLbl.setVisible(record.registered);
 
-                    // Double-click → try add/drop
-                    if (e.getClickCount() >= 2) {
-                        handleCardAction(record);
-                    }
-                }
+            if (selected) {
+                setBackground(CARD_SELECTED);
+            } else if (hovered) {
+                setBackground(new Color(250, 250, 250));
+            } else {
+                setBackground(Color.WHITE);
+            }
+        }
+    }
 
-                @Override
-                public void mouseEntered(MouseEvent e) {
-                    if (!selected) {
-                        setBackground(new Color(250, 250, 250));
-                        repaint();
-                    }
-                }
+    private class CardRenderer implements VirtualCardList.Renderer<Row> {
+        @Override
+        public int kindOf(Row row) {
+            return row.course() != null ? Row.COURSE : Row.HEADER;
+        }
 
-                @Override
-                public void mouseExited(MouseEvent e) {
-                    if (!selected) {
-                        setBackground(Color.WHITE);
-                        repaint();
-                    }
-                }
-            });
+        @Override
+        public boolean isFullWidth(int kind) {
+            return kind == Row.HEADER;
+        }
 
-            updateVisualState();
+        @Override
+        public boolean isSelectable(int kind) {
+            return kind == Row.COURSE;
         }
 
-        void setSelected(boolean selected) {
-            this.selected = selected;
-            updateVisualState();
+        @Override
+        public JComponent create(int kind) {
+            if (kind == Row.HEADER) {
+                JLabel lbl = new JLabel();
+                lbl.setFont(FontKit.semibold(13f));
+                lbl.setForeground(new Color(100, 116, 139));
+                lbl.setBorder(new EmptyBorder(8, 4, 0, 0));
+                return lbl;
+            }
+            return new CourseCard();
         }
 
-        private void updateVisualState() {
-            if (selected) {
-                setBackground(CARD_SELECTED);
+        @Override
+        public void bind(JComponent card, Row row, boolean selected, boolean hovered) {
+            if (card instanceof CourseCard cc) {
+                cc.bind(row.course(), selected, hovered);
             } else {
-                setBackground(Color.WHITE);
+                ((JLabel) card).setText(row.header());
             }
-            repaint();
         }
     }
 
-    private void setSelectedCard(CourseCard card) {
-        if (selectedCard == card) return;
-        if (selectedCard != null) selectedCard.setSelected(false);
-        selectedCard = card;
-        if (selectedCard != null) selectedCard.setSelected(true);
-    }
-
     // Double-click: Register or Drop using modern dialogs
     private void handleCardAction(CourseRecord rec) {
         // 🔒 Block in maintenance mode
@@ -316,14 +327,20 @@ public class CourseCatalog extends StudentFrameBase {
             return; // user hit "Close"
         }
 
-        // 2) Perform action
-        String resultMsg;
-        if (alreadyRegistered) {
-            resultMsg = EnrollmentService.dropCourse(studentId, rec.courseId);
-        } else {
-            resultMsg = EnrollmentService.registerForCourse(studentId, rec.courseId);
-        }
+        // 2) Perform action through the admission queue (off the EDT)
+        CompletableFuture<String> pending = alreadyRegistered
+                ? RegistrationQueue.get().submitDrop(studentId, rec.courseId)
+                : RegistrationQueue.get().submitRegister(studentId, rec.courseId);
+
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        pending.whenComplete((msg, err) -> SwingUtilities.invokeLater(() -> {
+            setCursor(Cursor.getDefaultCursor());
+            String resultMsg = (err != null) ? "Request failed: " + err.getMessage() : msg;
+            showActionResult(resultMsg, alreadyRegistered);
+        }));
+    }
 
+    private void showActionResult(String resultMsg, boolean alreadyRegistered) {
         // 3) Classify result & show modern result dialog
         ModernResultDialog.Type type = classifyResult(resultMsg, alreadyRegistered);
         String title;
@@ -397,151 +414,103 @@ public class CourseCatalog extends StudentFrameBase {
     private void loadCourses() {
         if (courses == null) {
             courses = new ArrayList<>();
-        } else {
-            courses.clear();
+        }
+        if (pendingLoad != null) {
+            pendingLoad.cancel();
         }
 
-        // 1) Which course_ids is this student registered in?
-        Set<String> registeredCourseIds = new HashSet<>();
-
-        if (studentId != null && !studentId.isBlank()) {
-            final String regSql = "SELECT DISTINCT s.course_id " +
-                    "FROM erp_db.enrollments e " +
-                    "JOIN erp_db.sections s ON s.section_id = e.section_id " +
-                    "WHERE e.student_id = ? " +
-                    "  AND e.status = 'REGISTERED'";
+        // First load: placeholder instead of an empty list
+        if (courses.isEmpty() && cardList != null) {
+            cardList.showPlaceholder(new LoadingPlaceholder("Loading courses…"));
+        }
 
-            try (Connection conn = DatabaseConnection.erp().getConnection();
-                 PreparedStatement ps = conn.prepareStatement(regSql)) {
+        final String sid = studentId;
+        pendingLoad = DataExecutor.load(this,
+                () -> indexCourses(fetchCourses(sid)),
+                index -> {
+                    pendingLoad = null;
+                    courses.clear();
+                    courses.addAll(index.items());
+                    useIndex(index);
+                    rebuildCards();
+                },
+                e -> {
+                    pendingLoad = null;
+                    JOptionPane.showMessageDialog(this, "Error loading courses:\n" + e.getMessage(),
+                            "Database Error", JOptionPane.ERROR_MESSAGE);
+                    e.printStackTrace();
+                    useIndex(indexCourses(courses));
+                    rebuildCards();
+                });
+    }
 
-                ps.setString(1, studentId);
-                try (ResultSet rs = ps.executeQuery()) {
-                    while (rs.next()) {
-                        registeredCourseIds.add(rs.getString("course_id"));
-                    }
-                }
-            } catch (Exception ex) {
-                ex.printStackTrace();
-            }
+    /** Runs off the EDT (see loadCourses). */
+    private static List<CourseRecord> fetchCourses(String studentId) throws SQLException {
+        List<CourseRecord> result = new ArrayList<>();
+
+        // Shared in-memory catalog + this student's registered ids; both are
+        // cached, so re-opening the catalog normally doesn't touch MySQL.
+        CatalogSnapshot catalog = CatalogSnapshot.get();
+        Set<String> registeredCourseIds = CatalogSnapshot.registeredCourseIds(studentId);
+
+        for (CatalogSnapshot.Course c : catalog.courses()) {
+            result.add(new CourseRecord(
+                    c.courseId(),
+                    c.code(),
+                    c.title(),
+                    c.instructors(),
+                    c.credits(),
+                    c.totalCapacity(),
+                    c.registered(),
+                    registeredCourseIds.contains(c.courseId())));
         }
+        return result;
+    }
 
-        // 2) Load full course catalog
-        final String sql = "SELECT c.course_id, c.code, c.title, c.credits, " +
-                "       COALESCE(SUM(s.capacity), 0) AS total_capacity, " +
-                "       COALESCE(GROUP_CONCAT(DISTINCT i.instructor_name " +
-                "               ORDER BY i.instructor_name SEPARATOR ', '), 'TBA') AS instructors, " +
-                "       COALESCE(( " +
-                "           SELECT COUNT(*) " +
-                "           FROM erp_db.enrollments e " +
-                "           JOIN erp_db.sections s2 ON s2.section_id = e.section_id " +
-                "           WHERE s2.course_id = c.course_id " +
-                "             AND e.status = 'REGISTERED' " +
-                "       ), 0) AS enrolled " +
-                "FROM   erp_db.courses c " +
-                "LEFT JOIN erp_db.sections s    ON s.course_id = c.course_id " +
-                "LEFT JOIN erp_db.instructors i ON i.instructor_id = s.instructor_id " +
-                "GROUP BY c.course_id, c.code, c.title, c.credits " +
-                "ORDER BY c.course_id ASC";
-
-        try (Connection conn = DatabaseConnection.erp().getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-
-            while (rs.next()) {
-                String courseId = rs.getString("course_id");
-                boolean registeredForThisCourse = registeredCourseIds.contains(courseId);
-
-                CourseRecord rec = new CourseRecord(
-                        courseId,
-                        rs.getString("code"),
-                        rs.getString("title"),
-                        rs.getString("instructors"),
-                        rs.getInt("credits"),
-                        rs.getInt("total_capacity"),
-                        rs.getInt("enrolled"),
-                        registeredForThisCourse);
-                courses.add(rec);
-            }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Error loading courses:\n" + e.getMessage(),
-                    "Database Error", JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
-        }
+    // ── Search index: built once per load (off the EDT), ordered by course id ─
+    private static SearchIndex<CourseRecord> indexCourses(List<CourseRecord> records) {
+        List<CourseRecord> ordered = new ArrayList<>(records);
+        ordered.sort(Comparator.comparing(r -> r.courseId));
+        return new SearchIndex<>(ordered,
+                r -> r.courseId,
+                r -> r.code,
+                r -> r.title,
+                r -> r.instructors);
+    }
 
-        rebuildCards();
+    private void useIndex(SearchIndex<CourseRecord> index) {
+        searchIndex = index;
+        if (cardList != null) {
+            cardList.setSelected(null); // records were replaced
+        }
     }
 
     // ── Build UI: registered on top, others below ────────────────────────────
     private void rebuildCards() {
-        if (cardsContainer == null)
+        if (cardList == null || searchIndex == null)
             return;
 
-        String text = (searchField == null) ? "" : searchField.getText().trim();
-        String filter = SEARCH_PLACEHOLDER.equals(text) ? "" : text.toLowerCase();
-
-        cardsContainer.removeAll();
-        selectedCard = null;
-
-        List<CourseRecord> top    = new ArrayList<>(); // registered
-        List<CourseRecord> bottom = new ArrayList<>(); // not registered
-
-        if (courses != null) {
-            for (CourseRecord rec : courses) {
-                if (!filter.isEmpty() && !matchesFilter(rec, filter))
-                    continue;
+        String text = (searchField == null) ? "" : searchField.getText();
+        String filter = SEARCH_PLACEHOLDER.equals(text.trim()) ? "" : text;
 
-                if (rec.registered)
-                    top.add(rec);
-                else
-                    bottom.add(rec);
-            }
+        List<Row> top    = new ArrayList<>(); // registered
+        List<Row> bottom = new ArrayList<>(); // not registered
+        for (CourseRecord rec : searchIndex.search(filter)) {
+            (rec.registered ? top : bottom).add(new Row(null, rec));
         }
 
-        top.sort(Comparator.comparing(r -> r.courseId));
-        bottom.sort(Comparator.comparing(r -> r.courseId));
-
+        List<Row> rows = new ArrayList<>(top.size() + bottom.size() + 2);
         if (!top.isEmpty()) {
-            cardsContainer.add(sectionLabel("Registered Courses"));
-            cardsContainer.add(Box.createVerticalStrut(6));
-            for (CourseRecord rec : top) {
-                cardsContainer.add(new CourseCard(rec));
-                cardsContainer.add(Box.createVerticalStrut(8));
-            }
-            cardsContainer.add(Box.createVerticalStrut(12));
+            rows.add(new Row("Registered Courses", null));
+            rows.addAll(top);
         }
-
         if (!bottom.isEmpty()) {
-            cardsContainer.add(sectionLabel("Other Courses"));
-            cardsContainer.add(Box.createVerticalStrut(6));
-            for (CourseRecord rec : bottom) {
-                cardsContainer.add(new CourseCard(rec));
-                cardsContainer.add(Box.createVerticalStrut(8));
-            }
+            rows.add(new Row("Other Courses", null));
+            rows.addAll(bottom);
         }
 
-        cardsContainer.revalidate();
-        cardsContainer.repaint();
-    }
-
-    private JComponent sectionLabel(String text) {
-        JLabel lbl = new JLabel(text);
-        lbl.setFont(FontKit.semibold(13f));
-        lbl.setForeground(new Color(100, 116, 139));
-        lbl.setBorder(new EmptyBorder(4, 4, 0, 0));
-        return lbl;
-    }
-
-    private boolean matchesFilter(CourseRecord rec, String filter) {
-        if (filter == null || filter.isEmpty())
-            return true;
-
-        String haystack = (rec.courseId + " " +
-                           rec.code + " " +
-                           rec.title + " " +
-                           (rec.instructors == null ? "" : rec.instructors))
-                           .toLowerCase();
-
-        return haystack.contains(filter);
+        // only the cards in view are re-bound; nothing is rebuilt
+        cardList.setItems(rows);
     }
 
     private static class ModernConfirmDialog extends JDialog {
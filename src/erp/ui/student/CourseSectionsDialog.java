@@ -1,15 +1,12 @@
 package erp.ui.student;
 
-import erp.db.DatabaseConnection;
+import erp.ui.common.DataExecutor;
 import erp.ui.common.FontKit;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 
 public class CourseSectionsDialog extends JDialog {
 
@@ -71,10 +68,14 @@ public class CourseSectionsDialog extends JDialog {
         }
 
         regBtn.addActionListener(e -> {
-            String msg = EnrollmentService.registerForCourse(studentId, courseId);
-            JOptionPane.showMessageDialog(this, msg, "Registration",
-                    JOptionPane.INFORMATION_MESSAGE);
-            dispose();
+            regBtn.setEnabled(false);
+            RegistrationQueue.get().submitRegister(studentId, courseId)
+                    .whenComplete((msg, err) -> SwingUtilities.invokeLater(() -> {
+                        String text = (err != null) ? "Registration failed: " + err.getMessage() : msg;
+                        JOptionPane.showMessageDialog(this, text, "Registration",
+                                JOptionPane.INFORMATION_MESSAGE);
+                        dispose();
+                    }));
         });
 
         JPanel bottom = new JPanel(new FlowLayout(FlowLayout.RIGHT));
@@ -85,33 +86,25 @@ public class CourseSectionsDialog extends JDialog {
     }
 
     private void loadSections() {
-        final String sql =
-                "SELECT s.section_id, s.day_time, s.room, s.capacity, " +
-                "       s.semester, s.year, i.instructor_name " +
-                "FROM   erp_db.sections s " +
-                "LEFT JOIN erp_db.instructors i ON i.instructor_id = s.instructor_id " +
-                "WHERE  s.course_id = ? " +
-                "ORDER BY s.section_id ASC";
-
-        try (Connection c = DatabaseConnection.erp().getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setString(1, courseId);
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    model.addRow(new Object[] {
-                            rs.getInt("section_id"),
-                            rs.getString("instructor_name"),
-                            rs.getString("day_time"),
-                            rs.getString("room"),
-                            rs.getInt("capacity"),
-                            rs.getString("semester") + " " + rs.getInt("year")
-                    });
-                }
-            }
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error loading sections:\n" + ex.getMessage(),
-                    "DB Error", JOptionPane.ERROR_MESSAGE);
-            ex.printStackTrace();
-        }
+        // served from the shared catalog snapshot, off the EDT in case it has to refresh
+        DataExecutor.load(this,
+                () -> CatalogSnapshot.get().sections(courseId),
+                rows -> {
+                    for (CatalogSnapshot.Section s : rows) {
+                        model.addRow(new Object[] {
+                                s.sectionId(),
+                                s.instructorName(),
+                                s.dayTime(),
+                                s.room(),
+                                s.capacity(),
+                                s.semester() + " " + s.year()
+                        });
+                    }
+                },
+                ex -> {
+                    JOptionPane.showMessageDialog(this, "Error loading sections:\n" + ex.getMessage(),
+                            "DB Error", JOptionPane.ERROR_MESSAGE);
+                    ex.printStackTrace();
+                });
     }
 }
@@ -0,0 +1,153 @@
+package erp.ui.student;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Per-course summary row in {@code erp_db.course_stats}: total capacity,
+ * registered count and the instructor list the catalog shows.
+ *
+ * The registered count moves by +1 / -n together with the section seat
+ * ledger (see {@link SeatReservationEngine}), inside the same transaction
+ * and after the course's section rows are already locked, so it adds no
+ * new lock ordering. Edits to sections, courses or instructor names call
+ * {@link #refreshCourse} (or {@link #refreshAll}) to rebuild the row from
+ * the sections table.
+ */
+public final class CourseStats {
+
+    // registered follows the seat ledger, which is kept in step with enrollments
+    private static final String REBUILD_SELECT =
+            "SELECT c.course_id, " +
+            "       COALESCE(SUM(s.capacity), 0), " +
+            "       COALESCE(SUM(s.seats_taken), 0), " +
+            "       GROUP_CONCAT(DISTINCT i.instructor_name ORDER BY i.instructor_name SEPARATOR ', ') " +
+            "FROM   erp_db.courses c " +
+            "LEFT JOIN erp_db.sections s    ON s.course_id = c.course_id " +
+            "LEFT JOIN erp_db.instructors i ON i.instructor_id = s.instructor_id ";
+
+    private static final String UPSERT_PREFIX =
+            "INSERT INTO erp_db.course_stats (course_id, total_capacity, registered, instructors) ";
+
+    private static final String UPSERT_SUFFIX =
+            " ON DUPLICATE KEY UPDATE total_capacity = VALUES(total_capacity), " +
+            "                         registered     = VALUES(registered), " +
+            "                         instructors    = VALUES(instructors)";
+
+    /**
+     * Catalog read: every course with its summary row and whether the
+     * student (parameter 1) holds a REGISTERED seat in it. One pass over
+     * courses joined by primary key; the only per-student part is an
+     * indexed lookup of that student's enrollments.
+     */
+    public static final String CATALOG_SQL =
+            "SELECT c.course_id, c.code, c.title, c.credits, " +
+            "       COALESCE(cs.total_capacity, 0)  AS total_capacity, " +
+            "       COALESCE(cs.instructors, 'TBA') AS instructors, " +
+            "       COALESCE(cs.registered, 0)      AS enrolled, " +
+            "       (mine.course_id IS NOT NULL)    AS registered " +
+            "FROM   erp_db.courses c " +
+            "LEFT JOIN erp_db.course_stats cs ON cs.course_id = c.course_id " +
+            "LEFT JOIN ( " +
+            "    SELECT DISTINCT s.course_id " +
+            "    FROM erp_db.enrollments e " +
+            "    JOIN erp_db.sections s ON s.section_id = e.section_id " +
+            "    WHERE e.student_id = ? AND e.status = 'REGISTERED' " +
+            ") mine ON mine.course_id = c.course_id " +
+            "ORDER BY c.course_id ASC";
+
+    private CourseStats() {
+    }
+
+    /** Move the registered count of a course; rebuilds the row if it is missing. */
+    public static void adjustRegistered(Connection c, String courseId, int delta) throws SQLException {
+        if (delta == 0) {
+            return;
+        }
+        final String sql = "UPDATE erp_db.course_stats " +
+                "SET registered = GREATEST(registered + ?, 0) " +
+                "WHERE course_id = ?";
+        int n;
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setInt(1, delta);
+            ps.setString(2, courseId);
+            n = ps.executeUpdate();
+        }
+        if (n == 0) {
+            refreshCourse(c, courseId);
+        }
+    }
+
+    /** Same as {@link #adjustRegistered} for the course owning {@code sectionId}. */
+    public static void adjustRegisteredForSection(Connection c, long sectionId, int delta) throws SQLException {
+        if (delta == 0) {
+            return;
+        }
+        final String sql = "UPDATE erp_db.course_stats cs " +
+                "JOIN erp_db.sections s ON s.course_id = cs.course_id " +
+                "SET cs.registered = GREATEST(cs.registered + ?, 0) " +
+                "WHERE s.section_id = ?";
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setInt(1, delta);
+            ps.setLong(2, sectionId);
+            ps.executeUpdate();
+        }
+    }
+
+    /** Rebuild one course's row; removes it if the course no longer exists. */
+    public static void refreshCourse(Connection c, String courseId) throws SQLException {
+        if (courseId == null) {
+            return;
+        }
+        final String upsert = UPSERT_PREFIX + REBUILD_SELECT +
+                "WHERE c.course_id = ? GROUP BY c.course_id" + UPSERT_SUFFIX;
+        try (PreparedStatement ps = c.prepareStatement(upsert)) {
+            ps.setString(1, courseId);
+            ps.executeUpdate();
+        }
+        try (PreparedStatement ps = c.prepareStatement(
+                "DELETE FROM erp_db.course_stats WHERE course_id = ? " +
+                "AND NOT EXISTS (SELECT 1 FROM erp_db.courses WHERE course_id = ?)")) {
+            ps.setString(1, courseId);
+            ps.setString(2, courseId);
+            ps.executeUpdate();
+        }
+    }
+
+    /** Rebuild the row of the course owning {@code sectionId}. */
+    public static void refreshCourseOfSection(Connection c, long sectionId) throws SQLException {
+        final String upsert = UPSERT_PREFIX + REBUILD_SELECT +
+                "WHERE c.course_id = (SELECT course_id FROM erp_db.sections WHERE section_id = ?) " +
+                "GROUP BY c.course_id" + UPSERT_SUFFIX;
+        try (PreparedStatement ps = c.prepareStatement(upsert)) {
+            ps.setLong(1, sectionId);
+            ps.executeUpdate();
+        }
+    }
+
+    /** Rebuild the rows of every course taught (in some section) by an instructor. */
+    public static void refreshCoursesOfInstructor(Connection c, String instructorId) throws SQLException {
+        final String upsert = UPSERT_PREFIX + REBUILD_SELECT +
+                "WHERE c.course_id IN (SELECT course_id FROM erp_db.sections WHERE instructor_id = ?) " +
+                "GROUP BY c.course_id" + UPSERT_SUFFIX;
+        try (PreparedStatement ps = c.prepareStatement(upsert)) {
+            ps.setString(1, instructorId);
+            ps.executeUpdate();
+        }
+    }
+
+    /** Rebuild every row and drop rows of deleted courses (after imports / recounts). */
+    public static void refreshAll(Connection c) throws SQLException {
+        final String upsert = UPSERT_PREFIX + REBUILD_SELECT + "GROUP BY c.course_id" + UPSERT_SUFFIX;
+        try (PreparedStatement ps = c.prepareStatement(upsert)) {
+            ps.executeUpdate();
+        }
+        try (PreparedStatement ps = c.prepareStatement(
+                "DELETE cs FROM erp_db.course_stats cs " +
+                "LEFT JOIN erp_db.courses c ON c.course_id = cs.course_id " +
+                "WHERE c.course_id IS NULL")) {
+            ps.executeUpdate();
+        }
+    }
+}
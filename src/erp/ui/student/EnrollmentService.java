@@ -1,18 +1,23 @@
 package erp.ui.student;
 
 import erp.db.DatabaseConnection;
+import erp.db.SettingsService;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 
 public class EnrollmentService {
 
+    public static final String MSG_REGISTERED =
+            "Successfully registered for the course. Section allocation done by backend.";
+    public static final String MSG_DROPPED = "You have successfully dropped this course.";
+
     public static String registerForCourse(String studentId, String courseId) {
         if (studentId == null || studentId.isBlank()) {
             return "Student ID not available.";
@@ -20,135 +25,62 @@ public class EnrollmentService {
 
         try (Connection c = DatabaseConnection.erp().getConnection()) {
             c.setAutoCommit(false);
-
-            // 🔹 NEW: prevent adding courses after COURSE_DROP_DEADLINE
-            LocalDate deadline = fetchDropDeadline(c);
-            LocalDate today = LocalDate.now();
-            if (deadline != null && today.isAfter(deadline)) {
-                c.rollback();
-                return "The add/drop deadline (" + deadline + ") has passed. "
-                        + "You cannot register for new courses.";
-            }
-
-            // 1) Check duplicate registration in this course
-            final String dupSql = "SELECT COUNT(*) " +
-                    "FROM erp_db.enrollments e " +
-                    "JOIN erp_db.sections s ON e.section_id = s.section_id " +
-                    "WHERE e.student_id = ? " +
-                    "  AND e.status = 'REGISTERED' " +
-                    "  AND s.course_id = ?";
-
-            try (PreparedStatement ps = c.prepareStatement(dupSql)) {
-                ps.setString(1, studentId);
-                ps.setString(2, courseId);
-                try (ResultSet rs = ps.executeQuery()) {
-                    rs.next();
-                    if (rs.getInt(1) > 0) {
-                        c.rollback();
-                        return "You are already registered in this course.";
-                    }
-                }
-            }
-
-            // 2) Total capacity for this course = SUM(sections.capacity)
-            int totalCapacity = 0;
-            final String capSql = "SELECT COALESCE(SUM(capacity), 0) AS total_capacity " +
-                    "FROM erp_db.sections " +
-                    "WHERE course_id = ?";
-            try (PreparedStatement ps = c.prepareStatement(capSql)) {
-                ps.setString(1, courseId);
-                try (ResultSet rs = ps.executeQuery()) {
-                    if (rs.next()) {
-                        totalCapacity = rs.getInt("total_capacity");
-                    }
-                }
-            }
-
-            // 3) Total enrolled in this course (REGISTERED only)
-            int totalEnrolled = 0;
-            final String enrSql = "SELECT COUNT(*) AS enrolled " +
-                    "FROM erp_db.enrollments e " +
-                    "JOIN erp_db.sections s ON s.section_id = e.section_id " +
-                    "WHERE s.course_id = ? " +
-                    "  AND e.status = 'REGISTERED'";
-            try (PreparedStatement ps = c.prepareStatement(enrSql)) {
-                ps.setString(1, courseId);
-                try (ResultSet rs = ps.executeQuery()) {
-                    if (rs.next()) {
-                        totalEnrolled = rs.getInt("enrolled");
-                    }
-                }
-            }
-
-            if (totalCapacity > 0 && totalEnrolled >= totalCapacity) {
-                c.rollback();
-                return "Course capacity is full. You cannot register.";
-            }
-
-            // 4) Pick section with least load that still has free seats
-            Long sectionId = null;
-            final String pickSql = "SELECT s.section_id, s.capacity, " +
-                    "       (SELECT COUNT(*) FROM erp_db.enrollments e " +
-                    "        WHERE e.section_id = s.section_id " +
-                    "          AND e.status = 'REGISTERED') AS enrolled_here " +
-                    "FROM   erp_db.sections s " +
-                    "WHERE  s.course_id = ? " +
-                    "ORDER BY enrolled_here ASC, s.section_id ASC";
-
-            try (PreparedStatement ps = c.prepareStatement(pickSql)) {
-                ps.setString(1, courseId);
-                try (ResultSet rs = ps.executeQuery()) {
-                    while (rs.next()) {
-                        int cap = rs.getInt("capacity");
-                        int here = rs.getInt("enrolled_here");
-                        if (here < cap) {
-                            sectionId = rs.getLong("section_id");
-                            break;
-                        }
-                    }
+            try {
+                String msg = registerInTransaction(c, studentId, courseId, fetchDropDeadline());
+                if (MSG_REGISTERED.equals(msg)) {
+                    c.commit();
+                    CatalogSnapshot.invalidateStudent(studentId);
+                } else {
+                    c.rollback();
                 }
-            }
-
-            if (sectionId == null) {
+                return msg;
+            } catch (SQLException ex) {
                 c.rollback();
-                return "All sections are full. You cannot register.";
+                throw ex;
             }
-
-            // 5) Insert enrollment as REGISTERED
-            final String insSql = "INSERT INTO erp_db.enrollments (student_id, section_id, status) " +
-                    "VALUES (?, ?, 'REGISTERED')";
-            try (PreparedStatement ps = c.prepareStatement(insSql)) {
-                ps.setString(1, studentId);
-                ps.setLong(2, sectionId);
-                ps.executeUpdate();
-            }
-
-            c.commit();
-            return "Successfully registered for the course. Section allocation done by backend.";
         } catch (Exception ex) {
             ex.printStackTrace();
             return "Registration failed: " + ex.getMessage();
         }
     }
 
+    /**
+     * Registration step on a caller-owned transaction (auto-commit off).
+     * Returns the user-facing message; {@link #MSG_REGISTERED} means rows
+     * were written and the caller should commit.
+     */
+    static String registerInTransaction(Connection c, String studentId, String courseId,
+            LocalDate deadline) throws SQLException {
+        // 🔹 NEW: prevent adding courses after COURSE_DROP_DEADLINE
+        LocalDate today = LocalDate.now();
+        if (deadline != null && today.isAfter(deadline)) {
+            return "The add/drop deadline (" + deadline + ") has passed. "
+                    + "You cannot register for new courses.";
+        }
+
+        // Lock the course's seat ledger, allocate a section and insert
+        SeatReservationEngine.Reservation r = SeatReservationEngine.reserve(c, studentId, courseId);
+        return switch (r.outcome()) {
+            case ALREADY_REGISTERED -> "You are already registered in this course.";
+            case COURSE_FULL -> "Course capacity is full. You cannot register.";
+            case ALL_SECTIONS_FULL -> "All sections are full. You cannot register.";
+            case RESERVED -> MSG_REGISTERED;
+        };
+    }
+
     /** Can we drop today? Uses COURSE_DROP_DEADLINE from erp_db.settings. */
     public static boolean canDrop() {
-        try (Connection conn = DatabaseConnection.erp().getConnection()) {
-            LocalDate deadline = fetchDropDeadline(conn);
-            LocalDate today = LocalDate.now();
+        // settings read failures surface as "no deadline" → lenient
+        LocalDate deadline = fetchDropDeadline();
+        LocalDate today = LocalDate.now();
 
-            // If no deadline configured, allow operations
-            if (deadline == null) {
-                return true;
-            }
-
-            // Allow on or before deadline; block strictly after
-            return !today.isAfter(deadline);
-        } catch (SQLException ex) {
-            ex.printStackTrace();
-            // On DB error, be lenient (or change to `false` if you prefer blocking)
+        // If no deadline configured, allow operations
+        if (deadline == null) {
             return true;
         }
+
+        // Allow on or before deadline; block strictly after
+        return !today.isAfter(deadline);
     }
 
     /** Drop a specific enrollment for this student, if before deadline. */
@@ -157,21 +89,67 @@ public class EnrollmentService {
             return "Drop deadline has passed. You cannot drop this section.";
         }
 
-        final String sql = "UPDATE erp_db.enrollments " +
-                "SET status = 'DROPPED' " +
+        // plain read for the course; the locks below go sections first, then the enrollment
+        final String courseSql = "SELECT s.course_id " +
+                "FROM erp_db.enrollments e " +
+                "JOIN erp_db.sections s ON s.section_id = e.section_id " +
+                "WHERE e.enrollment_id = ? " +
+                "  AND e.student_id = ?";
+
+        final String findSql = "SELECT section_id " +
+                "FROM erp_db.enrollments " +
                 "WHERE enrollment_id = ? " +
                 "  AND student_id = ? " +
-                "  AND status = 'REGISTERED'";
-
-        try (Connection c = DatabaseConnection.erp().getConnection();
-                PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setLong(1, enrollmentId);
-            ps.setString(2, studentId);
-            int updated = ps.executeUpdate();
-            if (updated == 0) {
-                return "No active enrollment found to drop.";
+                "  AND status = 'REGISTERED' " +
+                "FOR UPDATE";
+
+        final String sql = "UPDATE erp_db.enrollments " +
+                "SET status = 'DROPPED' " +
+                "WHERE enrollment_id = ?";
+
+        try (Connection c = DatabaseConnection.erp().getConnection()) {
+            c.setAutoCommit(false);
+            try {
+                String courseId;
+                try (PreparedStatement ps = c.prepareStatement(courseSql)) {
+                    ps.setLong(1, enrollmentId);
+                    ps.setString(2, studentId);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (!rs.next()) {
+                            c.rollback();
+                            return "No active enrollment found to drop.";
+                        }
+                        courseId = rs.getString("course_id");
+                    }
+                }
+                SeatReservationEngine.lockCourse(c, courseId);
+
+                long sectionId;
+                try (PreparedStatement ps = c.prepareStatement(findSql)) {
+                    ps.setLong(1, enrollmentId);
+                    ps.setString(2, studentId);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (!rs.next()) {
+                            c.rollback();
+                            return "No active enrollment found to drop.";
+                        }
+                        sectionId = rs.getLong("section_id");
+                    }
+                }
+
+                try (PreparedStatement ps = c.prepareStatement(sql)) {
+                    ps.setLong(1, enrollmentId);
+                    ps.executeUpdate();
+                }
+                SeatReservationEngine.release(c, sectionId, 1);
+
+                c.commit();
+                CatalogSnapshot.invalidateStudent(studentId);
+                return "Section dropped successfully.";
+            } catch (SQLException ex) {
+                c.rollback();
+                throw ex;
             }
-            return "Section dropped successfully.";
         } catch (Exception ex) {
             ex.printStackTrace();
             return "Failed to drop: " + ex.getMessage();
@@ -207,7 +185,7 @@ public class EnrollmentService {
         try (Connection conn = DatabaseConnection.erp().getConnection()) {
 
             // 1) Check deadline (same rule as dropCourse)
-            LocalDate deadline = fetchDropDeadline(conn);
+            LocalDate deadline = fetchDropDeadline();
             LocalDate today = LocalDate.now();
             if (deadline != null && today.isAfter(deadline)) {
                 return false;
@@ -238,61 +216,87 @@ public class EnrollmentService {
 
     public static String dropCourse(String studentId, String courseId) {
         try (Connection conn = DatabaseConnection.erp().getConnection()) {
-
-            // 1) Read global drop deadline from settings (optional but recommended)
-            LocalDate deadline = fetchDropDeadline(conn);
-            LocalDate today = LocalDate.now();
-
-            if (deadline != null && today.isAfter(deadline)) {
-                return "The drop deadline (" + deadline + ") has passed. "
-                        + "You can no longer drop this course.";
-            }
-
-            // 2) Actually drop: delete enrollment rows for this student+course
-            final String sql = "DELETE e FROM erp_db.enrollments e " +
-                    "JOIN erp_db.sections s ON s.section_id = e.section_id " +
-                    "WHERE e.student_id = ? " +
-                    "  AND s.course_id = ? " +
-                    "  AND e.status = 'REGISTERED'";
-
-            try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                ps.setString(1, studentId);
-                ps.setString(2, courseId);
-
-                int deleted = ps.executeUpdate();
-                if (deleted > 0) {
-                    return "You have successfully dropped this course.";
+            conn.setAutoCommit(false);
+            try {
+                // Read global drop deadline from settings (optional but recommended)
+                String msg = dropInTransaction(conn, studentId, courseId, fetchDropDeadline());
+                if (MSG_DROPPED.equals(msg)) {
+                    conn.commit();
+                    CatalogSnapshot.invalidateStudent(studentId);
                 } else {
-                    return "You are not currently enrolled in this course.";
+                    conn.rollback();
                 }
+                return msg;
+            } catch (SQLException ex) {
+                conn.rollback();
+                throw ex;
             }
-
         } catch (SQLException ex) {
             ex.printStackTrace();
             return "Error while dropping course: " + ex.getMessage();
         }
     }
 
-    private static LocalDate fetchDropDeadline(Connection conn) throws SQLException {
-        final String sql = "SELECT setting_value " +
-                "FROM erp_db.settings " +
-                "WHERE setting_key = 'COURSE_DROP_DEADLINE'";
-
-        try (PreparedStatement ps = conn.prepareStatement(sql);
-                ResultSet rs = ps.executeQuery()) {
-
-            if (rs.next()) {
-                String value = rs.getString("setting_value");
-                if (value != null && !value.isBlank()) {
-                    try {
-                        return LocalDate.parse(value.trim(), DateTimeFormatter.ISO_LOCAL_DATE);
-                    } catch (DateTimeParseException ex) {
-                        ex.printStackTrace();
-                    }
+    /**
+     * Drop step on a caller-owned transaction (auto-commit off).
+     * {@link #MSG_DROPPED} means rows were written and the caller should commit.
+     */
+    static String dropInTransaction(Connection conn, String studentId, String courseId,
+            LocalDate deadline) throws SQLException {
+        // 1) Deadline check
+        LocalDate today = LocalDate.now();
+        if (deadline != null && today.isAfter(deadline)) {
+            return "The drop deadline (" + deadline + ") has passed. "
+                    + "You can no longer drop this course.";
+        }
+
+        // 2) Lock the course's seat ledger before any enrollment row, in the
+        //    same order as a registration, so the two cannot deadlock.
+        SeatReservationEngine.lockCourse(conn, courseId);
+
+        // 3) Actually drop: delete enrollment rows for this student+course
+        //    and hand their seats back to the section ledger.
+        final String findSql = "SELECT e.enrollment_id, e.section_id " +
+                "FROM erp_db.enrollments e " +
+                "JOIN erp_db.sections s ON s.section_id = e.section_id " +
+                "WHERE e.student_id = ? " +
+                "  AND s.course_id = ? " +
+                "  AND e.status = 'REGISTERED' " +
+                "FOR UPDATE";
+        final String sql = "DELETE FROM erp_db.enrollments WHERE enrollment_id = ?";
+
+        Map<Long, Integer> seatsBySection = new LinkedHashMap<>();
+        int deleted = 0;
+        try (PreparedStatement find = conn.prepareStatement(findSql);
+                PreparedStatement del = conn.prepareStatement(sql)) {
+            find.setString(1, studentId);
+            find.setString(2, courseId);
+            try (ResultSet rs = find.executeQuery()) {
+                while (rs.next()) {
+                    del.setLong(1, rs.getLong("enrollment_id"));
+                    del.addBatch();
+                    seatsBySection.merge(rs.getLong("section_id"), 1, Integer::sum);
+                    deleted++;
                 }
             }
+            if (deleted > 0) {
+                del.executeBatch();
+            }
+        }
+        for (Map.Entry<Long, Integer> e : seatsBySection.entrySet()) {
+            SeatReservationEngine.release(conn, e.getKey(), e.getValue());
+        }
+
+        if (deleted > 0) {
+            return MSG_DROPPED;
+        } else {
+            return "You are not currently enrolled in this course.";
         }
-        return null;
+    }
+
+    /** COURSE_DROP_DEADLINE from the cached settings snapshot (no DB round-trip on the hot path). */
+    static LocalDate fetchDropDeadline() {
+        return SettingsService.getDropDeadline();
     }
 
 }
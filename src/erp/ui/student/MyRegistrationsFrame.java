@@ -1,7 +1,9 @@
 package erp.ui.student;
 
 import erp.db.DatabaseConnection;
+import erp.ui.common.DataExecutor;
 import erp.ui.common.FontKit;
+import erp.ui.common.LoadingPlaceholder;
 import erp.ui.common.RoundedButton;
 import erp.ui.common.RoundedPanel;
 
@@ -14,8 +16,11 @@ import java.io.FileOutputStream;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 // PDF (example: OpenPDF / iText-style imports; add the JAR to lib/)
 import com.lowagie.text.Document;
@@ -27,7 +32,11 @@ import com.lowagie.text.pdf.PdfWriter;
 
 public class MyRegistrationsFrame extends StudentFrameBase {
 
+    // cards are added a few at a time so the first ones paint straight away
+    private static final int CARDS_PER_SLICE = 6;
+
     private JPanel listPanel;
+    private int showGeneration; // bumps on every showRegistrations; stale slices stop
 
     public MyRegistrationsFrame(String studentId, String userDisplayName) {
         super(studentId, userDisplayName, Page.REGISTRATIONS);
@@ -90,9 +99,45 @@ public class MyRegistrationsFrame extends StudentFrameBase {
             return;
         }
 
+        listPanel.add(new LoadingPlaceholder("Loading your courses…"));
+        listPanel.revalidate();
+        listPanel.repaint();
+
+        final String sid = this.studentId;
+        DataExecutor.load(listPanel,
+                () -> {
+                    try (Connection conn = DatabaseConnection.erp().getConnection()) {
+                        return fetchRegistrations(conn, sid);
+                    }
+                },
+                this::showRegistrations,
+                ex -> {
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(
+                            this,
+                            "Error loading registrations:\n" + ex.getMessage(),
+                            "Database Error",
+                            JOptionPane.ERROR_MESSAGE);
+                    showRegistrations(new ArrayList<>());
+                });
+    }
+
+    /** One registered course plus its component breakdown. */
+    private record RegistrationRow(int enrollmentId, String courseId, String code, String title,
+                                   int credits, String instructor, String dayTime, String room,
+                                   String semester, int year, String finalGrade, String status,
+                                   List<ComponentRow> components) {
+    }
+
+    /**
+     * Registered courses with their component breakdown in two round-trips:
+     * the enrollments, then every component score of those enrollments,
+     * grouped in memory. Runs off the EDT (see loadRegistrations).
+     */
+    private static List<RegistrationRow> fetchRegistrations(Connection conn, String studentId) throws SQLException {
         final String sql = "SELECT e.enrollment_id, e.status, e.final_grade, " +
                 "       c.course_id, c.code, c.title, c.credits, " +
-                "       s.section_id, s.day_time, s.room, s.semester, s.year, " +
+                "       s.day_time, s.room, s.semester, s.year, " +
                 "       i.instructor_name " +
                 "FROM   erp_db.enrollments e " +
                 "JOIN   erp_db.sections s ON s.section_id = e.section_id " +
@@ -102,71 +147,95 @@ public class MyRegistrationsFrame extends StudentFrameBase {
                 "  AND  e.status = 'REGISTERED' " +
                 "ORDER BY s.year, s.semester, c.course_id";
 
-        int count = 0;
-
-        try (Connection conn = DatabaseConnection.erp().getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+        List<RegistrationRow> rows = new ArrayList<>();
 
-            ps.setString(1, this.studentId);
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, studentId);
 
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    int enrollmentId = rs.getInt("enrollment_id");
-                    String courseId = rs.getString("course_id");
-                    String code = rs.getString("code");
-                    String title = rs.getString("title");
-                    int credits = rs.getInt("credits");
-                    int sectionId = rs.getInt("section_id");
-                    String instructor = rs.getString("instructor_name");
-                    String dayTime = rs.getString("day_time");
-                    String room = rs.getString("room");
-                    String semester = rs.getString("semester");
-                    int year = rs.getInt("year");
-                    String finalGrade = rs.getString("final_grade");
-                    String status = rs.getString("status");
-
-                    // Load component rows for this enrollment/section
-                    List<ComponentRow> components = fetchComponentRows(conn, sectionId, enrollmentId);
-
-                    JPanel card = createCourseCard(
-                            enrollmentId,
-                            courseId,
-                            code,
-                            title,
-                            credits,
-                            instructor,
-                            dayTime,
-                            room,
-                            semester,
-                            year,
-                            finalGrade,
-                            status,
-                            components);
-
-                    listPanel.add(card);
-                    listPanel.add(Box.createVerticalStrut(12));
-                    count++;
+                    rows.add(new RegistrationRow(
+                            rs.getInt("enrollment_id"),
+                            rs.getString("course_id"),
+                            rs.getString("code"),
+                            rs.getString("title"),
+                            rs.getInt("credits"),
+                            rs.getString("instructor_name"),
+                            rs.getString("day_time"),
+                            rs.getString("room"),
+                            rs.getString("semester"),
+                            rs.getInt("year"),
+                            rs.getString("final_grade"),
+                            rs.getString("status"),
+                            new ArrayList<>()));
+                }
+            }
+        }
+
+        if (!rows.isEmpty()) {
+            Map<Integer, List<ComponentRow>> byEnrollment = fetchComponentRows(conn, studentId);
+            for (RegistrationRow r : rows) {
+                List<ComponentRow> comps = byEnrollment.get(r.enrollmentId());
+                if (comps != null) {
+                    r.components().addAll(comps);
                 }
             }
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            JOptionPane.showMessageDialog(
-                    this,
-                    "Error loading registrations:\n" + ex.getMessage(),
-                    "Database Error",
-                    JOptionPane.ERROR_MESSAGE);
         }
+        return rows;
+    }
+
+    private void showRegistrations(List<RegistrationRow> rows) {
+        listPanel.removeAll();
+        int generation = ++showGeneration;
 
-        if (count == 0) {
+        if (rows.isEmpty()) {
             JLabel empty = new JLabel("No registrations found for student: " + this.studentId);
             empty.setFont(FontKit.regular(14f));
             empty.setForeground(new Color(100, 116, 139));
             empty.setBorder(new EmptyBorder(16, 8, 0, 0));
             listPanel.add(empty);
+            listPanel.revalidate();
+            listPanel.repaint();
+            return;
+        }
+
+        appendCards(rows, 0, generation);
+    }
+
+    /** Adds one slice of cards, then yields the EDT before the next slice. */
+    private void appendCards(List<RegistrationRow> rows, int from, int generation) {
+        if (generation != showGeneration || !listPanel.isDisplayable()) {
+            return; // reloaded or closed meanwhile
+        }
+
+        int to = Math.min(rows.size(), from + CARDS_PER_SLICE);
+        for (int i = from; i < to; i++) {
+            RegistrationRow r = rows.get(i);
+            JPanel card = createCourseCard(
+                    r.enrollmentId(),
+                    r.courseId(),
+                    r.code(),
+                    r.title(),
+                    r.credits(),
+                    r.instructor(),
+                    r.dayTime(),
+                    r.room(),
+                    r.semester(),
+                    r.year(),
+                    r.finalGrade(),
+                    r.status(),
+                    r.components());
+
+            listPanel.add(card);
+            listPanel.add(Box.createVerticalStrut(12));
         }
 
         listPanel.revalidate();
         listPanel.repaint();
+
+        if (to < rows.size()) {
+            SwingUtilities.invokeLater(() -> appendCards(rows, to, generation));
+        }
     }
 
     /**
@@ -249,26 +318,28 @@ public class MyRegistrationsFrame extends StudentFrameBase {
     }
 
     /**
-     * Fetch component_name, score, weight for one enrollment in a given section.
+     * Component name, weight and score for every REGISTERED enrollment of
+     * a student, keyed by enrollment_id, components in section order.
      *
      * section_components: (id, section_id, component_name, weight)
      * grades: (enrollment_id, component_id, score)
      */
-    private List<ComponentRow> fetchComponentRows(Connection conn, int sectionId, int enrollmentId) {
-        final String sql = "SELECT sc.component_name, sc.weight, g.score " +
-                "FROM   erp_db.section_components sc " +
+    private static Map<Integer, List<ComponentRow>> fetchComponentRows(Connection conn, String studentId)
+            throws SQLException {
+        final String sql = "SELECT e.enrollment_id, sc.component_name, sc.weight, g.score " +
+                "FROM   erp_db.enrollments e " +
+                "JOIN   erp_db.section_components sc ON sc.section_id = e.section_id " +
                 "LEFT JOIN erp_db.grades g " +
                 "       ON g.component_id = sc.id " +
-                "      AND g.enrollment_id = ? " +
-                "WHERE  sc.section_id = ? " +
-                "ORDER BY sc.id";
+                "      AND g.enrollment_id = e.enrollment_id " +
+                "WHERE  e.student_id = ? " +
+                "  AND  e.status = 'REGISTERED' " +
+                "ORDER BY e.enrollment_id, sc.id";
 
-        List<ComponentRow> rows = new ArrayList<>();
+        Map<Integer, List<ComponentRow>> byEnrollment = new HashMap<>();
 
         try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setInt(1, enrollmentId);
-            ps.setInt(2, sectionId);
-
+            ps.setString(1, studentId);
 
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
@@ -280,17 +351,13 @@ public class MyRegistrationsFrame extends StudentFrameBase {
                         name = "Component";
                     }
 
-                    System.out.println("   [ROW] " + name +
-                            " weight=" + weight + " score=" + score);
-
-                    rows.add(new ComponentRow(name, score, weight));
+                    byEnrollment.computeIfAbsent(rs.getInt("enrollment_id"), k -> new ArrayList<>())
+                            .add(new ComponentRow(name, score, weight));
                 }
             }
-        } catch (Exception ex) {
-            ex.printStackTrace();
         }
 
-        return rows;
+        return byEnrollment;
     }
 
     /**
@@ -506,7 +573,7 @@ public class MyRegistrationsFrame extends StudentFrameBase {
 
         File file = chooser.getSelectedFile();
         try (Connection conn = DatabaseConnection.erp().getConnection()) {
-            generateTranscriptPdf(conn, file);
+            generateTranscriptPdf(fetchRegistrations(conn, studentId), file);
             JOptionPane.showMessageDialog(
                     this,
                     "Transcript saved to:\n" + file.getAbsolutePath(),
@@ -522,19 +589,7 @@ public class MyRegistrationsFrame extends StudentFrameBase {
         }
     }
 
-    private void generateTranscriptPdf(Connection conn, File file) throws Exception {
-
-        final String sql = "SELECT e.enrollment_id, e.final_grade, " +
-                "       c.course_id, c.code, c.title, c.credits, " +
-                "       s.section_id, s.semester, s.year, " +
-                "       i.instructor_name " +
-                "FROM   erp_db.enrollments e " +
-                "JOIN   erp_db.sections s ON s.section_id = e.section_id " +
-                "JOIN   erp_db.courses c ON c.course_id = s.course_id " +
-                "LEFT JOIN erp_db.instructors i ON i.instructor_id = s.instructor_id " +
-                "WHERE  e.student_id = ? " +
-                "  AND  e.status = 'REGISTERED' " +
-                "ORDER BY s.year, s.semester, c.course_id";
+    private void generateTranscriptPdf(List<RegistrationRow> rows, File file) throws Exception {
 
         Document doc = new Document();
         FileOutputStream fos = null;
@@ -550,56 +605,39 @@ public class MyRegistrationsFrame extends StudentFrameBase {
             doc.add(new Paragraph(" "));
             doc.add(new Paragraph(" "));
 
-            try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                ps.setString(1, this.studentId);
-                try (ResultSet rs = ps.executeQuery()) {
-                    while (rs.next()) {
-                        int enrollmentId = rs.getInt("enrollment_id");
-                        int sectionId = rs.getInt("section_id");
-
-                        String courseId = rs.getString("course_id");
-                        String code = rs.getString("code");
-                        String title = rs.getString("title");
-                        int credits = rs.getInt("credits");
-                        String semester = rs.getString("semester");
-                        int year = rs.getInt("year");
-                        String instructor = rs.getString("instructor_name");
-                        String finalGrade = rs.getString("final_grade");
-
-                        // Course heading
-                        doc.add(new Paragraph(code + " – " + title));
-                        doc.add(new Paragraph(
-                                "Course ID: " + courseId +
-                                        " | Credits: " + credits +
-                                        " | Term: " + semester + " " + year));
-                        if (instructor != null && !instructor.isBlank()) {
-                            doc.add(new Paragraph("Instructor: " + instructor));
-                        }
-                        doc.add(new Paragraph("Final Grade: " +
-                                (finalGrade == null || finalGrade.isBlank() ? "–" : finalGrade)));
-                        doc.add(new Paragraph(" "));
-
-                        // Component table
-                        PdfPTable table = new PdfPTable(2);
-                        table.setWidthPercentage(100);
-
-                        table.addCell(new PdfPCell(new Paragraph("Component")));
-                        table.addCell(new PdfPCell(new Paragraph("Score / Weight")));
-
-                        List<ComponentRow> comps = fetchComponentRows(conn, sectionId, enrollmentId);
-
-                        for (ComponentRow cr : comps) {
-                            table.addCell(new Paragraph(cr.name));
-                            String scorePart = (cr.score == null) ? "–" : String.valueOf(cr.score);
-                            String weightPart = (cr.weight == null) ? "?" : String.valueOf(cr.weight);
-                            table.addCell(new Paragraph(scorePart + " / " + weightPart));
-                        }
-
-                        doc.add(table);
-                        doc.add(new Paragraph(" "));
-                        doc.add(new Paragraph(" "));
-                    }
+            for (RegistrationRow r : rows) {
+                String finalGrade = r.finalGrade();
+
+                // Course heading
+                doc.add(new Paragraph(r.code() + " – " + r.title()));
+                doc.add(new Paragraph(
+                        "Course ID: " + r.courseId() +
+                                " | Credits: " + r.credits() +
+                                " | Term: " + r.semester() + " " + r.year()));
+                if (r.instructor() != null && !r.instructor().isBlank()) {
+                    doc.add(new Paragraph("Instructor: " + r.instructor()));
+                }
+                doc.add(new Paragraph("Final Grade: " +
+                        (finalGrade == null || finalGrade.isBlank() ? "–" : finalGrade)));
+                doc.add(new Paragraph(" "));
+
+                // Component table
+                PdfPTable table = new PdfPTable(2);
+                table.setWidthPercentage(100);
+
+                table.addCell(new PdfPCell(new Paragraph("Component")));
+                table.addCell(new PdfPCell(new Paragraph("Score / Weight")));
+
+                for (ComponentRow cr : r.components()) {
+                    table.addCell(new Paragraph(cr.name));
+                    String scorePart = (cr.score == null) ? "–" : String.valueOf(cr.score);
+                    String weightPart = (cr.weight == null) ? "?" : String.valueOf(cr.weight);
+                    table.addCell(new Paragraph(scorePart + " / " + weightPart));
                 }
+
+                doc.add(table);
+                doc.add(new Paragraph(" "));
+                doc.add(new Paragraph(" "));
             }
 
         } finally {
@@ -0,0 +1,200 @@
+package erp.ui.student;
+
+import erp.db.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission queue for register / drop requests during the registration rush.
+ *
+ * Instead of every click opening its own transaction, requests are parked
+ * per course and a small set of workers drains them in batches: one pooled
+ * connection and one transaction per course batch, so the section locks
+ * taken by {@link SeatReservationEngine} are acquired once per batch
+ * rather than once per student.
+ *
+ * Ordering:
+ *  - within a course, requests are applied strictly in arrival order;
+ *  - courses are served round-robin in the order they became ready, and a
+ *    course with more than {@code erp.regQueue.batch} waiting requests goes
+ *    back to the tail after each batch, so one hot course cannot starve the rest.
+ *
+ * Each request runs behind a savepoint, so one failing student does not
+ * undo the rest of the batch. Results are delivered through the returned
+ * future only after the batch has committed.
+ *
+ * Tuning (system properties):
+ *   erp.regQueue.workers  (default 4, keep below erp.maxPool)
+ *   erp.regQueue.batch    (default 64)
+ */
+public final class RegistrationQueue {
+
+    public enum Kind {
+        REGISTER,
+        DROP
+    }
+
+    private record Request(Kind kind, String studentId, String courseId, CompletableFuture<String> result) {
+    }
+
+    private static final RegistrationQueue INSTANCE = new RegistrationQueue(
+            Integer.getInteger("erp.regQueue.workers", 4),
+            Integer.getInteger("erp.regQueue.batch", 64));
+
+    public static RegistrationQueue get() {
+        return INSTANCE;
+    }
+
+    private final int maxBatch;
+    private final ExecutorService workers;
+
+    // guarded by lock
+    private final Object lock = new Object();
+    private final Map<String, ArrayDeque<Request>> pendingByCourse = new HashMap<>();
+    private final Set<String> scheduled = new HashSet<>();
+
+    private RegistrationQueue(int workerCount, int maxBatch) {
+        this.maxBatch = Math.max(1, maxBatch);
+        AtomicInteger n = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, workerCount), r -> {
+            Thread t = new Thread(r, "registration-queue-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // ---------- public API ----------
+
+    public CompletableFuture<String> submitRegister(String studentId, String courseId) {
+        return submit(Kind.REGISTER, studentId, courseId);
+    }
+
+    public CompletableFuture<String> submitDrop(String studentId, String courseId) {
+        return submit(Kind.DROP, studentId, courseId);
+    }
+
+    public CompletableFuture<String> submit(Kind kind, String studentId, String courseId) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        if (studentId == null || studentId.isBlank()) {
+            result.complete("Student ID not available.");
+            return result;
+        }
+
+        boolean schedule;
+        synchronized (lock) {
+            pendingByCourse.computeIfAbsent(courseId, k -> new ArrayDeque<>())
+                    .addLast(new Request(kind, studentId, courseId, result));
+            schedule = scheduled.add(courseId);
+        }
+        if (schedule) {
+            workers.execute(() -> drain(courseId));
+        }
+        return result;
+    }
+
+    /** Number of requests waiting (not yet picked up by a worker). */
+    public int pendingCount() {
+        synchronized (lock) {
+            int n = 0;
+            for (ArrayDeque<Request> q : pendingByCourse.values()) {
+                n += q.size();
+            }
+            return n;
+        }
+    }
+
+    // ---------- worker side ----------
+
+    private void drain(String courseId) {
+        List<Request> batch = new ArrayList<>();
+        synchronized (lock) {
+            ArrayDeque<Request> q = pendingByCourse.get(courseId);
+            while (q != null && !q.isEmpty() && batch.size() < maxBatch) {
+                batch.add(q.pollFirst());
+            }
+        }
+
+        try {
+            if (!batch.isEmpty()) {
+                runBatch(batch);
+            }
+        } finally {
+            boolean again;
+            synchronized (lock) {
+                ArrayDeque<Request> q = pendingByCourse.get(courseId);
+                again = q != null && !q.isEmpty();
+                if (!again) {
+                    pendingByCourse.remove(courseId);
+                    scheduled.remove(courseId);
+                }
+            }
+            if (again) {
+                // back to the tail, behind courses that were already waiting
+                workers.execute(() -> drain(courseId));
+            }
+        }
+    }
+
+    private void runBatch(List<Request> batch) {
+        String[] messages = new String[batch.size()];
+
+        try (Connection c = DatabaseConnection.erp().getConnection()) {
+            c.setAutoCommit(false);
+            try {
+                LocalDate deadline = EnrollmentService.fetchDropDeadline();
+
+                for (int i = 0; i < batch.size(); i++) {
+                    Request r = batch.get(i);
+                    Savepoint sp = c.setSavepoint();
+                    try {
+                        messages[i] = (r.kind() == Kind.REGISTER)
+                                ? EnrollmentService.registerInTransaction(c, r.studentId(), r.courseId(), deadline)
+                                : EnrollmentService.dropInTransaction(c, r.studentId(), r.courseId(), deadline);
+                        c.releaseSavepoint(sp);
+                    } catch (SQLException ex) {
+                        ex.printStackTrace();
+                        c.rollback(sp);
+                        messages[i] = failureMessage(r.kind(), ex);
+                    }
+                }
+
+                c.commit();
+                for (Request r : batch) {
+                    CatalogSnapshot.invalidateStudent(r.studentId());
+                }
+            } catch (SQLException ex) {
+                c.rollback();
+                throw ex;
+            }
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            for (int i = 0; i < batch.size(); i++) {
+                messages[i] = failureMessage(batch.get(i).kind(), ex);
+            }
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result().complete(messages[i]);
+        }
+    }
+
+    private static String failureMessage(Kind kind, Exception ex) {
+        return (kind == Kind.REGISTER)
+                ? "Registration failed: " + ex.getMessage()
+                : "Error while dropping course: " + ex.getMessage();
+    }
+}
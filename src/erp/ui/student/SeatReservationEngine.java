@@ -0,0 +1,222 @@
+package erp.ui.student;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Seat allocation for course registration.
+ *
+ * Every section carries a {@code seats_taken} counter next to its
+ * {@code capacity}. A reservation locks the course's section rows with
+ * {@code SELECT ... FOR UPDATE} (always in section_id order, so two
+ * registrations for the same course queue up instead of deadlocking),
+ * picks the least-loaded section from the locked counters, writes the
+ * enrollment and bumps the counter (and the course summary in
+ * {@link CourseStats}) — all inside the caller's transaction.
+ *
+ * Because the decision is taken on locked rows, concurrent registrations
+ * can never push a section past its capacity, and no step has to scan
+ * {@code enrollments} to count seats.
+ *
+ * All methods expect a connection with auto-commit turned off; committing
+ * or rolling back is left to the caller.
+ */
+public final class SeatReservationEngine {
+
+    private SeatReservationEngine() {
+    }
+
+    public enum Outcome {
+        RESERVED,
+        ALREADY_REGISTERED,
+        COURSE_FULL,
+        ALL_SECTIONS_FULL
+    }
+
+    /** Result of a reservation attempt; sectionId is only set when RESERVED. */
+    public record Reservation(Outcome outcome, Long sectionId) {
+    }
+
+    /** Row of the locked seat ledger for one section. */
+    private record SeatRow(long sectionId, int capacity, int taken) {
+        boolean hasFreeSeat() {
+            return taken < capacity;
+        }
+    }
+
+    /**
+     * Reserve one seat for {@code studentId} in some section of {@code courseId}.
+     * Holds row locks on the course's sections until the caller commits.
+     */
+    public static Reservation reserve(Connection c, String studentId, String courseId) throws SQLException {
+        // 1) Lock the seat ledger for this course
+        List<SeatRow> rows = lockSections(c, courseId);
+
+        // 2) Duplicate check — safe now, a parallel attempt by the same
+        //    student waits on the locks above.
+        Set<Long> droppedSectionIds = new HashSet<>();
+        final String dupSql = "SELECT e.section_id, e.status " +
+                "FROM erp_db.enrollments e " +
+                "JOIN erp_db.sections s ON s.section_id = e.section_id " +
+                "WHERE e.student_id = ? " +
+                "  AND s.course_id = ?";
+        try (PreparedStatement ps = c.prepareStatement(dupSql)) {
+            ps.setString(1, studentId);
+            ps.setString(2, courseId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if ("REGISTERED".equalsIgnoreCase(rs.getString("status"))) {
+                        return new Reservation(Outcome.ALREADY_REGISTERED, null);
+                    }
+                    droppedSectionIds.add(rs.getLong("section_id"));
+                }
+            }
+        }
+
+        // 3) Course-level capacity check from the locked counters
+        int totalCapacity = 0;
+        int totalTaken = 0;
+        for (SeatRow r : rows) {
+            totalCapacity += r.capacity();
+            totalTaken += r.taken();
+        }
+        if (totalCapacity > 0 && totalTaken >= totalCapacity) {
+            return new Reservation(Outcome.COURSE_FULL, null);
+        }
+
+        // 4) Least-loaded section that still has a free seat
+        SeatRow pick = null;
+        for (SeatRow r : rows) {
+            if (!r.hasFreeSeat()) {
+                continue;
+            }
+            if (pick == null || r.taken() < pick.taken()) {
+                pick = r;
+            }
+        }
+        if (pick == null) {
+            return new Reservation(Outcome.ALL_SECTIONS_FULL, null);
+        }
+
+        // 5) Write the enrollment. A DROPPED row for the same section is
+        //    re-activated, since (student_id, section_id) is unique.
+        if (droppedSectionIds.contains(pick.sectionId())) {
+            final String reSql = "UPDATE erp_db.enrollments " +
+                    "SET status = 'REGISTERED', final_grade = NULL " +
+                    "WHERE student_id = ? AND section_id = ?";
+            try (PreparedStatement ps = c.prepareStatement(reSql)) {
+                ps.setString(1, studentId);
+                ps.setLong(2, pick.sectionId());
+                ps.executeUpdate();
+            }
+        } else {
+            final String insSql = "INSERT INTO erp_db.enrollments (student_id, section_id, status) " +
+                    "VALUES (?, ?, 'REGISTERED')";
+            try (PreparedStatement ps = c.prepareStatement(insSql)) {
+                ps.setString(1, studentId);
+                ps.setLong(2, pick.sectionId());
+                ps.executeUpdate();
+            }
+        }
+
+        // 6) Take the seat
+        final String takeSql = "UPDATE erp_db.sections " +
+                "SET seats_taken = seats_taken + 1 " +
+                "WHERE section_id = ?";
+        try (PreparedStatement ps = c.prepareStatement(takeSql)) {
+            ps.setLong(1, pick.sectionId());
+            ps.executeUpdate();
+        }
+        CourseStats.adjustRegistered(c, courseId, 1);
+
+        return new Reservation(Outcome.RESERVED, pick.sectionId());
+    }
+
+    /**
+     * Lock the seat ledger of {@code courseId} without reserving anything.
+     * Paths that drop enrollments take this before touching enrollment
+     * rows (sections first, then enrollments, the same order as
+     * {@link #reserve}), so a drop and a registration for the same course
+     * queue up instead of deadlocking.
+     */
+    public static void lockCourse(Connection c, String courseId) throws SQLException {
+        lockSections(c, courseId);
+    }
+
+    /** Give back {@code seats} seats in a section (never goes below zero). */
+    public static void release(Connection c, long sectionId, int seats) throws SQLException {
+        if (seats <= 0) {
+            return;
+        }
+        final String sql = "UPDATE erp_db.sections " +
+                "SET seats_taken = GREATEST(seats_taken - ?, 0) " +
+                "WHERE section_id = ?";
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setInt(1, seats);
+            ps.setLong(2, sectionId);
+            ps.executeUpdate();
+        }
+        CourseStats.adjustRegisteredForSection(c, sectionId, -seats);
+    }
+
+    /**
+     * Recompute the counter of one section from enrollments. Used by paths
+     * that edit enrollments directly (admin screens), so the ledger heals
+     * itself instead of drifting.
+     */
+    public static void recountSection(Connection c, long sectionId) throws SQLException {
+        final String sql = "UPDATE erp_db.sections s " +
+                "SET s.seats_taken = (SELECT COUNT(*) FROM erp_db.enrollments e " +
+                "                     WHERE e.section_id = s.section_id " +
+                "                       AND e.status = 'REGISTERED') " +
+                "WHERE s.section_id = ?";
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setLong(1, sectionId);
+            ps.executeUpdate();
+        }
+        CourseStats.refreshCourseOfSection(c, sectionId);
+    }
+
+    /** Recompute every section's counter and the course summaries (after bulk imports). */
+    public static int recountAll(Connection c) throws SQLException {
+        final String sql = "UPDATE erp_db.sections s " +
+                "SET s.seats_taken = (SELECT COUNT(*) FROM erp_db.enrollments e " +
+                "                     WHERE e.section_id = s.section_id " +
+                "                       AND e.status = 'REGISTERED')";
+        int n;
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            n = ps.executeUpdate();
+        }
+        CourseStats.refreshAll(c);
+        return n;
+    }
+
+    // ---------- helpers ----------
+
+    private static List<SeatRow> lockSections(Connection c, String courseId) throws SQLException {
+        final String sql = "SELECT section_id, COALESCE(capacity, 0) AS capacity, seats_taken " +
+                "FROM erp_db.sections " +
+                "WHERE course_id = ? " +
+                "ORDER BY section_id " +
+                "FOR UPDATE";
+        List<SeatRow> rows = new ArrayList<>();
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, courseId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new SeatRow(
+                            rs.getLong("section_id"),
+                            rs.getInt("capacity"),
+                            rs.getInt("seats_taken")));
+                }
+            }
+        }
+        return rows;
+    }
+}
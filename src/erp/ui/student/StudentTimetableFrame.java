@@ -2,6 +2,7 @@
 package erp.ui.student;
 
 import erp.db.DatabaseConnection;
+import erp.ui.common.DataExecutor;
 import erp.ui.common.FontKit;
 
 import javax.swing.*;
@@ -10,7 +11,10 @@ import java.awt.*;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 public class StudentTimetableFrame extends StudentFrameBase {
@@ -135,6 +139,33 @@ public class StudentTimetableFrame extends StudentFrameBase {
             }
         }
 
+        // The empty grid doubles as the loading placeholder
+        gridPanel.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+
+        final String sid = this.studentId;
+        DataExecutor.load(gridPanel,
+                () -> fetchClasses(sid),
+                classes -> {
+                    gridPanel.setCursor(Cursor.getDefaultCursor());
+                    placeClasses(cellMap, classes);
+                },
+                ex -> {
+                    gridPanel.setCursor(Cursor.getDefaultCursor());
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(
+                            this,
+                            "Error loading timetable:\n" + ex.getMessage(),
+                            "Timetable Error",
+                            JOptionPane.ERROR_MESSAGE
+                    );
+                });
+    }
+
+    private record ClassSlot(String title, String code, String dayTime, String room) {
+    }
+
+    /** Runs off the EDT (see loadTimetable). */
+    private static List<ClassSlot> fetchClasses(String studentId) throws SQLException {
         String sql =
                 "SELECT c.title, c.code, s.day_time, s.room " +
                 "FROM erp_db.enrollments e " +
@@ -142,51 +173,49 @@ public class StudentTimetableFrame extends StudentFrameBase {
                 "JOIN erp_db.courses c ON c.course_id = s.course_id " +
                 "WHERE e.student_id = ? AND e.status = 'REGISTERED'";
 
+        List<ClassSlot> classes = new ArrayList<>();
         try (Connection conn = DatabaseConnection.erp().getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
-            ps.setString(1, this.studentId);
+            ps.setString(1, studentId);
 
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    String title   = rs.getString("title");  // full name
-                    String code    = rs.getString("code");   // short acronym
-                    String dayTime = rs.getString("day_time"); // e.g. "Mon 09:00-10:30"
-                    String room    = rs.getString("room");
-
-                    if (dayTime == null) continue;
-                    String[] parts = dayTime.trim().split("\\s+");
-                    if (parts.length < 2) continue;
-
-                    String dayToken  = parts[0];        // "Mon"
-                    String slotToken = parts[1];        // "09:00-10:30"
-
-                    String dayFull = mapDay(dayToken);  // "Monday"
-                    Map<String, JPanel> row = cellMap.get(slotToken);
-                    if (row == null) {
-                        // time slot not in our fixed list, skip
-                        continue;
-                    }
-
-                    JPanel cell = row.get(dayFull);
-                    if (cell == null) {
-                        continue;
-                    }
-
-                    cell.add(buildClassCard(code, title, room));
-                    cell.add(Box.createVerticalStrut(4));
+                    classes.add(new ClassSlot(
+                            rs.getString("title"),     // full name
+                            rs.getString("code"),      // short acronym
+                            rs.getString("day_time"),  // e.g. "Mon 09:00-10:30"
+                            rs.getString("room")));
                 }
             }
+        }
+        return classes;
+    }
+
+    private void placeClasses(Map<String, Map<String, JPanel>> cellMap, List<ClassSlot> classes) {
+        for (ClassSlot c : classes) {
+            String dayTime = c.dayTime();
+            if (dayTime == null) continue;
+            String[] parts = dayTime.trim().split("\\s+");
+            if (parts.length < 2) continue;
+
+            String dayToken  = parts[0];        // "Mon"
+            String slotToken = parts[1];        // "09:00-10:30"
+
+            String dayFull = mapDay(dayToken);  // "Monday"
+            Map<String, JPanel> row = cellMap.get(slotToken);
+            if (row == null) {
+                // time slot not in our fixed list, skip
+                continue;
+            }
+
+            JPanel cell = row.get(dayFull);
+            if (cell == null) {
+                continue;
+            }
 
-        } 
-        catch (Exception ex) {
-            ex.printStackTrace();
-            JOptionPane.showMessageDialog(
-                    this,
-                    "Error loading timetable:\n" + ex.getMessage(),
-                    "Timetable Error",
-                    JOptionPane.ERROR_MESSAGE
-            );
+            cell.add(buildClassCard(c.code(), c.title(), c.room()));
+            cell.add(Box.createVerticalStrut(4));
         }
 
         gridPanel.revalidate();